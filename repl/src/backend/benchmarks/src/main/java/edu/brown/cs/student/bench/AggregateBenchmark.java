@@ -0,0 +1,108 @@
+package edu.brown.cs.student.bench;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.Aggregate;
+import edu.brown.cs.student.main.csv.search.AggregateResult;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This AggregateBenchmark class measures grouping the income by race census CSV by Race and
+ * computing count, sum, average and maximum income per group, repeated until it has about 320
+ * thousand and about 10 million rows. CsvSearcher's primitive accumulators are compared with a
+ * HashMap from each cell's text to its group's boxed totals, parsing the income of every row.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class AggregateBenchmark {
+
+  @Param({"1000", "31000"})
+  public int copies;
+
+  private List<List<String>> rows;
+  private CsvSearcher searcher;
+  private List<Aggregate> aggregates;
+
+  /**
+   * Parses the census CSV, repeats its data rows, and aggregates it once so that its column types
+   * and dictionary are ready, as they are after the first request of a load.
+   *
+   * @throws Exception if the CSV cannot be read or aggregated
+   */
+  @Setup
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new InputStreamReader(
+                AggregateBenchmark.class.getResourceAsStream(
+                    "/data/census/income_by_race_edited.csv"),
+                StandardCharsets.UTF_8),
+            new ListStringFromRow());
+    parser.parseCsv();
+    List<List<String>> census = parser.getStoreRows();
+    rows = new ArrayList<>(1 + (census.size() - 1) * copies);
+    rows.add(census.get(0));
+    for (int i = 0; i < copies; i++) {
+      rows.addAll(census.subList(1, census.size()));
+    }
+    searcher = new CsvSearcher(rows);
+    aggregates = Aggregate.parseList("count,sum(4),avg(4),max(4)");
+    searcher.aggregate(true, List.of("Race"), aggregates);
+  }
+
+  /**
+   * Groups by Race with CsvSearcher, from dictionary codes into primitive arrays.
+   *
+   * @return the aggregates of each group
+   * @throws Exception if the aggregation fails
+   */
+  @Benchmark
+  public AggregateResult primitiveAccumulators() throws Exception {
+    return searcher.aggregate(true, List.of("Race"), aggregates);
+  }
+
+  /**
+   * Groups by Race with a HashMap from each Race to its count, sum and maximum, parsing incomes
+   * from their text.
+   *
+   * @return the count, sum and maximum of each group
+   */
+  @Benchmark
+  public Map<String, List<Long>> boxedHashMap() {
+    Map<String, List<Long>> groups = new HashMap<>();
+    for (List<String> row : rows.subList(1, rows.size())) {
+      long income = Long.parseLong(row.get(4));
+      List<Long> totals =
+          groups.computeIfAbsent(row.get(1), race -> new ArrayList<>(List.of(0L, 0L, 0L)));
+      totals.set(0, totals.get(0) + 1);
+      totals.set(1, totals.get(1) + income);
+      totals.set(2, Math.max(totals.get(2), income));
+    }
+    return groups;
+  }
+}
@@ -0,0 +1,127 @@
+package edu.brown.cs.student.bench;
+
+import java.util.Random;
+
+/**
+ * This CsvGenerator class builds synthetic CSV text for the benchmarks, in a handful of shapes that
+ * stress different parts of parsing and searching. Generation is seeded, so every run of a
+ * benchmark sees exactly the same data.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class CsvGenerator {
+
+  /** The shapes of CSV data the generator can produce. */
+  public enum Shape {
+    /** Few rows with many columns: 2,000 rows of 200 columns. */
+    WIDE(2_000, 200),
+    /** Many rows with few columns: 100,000 rows of 8 columns. */
+    TALL(100_000, 8),
+    /** Every other cell quoted and containing commas, like the census money columns. */
+    QUOTED(50_000, 6),
+    /** Nearly every cell distinct. */
+    HIGH_CARDINALITY(100_000, 6),
+    /** Every column drawn from only ten distinct values. */
+    LOW_CARDINALITY(100_000, 6);
+
+    private final int rows;
+    private final int columns;
+
+    Shape(int rows, int columns) {
+      this.rows = rows;
+      this.columns = columns;
+    }
+
+    /**
+     * Returns the number of data rows, not counting the header row.
+     *
+     * @return the number of data rows
+     */
+    public int rows() {
+      return rows;
+    }
+
+    /**
+     * Returns the number of columns in every row.
+     *
+     * @return the number of columns
+     */
+    public int columns() {
+      return columns;
+    }
+  }
+
+  private static final String[] TOWNS = {
+    "Barrington", "Bristol", "Burrillville", "Central Falls", "Charlestown",
+    "Coventry", "Cranston", "Cumberland", "East Greenwich", "East Providence"
+  };
+
+  private CsvGenerator() {}
+
+  /**
+   * Generates CSV text of the given shape. The first row is a header row naming the columns col0,
+   * col1, and so on.
+   *
+   * @param shape the Shape of data to generate
+   * @return the CSV text, with rows separated by \n
+   */
+  public static String generate(Shape shape) {
+    Random random = new Random(32);
+    StringBuilder csv = new StringBuilder(shape.rows() * shape.columns() * 10);
+    for (int col = 0; col < shape.columns(); col++) {
+      csv.append(col == 0 ? "" : ",").append("col").append(col);
+    }
+    for (int row = 0; row < shape.rows(); row++) {
+      csv.append('\n');
+      for (int col = 0; col < shape.columns(); col++) {
+        if (col > 0) {
+          csv.append(',');
+        }
+        csv.append(cell(shape, random, row, col));
+      }
+    }
+    return csv.toString();
+  }
+
+  /**
+   * Returns a value that appears in the given column of the data generate(shape) returns, taken
+   * from the middle row, for benchmarks that need a search value known to match.
+   *
+   * @param shape the Shape of data generated
+   * @param column the column to take the value from
+   * @return a value present in that column
+   */
+  public static String valueIn(Shape shape, int column) {
+    String csv = generate(shape);
+    String[] lines = csv.split("\n", shape.rows() / 2 + 2);
+    String middle = lines[shape.rows() / 2];
+    return middle.split(",(?=([^\"]*\"[^\"]*\")*(?![^\"]*\"))")[column];
+  }
+
+  /**
+   * Generates a single cell.
+   *
+   * @param shape the Shape of data being generated
+   * @param random the seeded Random to draw values from
+   * @param row the index of the data row
+   * @param col the index of the column
+   * @return the text of the cell, quoted if the shape calls for it
+   */
+  private static String cell(Shape shape, Random random, int row, int col) {
+    switch (shape) {
+      case QUOTED:
+        if (col % 2 == 1) {
+          return "\"" + String.format("%,d.%02d", random.nextInt(1_000_000), random.nextInt(100))
+              + "\"";
+        }
+        return TOWNS[random.nextInt(TOWNS.length)] + "-" + row;
+      case HIGH_CARDINALITY:
+        return Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+      case LOW_CARDINALITY:
+        return TOWNS[random.nextInt(TOWNS.length)];
+      default:
+        return col == 0 ? "r" + row : Integer.toString(random.nextInt(100_000));
+    }
+  }
+}
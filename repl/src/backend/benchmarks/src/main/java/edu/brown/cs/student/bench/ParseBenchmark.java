@@ -0,0 +1,58 @@
+package edu.brown.cs.student.bench;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This ParseBenchmark class measures how long CsvParser takes to parse each shape of synthetic CSV
+ * produced by CsvGenerator, from text in memory into rows of List of String.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+  @Param({"WIDE", "TALL", "QUOTED", "HIGH_CARDINALITY", "LOW_CARDINALITY"})
+  public CsvGenerator.Shape shape;
+
+  private String csv;
+
+  /** Generates the CSV text once per trial, so generation is not measured. */
+  @Setup
+  public void setup() {
+    csv = CsvGenerator.generate(shape);
+  }
+
+  /**
+   * Parses the whole CSV.
+   *
+   * @return the parsed rows, so the work cannot be optimized away
+   * @throws Exception if parsing fails
+   */
+  @Benchmark
+  public List<List<String>> parse() throws Exception {
+    CsvParser<List<String>> parser = new CsvParser<>(new StringReader(csv), new ListStringFromRow());
+    parser.parseCsv();
+    return parser.getStoreRows();
+  }
+}
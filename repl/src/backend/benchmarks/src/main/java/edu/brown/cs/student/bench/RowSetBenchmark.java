@@ -0,0 +1,175 @@
+package edu.brown.cs.student.bench;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.PostingsIndex;
+import edu.brown.cs.student.main.csv.search.QueryPlan;
+import edu.brown.cs.student.main.csv.search.RowSet;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This RowSetBenchmark class measures combining search postings as RowSets, against the same rows
+ * as sorted int arrays and as boxed lists, on the income by race census CSV. The census file only
+ * has a few hundred rows, so it is also repeated a thousand times over to see how each layout
+ * scales to a dataset the size the server is meant to hold.
+ *
+ * <p>The postings are for Race=Asian, Year=2020 and Race=Total, from the column PostingsIndexes;
+ * the plan benchmark runs the whole query Race=Asian AND Year>=2019 AND NOT Race=Total.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowSetBenchmark {
+
+  @Param({"1", "1000"})
+  public int copies;
+
+  private RowSet asian;
+  private RowSet year;
+  private RowSet total;
+  private int[] asianArray;
+  private int[] yearArray;
+  private List<Integer> asianList;
+  private List<Integer> yearList;
+  private int rowCount;
+  private CsvSearcher searcher;
+  private QueryPlan plan;
+
+  /**
+   * Parses the census CSV, repeats its data rows, and builds the postings being combined.
+   *
+   * @throws Exception if the CSV cannot be read or the query planned
+   */
+  @Setup
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new InputStreamReader(
+                RowSetBenchmark.class.getResourceAsStream("/data/census/income_by_race_edited.csv"),
+                StandardCharsets.UTF_8),
+            new ListStringFromRow());
+    parser.parseCsv();
+    List<List<String>> census = parser.getStoreRows();
+    List<List<String>> rows = new ArrayList<>(1 + (census.size() - 1) * copies);
+    rows.add(census.get(0));
+    for (int i = 0; i < copies; i++) {
+      rows.addAll(census.subList(1, census.size()));
+    }
+    rowCount = rows.size();
+
+    PostingsIndex race = PostingsIndex.build(rows, 1);
+    PostingsIndex years = PostingsIndex.build(rows, 3);
+    asian = race.rows("Asian");
+    year = years.rows("2020");
+    total = race.rows("Total");
+    asianArray = asian.toArray();
+    yearArray = year.toArray();
+    asianList = new ArrayList<>(Arrays.stream(asianArray).boxed().toList());
+    yearList = new ArrayList<>(Arrays.stream(yearArray).boxed().toList());
+
+    searcher = new CsvSearcher(rows);
+    plan = searcher.plan(true, "Race=Asian AND Year>=2019 AND NOT Race=Total");
+  }
+
+  /**
+   * Intersects two postings as RowSets.
+   *
+   * @return the intersection
+   */
+  @Benchmark
+  public RowSet andRowSets() {
+    return asian.and(year);
+  }
+
+  /**
+   * Intersects two postings as sorted int arrays, with a linear merge.
+   *
+   * @return the intersection
+   */
+  @Benchmark
+  public int[] andSortedArrays() {
+    int[] out = new int[Math.min(asianArray.length, yearArray.length)];
+    int i = 0;
+    int j = 0;
+    int n = 0;
+    while (i < asianArray.length && j < yearArray.length) {
+      if (asianArray[i] < yearArray[j]) {
+        i++;
+      } else if (asianArray[i] > yearArray[j]) {
+        j++;
+      } else {
+        out[n++] = asianArray[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(out, n);
+  }
+
+  /**
+   * Intersects two postings as boxed lists, with a HashSet of one of them.
+   *
+   * @return the intersection
+   */
+  @Benchmark
+  public List<Integer> andBoxedLists() {
+    List<Integer> out = new ArrayList<>(asianList);
+    out.retainAll(new HashSet<>(yearList));
+    return out;
+  }
+
+  /**
+   * Unites two postings as RowSets.
+   *
+   * @return the union
+   */
+  @Benchmark
+  public RowSet orRowSets() {
+    return asian.or(year);
+  }
+
+  /**
+   * Finds every data row not in one posting, which as a RowSet is a run container minus the
+   * posting.
+   *
+   * @return the complement
+   */
+  @Benchmark
+  public RowSet complementRowSet() {
+    return RowSet.range(1, rowCount).andNot(total);
+  }
+
+  /**
+   * Runs a whole planned query, whose intermediate results are all RowSets.
+   *
+   * @return the matching row indexes
+   */
+  @Benchmark
+  public int[] executePlan() {
+    return plan.execute();
+  }
+}
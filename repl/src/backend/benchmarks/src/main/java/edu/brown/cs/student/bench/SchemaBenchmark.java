@@ -0,0 +1,99 @@
+package edu.brown.cs.student.bench;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.table.Schema;
+import edu.brown.cs.student.main.server.CsvDataWrapper;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This SchemaBenchmark class measures the setup a /searchcsv request does before it reads any
+ * rows: getting a searcher and finding the searched column. It compares constructing a searcher
+ * and scanning the header row per request, as the handler once did, with the loaded data's shared
+ * searcher and its precomputed Schema.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaBenchmark {
+
+  @Param({"WIDE", "TALL"})
+  public CsvGenerator.Shape shape;
+
+  private List<List<String>> rows;
+  private CsvDataWrapper csvData;
+  private String colId;
+
+  /**
+   * Parses the CSV and loads it once per trial, and picks the last column's header, the slowest
+   * for a scan of the header row to find.
+   *
+   * @throws Exception if parsing fails
+   */
+  @Setup
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(new StringReader(CsvGenerator.generate(shape)), new ListStringFromRow());
+    parser.parseCsv();
+    rows = parser.getStoreRows();
+    csvData = new CsvDataWrapper(rows, true);
+    colId = "col" + (shape.columns() - 1);
+  }
+
+  /**
+   * Constructs a searcher and finds the column with a regex check and a scan of the header row,
+   * the way every request used to.
+   *
+   * @return the index of the column
+   */
+  @Benchmark
+  public int perRequestSetup() {
+    CsvSearcher searcher = new CsvSearcher(rows);
+    boolean colIdIsNum = colId.matches("^-?\\d+$");
+    return colIdIsNum ? Integer.parseInt(colId) : rows.get(0).indexOf(colId) + hash(searcher);
+  }
+
+  /**
+   * Gets the loaded data's searcher and finds the column in its Schema, the way requests do now.
+   *
+   * @return the index of the column
+   */
+  @Benchmark
+  public int precomputedSetup() {
+    CsvSearcher searcher = csvData.getSearcher();
+    Schema schema = searcher.schema();
+    return Schema.isColumnIndex(colId)
+        ? Integer.parseInt(colId)
+        : schema.columnIndex(colId) + hash(searcher);
+  }
+
+  /**
+   * Keeps the searcher from being optimized away, without adding to the measured time.
+   *
+   * @param searcher the searcher of a request
+   * @return 0
+   */
+  private static int hash(CsvSearcher searcher) {
+    return searcher == null ? 1 : 0;
+  }
+}
@@ -0,0 +1,119 @@
+package edu.brown.cs.student.bench;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.ColumnIndexes;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.MatchMode;
+import edu.brown.cs.student.main.csv.table.TypedTable;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This SearchBenchmark class measures how long CsvSearcher takes to search parsed synthetic CSV
+ * data, both in a single column named by its header and across all columns, and how a substring
+ * search using the column's trigram index compares with checking every cell with String.contains.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+  @Param({"WIDE", "TALL", "HIGH_CARDINALITY", "LOW_CARDINALITY"})
+  public CsvGenerator.Shape shape;
+
+  private List<List<String>> rows;
+  private String value;
+  private String substring;
+  private CsvSearcher searcher;
+  private CsvSearcher indexed;
+
+  /**
+   * Parses the CSV once per trial and picks a search value known to be in column 1, along with a
+   * substring of it. Like the server, every search shares one searcher of the data. The trigram index of column 1 is built here too, as it would be by the first
+   * substring search after a load.
+   *
+   * @throws Exception if parsing fails
+   */
+  @Setup
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(new StringReader(CsvGenerator.generate(shape)), new ListStringFromRow());
+    parser.parseCsv();
+    rows = parser.getStoreRows();
+    value = CsvGenerator.valueIn(shape, 1);
+    substring = MatchMode.fold(value).substring(1, Math.min(value.length(), 6));
+    searcher = new CsvSearcher(rows);
+    indexed = new CsvSearcher(rows, new ColumnIndexes(rows, TypedTable.infer(rows)));
+    indexed.search(true, substring, "col1", MatchMode.CONTAINS);
+  }
+
+  /**
+   * Searches column col1 by header name.
+   *
+   * @return the matching rows
+   * @throws Exception if the search fails
+   */
+  @Benchmark
+  public List<List<String>> searchOneColumn() throws Exception {
+    return searcher.search(true, value, "col1");
+  }
+
+  /**
+   * Searches every column.
+   *
+   * @return the matching rows
+   * @throws Exception if the search fails
+   */
+  @Benchmark
+  public List<List<String>> searchAllColumns() throws Exception {
+    return searcher.search(true, value, "*");
+  }
+
+  /**
+   * Searches column col1 for cells containing a substring, checking only the candidate rows from
+   * its trigram index.
+   *
+   * @return the matching rows
+   * @throws Exception if the search fails
+   */
+  @Benchmark
+  public List<List<String>> searchContainsIndexed() throws Exception {
+    return indexed.search(true, substring, "col1", MatchMode.CONTAINS);
+  }
+
+  /**
+   * Searches column col1 for cells containing a substring by checking every cell, for comparison.
+   *
+   * @return the matching rows
+   */
+  @Benchmark
+  public List<List<String>> searchContainsScan() {
+    List<List<String>> matches = new ArrayList<>();
+    for (List<String> row : rows.subList(1, rows.size())) {
+      if (MatchMode.fold(row.get(1)).contains(substring)) {
+        matches.add(row);
+      }
+    }
+    return matches;
+  }
+}
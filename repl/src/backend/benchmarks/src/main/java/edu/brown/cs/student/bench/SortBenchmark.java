@@ -0,0 +1,111 @@
+package edu.brown.cs.student.bench;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.SortedPage;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This SortBenchmark class measures fetching a page of 100 rows of the income by race census CSV,
+ * sorted by income in descending order, repeated until it has about 32 thousand and about 320
+ * thousand rows. A page read from the RowOrder kept after the first sort is compared with sorting a
+ * copy of the rows for every request, and with a first sort spilled to disk by an ExternalSort.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SortBenchmark {
+  private static final String INCOME = "Household Income by Race";
+  private static final int OFFSET = 1000;
+  private static final int LIMIT = 100;
+
+  @Param({"100", "1000"})
+  public int copies;
+
+  private List<List<String>> rows;
+  private CsvSearcher searcher;
+
+  /**
+   * Parses the census CSV, repeats its data rows, and sorts it once so that its RowOrder is kept,
+   * as it is after the first request of a load.
+   *
+   * @throws Exception if the CSV cannot be read or sorted
+   */
+  @Setup
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new InputStreamReader(
+                SortBenchmark.class.getResourceAsStream("/data/census/income_by_race_edited.csv"),
+                StandardCharsets.UTF_8),
+            new ListStringFromRow());
+    parser.parseCsv();
+    List<List<String>> census = parser.getStoreRows();
+    rows = new ArrayList<>(1 + (census.size() - 1) * copies);
+    rows.add(census.get(0));
+    for (int i = 0; i < copies; i++) {
+      rows.addAll(census.subList(1, census.size()));
+    }
+    searcher = new CsvSearcher(rows);
+    searcher.sort(true, INCOME, true, OFFSET, LIMIT, Long.MAX_VALUE);
+  }
+
+  /**
+   * Reads a page from the kept RowOrder.
+   *
+   * @return the page of sorted rows
+   * @throws Exception if the sort fails
+   */
+  @Benchmark
+  public SortedPage cachedOrder() throws Exception {
+    return searcher.sort(true, INCOME, true, OFFSET, LIMIT, Long.MAX_VALUE);
+  }
+
+  /**
+   * Copies and sorts every data row by its parsed income, then takes the page.
+   *
+   * @return the page of sorted rows
+   */
+  @Benchmark
+  public List<List<String>> sortPerRequest() {
+    List<List<String>> sorted = new ArrayList<>(rows.subList(1, rows.size()));
+    sorted.sort(
+        Comparator.comparingLong((List<String> row) -> Long.parseLong(row.get(4))).reversed());
+    return new ArrayList<>(sorted.subList(OFFSET, OFFSET + LIMIT));
+  }
+
+  /**
+   * Sorts the rows for the first time with no memory budget, so every run is spilled to disk and
+   * merged, then reads the page from the merged file.
+   *
+   * @return the page of sorted rows
+   * @throws Exception if the sort fails
+   */
+  @Benchmark
+  public SortedPage firstExternalSort() throws Exception {
+    return new CsvSearcher(rows).sort(true, INCOME, true, OFFSET, LIMIT, 0);
+  }
+}
@@ -0,0 +1,80 @@
+package edu.brown.cs.student.main.server;
+
+import edu.brown.cs.student.bench.CsvGenerator;
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This SerializeBenchmark class measures how long the handlers take to serialize their success
+ * responses to Json: the whole table for /viewcsv, and a tenth of it for /searchcsv. It lives in the
+ * server package because the responses' serialize methods are package-private.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializeBenchmark {
+
+  @Param({"WIDE", "TALL", "QUOTED"})
+  public CsvGenerator.Shape shape;
+
+  private List<List<String>> rows;
+  private List<List<String>> matches;
+
+  /**
+   * Parses the CSV once per trial, and picks every tenth row as the search result to serialize.
+   *
+   * @throws Exception if parsing fails
+   */
+  @Setup
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(new StringReader(CsvGenerator.generate(shape)), new ListStringFromRow());
+    parser.parseCsv();
+    rows = parser.getStoreRows();
+    matches = new ArrayList<>();
+    for (int i = 1; i < rows.size(); i += 10) {
+      matches.add(rows.get(i));
+    }
+  }
+
+  /**
+   * Serializes a /viewcsv response containing every row.
+   *
+   * @return the Json response
+   */
+  @Benchmark
+  public String serializeView() {
+    return new ViewCsvHandler.ViewSuccessResponse(rows).serialize();
+  }
+
+  /**
+   * Serializes a /searchcsv response containing a tenth of the rows.
+   *
+   * @return the Json response
+   */
+  @Benchmark
+  public String serializeSearch() {
+    return new SearchCsvHandler.SearchSuccessResponse("value", "true", "col1", matches).serialize();
+  }
+}
@@ -0,0 +1,31 @@
+package edu.brown.cs.student.main.csv.parse;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This CsvParseEvent class is a JDK Flight Recorder event committed by CsvParser every time it
+ * parses a CSV, recording how long parsing took and how many rows and bytes were read. With a
+ * recording running, it shows how much of a slow /loadcsv was spent parsing.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+@Name("edu.brown.cs.student.CsvParse")
+@Label("CSV Parse")
+@Category({"REPL", "CSV"})
+@Description("Parsing of a CSV into rows by CsvParser")
+@StackTrace(false)
+public class CsvParseEvent extends Event {
+  @Label("Rows")
+  long rows;
+
+  @Label("Bytes")
+  @DataAmount
+  long bytes;
+}
@@ -1,12 +1,14 @@
 package edu.brown.cs.student.main.csv.parse;
 
 import edu.brown.cs.student.main.creator.CreatorFromRow;
+import edu.brown.cs.student.main.csv.stats.TableProfiler;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.regex.Pattern;
 
 /**
@@ -15,6 +17,9 @@ import java.util.regex.Pattern;
  * class has methods parseCSV, which parses the CSV from these fields and getStoreRows, which allows
  * a user to get the parsed CSV information.
  *
+ * <p>A parser constructed to profile also feeds every row to a TableProfiler as it is parsed, so
+ * the statistics of each column are gathered without reading the CSV a second time.
+ *
  * @author sarahridley juliazdzilowska prlakshm
  * @version 2.0
  */
@@ -23,6 +28,8 @@ public class CsvParser<T> {
   private final CreatorFromRow<T> creatorFromRow;
   private final Pattern regexSplitCsvRow;
   private final List<T> storeRows;
+  private final boolean profile;
+  private TableProfiler profiler;
 
   /**
    * Constructor for the CSVParser class.
@@ -31,10 +38,22 @@ public class CsvParser<T> {
    * @param creatorFromRow an object that defines how the CSVParser converts each row into an object
    */
   public CsvParser(Reader givenReader, CreatorFromRow<T> creatorFromRow) {
+    this(givenReader, creatorFromRow, false);
+  }
+
+  /**
+   * Constructor for the CSVParser class, optionally profiling the columns while parsing.
+   *
+   * @param givenReader a Reader object to be wrapped in a BufferedReader to read the CSV
+   * @param creatorFromRow an object that defines how the CSVParser converts each row into an object
+   * @param profile whether to gather the statistics of each column into a TableProfiler
+   */
+  public CsvParser(Reader givenReader, CreatorFromRow<T> creatorFromRow, boolean profile) {
     this.buffReader = new BufferedReader(givenReader);
     this.creatorFromRow = creatorFromRow;
     this.regexSplitCsvRow = Pattern.compile(",(?=([^\\\"]*\\\"[^\\\"]*\\\")*(?![^\\\"]*\\\"))");
     this.storeRows = new ArrayList<>();
+    this.profile = profile;
   }
 
   /**
@@ -46,16 +65,29 @@ public class CsvParser<T> {
    */
   public void parseCsv() throws FactoryFailureException, IOException {
     List<T> csvData = new ArrayList<>();
+    TableProfiler columnStats = profile ? new TableProfiler() : null;
+    CsvParseEvent event = new CsvParseEvent();
+    event.begin();
     try {
+      long bytesRead = 0;
       String line = buffReader.readLine();
       while (line != null) {
-        String[] result = regexSplitCsvRow.split(line);
-        T dataCreated = creatorFromRow.create(List.of(result));
+        // Count the line terminator too, assuming single-byte characters and \n line endings
+        bytesRead += line.length() + 1;
+        List<String> cells = List.of(regexSplitCsvRow.split(line));
+        if (columnStats != null) {
+          columnStats.add(cells);
+        }
+        T dataCreated = creatorFromRow.create(cells);
         csvData.add(dataCreated);
         line = buffReader.readLine();
       }
       storeRows.clear();
       storeRows.addAll(csvData);
+      profiler = columnStats;
+      event.rows = csvData.size();
+      event.bytes = bytesRead;
+      event.commit();
     } catch (FactoryFailureException ffe) {
       throw new FactoryFailureException(ffe.getMessage(), ffe.row);
     } catch (IOException ioe) {
@@ -72,4 +104,14 @@ public class CsvParser<T> {
   public List<T> getStoreRows() {
     return Collections.unmodifiableList(storeRows);
   }
+
+  /**
+   * A getter method for the statistics of each column gathered by the last call to parseCsv.
+   *
+   * @return the TableProfiler of the parsed rows, or empty if this parser does not profile or has
+   *     not parsed yet
+   */
+  public Optional<TableProfiler> getProfiler() {
+    return Optional.ofNullable(profiler);
+  }
 }
@@ -0,0 +1,102 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This record represents one aggregate to compute for each group of rows, such as count, or
+ * avg(Income). Aggregates are written as a function name, optionally followed by a column in
+ * parentheses; every function but count needs a numeric column.
+ *
+ * @param function the Function to compute
+ * @param column the column identifier the function reads, or null for count of rows
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public record Aggregate(Function function, String column) {
+
+  /** The functions an Aggregate can compute. */
+  public enum Function {
+    /** The number of rows in the group, or of its non-empty cells in a column. */
+    COUNT,
+    /** The sum of a numeric column. */
+    SUM,
+    /** The mean of a numeric column, ignoring empty cells. */
+    AVG,
+    /** The smallest value of a numeric or date column. */
+    MIN,
+    /** The largest value of a numeric or date column. */
+    MAX
+  }
+
+  /**
+   * Parses one aggregate, such as count, count(Race) or sum(Income).
+   *
+   * @param text the text of the aggregate
+   * @return the Aggregate
+   * @throws SearchException if the function is unknown, or needs a column that is not given
+   */
+  public static Aggregate parse(String text) throws SearchException {
+    String trimmed = text.strip();
+    int open = trimmed.indexOf('(');
+    String name = open < 0 ? trimmed : trimmed.substring(0, open).strip();
+    String column = null;
+    if (open >= 0) {
+      if (!trimmed.endsWith(")")) {
+        throw new SearchException("Aggregate " + text + " is missing a closing parenthesis");
+      }
+      column = trimmed.substring(open + 1, trimmed.length() - 1).strip();
+    }
+    Function function;
+    try {
+      function = Function.valueOf(name.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new SearchException(
+          "Unknown aggregate " + name + ". Valid aggregates are count, sum, avg, min and max.");
+    }
+    if (function != Function.COUNT && (column == null || column.isEmpty())) {
+      throw new SearchException("Aggregate " + name + " needs a column, such as " + name + "(1)");
+    }
+    return new Aggregate(function, column == null || column.isEmpty() ? null : column);
+  }
+
+  /**
+   * Parses a comma-separated list of aggregates, such as count,avg(Income). Commas inside
+   * parentheses do not separate aggregates.
+   *
+   * @param text the text of the list
+   * @return the Aggregates, in order
+   * @throws SearchException if any aggregate cannot be parsed
+   */
+  public static List<Aggregate> parseList(String text) throws SearchException {
+    List<Aggregate> aggregates = new ArrayList<>();
+    int depth = 0;
+    int start = 0;
+    for (int i = 0; i <= text.length(); i++) {
+      char c = i < text.length() ? text.charAt(i) : ',';
+      if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (c == ',' && depth == 0) {
+        aggregates.add(parse(text.substring(start, i)));
+        start = i + 1;
+      }
+    }
+    if (depth != 0) {
+      throw new SearchException("Aggregates " + text + " have unbalanced parentheses");
+    }
+    return aggregates;
+  }
+
+  /**
+   * Returns the name of this aggregate's result column, such as count or avg(Income).
+   *
+   * @return the label of this aggregate
+   */
+  public String label() {
+    String name = function.name().toLowerCase(Locale.ROOT);
+    return column == null ? name : name + "(" + column + ")";
+  }
+}
@@ -0,0 +1,20 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.util.List;
+
+/**
+ * This record holds the result of grouping rows and aggregating each group: one row per group, in
+ * the order each group first appears in the CSV, holding the group's value of every group-by column
+ * and then every aggregate.
+ *
+ * <p>Group values are the cells' original text, or null for rows too short to have the column.
+ * Counts are Longs, sums, minimums and maximums are Longs for whole-number columns and Doubles
+ * otherwise, averages are Doubles, and minimums and maximums of date columns are ISO dates. An
+ * aggregate of a group with no values in its column is null.
+ *
+ * @param columns the names of the result columns: the group-by columns, then the aggregate labels
+ * @param rows the result rows, one per group
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public record AggregateResult(List<String> columns, List<List<Object>> rows) {}
@@ -0,0 +1,214 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This BkTree class is a Burkhard-Keller tree over the distinct folded values of one column, for
+ * finding every value within some edit distance of a misspelled search value.
+ *
+ * <p>Each node holds a value, and its children are keyed by their Levenshtein distance from it.
+ * Since edit distance is a metric, a value within k edits of the query can only be under a child
+ * whose key is within k of the node's own distance from the query, so a search only descends into
+ * those children. For small k this compares the query with a small fraction of the values, rather
+ * than with every cell.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class BkTree {
+  private final Node root;
+  private final int size;
+
+  /**
+   * A record representing one value found by a search.
+   *
+   * @param value the folded value
+   * @param distance its edit distance from the query
+   * @param rows the RowSet of rows whose cell folds to the value
+   */
+  public record Match(String value, int distance, RowSet rows) {}
+
+  /**
+   * A record representing the result of a search.
+   *
+   * @param matches the values found, closest first
+   * @param comparisons how many values the query was compared with
+   */
+  public record Result(List<Match> matches, int comparisons) {}
+
+  /** A value in the tree, and the children at each distance from it. */
+  private static final class Node {
+    private final String value;
+    private final RowSet rows;
+    private int[] distances = new int[0];
+    private Node[] children = new Node[0];
+
+    /**
+     * The constructor for a Node.
+     *
+     * @param value the folded value
+     * @param rows the rows whose cell folds to it
+     */
+    Node(String value, RowSet rows) {
+      this.value = value;
+      this.rows = rows;
+    }
+
+    /**
+     * Returns the child at a distance from this node, if there is one.
+     *
+     * @param distance the distance
+     * @return the child, or null
+     */
+    Node child(int distance) {
+      for (int i = 0; i < distances.length; i++) {
+        if (distances[i] == distance) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Adds a child at a distance with no child yet.
+     *
+     * @param distance the distance
+     * @param child the new child
+     */
+    void addChild(int distance, Node child) {
+      distances = Arrays.copyOf(distances, distances.length + 1);
+      children = Arrays.copyOf(children, children.length + 1);
+      distances[distances.length - 1] = distance;
+      children[children.length - 1] = child;
+    }
+  }
+
+  /**
+   * The constructor for the BkTree class, only called by build.
+   *
+   * @param root the root Node, or null if the tree is empty
+   * @param size the number of values in the tree
+   */
+  private BkTree(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Builds the BkTree of a column from its PostingsIndex. Cells that fold to the same value, such
+   * as Durham and "DURHAM", share one node, whose RowSet is the union of theirs.
+   *
+   * @param postings the PostingsIndex of the column
+   * @return the BkTree of the column's folded values
+   */
+  public static BkTree build(PostingsIndex postings) {
+    Map<String, RowSet> folded = new HashMap<>();
+    postings.forEach((cell, rows) -> folded.merge(MatchMode.fold(cell), rows, RowSet::or));
+    // Insert in a fixed order, so the tree's shape does not depend on hash order
+    List<String> values = new ArrayList<>(folded.keySet());
+    values.sort(null);
+    Node root = null;
+    for (String value : values) {
+      Node node = new Node(value, folded.get(value));
+      if (root == null) {
+        root = node;
+        continue;
+      }
+      Node parent = root;
+      while (true) {
+        int distance = distance(value, parent.value);
+        Node child = parent.child(distance);
+        if (child == null) {
+          parent.addChild(distance, node);
+          break;
+        }
+        parent = child;
+      }
+    }
+    return new BkTree(root, values.size());
+  }
+
+  /**
+   * Finds every value within maxDistance edits of a query.
+   *
+   * @param query the folded query
+   * @param maxDistance the most edits a match may be from the query
+   * @return the Result, with matches sorted by distance and then value
+   */
+  public Result search(String query, int maxDistance) {
+    List<Match> matches = new ArrayList<>();
+    int comparisons = 0;
+    Deque<Node> pending = new ArrayDeque<>();
+    if (root != null) {
+      pending.push(root);
+    }
+    while (!pending.isEmpty()) {
+      Node node = pending.pop();
+      int distance = distance(query, node.value);
+      comparisons++;
+      if (distance <= maxDistance) {
+        matches.add(new Match(node.value, distance, node.rows));
+      }
+      for (int i = 0; i < node.distances.length; i++) {
+        if (Math.abs(node.distances[i] - distance) <= maxDistance) {
+          pending.push(node.children[i]);
+        }
+      }
+    }
+    matches.sort(
+        (a, b) ->
+            a.distance() != b.distance()
+                ? Integer.compare(a.distance(), b.distance())
+                : a.value().compareTo(b.value()));
+    return new Result(matches, comparisons);
+  }
+
+  /**
+   * Returns the number of distinct values in the tree.
+   *
+   * @return the number of values
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Computes the Levenshtein distance between two strings: the fewest single-character inserts,
+   * deletes and substitutions turning one into the other. Uses two rows of the usual dynamic
+   * programming table.
+   *
+   * @param a one string
+   * @param b the other string
+   * @return the edit distance
+   */
+  public static int distance(String a, String b) {
+    if (a.length() < b.length()) {
+      String swap = a;
+      a = b;
+      b = swap;
+    }
+    int[] previous = new int[b.length() + 1];
+    int[] current = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= a.length(); i++) {
+      current[0] = i;
+      char c = a.charAt(i - 1);
+      for (int j = 1; j <= b.length(); j++) {
+        int substitute = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+        current[j] = Math.min(substitute, Math.min(previous[j], current[j - 1]) + 1);
+      }
+      int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+    return previous[b.length()];
+  }
+}
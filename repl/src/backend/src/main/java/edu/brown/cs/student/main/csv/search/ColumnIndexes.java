@@ -0,0 +1,198 @@
+package edu.brown.cs.student.main.csv.search;
+
+import edu.brown.cs.student.main.csv.stats.TableProfiler;
+import edu.brown.cs.student.main.csv.table.TypedTable;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * This ColumnIndexes class holds the search indexes of one loaded CSV. Indexes are built lazily,
+ * the first time a search needs one, and then kept until a new CSV is loaded and replaces this
+ * object, so columns that are never range-searched never pay for an index.
+ *
+ * <p>Concurrent searches may ask for the same index at once; it is only built once, and the other
+ * searches wait for it.
+ *
+ * <p>The RowOrder sorting the rows by a column is kept here too, for each direction, so paging
+ * through sorted rows only sorts them once per load. Since a sort can spill to disk and take far
+ * longer than building an index, it is built outside the map's lock, so only searches waiting for
+ * the same sort wait for it.
+ *
+ * <p>When the CSV was profiled as it was parsed, its TableProfiler is kept alongside the indexes,
+ * so the QueryPlanner can rule out comparisons from column statistics without building any index.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class ColumnIndexes {
+  private final List<List<String>> rows;
+  private final TypedTable table;
+  private final TableProfiler profiler;
+  private final Map<Integer, SortedIndex> sortedIndexes;
+  private final Map<Integer, PostingsIndex> postingsIndexes;
+  private final Map<Integer, TrigramIndex> trigramIndexes;
+  private final Map<Integer, BkTree> bkTrees;
+  private final Map<Integer, DictionaryColumn> dictionaries;
+  private final Map<OrderKey, FutureTask<RowOrder>> orders;
+
+  /**
+   * A record identifying one sort of the rows: the column, the direction, whether a header is left
+   * out, and the memory budget deciding whether it was spilled.
+   *
+   * @param col the index of the column sorted by
+   * @param descending whether the largest values come first
+   * @param start the first row sorted
+   * @param memoryBudget the most bytes of heap sorting in memory could take
+   */
+  private record OrderKey(int col, boolean descending, int start, long memoryBudget) {}
+
+  /**
+   * The constructor for the ColumnIndexes class, which builds no indexes yet.
+   *
+   * @param rows the rows of the loaded CSV to index
+   * @param table the TypedTable inferred from those rows
+   */
+  public ColumnIndexes(List<List<String>> rows, TypedTable table) {
+    this(rows, table, null);
+  }
+
+  /**
+   * The constructor for the ColumnIndexes class, with the column statistics of the rows.
+   *
+   * @param rows the rows of the loaded CSV to index
+   * @param table the TypedTable inferred from those rows
+   * @param profiler the TableProfiler of those rows, or null if they were not profiled
+   */
+  public ColumnIndexes(List<List<String>> rows, TypedTable table, TableProfiler profiler) {
+    this.rows = rows;
+    this.table = table;
+    this.profiler = profiler;
+    this.sortedIndexes = new ConcurrentHashMap<>();
+    this.postingsIndexes = new ConcurrentHashMap<>();
+    this.trigramIndexes = new ConcurrentHashMap<>();
+    this.bkTrees = new ConcurrentHashMap<>();
+    this.dictionaries = new ConcurrentHashMap<>();
+    this.orders = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the TypedTable these indexes are built from.
+   *
+   * @return the indexed TypedTable
+   */
+  public TypedTable table() {
+    return table;
+  }
+
+  /**
+   * Returns the rows these indexes are built from.
+   *
+   * @return the indexed rows
+   */
+  List<List<String>> rows() {
+    return rows;
+  }
+
+  /**
+   * Returns the column statistics of the indexed rows.
+   *
+   * @return the TableProfiler, or empty if the rows were not profiled
+   */
+  public Optional<TableProfiler> profiler() {
+    return Optional.ofNullable(profiler);
+  }
+
+  /**
+   * Returns the SortedIndex of a numeric or date column, building it if this is the first time it
+   * is needed.
+   *
+   * @param col the index of the column
+   * @return the SortedIndex of that column
+   * @throws IllegalArgumentException if the column is not numeric
+   */
+  public SortedIndex sorted(int col) {
+    return sortedIndexes.computeIfAbsent(col, c -> SortedIndex.build(table.column(c)));
+  }
+
+  /**
+   * Returns the PostingsIndex of a column, building it if this is the first time it is needed.
+   *
+   * @param col the index of the column
+   * @return the PostingsIndex of that column
+   */
+  public PostingsIndex postings(int col) {
+    return postingsIndexes.computeIfAbsent(col, c -> PostingsIndex.build(rows, c));
+  }
+
+  /**
+   * Returns the TrigramIndex of a column, building it if this is the first time it is needed.
+   *
+   * @param col the index of the column
+   * @return the TrigramIndex of that column
+   */
+  public TrigramIndex trigrams(int col) {
+    return trigramIndexes.computeIfAbsent(col, c -> TrigramIndex.build(rows, c));
+  }
+
+  /**
+   * Returns the BkTree of a column's folded values, building it, and the column's PostingsIndex, if
+   * this is the first time it is needed.
+   *
+   * @param col the index of the column
+   * @return the BkTree of that column
+   */
+  public BkTree bkTree(int col) {
+    return bkTrees.computeIfAbsent(col, c -> BkTree.build(postings(c)));
+  }
+
+  /**
+   * Returns the DictionaryColumn of a column, building it, and the column's PostingsIndex, if this
+   * is the first time it is needed.
+   *
+   * @param col the index of the column
+   * @return the DictionaryColumn of that column
+   */
+  public DictionaryColumn dictionary(int col) {
+    return dictionaries.computeIfAbsent(col, c -> DictionaryColumn.build(postings(c), rows.size()));
+  }
+
+  /**
+   * Returns the RowOrder sorting the rows by a column, building it if this is the first time it is
+   * needed. A sort that would take more than memoryBudget bytes of heap is spilled to disk. Sorts
+   * with different budgets are kept apart, since only some of them may have been spilled.
+   *
+   * @param col the index of the column
+   * @param descending whether the largest values come first
+   * @param start the first row to sort, 1 to leave out a header
+   * @param memoryBudget the most bytes of heap an in-memory sort may take
+   * @return the RowOrder of that column and direction
+   * @throws java.io.UncheckedIOException if a spilled sort cannot be written
+   */
+  public RowOrder order(int col, boolean descending, int start, long memoryBudget) {
+    OrderKey key = new OrderKey(col, descending, start, memoryBudget);
+    FutureTask<RowOrder> task =
+        new FutureTask<>(() -> RowOrder.build(this, col, descending, start, memoryBudget));
+    FutureTask<RowOrder> existing = orders.putIfAbsent(key, task);
+    if (existing == null) {
+      existing = task;
+      task.run();
+    }
+    try {
+      return existing.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a sort", e);
+    } catch (ExecutionException e) {
+      // A failed sort is forgotten, so a later request can try it again
+      orders.remove(key, existing);
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw (Error) e.getCause();
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package edu.brown.cs.student.main.csv.search;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This CsvScanEvent class is a JDK Flight Recorder event committed by CsvSearcher every time it
+ * scans rows for a search value, recording how long the scan took, which column was searched, and
+ * how many rows were scanned and matched.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+@Name("edu.brown.cs.student.CsvScan")
+@Label("CSV Scan")
+@Category({"REPL", "CSV"})
+@Description("Scan of CSV rows for a search value by CsvSearcher")
+@StackTrace(false)
+public class CsvScanEvent extends Event {
+  @Label("Column")
+  String column;
+
+  @Label("Rows Scanned")
+  long rowsScanned;
+
+  @Label("Matches")
+  long matches;
+}
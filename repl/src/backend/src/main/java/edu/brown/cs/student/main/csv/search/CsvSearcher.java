@@ -1,28 +1,98 @@
 package edu.brown.cs.student.main.csv.search;
 
+import edu.brown.cs.student.main.csv.table.CellParser;
+import edu.brown.cs.student.main.csv.table.ColumnType;
+import edu.brown.cs.student.main.csv.table.Schema;
+import edu.brown.cs.student.main.csv.table.TypedColumn;
+import edu.brown.cs.student.main.csv.table.TypedTable;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * This class is the CsvSearcher class, which is called by the main run function. Constructed with a
  * CsvParser object, an object of the CsvSearcher class can search the csvRows from the CsvParser's
  * methods parseCsv and getStoreRows to find rows with the given search criteria.
  *
+ * <p>Besides exact matches, numeric and date columns can be searched for a Range of values. Range
+ * searches use the SortedIndex of the column from a ColumnIndexes object, so they take a binary
+ * search and a contiguous copy rather than a pass over every row.
+ *
+ * <p>Values can also be matched ignoring case, as a prefix or substring of cells, or as a regex,
+ * with a MatchMode. Those searches narrow the rows to check with each column's TrigramIndex first,
+ * and regex searches are stopped if they run past a time budget. Fuzzy searches find misspelled
+ * values from each column's BkTree, ranking rows by how many edits away they are.
+ *
+ * <p>Exact searches check every row, which for large CSVs is split across the threads of a
+ * ParallelScan. A search given a PageRequest instead returns one page of its matches, picked by a
+ * TopN that stops checking rows once the page is full, or keeps only the best ranked rows in a
+ * bounded heap when the page is ordered by a column.
+ *
+ * <p>Compound queries combining comparisons with AND, OR and NOT are parsed by the QueryParser,
+ * planned into a QueryPlan by the QueryPlanner, and then executed.
+ *
+ * <p>Rows can also be grouped by the values of some columns, with Aggregates such as counts and
+ * averages computed for each group by a GroupBy.
+ *
+ * <p>Rows can be sorted by a column a page at a time, from a RowOrder kept per column and
+ * direction, which an ExternalSort spills to disk when sorting in memory would exceed a budget. Two
+ * CSVs can be joined on a column of each with a HashJoin.
+ *
  * @author sarahridley juliazdzilowska
  * @version 1.0
  */
 public class CsvSearcher {
+  /** How long a regex search may take, in milliseconds, before it is stopped. */
+  public static final long REGEX_BUDGET_MILLIS = 1000;
+
+  /** The most edits a fuzzy search may allow, past which nearly every value would match. */
+  public static final int MAX_FUZZY_DISTANCE = 3;
+
+  /** How many rows a scan must cover before it is split across the threads of a ParallelScan. */
+  public static final int PARALLEL_SCAN_THRESHOLD = 50_000;
 
   private final List<List<String>> csvRows;
+  private final int parallelThreshold;
+  private ColumnIndexes indexes;
+  private Schema schema;
 
   /**
-   * Constructor for the CsvSearcher class.
+   * Constructor for the CsvSearcher class. Column types are only inferred, and indexes built, if a
+   * range search is made.
    *
    * @param csvData List of List of String, representing the CSV data
    */
   public CsvSearcher(List<List<String>> csvData) {
+    this(csvData, null);
+  }
+
+  /**
+   * Constructor for the CsvSearcher class, sharing indexes that were already made for the data.
+   *
+   * @param csvData List of List of String, representing the CSV data
+   * @param indexes the ColumnIndexes of csvData, or null to create them when first needed
+   */
+  public CsvSearcher(List<List<String>> csvData, ColumnIndexes indexes) {
+    this(csvData, indexes, PARALLEL_SCAN_THRESHOLD);
+  }
+
+  /**
+   * Constructor for the CsvSearcher class, with the number of rows past which scans that no index
+   * can answer run in parallel.
+   *
+   * @param csvData List of List of String, representing the CSV data
+   * @param indexes the ColumnIndexes of csvData, or null to create them when first needed
+   * @param parallelThreshold the fewest rows a scan must cover to run in parallel
+   */
+  public CsvSearcher(List<List<String>> csvData, ColumnIndexes indexes, int parallelThreshold) {
     this.csvRows = csvData;
+    this.indexes = indexes;
+    this.parallelThreshold = parallelThreshold;
   }
 
   /**
@@ -39,8 +109,8 @@ public class CsvSearcher {
     int colIndex;
     if (!colIdIsNum) {
       // If the column ID is not numeric, treat it as a column name and find its index
-      List<String> headers = csvRows.get(0);
-      colIndex = headers.indexOf(colId);
+      List<String> headers = schema().headers();
+      colIndex = schema().columnIndex(colId);
       if (colIndex == -1) {
         throw new IndexOutOfBoundsException(
             "Column identifier "
@@ -54,7 +124,7 @@ public class CsvSearcher {
     } else {
       // Otherwise, use convert the column ID into a number
       colIndex = Integer.parseInt(colId);
-      int firstRowLength = csvRows.get(0).size();
+      int firstRowLength = schema().headers().size();
       if (colIndex >= firstRowLength) {
         throw new IndexOutOfBoundsException(
             "Column index "
@@ -76,14 +146,19 @@ public class CsvSearcher {
    */
   private List<List<String>> searchAllCols(boolean hasHeaders, String searchValue) {
     int start = hasHeaders ? 1 : 0;
-    List<List<String>> resultsData = new ArrayList<>();
-    for (List<String> row : csvRows.subList(start, csvRows.size())) {
-      for (String item : row) {
-        if (item.equals(searchValue)) {
-          resultsData.add(row);
-        }
-      }
-    }
+    CsvScanEvent event = new CsvScanEvent();
+    event.begin();
+    List<List<String>> resultsData =
+        scan(
+            start,
+            (row, matches) -> {
+              for (String item : row) {
+                if (item.equals(searchValue)) {
+                  matches.add(row);
+                }
+              }
+            });
+    commitScanEvent(event, "*", csvRows.size() - start, resultsData.size());
     return resultsData;
   }
 
@@ -101,22 +176,67 @@ public class CsvSearcher {
       boolean hasHeaders, String searchValue, boolean colIdIsNum, String colId)
       throws SearchException {
     int start = hasHeaders ? 1 : 0;
-    List<List<String>> resultsData = new ArrayList<>();
     try {
       int colIndex = findColIndex(colIdIsNum, colId);
+      CsvScanEvent event = new CsvScanEvent();
+      event.begin();
       // For each row, get the item at the colIndex and check if it matches searchValue
-      for (List<String> row : csvRows.subList(start, csvRows.size())) {
-        String item = row.get(colIndex);
-        if (item.equals(searchValue)) {
-          resultsData.add(row);
-        }
-      }
+      List<List<String>> resultsData =
+          scan(
+              start,
+              (row, matches) -> {
+                if (row.get(colIndex).equals(searchValue)) {
+                  matches.add(row);
+                }
+              });
+      commitScanEvent(event, colId, csvRows.size() - start, resultsData.size());
       return resultsData;
     } catch (IndexOutOfBoundsException ibe) {
       throw new SearchException(ibe.getMessage());
     }
   }
 
+  /**
+   * Checks every row from start to the end of the CSV with a RowScanner, splitting the rows across
+   * a ParallelScan if there are at least parallelThreshold of them. Either way, the matches are in
+   * file order.
+   *
+   * @param start the index of the first row to check
+   * @param scanner the RowScanner checking each row
+   * @return the matching rows
+   */
+  private List<List<String>> scan(int start, ParallelScan.RowScanner scanner) {
+    List<List<String>> rows = csvRows.subList(start, csvRows.size());
+    if (rows.size() >= parallelThreshold) {
+      // Split even a scan just over the threshold across every thread
+      int minChunkRows = parallelThreshold / Runtime.getRuntime().availableProcessors();
+      return ParallelScan.scan(rows, minChunkRows, scanner);
+    }
+    List<List<String>> matches = new ArrayList<>();
+    for (List<String> row : rows) {
+      scanner.scan(row, matches);
+    }
+    return matches;
+  }
+
+  /**
+   * Fills in and commits a CsvScanEvent, if Flight Recorder is recording it.
+   *
+   * @param event the CsvScanEvent begun before the scan
+   * @param column the column identifier that was searched
+   * @param rowsScanned the number of rows scanned
+   * @param matches the number of rows that matched
+   */
+  private static void commitScanEvent(
+      CsvScanEvent event, String column, long rowsScanned, long matches) {
+    if (event.shouldCommit()) {
+      event.column = column;
+      event.rowsScanned = rowsScanned;
+      event.matches = matches;
+      event.commit();
+    }
+  }
+
   /**
    * A public method, which is called by the Main runner, which searches for searchValue in the
    * column(s) specified by colID, and returns a list of matching rows or a list containing an error
@@ -131,7 +251,7 @@ public class CsvSearcher {
    */
   public List<List<String>> search(boolean hasHeaders, String searchValue, String colId)
       throws SearchException {
-    boolean colIdIsNum = colId.matches("^-?\\d+$");
+    boolean colIdIsNum = Schema.isColumnIndex(colId);
     if (csvRows.isEmpty()) {
       // If there is no data, return an empty list
       return List.of();
@@ -154,4 +274,764 @@ public class CsvSearcher {
               + " inclusive.");
     }
   }
+
+  /**
+   * A public method that searches for searchValue in the column(s) specified by colId, matching
+   * cells the way the given MatchMode says. EXACT searches are the same as search, and REGEX
+   * searches are the same as searchRegex with the default time budget. The other modes fold the
+   * case and quotes of cells and the value, and use the TrigramIndex of each searched column to
+   * find the candidate rows before checking them. Each matching row is returned once, in file
+   * order.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param searchValue String representing the value to find
+   * @param colId String representing the column(s) to search
+   * @param mode the MatchMode saying how a cell matches the value
+   * @return List of String containing the matching rows
+   * @throws SearchException if there is an issue with the search criteria given
+   */
+  public List<List<String>> search(
+      boolean hasHeaders, String searchValue, String colId, MatchMode mode) throws SearchException {
+    if (mode == MatchMode.EXACT) {
+      return search(hasHeaders, searchValue, colId);
+    } else if (mode == MatchMode.REGEX) {
+      return searchRegex(hasHeaders, searchValue, colId, REGEX_BUDGET_MILLIS);
+    } else if (csvRows.isEmpty()) {
+      return List.of();
+    }
+    int[] cols = searchedColumns(hasHeaders, colId);
+    String value = MatchMode.fold(searchValue);
+    int start = hasHeaders ? 1 : 0;
+    RowSet candidates = candidateRows(cols, List.of(value), start);
+
+    CsvScanEvent event = new CsvScanEvent();
+    event.begin();
+    List<List<String>> resultsData = new ArrayList<>();
+    candidates.forEach(
+        r -> {
+          List<String> row = csvRows.get(r);
+          for (int col : cols) {
+            if (col < row.size() && mode.matches(row.get(col), value)) {
+              resultsData.add(row);
+              return;
+            }
+          }
+        });
+    commitScanEvent(event, colId, candidates.cardinality(), resultsData.size());
+    return Collections.unmodifiableList(resultsData);
+  }
+
+  /**
+   * A public method that searches for searchValue in the column(s) specified by colId the way the
+   * given MatchMode says, and returns only the page of matching rows a PageRequest asks for. Each
+   * matching row is returned once, even if more than one of its cells match. In file order the
+   * search stops at the first match past the page, and ranked by a column only the best rows are
+   * kept while every candidate is checked, as a TopN.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param searchValue String representing the value to find
+   * @param colId String representing the column(s) to search
+   * @param mode the MatchMode saying how a cell matches the value
+   * @param page the PageRequest saying which rows to return
+   * @return the SearchPage of matching rows
+   * @throws SearchException if there is an issue with the search criteria or page given
+   */
+  public SearchPage search(
+      boolean hasHeaders, String searchValue, String colId, MatchMode mode, PageRequest page)
+      throws SearchException {
+    if (csvRows.isEmpty()) {
+      return new SearchPage(List.of(), false, -1);
+    }
+    TopN topN = topN(hasHeaders, page);
+    int[] cols = searchedColumns(hasHeaders, colId);
+    int start = hasHeaders ? 1 : 0;
+    Candidates candidates = candidates(cols, searchValue, mode, start);
+    CsvScanEvent event = new CsvScanEvent();
+    event.begin();
+    SearchPage found =
+        topN.select(
+            start,
+            candidates.rows() == null ? null : candidates.rows().toArray(),
+            candidates.matcher());
+    commitScanEvent(event, colId, topN.scanned(), found.rows().size());
+    return found;
+  }
+
+  /**
+   * A public method that prepares to find the rows matching searchValue in the column(s) specified
+   * by colId, the way the given MatchMode says, without finding them yet. The SearchMatches finds
+   * every matching row the first time a page is read from it by execute, and keeps them, so a
+   * cursor that keeps it reads each later page without searching again.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param searchValue String representing the value to find
+   * @param colId String representing the column(s) to search
+   * @param mode the MatchMode saying how a cell matches the value
+   * @return the SearchMatches of the search
+   * @throws SearchException if the column is not found
+   */
+  public SearchMatches match(boolean hasHeaders, String searchValue, String colId, MatchMode mode)
+      throws SearchException {
+    if (csvRows.isEmpty()) {
+      return new SearchMatches(0, RowSet.empty());
+    }
+    int[] cols = searchedColumns(hasHeaders, colId);
+    int start = hasHeaders ? 1 : 0;
+    return new SearchMatches(
+        start,
+        csvRows.size(),
+        () -> {
+          CsvScanEvent event = new CsvScanEvent();
+          event.begin();
+          // A regex's time budget starts when its candidates are found, not when it was prepared
+          Candidates candidates = candidates(cols, searchValue, mode, start);
+          RowSet rows =
+              candidates.rows() != null ? candidates.rows() : RowSet.range(start, csvRows.size());
+          int[] matches = new int[rows.cardinality()];
+          int n = 0;
+          for (int r : rows.toArray()) {
+            if (candidates.matcher().matches(r)) {
+              matches[n++] = r;
+            }
+          }
+          commitScanEvent(event, colId, rows.cardinality(), n);
+          return RowSet.of(matches, n);
+        });
+  }
+
+  /**
+   * A record representing the rows a search must check, and how it checks each of them.
+   *
+   * @param rows the only rows that could match, or null if every row from the first searched could
+   * @param matcher the RowMatcher checking each candidate
+   */
+  private record Candidates(RowSet rows, TopN.RowMatcher matcher) {}
+
+  /**
+   * Finds the candidate rows of a search of some columns the way a MatchMode says, from the
+   * columns' TrigramIndexes, along with the RowMatcher checking them. EXACT searches have no
+   * candidates, and check every row.
+   *
+   * @param cols the indexes of the searched columns
+   * @param searchValue String representing the value to find
+   * @param mode the MatchMode saying how a cell matches the value
+   * @param start the first row searched, which is 1 when the first row is a header
+   * @return the Candidates of the search
+   * @throws SearchException if the value is not a valid regex in REGEX mode
+   */
+  private Candidates candidates(int[] cols, String searchValue, MatchMode mode, int start)
+      throws SearchException {
+    if (mode == MatchMode.REGEX) {
+      RegexSearch search = new RegexSearch(searchValue, REGEX_BUDGET_MILLIS * 1_000_000);
+      List<String> literals = new ArrayList<>();
+      for (String literal : search.literals()) {
+        literals.add(MatchMode.fold(literal));
+      }
+      return new Candidates(
+          candidateRows(cols, literals, start),
+          r -> {
+            List<String> row = csvRows.get(r);
+            for (int col : cols) {
+              if (col < row.size() && search.find(row.get(col))) {
+                return true;
+              }
+            }
+            return false;
+          });
+    }
+    String value = mode == MatchMode.EXACT ? searchValue : MatchMode.fold(searchValue);
+    return new Candidates(
+        mode == MatchMode.EXACT ? null : candidateRows(cols, List.of(value), start),
+        r -> {
+          List<String> row = csvRows.get(r);
+          for (int col : cols) {
+            if (col < row.size() && mode.matches(row.get(col), value)) {
+              return true;
+            }
+          }
+          return false;
+        });
+  }
+
+  /**
+   * Checks a PageRequest and creates the TopN picking its rows.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param page the PageRequest
+   * @return the TopN for the page
+   * @throws SearchException if the limit is not positive, the page continues after a row that does
+   *     not exist, or the column to rank by is not found
+   */
+  private TopN topN(boolean hasHeaders, PageRequest page) throws SearchException {
+    if (page.limit() < 1) {
+      throw new SearchException("Limit must be at least 1, not " + page.limit());
+    } else if (page.after() < -1 || page.after() >= Math.max(1, csvRows.size())) {
+      throw new SearchException("There is no row " + page.after() + " to continue after.");
+    }
+    TopN.RowComparator order = null;
+    if (page.orderBy() != null) {
+      int col = resolveColumn(hasHeaders, page.orderBy());
+      TypedTable table = indexes().table();
+      TypedColumn column = col < table.columnCount() ? table.column(col) : null;
+      order = TopN.byColumn(csvRows, column, col, page.descending());
+    }
+    return new TopN(csvRows, order, page.limit(), page.after());
+  }
+
+  /**
+   * A public method that searches the column(s) specified by colId for cells in which a regex is
+   * found, with java.util.regex. Cells are matched without their surrounding quotes, and the
+   * pattern may match anywhere in a cell unless it is anchored with ^ and $.
+   *
+   * <p>Literal text that every match must contain is read out of the pattern first, and looked up
+   * in each searched column's TrigramIndex, so the regex only runs on rows that could match. The
+   * whole search, including those lookups, must finish within the time budget.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param regex String representing the pattern to find
+   * @param colId String representing the column(s) to search
+   * @param budgetMillis how long the search may take, in milliseconds
+   * @return List of String containing the matching rows, each once, in file order
+   * @throws SearchException if the pattern or column is invalid, or the search runs out of time
+   */
+  public List<List<String>> searchRegex(
+      boolean hasHeaders, String regex, String colId, long budgetMillis) throws SearchException {
+    RegexSearch search = new RegexSearch(regex, budgetMillis * 1_000_000);
+    if (csvRows.isEmpty()) {
+      return List.of();
+    }
+    int[] cols = searchedColumns(hasHeaders, colId);
+    int start = hasHeaders ? 1 : 0;
+    List<String> literals = new ArrayList<>();
+    for (String literal : search.literals()) {
+      literals.add(MatchMode.fold(literal));
+    }
+    RowSet candidates = candidateRows(cols, literals, start);
+    search.checkDeadline();
+
+    CsvScanEvent event = new CsvScanEvent();
+    event.begin();
+    List<List<String>> resultsData = new ArrayList<>();
+    for (int r : candidates.toArray()) {
+      List<String> row = csvRows.get(r);
+      for (int col : cols) {
+        if (col < row.size() && search.find(row.get(col))) {
+          resultsData.add(row);
+          break;
+        }
+      }
+    }
+    commitScanEvent(event, colId, candidates.cardinality(), resultsData.size());
+    return Collections.unmodifiableList(resultsData);
+  }
+
+  /**
+   * A public method that searches the column(s) specified by colId for cells within maxDistance
+   * edits (inserted, deleted or substituted characters) of searchValue, ignoring case and quotes
+   * the way MatchMode.CI does. Each searched column's distinct values are looked up in its BkTree,
+   * so the value is only compared with the few values that could be close enough.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param searchValue String representing the possibly misspelled value to find
+   * @param colId String representing the column(s) to search
+   * @param maxDistance the most edits a matching cell may be from the value
+   * @return List of String containing the matching rows, each once, closest first, and in file
+   *     order among rows the same distance away
+   * @throws SearchException if the column is not found, or maxDistance is out of range
+   */
+  public List<List<String>> searchFuzzy(
+      boolean hasHeaders, String searchValue, String colId, int maxDistance)
+      throws SearchException {
+    if (maxDistance < 0 || maxDistance > MAX_FUZZY_DISTANCE) {
+      throw new SearchException(
+          "Fuzzy searches allow between 0 and "
+              + MAX_FUZZY_DISTANCE
+              + " edits, not "
+              + maxDistance);
+    } else if (csvRows.isEmpty()) {
+      return List.of();
+    }
+    int[] cols = searchedColumns(hasHeaders, colId);
+    String value = MatchMode.fold(searchValue);
+    int start = hasHeaders ? 1 : 0;
+
+    CsvScanEvent event = new CsvScanEvent();
+    event.begin();
+    // The distance of each row is that of its closest cell in any searched column
+    Map<Integer, Integer> distances = new HashMap<>();
+    int comparisons = 0;
+    for (int col : cols) {
+      BkTree.Result result = indexes().bkTree(col).search(value, maxDistance);
+      comparisons += result.comparisons();
+      for (BkTree.Match match : result.matches()) {
+        match.rows().forEach(row -> distances.merge(row, match.distance(), Math::min));
+      }
+    }
+    List<Integer> ranked = new ArrayList<>();
+    for (int row : distances.keySet()) {
+      if (row >= start) {
+        ranked.add(row);
+      }
+    }
+    ranked.sort(
+        (a, b) -> {
+          int byDistance = Integer.compare(distances.get(a), distances.get(b));
+          return byDistance != 0 ? byDistance : Integer.compare(a, b);
+        });
+    List<List<String>> resultsData = new ArrayList<>(ranked.size());
+    for (int row : ranked) {
+      resultsData.add(csvRows.get(row));
+    }
+    commitScanEvent(event, colId, comparisons, resultsData.size());
+    return Collections.unmodifiableList(resultsData);
+  }
+
+  /**
+   * Lists the columns a search covers: every column for *, or the one colId names.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param colId String representing the column(s) to search
+   * @return the indexes of the searched columns
+   * @throws SearchException if the column is not found
+   */
+  private int[] searchedColumns(boolean hasHeaders, String colId) throws SearchException {
+    if (!colId.equals("*")) {
+      return new int[] {resolveColumn(hasHeaders, colId)};
+    }
+    int[] cols = new int[schema().columnCount()];
+    for (int col = 0; col < cols.length; col++) {
+      cols[col] = col;
+    }
+    return cols;
+  }
+
+  /**
+   * Finds the rows that could have a cell containing every one of some folded literals, in any of
+   * the given columns, from the columns' TrigramIndexes. If no literal is long enough to have a
+   * trigram, every searched row is a candidate.
+   *
+   * @param cols the indexes of the searched columns
+   * @param literals folded text that a matching cell must contain
+   * @param start the first row searched, which is 1 when the first row is a header
+   * @return the RowSet of candidate rows, none before start
+   */
+  private RowSet candidateRows(int[] cols, List<String> literals, int start) {
+    RowSet all = RowSet.range(start, csvRows.size());
+    RowSet candidates = RowSet.empty();
+    for (int col : cols) {
+      RowSet rows = null;
+      for (String literal : literals) {
+        RowSet found = indexes().trigrams(col).candidates(literal);
+        if (found != null) {
+          rows = rows == null ? found : rows.and(found);
+        }
+      }
+      if (rows == null) {
+        return all;
+      }
+      candidates = candidates.or(rows);
+    }
+    return candidates.and(all);
+  }
+
+  /**
+   * A public method that searches a numeric or date column for the rows whose values fall in the
+   * given Range, and returns them in their original order. The bounds of the range are read the
+   * same way the column's cells are, so they may include currency signs or thousands separators, or
+   * be dates for a date column.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param range the Range of values to find
+   * @param colId String representing the name or index of the column to search
+   * @return List of String containing the rows whose values are in the range
+   * @throws SearchException if the column is not found or not numeric, or a bound is not a value of
+   *     the column's type
+   */
+  public List<List<String>> searchRange(boolean hasHeaders, Range range, String colId)
+      throws SearchException {
+    if (csvRows.isEmpty()) {
+      return List.of();
+    }
+    CsvScanEvent event = new CsvScanEvent();
+    event.begin();
+    int[] matches = rowsInRange(hasHeaders, range, colId);
+    List<List<String>> resultsData = new ArrayList<>(matches.length);
+    for (int row : matches) {
+      resultsData.add(csvRows.get(row));
+    }
+    commitScanEvent(event, colId, matches.length, resultsData.size());
+    return Collections.unmodifiableList(resultsData);
+  }
+
+  /**
+   * A public method that searches a numeric or date column for the rows whose values fall in the
+   * given Range, the way searchRange does, and returns only the page of them a PageRequest asks
+   * for.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param range the Range of values to find
+   * @param colId String representing the name or index of the column to search
+   * @param page the PageRequest saying which rows to return
+   * @return the SearchPage of rows whose values are in the range
+   * @throws SearchException if the column is not found or not numeric, a bound is not a value of
+   *     the column's type, or the page is not valid
+   */
+  public SearchPage searchRange(boolean hasHeaders, Range range, String colId, PageRequest page)
+      throws SearchException {
+    if (csvRows.isEmpty()) {
+      return new SearchPage(List.of(), false, -1);
+    }
+    return execute(matchRange(hasHeaders, range, colId), page);
+  }
+
+  /**
+   * A public method that finds the rows of a numeric or date column whose values fall in the given
+   * Range, the way searchRange does, and keeps them in a SearchMatches, so a cursor that keeps it
+   * reads each later page with execute without searching again.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param range the Range of values to find
+   * @param colId String representing the name or index of the column to search
+   * @return the SearchMatches of the rows whose values are in the range
+   * @throws SearchException if the column is not found or not numeric, or a bound is not a value of
+   *     the column's type
+   */
+  public SearchMatches matchRange(boolean hasHeaders, Range range, String colId)
+      throws SearchException {
+    if (csvRows.isEmpty()) {
+      return new SearchMatches(0, RowSet.empty());
+    }
+    CsvScanEvent event = new CsvScanEvent();
+    event.begin();
+    RowSet rows = RowSet.of(rowsInRange(hasHeaders, range, colId));
+    commitScanEvent(event, colId, rows.cardinality(), rows.cardinality());
+    return new SearchMatches(hasHeaders ? 1 : 0, rows);
+  }
+
+  /**
+   * Finds the rows of a numeric or date column whose values fall in a Range, from the column's
+   * SortedIndex.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param range the Range of values to find
+   * @param colId String representing the name or index of the column to search
+   * @return the indexes of the rows in the range, in increasing order, never including a header
+   * @throws SearchException if the column is not found or not numeric, or a bound is not a value of
+   *     the column's type
+   */
+  private int[] rowsInRange(boolean hasHeaders, Range range, String colId) throws SearchException {
+    boolean colIdIsNum = Schema.isColumnIndex(colId);
+    if (colId.equals("*")) {
+      throw new SearchException("Range searches need a column identifier: colid");
+    } else if (!colIdIsNum && !hasHeaders) {
+      throw new SearchException("Cannot search non-numeric column " + colId + " if no headers.");
+    }
+    int colIndex;
+    TypedColumn column;
+    try {
+      colIndex = findColIndex(colIdIsNum, colId);
+      column = indexes().table().column(colIndex);
+    } catch (IndexOutOfBoundsException ibe) {
+      throw new SearchException(ibe.getMessage());
+    }
+    if (!column.isNumeric()) {
+      throw new SearchException(
+          "Column " + colId + " is not numeric, so it cannot be searched for a range of values.");
+    }
+    Double lower = range.lower() == null ? null : boundValue(range.lower(), column.type());
+    Double upper = range.upper() == null ? null : boundValue(range.upper(), column.type());
+    int[] matches =
+        indexes()
+            .sorted(colIndex)
+            .rowsInRange(lower, range.lowerInclusive(), upper, range.upperInclusive());
+    if (hasHeaders && matches.length > 0 && matches[0] == 0) {
+      // The rows are in increasing order, so a header can only be first
+      return Arrays.copyOfRange(matches, 1, matches.length);
+    }
+    return matches;
+  }
+
+  /**
+   * A public method that parses a compound query, such as Year>=2020 AND NOT Race="White", and
+   * plans how to answer it over the CSV data, without running it yet.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param query the text of the query, in the syntax read by the QueryParser
+   * @return the QueryPlan answering the query
+   * @throws SearchException if the query cannot be parsed, names a missing column, or compares a
+   *     value that does not fit its column
+   */
+  public QueryPlan plan(boolean hasHeaders, String query) throws SearchException {
+    Query parsed = QueryParser.parse(query);
+    return new QueryPlanner(this, csvRows, indexes(), hasHeaders).plan(parsed);
+  }
+
+  /**
+   * A public method that runs a QueryPlan made by plan, and returns the matching rows in their
+   * original order.
+   *
+   * @param plan the QueryPlan to run
+   * @return List of String containing the rows matching the planned query
+   */
+  public List<List<String>> execute(QueryPlan plan) {
+    int[] matches = plan.execute();
+    List<List<String>> resultsData = new ArrayList<>(matches.length);
+    for (int row : matches) {
+      resultsData.add(csvRows.get(row));
+    }
+    return Collections.unmodifiableList(resultsData);
+  }
+
+  /**
+   * A public method that runs a QueryPlan made by plan, and returns only the page of the matching
+   * rows a PageRequest asks for. The plan keeps its matching rows, so later pages with the same
+   * plan do not run it again: in file order, a page reads only the rows after the previous page,
+   * while ranked pages still rank every matching row.
+   *
+   * @param plan the QueryPlan to run
+   * @param page the PageRequest saying which rows to return
+   * @return the SearchPage of rows matching the planned query
+   * @throws SearchException if the page is not valid
+   */
+  public SearchPage execute(QueryPlan plan, PageRequest page) throws SearchException {
+    return page(topN(plan.start() > 0, page), plan.matches(), page);
+  }
+
+  /**
+   * A public method that returns the page a PageRequest asks for of the rows a SearchMatches stands
+   * for, finding them first if this is the first page read from it. In file order a page reads only
+   * the rows after the previous page, while ranked pages still rank every matching row.
+   *
+   * @param matches the SearchMatches made by match or matchRange
+   * @param page the PageRequest saying which rows to return
+   * @return the SearchPage of matching rows
+   * @throws SearchException if the page is not valid, or finding the rows fails
+   */
+  public SearchPage execute(SearchMatches matches, PageRequest page) throws SearchException {
+    if (csvRows.isEmpty()) {
+      return new SearchPage(List.of(), false, -1);
+    }
+    return page(topN(matches.start() > 0, page), matches.rows(), page);
+  }
+
+  /**
+   * Picks the page a PageRequest asks for out of rows that are already known to match.
+   *
+   * @param topN the TopN for the page
+   * @param matches the RowSet of matching rows
+   * @param page the PageRequest saying which rows to return
+   * @return the SearchPage of matching rows
+   * @throws SearchException never, since every row given matches
+   */
+  private static SearchPage page(TopN topN, RowSet matches, PageRequest page)
+      throws SearchException {
+    if (page.orderBy() != null) {
+      return topN.select(0, matches.toArray(), row -> true);
+    }
+    // One row past the page is enough to tell whether more follow
+    int count = (int) Math.min(page.limit() + 1L, Integer.MAX_VALUE);
+    int[] candidates = matches.toArray(Math.max(page.after() + 1, 0), count);
+    return topN.select(0, candidates, row -> true);
+  }
+
+  /**
+   * A public method that groups the rows by the values of some columns and computes aggregates of
+   * each group, such as the count of rows and the average of a numeric column. With no group-by
+   * columns, the whole CSV is one group.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param groupBy the names or indexes of the columns to group by, possibly none
+   * @param aggregates the Aggregates to compute for each group
+   * @return the AggregateResult, with a row per group in the order groups first appear
+   * @throws SearchException if a column is not found, or an aggregate needs a numeric column and
+   *     its column is not
+   */
+  public AggregateResult aggregate(
+      boolean hasHeaders, List<String> groupBy, List<Aggregate> aggregates) throws SearchException {
+    if (aggregates.isEmpty()) {
+      throw new SearchException("Need at least one aggregate, such as count.");
+    }
+    List<String> columns = new ArrayList<>(groupBy);
+    int[] groupCols = new int[groupBy.size()];
+    for (int i = 0; i < groupCols.length; i++) {
+      groupCols[i] = resolveColumn(hasHeaders, groupBy.get(i));
+    }
+    int[] aggregateCols = new int[aggregates.size()];
+    for (int i = 0; i < aggregateCols.length; i++) {
+      Aggregate aggregate = aggregates.get(i);
+      columns.add(aggregate.label());
+      if (aggregate.column() == null) {
+        aggregateCols[i] = -1;
+        continue;
+      }
+      aggregateCols[i] = resolveColumn(hasHeaders, aggregate.column());
+      ColumnType type = indexes().table().column(aggregateCols[i]).type();
+      boolean valid =
+          switch (aggregate.function()) {
+            case COUNT -> true;
+            case SUM, AVG -> type == ColumnType.LONG || type == ColumnType.DOUBLE;
+            case MIN, MAX -> type != ColumnType.TEXT;
+          };
+      if (!valid) {
+        throw new SearchException(
+            "Column "
+                + aggregate.column()
+                + " is "
+                + type.name().toLowerCase(Locale.ROOT)
+                + ", so it cannot be aggregated with "
+                + aggregate.label()
+                + ".");
+      }
+    }
+    int start = hasHeaders ? 1 : 0;
+    return new GroupBy(indexes(), csvRows.size(), start, groupCols)
+        .aggregate(columns, aggregates, aggregateCols, parallelThreshold);
+  }
+
+  /**
+   * A public method that sorts the rows by a column and returns one page of them. Numeric and date
+   * columns are sorted by value and text columns lexically, ties keep their original order, and
+   * rows with no value in the column come last. The sort is made once per column, direction and
+   * memory budget and kept in the ColumnIndexes, so later pages only copy rows out of it.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers, which is left out
+   * @param colId String representing the name or index of the column to sort by
+   * @param descending whether the largest values come first
+   * @param offset the number of sorted rows to skip
+   * @param limit the most rows to return
+   * @param memoryBudget the most bytes of heap sorting in memory may take, past which the sort is
+   *     spilled to disk with an ExternalSort
+   * @return the SortedPage of rows
+   * @throws SearchException if the column is not found, or a spilled sort fails
+   */
+  public SortedPage sort(
+      boolean hasHeaders,
+      String colId,
+      boolean descending,
+      int offset,
+      int limit,
+      long memoryBudget)
+      throws SearchException {
+    if (offset < 0 || limit < 0) {
+      throw new SearchException("Offset and limit cannot be negative.");
+    }
+    int col = resolveColumn(hasHeaders, colId);
+    int start = hasHeaders ? 1 : 0;
+    RowOrder order;
+    int[] page;
+    try {
+      order = indexes().order(col, descending, start, memoryBudget);
+      page = order.rows(offset, (int) Math.min(Integer.MAX_VALUE, (long) offset + limit));
+    } catch (UncheckedIOException e) {
+      throw new SearchException("Could not sort by column " + colId + ": " + e.getMessage());
+    }
+    List<List<String>> resultsData = new ArrayList<>(page.length);
+    for (int row : page) {
+      resultsData.add(csvRows.get(row));
+    }
+    return new SortedPage(
+        order.size(), Collections.unmodifiableList(resultsData), order.isSpilled());
+  }
+
+  /**
+   * A public method that prepares an inner join of this CSV's rows, on the left, with another CSV's
+   * rows, on the right, joining rows whose cells in the two key columns are equal. The join runs
+   * when the returned HashJoin is run, handing over each joined pair as it is found.
+   *
+   * @param hasHeaders boolean representing whether both CSVs have a row of headers, left out of the
+   *     join
+   * @param colId String representing the name or index of this CSV's key column
+   * @param right the CsvSearcher of the right CSV
+   * @param rightColId String representing the name or index of the right CSV's key column
+   * @param memoryBudget the most bytes of heap the join's hash table may take, past which it is
+   *     spilled to disk as a grace hash join
+   * @return the HashJoin of the two CSVs
+   * @throws SearchException if either key column is not found
+   */
+  public HashJoin join(
+      boolean hasHeaders, String colId, CsvSearcher right, String rightColId, long memoryBudget)
+      throws SearchException {
+    int col = resolveColumn(hasHeaders, colId);
+    int rightCol = right.resolveColumn(hasHeaders, rightColId);
+    int start = hasHeaders ? 1 : 0;
+    return new HashJoin(csvRows, start, col, right.csvRows, start, rightCol, memoryBudget);
+  }
+
+  /**
+   * Finds the index of a column named in a query, with the same rules as search: a number is a
+   * column index, and anything else is a header, which requires the CSV to have headers.
+   *
+   * @param hasHeaders boolean representing whether the CSV has a row of headers
+   * @param colId String representing the name or index of the column
+   * @return the index of the column
+   * @throws SearchException if the column is not found
+   */
+  int resolveColumn(boolean hasHeaders, String colId) throws SearchException {
+    boolean colIdIsNum = Schema.isColumnIndex(colId);
+    if (csvRows.isEmpty()) {
+      throw new SearchException("Cannot search column " + colId + " of an empty CSV.");
+    } else if (!colIdIsNum && !hasHeaders) {
+      throw new SearchException("Cannot search non-numeric column " + colId + " if no headers.");
+    }
+    try {
+      int colIndex = findColIndex(colIdIsNum, colId);
+      if (colIndex < 0) {
+        throw new IndexOutOfBoundsException("Column index " + colIndex + " not found.");
+      }
+      return colIndex;
+    } catch (IndexOutOfBoundsException ibe) {
+      throw new SearchException(ibe.getMessage());
+    }
+  }
+
+  /**
+   * Returns the Schema of the CSV data, from its ColumnIndexes if this searcher was given them, and
+   * otherwise computed the first time a column is looked up.
+   *
+   * @return the Schema of the CSV data
+   */
+  public Schema schema() {
+    if (schema == null) {
+      schema = indexes != null ? indexes.table().schema() : Schema.of(csvRows);
+    }
+    return schema;
+  }
+
+  /**
+   * Returns the ColumnIndexes of the CSV data, inferring column types to create them if this
+   * searcher was not given any.
+   *
+   * @return the ColumnIndexes of the CSV data
+   */
+  private ColumnIndexes indexes() {
+    if (indexes == null) {
+      indexes = new ColumnIndexes(csvRows, TypedTable.infer(csvRows));
+    }
+    return indexes;
+  }
+
+  /**
+   * Reads a bound of a Range as a value of the given column type: an epoch day for DATE columns,
+   * and a number otherwise.
+   *
+   * @param bound the text of the bound
+   * @param type the ColumnType of the searched column
+   * @return the bound as a double
+   * @throws SearchException if the bound is not a value of that type
+   */
+  static double boundValue(String bound, ColumnType type) throws SearchException {
+    if (type == ColumnType.DATE) {
+      Integer day = CellParser.parseEpochDay(bound);
+      if (day == null) {
+        throw new SearchException(
+            "Value " + bound + " is not a date. Dates are written 2021-09-25 or 9/25/2021.");
+      }
+      return day;
+    }
+    String number = CellParser.normalizeNumber(bound);
+    if (number == null) {
+      throw new SearchException("Value " + bound + " is not a number.");
+    }
+    return Double.parseDouble(number);
+  }
 }
@@ -0,0 +1,101 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This DictionaryColumn class stores one column of a CSV dictionary-encoded: each distinct cell
+ * text once, in sorted order, and an int code per row pointing at its row's text. Rows too short to
+ * have the column share one more code, whose text is null.
+ *
+ * <p>Grouping rows by a column then compares ints rather than Strings. The codes are filled in from
+ * the column's PostingsIndex, one RowSet per distinct value, so building it does not hash any cell.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class DictionaryColumn {
+  private final String[] values;
+  private final int[] codes;
+
+  /**
+   * The constructor for the DictionaryColumn class, only called by build.
+   *
+   * @param values the distinct values, with null last for missing cells
+   * @param codes the code of each row
+   */
+  private DictionaryColumn(String[] values, int[] codes) {
+    this.values = values;
+    this.codes = codes;
+  }
+
+  /**
+   * Builds the DictionaryColumn of a column from its PostingsIndex.
+   *
+   * @param postings the PostingsIndex of the column
+   * @param rowCount the number of rows in the CSV
+   * @return the DictionaryColumn of the column
+   */
+  public static DictionaryColumn build(PostingsIndex postings, int rowCount) {
+    List<String> distinct = new ArrayList<>();
+    postings.forEach((value, rows) -> distinct.add(value));
+    distinct.sort(null);
+    String[] values = distinct.toArray(new String[distinct.size() + 1]);
+    int[] codes = new int[rowCount];
+    int missing = distinct.size();
+    Arrays.fill(codes, missing);
+    for (int code = 0; code < missing; code++) {
+      int value = code;
+      postings.rows(values[code]).forEach(row -> codes[row] = value);
+    }
+    return new DictionaryColumn(values, codes);
+  }
+
+  /**
+   * Returns the number of codes, which is the number of distinct values plus one for missing cells.
+   *
+   * @return the number of codes
+   */
+  public int cardinality() {
+    return values.length;
+  }
+
+  /**
+   * Returns the code of a row.
+   *
+   * @param row the row index
+   * @return the code of the row's cell
+   */
+  public int code(int row) {
+    return codes[row];
+  }
+
+  /**
+   * Returns the text a code stands for.
+   *
+   * @param code the code
+   * @return the cell text, or null for the code of missing cells
+   */
+  public String value(int code) {
+    return values[code];
+  }
+
+  /**
+   * Returns the codes of every row, for loops over many rows. The array must not be changed.
+   *
+   * @return the code of each row
+   */
+  int[] codes() {
+    return codes;
+  }
+
+  /**
+   * Estimates the heap the codes take up, on top of the PostingsIndex the values are shared with.
+   *
+   * @return the estimated size in bytes
+   */
+  public long estimatedBytes() {
+    return 48 + 4L * codes.length + 4L * values.length;
+  }
+}
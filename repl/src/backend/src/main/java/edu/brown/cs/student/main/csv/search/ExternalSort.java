@@ -0,0 +1,303 @@
+package edu.brown.cs.student.main.csv.search;
+
+import edu.brown.cs.student.main.csv.table.TypedColumn;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * This ExternalSort class sorts the rows of a CSV by one column without holding the whole sort in
+ * memory. Rows are read in runs that fit in a memory budget, each run is sorted and spilled to a
+ * file in a temporary directory, and the runs are then merged, at most MAX_FAN_IN at a time, into a
+ * file of row indexes that a RowOrder reads pages from.
+ *
+ * <p>The order is the same as an in-memory RowOrder's: numeric and date values by value, text
+ * lexically, ties in their original order, and rows with no value last.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+final class ExternalSort {
+  /** The most runs merged at once, each of which holds a read buffer open. */
+  static final int MAX_FAN_IN = 64;
+
+  /** About how many bytes of heap one row waiting in a run takes. */
+  private static final int BYTES_PER_ENTRY = 32;
+
+  /** The fewest rows in a run, however small the memory budget. */
+  private static final int MIN_RUN_ROWS = 1024;
+
+  private static final int BUFFER_BYTES = 64 * 1024;
+
+  /**
+   * A record representing one row waiting to be sorted: its value in the sorted column and its
+   * index. Exactly one of number and text is used, depending on the column's type.
+   *
+   * @param number the value of a numeric or date cell
+   * @param text the text of a text cell
+   * @param row the index of the row
+   */
+  private record Entry(double number, String text, int row) {}
+
+  private final boolean numeric;
+  private final Comparator<Entry> comparator;
+  private final Path directory;
+
+  /**
+   * The constructor for the ExternalSort class, only called by sort.
+   *
+   * @param numeric whether the sorted column is numeric
+   * @param descending whether the largest values come first
+   * @param directory the temporary directory to spill runs to
+   */
+  private ExternalSort(boolean numeric, boolean descending, Path directory) {
+    this.numeric = numeric;
+    this.directory = directory;
+    Comparator<Entry> byValue =
+        numeric
+            ? (a, b) -> a.number() < b.number() ? -1 : a.number() > b.number() ? 1 : 0
+            : (a, b) -> a.text().compareTo(b.text());
+    this.comparator = (descending ? byValue.reversed() : byValue).thenComparingInt(Entry::row);
+  }
+
+  /**
+   * Sorts rows start and after by one column, spilling runs of rows that fit in the memory budget.
+   *
+   * @param rows the rows of the CSV
+   * @param column the TypedColumn of the sorted column, or null if no row is that wide
+   * @param col the index of the sorted column
+   * @param descending whether the largest values come first
+   * @param start the first row to sort, 1 to leave out a header
+   * @param memoryBudget about how many bytes of heap the rows of one run may take
+   * @return the RowOrder, read from the merged file
+   * @throws IOException if a run or the merged file cannot be written or read
+   */
+  static RowOrder sort(
+      List<List<String>> rows,
+      TypedColumn column,
+      int col,
+      boolean descending,
+      int start,
+      long memoryBudget)
+      throws IOException {
+    Path directory = Files.createTempDirectory("repl-sort-");
+    boolean numeric = column != null && column.isNumeric();
+    ExternalSort sorter = new ExternalSort(numeric, descending, directory);
+    try {
+      int runRows = (int) Math.min(Integer.MAX_VALUE, memoryBudget / BYTES_PER_ENTRY);
+      runRows = Math.max(MIN_RUN_ROWS, runRows);
+      List<Path> runs = new ArrayList<>();
+      List<Entry> run = new ArrayList<>();
+      for (int row = start; row < rows.size(); row++) {
+        Entry entry = sorter.entry(rows, column, col, row);
+        if (entry == null) {
+          continue;
+        }
+        run.add(entry);
+        if (run.size() == runRows) {
+          runs.add(sorter.spill(run));
+          run.clear();
+        }
+      }
+      if (!run.isEmpty()) {
+        runs.add(sorter.spill(run));
+      }
+      while (runs.size() > MAX_FAN_IN) {
+        List<Path> merged = new ArrayList<>();
+        for (int from = 0; from < runs.size(); from += MAX_FAN_IN) {
+          List<Path> group = runs.subList(from, Math.min(from + MAX_FAN_IN, runs.size()));
+          merged.add(group.size() == 1 ? group.get(0) : sorter.merge(group, false));
+        }
+        runs = merged;
+      }
+      Path sorted = sorter.merge(runs, true);
+      // Rows with no value were not sorted, and are appended in their original order
+      try (DataOutputStream out =
+          new DataOutputStream(
+              new BufferedOutputStream(
+                  Files.newOutputStream(sorted, StandardOpenOption.APPEND), BUFFER_BYTES))) {
+        for (int row = start; row < rows.size(); row++) {
+          if (sorter.entry(rows, column, col, row) == null) {
+            out.writeInt(row);
+          }
+        }
+      }
+      return RowOrder.spilled(sorted, rows.size() - start);
+    } catch (IOException | RuntimeException e) {
+      sorter.deleteAll();
+      throw e;
+    }
+  }
+
+  /**
+   * Deletes every file spilled so far and the temporary directory, after a sort fails.
+   *
+   * @throws IOException if the directory cannot be listed
+   */
+  private void deleteAll() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        Files.deleteIfExists(file);
+      }
+    }
+    Files.deleteIfExists(directory);
+  }
+
+  /**
+   * Reads the value of a row in the sorted column.
+   *
+   * @param rows the rows of the CSV
+   * @param column the TypedColumn of the sorted column, or null if no row is that wide
+   * @param col the index of the sorted column
+   * @param row the index of the row
+   * @return the Entry of the row, or null if it has no value in the column
+   */
+  private Entry entry(List<List<String>> rows, TypedColumn column, int col, int row) {
+    if (numeric) {
+      return column.isNull(row) ? null : new Entry(column.numericAt(row), null, row);
+    }
+    List<String> cells = rows.get(row);
+    String cell = col < cells.size() ? cells.get(col) : "";
+    return cell.isBlank() ? null : new Entry(0, cell, row);
+  }
+
+  /**
+   * Sorts a run of entries and writes it to a new file in the temporary directory.
+   *
+   * @param run the entries to sort, which are reordered
+   * @return the file holding the sorted run
+   * @throws IOException if the file cannot be written
+   */
+  private Path spill(List<Entry> run) throws IOException {
+    run.sort(comparator);
+    Path file = Files.createTempFile(directory, "run-", ".bin");
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_BYTES))) {
+      for (Entry entry : run) {
+        write(out, entry);
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Merges sorted runs into one file, deleting the runs. The merged file holds entries, to be
+   * merged again, or just the row index of each entry if it is the final order.
+   *
+   * @param runs the files of the sorted runs
+   * @param rowsOnly whether to write only row indexes
+   * @return the merged file
+   * @throws IOException if a run cannot be read or the merged file cannot be written
+   */
+  private Path merge(List<Path> runs, boolean rowsOnly) throws IOException {
+    Path file = Files.createTempFile(directory, rowsOnly ? "sorted-" : "run-", ".bin");
+    List<RunReader> readers = new ArrayList<>(runs.size());
+    PriorityQueue<RunReader> heap =
+        new PriorityQueue<>(Math.max(1, runs.size()), (a, b) -> comparator.compare(a.head, b.head));
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_BYTES))) {
+      for (Path run : runs) {
+        RunReader reader = new RunReader(run);
+        readers.add(reader);
+        if (reader.advance()) {
+          heap.add(reader);
+        }
+      }
+      while (!heap.isEmpty()) {
+        RunReader reader = heap.poll();
+        if (rowsOnly) {
+          out.writeInt(reader.head.row());
+        } else {
+          write(out, reader.head);
+        }
+        if (reader.advance()) {
+          heap.add(reader);
+        }
+      }
+    } finally {
+      for (RunReader reader : readers) {
+        reader.close();
+      }
+      for (Path run : runs) {
+        Files.deleteIfExists(run);
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Writes an entry to a run: its value, then its row index.
+   *
+   * @param out the stream of the run
+   * @param entry the Entry to write
+   * @throws IOException if the run cannot be written
+   */
+  private void write(DataOutputStream out, Entry entry) throws IOException {
+    if (numeric) {
+      out.writeDouble(entry.number());
+    } else {
+      // Cells may be longer than writeUTF allows, so are written as a length and UTF-8 bytes
+      byte[] bytes = entry.text().getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+    out.writeInt(entry.row());
+  }
+
+  /** This RunReader class reads the entries of one sorted run in order, one at a time. */
+  private final class RunReader implements Closeable {
+    private final DataInputStream in;
+    private Entry head;
+
+    /**
+     * The constructor for the RunReader class.
+     *
+     * @param run the file of the run to read
+     * @throws IOException if the file cannot be opened
+     */
+    RunReader(Path run) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 8192));
+    }
+
+    /**
+     * Reads the next entry of the run into head.
+     *
+     * @return false if the run has no more entries
+     * @throws IOException if the run cannot be read
+     */
+    boolean advance() throws IOException {
+      try {
+        if (numeric) {
+          double number = in.readDouble();
+          head = new Entry(number, null, in.readInt());
+        } else {
+          byte[] bytes = new byte[in.readInt()];
+          in.readFully(bytes);
+          head = new Entry(0, new String(bytes, StandardCharsets.UTF_8), in.readInt());
+        }
+        return true;
+      } catch (EOFException e) {
+        head = null;
+        return false;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,464 @@
+package edu.brown.cs.student.main.csv.search;
+
+import edu.brown.cs.student.main.csv.table.ColumnType;
+import edu.brown.cs.student.main.csv.table.TypedColumn;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This GroupBy class groups the rows of a CSV by the values of some columns, and computes
+ * Aggregates of each group, for the /aggregate endpoint.
+ *
+ * <p>Rows are grouped by int codes rather than by text. Each group-by column's DictionaryColumn
+ * gives every row a code; codes of several columns are combined pairwise, through a direct table
+ * when there are few enough combinations and a primitive hash table otherwise, and then renumbered
+ * 0, 1, 2 and so on in the order groups first appear. Aggregates are then accumulated into
+ * primitive arrays indexed by group, reading values from the TypedTable's primitive columns.
+ *
+ * <p>Large CSVs are aggregated on the ParallelScan pool: the rows are halved into chunks, each
+ * chunk fills its own partial arrays, and the partials are merged as the chunks finish.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+final class GroupBy {
+  /** The most code combinations combined through a direct table instead of a hash table. */
+  private static final int DIRECT_KEYS = 1 << 22;
+
+  private final ColumnIndexes indexes;
+  private final int start;
+  private final int end;
+  private final int[] groupCols;
+  private final int[] groupIds;
+  private final int[] firstRows;
+
+  /**
+   * The constructor for the GroupBy class, which assigns every row its group.
+   *
+   * @param indexes the ColumnIndexes of the CSV
+   * @param rowCount the number of rows in the CSV
+   * @param start the first row to group, which is 1 when the first row is a header
+   * @param groupCols the indexes of the columns to group by, possibly none
+   */
+  GroupBy(ColumnIndexes indexes, int rowCount, int start, int[] groupCols) {
+    this.indexes = indexes;
+    this.start = start;
+    this.end = rowCount;
+    this.groupCols = groupCols;
+    this.groupIds = new int[rowCount];
+    int cardinality = 1;
+    for (int i = 0; i < groupCols.length; i++) {
+      DictionaryColumn dictionary = indexes.dictionary(groupCols[i]);
+      if (i == 0) {
+        System.arraycopy(dictionary.codes(), 0, groupIds, 0, rowCount);
+        cardinality = dictionary.cardinality();
+      } else {
+        cardinality = combine(cardinality, dictionary.codes(), dictionary.cardinality());
+      }
+      cardinality = renumber(cardinality, null);
+    }
+    int[] first = new int[cardinality];
+    this.firstRows = Arrays.copyOf(first, renumber(cardinality, first));
+  }
+
+  /**
+   * Combines each row's group with its code in one more column, giving every distinct pair its own
+   * group.
+   *
+   * @param cardinality the number of groups so far
+   * @param codes the codes of the next column
+   * @param codeCardinality the number of codes of the next column
+   * @return the number of combined groups, which may include some no row is in
+   */
+  private int combine(int cardinality, int[] codes, int codeCardinality) {
+    long keys = (long) cardinality * codeCardinality;
+    if (keys <= DIRECT_KEYS) {
+      for (int r = start; r < end; r++) {
+        groupIds[r] = groupIds[r] * codeCardinality + codes[r];
+      }
+      return (int) keys;
+    }
+    LongIntMap pairs = new LongIntMap();
+    for (int r = start; r < end; r++) {
+      groupIds[r] = pairs.idOf((long) groupIds[r] * codeCardinality + codes[r]);
+    }
+    return pairs.size();
+  }
+
+  /**
+   * Renumbers the groups 0, 1, 2 and so on in the order they first appear, dropping groups no row
+   * is in, such as one only the header row had.
+   *
+   * @param cardinality the number of groups before renumbering
+   * @param firstRows an array to fill with the first row of each group, or null
+   * @return the number of groups no row is missing from
+   */
+  private int renumber(int cardinality, int[] firstRows) {
+    int[] renumbered = new int[cardinality];
+    Arrays.fill(renumbered, -1);
+    int groups = 0;
+    for (int r = start; r < end; r++) {
+      int group = groupIds[r];
+      if (renumbered[group] < 0) {
+        if (firstRows != null) {
+          firstRows[groups] = r;
+        }
+        renumbered[group] = groups++;
+      }
+      groupIds[r] = renumbered[group];
+    }
+    return groups;
+  }
+
+  /**
+   * Returns the number of groups.
+   *
+   * @return the group count
+   */
+  int groupCount() {
+    return firstRows.length;
+  }
+
+  /**
+   * Computes aggregates of every group.
+   *
+   * @param columns the names of the result columns, the group-by columns and then the aggregates
+   * @param aggregates the Aggregates to compute
+   * @param aggregateCols the column index each aggregate reads, or -1 for a count of rows
+   * @param parallelThreshold the fewest rows to aggregate in parallel
+   * @return the AggregateResult, with a row per group in order of first appearance
+   */
+  AggregateResult aggregate(
+      List<String> columns,
+      List<Aggregate> aggregates,
+      int[] aggregateCols,
+      int parallelThreshold) {
+    // Each column is accumulated once, however many aggregates read it
+    int[] valueCols = Arrays.stream(aggregateCols).filter(c -> c >= 0).distinct().toArray();
+    boolean[] numeric = new boolean[valueCols.length];
+    for (int i = 0; i < aggregates.size(); i++) {
+      if (aggregates.get(i).function() != Aggregate.Function.COUNT) {
+        numeric[indexOf(valueCols, aggregateCols[i])] = true;
+      }
+    }
+    int size = end - start;
+    Partial totals;
+    // With nearly a group per row, partial arrays would cost more than the threads save
+    if (size >= parallelThreshold && groupCount() <= size / 8) {
+      int minChunkRows = parallelThreshold / Runtime.getRuntime().availableProcessors();
+      totals =
+          ParallelScan.invoke(
+              size,
+              minChunkRows,
+              splits -> new AccumulateTask(valueCols, numeric, start, end, splits));
+    } else {
+      totals = new AccumulateTask(valueCols, numeric, start, end, 0).compute();
+    }
+
+    List<List<Object>> rows = new ArrayList<>(groupCount());
+    for (int group = 0; group < groupCount(); group++) {
+      List<Object> row = new ArrayList<>(columns.size());
+      for (int col : groupCols) {
+        DictionaryColumn dictionary = indexes.dictionary(col);
+        row.add(dictionary.value(dictionary.code(firstRows[group])));
+      }
+      for (int i = 0; i < aggregates.size(); i++) {
+        int col = aggregateCols[i];
+        row.add(
+            col < 0
+                ? (Object) totals.rows[group]
+                : totals.value(
+                    aggregates.get(i).function(),
+                    indexOf(valueCols, col),
+                    indexes.table().column(col).type(),
+                    group));
+      }
+      rows.add(Collections.unmodifiableList(row));
+    }
+    return new AggregateResult(List.copyOf(columns), Collections.unmodifiableList(rows));
+  }
+
+  /**
+   * Finds a column in an array of column indexes.
+   *
+   * @param cols the column indexes
+   * @param col the column to find
+   * @return its position in cols
+   */
+  private static int indexOf(int[] cols, int col) {
+    for (int i = 0; i < cols.length; i++) {
+      if (cols[i] == col) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("Column " + col + " is not aggregated");
+  }
+
+  /** The aggregates of some of the rows, in primitive arrays indexed by group. */
+  private final class Partial {
+    private final long[] rows;
+    private final long[][] counts;
+    private final long[][] longSums;
+    private final double[][] sums;
+    private final double[][] mins;
+    private final double[][] maxes;
+
+    /**
+     * The constructor for an empty Partial.
+     *
+     * @param valueCols the columns aggregated
+     * @param numeric whether each column needs sums, minimums and maximums, or only counts
+     */
+    Partial(int[] valueCols, boolean[] numeric) {
+      int groups = groupCount();
+      this.rows = new long[groups];
+      this.counts = new long[valueCols.length][];
+      this.longSums = new long[valueCols.length][];
+      this.sums = new double[valueCols.length][];
+      this.mins = new double[valueCols.length][];
+      this.maxes = new double[valueCols.length][];
+      for (int i = 0; i < valueCols.length; i++) {
+        counts[i] = new long[groups];
+        if (!numeric[i]) {
+          continue;
+        }
+        if (indexes.table().column(valueCols[i]).type() == ColumnType.LONG) {
+          longSums[i] = new long[groups];
+        } else {
+          sums[i] = new double[groups];
+        }
+        mins[i] = new double[groups];
+        maxes[i] = new double[groups];
+        Arrays.fill(mins[i], Double.POSITIVE_INFINITY);
+        Arrays.fill(maxes[i], Double.NEGATIVE_INFINITY);
+      }
+    }
+
+    /**
+     * Adds the aggregates of another Partial into this one.
+     *
+     * @param other the Partial of other rows
+     */
+    void merge(Partial other) {
+      for (int g = 0; g < rows.length; g++) {
+        rows[g] += other.rows[g];
+      }
+      for (int i = 0; i < counts.length; i++) {
+        for (int g = 0; g < rows.length; g++) {
+          counts[i][g] += other.counts[i][g];
+        }
+        if (mins[i] == null) {
+          continue;
+        }
+        for (int g = 0; g < rows.length; g++) {
+          if (longSums[i] != null) {
+            longSums[i][g] += other.longSums[i][g];
+          } else {
+            sums[i][g] += other.sums[i][g];
+          }
+          mins[i][g] = Math.min(mins[i][g], other.mins[i][g]);
+          maxes[i][g] = Math.max(maxes[i][g], other.maxes[i][g]);
+        }
+      }
+    }
+
+    /**
+     * Reads the value of one aggregate of one group.
+     *
+     * @param function the Function of the aggregate
+     * @param i the position of the aggregated column among the value columns
+     * @param type the ColumnType of the aggregated column
+     * @param group the group
+     * @return the value, or null if the group has no values in the column
+     */
+    Object value(Aggregate.Function function, int i, ColumnType type, int group) {
+      long count = counts[i][group];
+      if (function == Aggregate.Function.COUNT) {
+        return count;
+      } else if (count == 0) {
+        return null;
+      }
+      return switch (function) {
+        case SUM -> longSums[i] != null ? (Object) longSums[i][group] : (Object) sums[i][group];
+        case AVG -> (longSums[i] != null ? longSums[i][group] : sums[i][group]) / count;
+        case MIN -> extreme(mins[i][group], type);
+        case MAX -> extreme(maxes[i][group], type);
+        case COUNT -> count;
+      };
+    }
+
+    /**
+     * Converts a minimum or maximum to the type of its column.
+     *
+     * @param value the value as a double
+     * @param type the ColumnType of the column
+     * @return a Long, a Double, or an ISO date
+     */
+    private Object extreme(double value, ColumnType type) {
+      return switch (type) {
+        case LONG -> (long) value;
+        case DATE -> LocalDate.ofEpochDay((long) value).toString();
+        default -> value;
+      };
+    }
+  }
+
+  /** Accumulates the aggregates of a range of rows, halving it first while it has splits left. */
+  private final class AccumulateTask extends RecursiveTask<Partial> {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] valueCols;
+    private final boolean[] numeric;
+    private final int from;
+    private final int to;
+    private final int splits;
+
+    /**
+     * The constructor for an AccumulateTask.
+     *
+     * @param valueCols the columns aggregated
+     * @param numeric whether each column needs sums, minimums and maximums, or only counts
+     * @param from the first row of the range
+     * @param to the row after the last row of the range
+     * @param splits how many more times the range may be halved
+     */
+    AccumulateTask(int[] valueCols, boolean[] numeric, int from, int to, int splits) {
+      this.valueCols = valueCols;
+      this.numeric = numeric;
+      this.from = from;
+      this.to = to;
+      this.splits = splits;
+    }
+
+    @Override
+    protected Partial compute() {
+      if (splits > 0 && to - from > 1) {
+        int middle = (from + to) >>> 1;
+        AccumulateTask first = new AccumulateTask(valueCols, numeric, from, middle, splits - 1);
+        first.fork();
+        Partial second = new AccumulateTask(valueCols, numeric, middle, to, splits - 1).compute();
+        Partial partial = first.join();
+        partial.merge(second);
+        return partial;
+      }
+      Partial partial = new Partial(valueCols, numeric);
+      for (int r = from; r < to; r++) {
+        partial.rows[groupIds[r]]++;
+      }
+      for (int i = 0; i < valueCols.length; i++) {
+        TypedColumn column = indexes.table().column(valueCols[i]);
+        long[] counts = partial.counts[i];
+        if (!numeric[i]) {
+          for (int r = from; r < to; r++) {
+            if (!column.isNull(r)) {
+              counts[groupIds[r]]++;
+            }
+          }
+          continue;
+        }
+        long[] longSums = partial.longSums[i];
+        double[] sums = partial.sums[i];
+        double[] mins = partial.mins[i];
+        double[] maxes = partial.maxes[i];
+        for (int r = from; r < to; r++) {
+          if (column.isNull(r)) {
+            continue;
+          }
+          int group = groupIds[r];
+          counts[group]++;
+          double value = column.numericAt(r);
+          if (longSums != null) {
+            longSums[group] += column.longAt(r);
+          } else {
+            sums[group] += value;
+          }
+          mins[group] = Math.min(mins[group], value);
+          maxes[group] = Math.max(maxes[group], value);
+        }
+      }
+      return partial;
+    }
+  }
+
+  /**
+   * A map from long keys to ids 0, 1, 2 and so on, in the order keys are first seen, using open
+   * addressing over primitive arrays.
+   */
+  private static final class LongIntMap {
+    private long[] keys = new long[1024];
+    private int[] ids = new int[1024];
+    private int size;
+
+    /** The constructor for an empty LongIntMap. */
+    LongIntMap() {
+      Arrays.fill(ids, -1);
+    }
+
+    /**
+     * Returns the id of a key, giving it the next id if it has none yet.
+     *
+     * @param key the key
+     * @return its id
+     */
+    int idOf(long key) {
+      int mask = keys.length - 1;
+      int slot = (int) mix(key) & mask;
+      while (ids[slot] >= 0) {
+        if (keys[slot] == key) {
+          return ids[slot];
+        }
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      ids[slot] = size;
+      if (++size * 2 > keys.length) {
+        grow();
+      }
+      return size - 1;
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return the key count
+     */
+    int size() {
+      return size;
+    }
+
+    /** Doubles the table, keeping it at most half full. */
+    private void grow() {
+      long[] oldKeys = keys;
+      int[] oldIds = ids;
+      keys = new long[oldKeys.length * 2];
+      ids = new int[oldIds.length * 2];
+      Arrays.fill(ids, -1);
+      int mask = keys.length - 1;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldIds[i] >= 0) {
+          int slot = (int) mix(oldKeys[i]) & mask;
+          while (ids[slot] >= 0) {
+            slot = (slot + 1) & mask;
+          }
+          keys[slot] = oldKeys[i];
+          ids[slot] = oldIds[i];
+        }
+      }
+    }
+
+    /**
+     * Scrambles the bits of a key, so that keys differing only in their high bits spread out.
+     *
+     * @param key the key
+     * @return the scrambled key
+     */
+    private static long mix(long key) {
+      long h = key * 0x9E3779B97F4A7C15L;
+      return h ^ (h >>> 32);
+    }
+  }
+}
@@ -0,0 +1,364 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * This HashJoin class joins the rows of two CSVs whose cells in a column of each are equal, as an
+ * inner join: every pair of a left row and a right row with the same key is joined, and rows whose
+ * key is empty or missing join nothing. Keys are compared by their exact text, as exact searches
+ * compare cells.
+ *
+ * <p>A hash table of the smaller side (the build side) is made, mapping each key to a chain of the
+ * build rows holding it, and the rows of the larger side (the probe side) are then streamed past
+ * it, so each joined pair is handed to a RowSink as soon as it is found and the joined rows are
+ * never all held at once. Joined pairs come in the probe side's row order, and for each probe row
+ * in the build side's row order.
+ *
+ * <p>If the hash table of the build side would take more than a memory budget, the join runs as a
+ * grace hash join instead: the key and row index of every row of each side are spilled to one of
+ * several partition files by the hash of the key, so that rows with equal keys land in the same
+ * partition, and each pair of partitions is then joined on its own with a table that fits the
+ * budget. The rows themselves are already in memory, so only keys and row indexes are spilled.
+ * Joined pairs then come a partition at a time.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class HashJoin {
+  /** About how many bytes of heap one build row takes in the hash table, besides its key. */
+  static final int BYTES_PER_BUILD_ROW = 56;
+
+  /** The most partitions a grace hash join spills each side to. */
+  static final int MAX_PARTITIONS = 256;
+
+  private static final int BUFFER_BYTES = 8 * 1024;
+
+  /** This RowSink interface receives each joined pair of rows as the join finds it. */
+  @FunctionalInterface
+  public interface RowSink {
+    /**
+     * Receives a joined pair of rows.
+     *
+     * @param left the row of the left CSV
+     * @param right the row of the right CSV
+     * @throws IOException if the pair cannot be written out
+     */
+    void accept(List<String> left, List<String> right) throws IOException;
+  }
+
+  private final List<List<String>> leftRows;
+  private final int leftStart;
+  private final int leftCol;
+  private final List<List<String>> rightRows;
+  private final int rightStart;
+  private final int rightCol;
+  private final long memoryBudget;
+
+  /**
+   * The constructor for the HashJoin class, which joins nothing until run is called.
+   *
+   * @param leftRows the rows of the left CSV
+   * @param leftStart the first row of the left CSV to join, 1 to leave out a header
+   * @param leftCol the index of the left CSV's key column
+   * @param rightRows the rows of the right CSV
+   * @param rightStart the first row of the right CSV to join, 1 to leave out a header
+   * @param rightCol the index of the right CSV's key column
+   * @param memoryBudget the most bytes of heap the hash table may take before the join is spilled
+   */
+  public HashJoin(
+      List<List<String>> leftRows,
+      int leftStart,
+      int leftCol,
+      List<List<String>> rightRows,
+      int rightStart,
+      int rightCol,
+      long memoryBudget) {
+    this.leftRows = leftRows;
+    this.leftStart = leftStart;
+    this.leftCol = leftCol;
+    this.rightRows = rightRows;
+    this.rightStart = rightStart;
+    this.rightCol = rightCol;
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * Runs the join, handing every joined pair of rows to the sink as it is found.
+   *
+   * @param sink the RowSink receiving each joined pair, left row first
+   * @return the number of joined pairs
+   * @throws IOException if the sink fails, or the partitions of a grace hash join cannot be written
+   *     or read
+   */
+  public long run(RowSink sink) throws IOException {
+    // Build on whichever side has fewer rows, and hand pairs to the sink left row first either way
+    boolean buildLeft = leftRows.size() - leftStart <= rightRows.size() - rightStart;
+    Side build = buildLeft ? left() : right();
+    Side probe = buildLeft ? right() : left();
+    RowSink oriented = buildLeft ? (probeRow, buildRow) -> sink.accept(buildRow, probeRow) : sink;
+    long buildBytes = 0;
+    for (int row = build.start(); row < build.rows().size(); row++) {
+      String key = build.key(row);
+      if (key != null) {
+        buildBytes += BYTES_PER_BUILD_ROW + key.length();
+      }
+    }
+    if (buildBytes <= memoryBudget) {
+      Table table = new Table(build.rows().size());
+      for (int row = build.rows().size() - 1; row >= build.start(); row--) {
+        table.add(build.key(row), row);
+      }
+      long joined = 0;
+      for (int row = probe.start(); row < probe.rows().size(); row++) {
+        joined += table.probe(probe.key(row), probe.rows().get(row), build.rows(), oriented);
+      }
+      return joined;
+    }
+    int partitions =
+        (int) Math.min(MAX_PARTITIONS, Math.max(2, 2 * buildBytes / Math.max(1, memoryBudget)));
+    return grace(build, probe, partitions, oriented);
+  }
+
+  /**
+   * Returns the left side of the join.
+   *
+   * @return the Side of the left CSV
+   */
+  private Side left() {
+    return new Side(leftRows, leftStart, leftCol);
+  }
+
+  /**
+   * Returns the right side of the join.
+   *
+   * @return the Side of the right CSV
+   */
+  private Side right() {
+    return new Side(rightRows, rightStart, rightCol);
+  }
+
+  /**
+   * Runs the join as a grace hash join: spills both sides to partitions by the hash of their keys,
+   * then joins each pair of partitions in memory.
+   *
+   * @param build the Side the hash tables are built from
+   * @param probe the Side streamed past the hash tables
+   * @param partitions the number of partitions to spill each side to
+   * @param sink the RowSink receiving each joined pair, probe row first
+   * @return the number of joined pairs
+   * @throws IOException if the sink fails, or a partition cannot be written or read
+   */
+  private long grace(Side build, Side probe, int partitions, RowSink sink) throws IOException {
+    Path directory = Files.createTempDirectory("repl-join-");
+    try {
+      Path[] buildFiles = build.spill(directory, "build-", partitions);
+      Path[] probeFiles = probe.spill(directory, "probe-", partitions);
+      Table table = new Table(build.rows().size());
+      long[] joined = new long[1];
+      for (int p = 0; p < partitions; p++) {
+        // Chains are built in reverse, so each key's chain lists build rows in their original order
+        List<String> keys = new ArrayList<>();
+        List<Integer> rows = new ArrayList<>();
+        readPartition(
+            buildFiles[p],
+            (key, row) -> {
+              keys.add(key);
+              rows.add(row);
+            });
+        table.clear();
+        for (int i = keys.size() - 1; i >= 0; i--) {
+          table.add(keys.get(i), rows.get(i));
+        }
+        readPartition(
+            probeFiles[p],
+            (key, row) -> joined[0] += table.probe(key, probe.rows().get(row), build.rows(), sink));
+        Files.deleteIfExists(buildFiles[p]);
+        Files.deleteIfExists(probeFiles[p]);
+      }
+      return joined[0];
+    } finally {
+      try (Stream<Path> files = Files.list(directory)) {
+        for (Path file : files.toList()) {
+          Files.deleteIfExists(file);
+        }
+      }
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  /**
+   * Reads the keys and row indexes of a spilled partition, in the order they were spilled.
+   *
+   * @param file the partition file
+   * @param action the EntryAction called with each key and row index
+   * @throws IOException if the file cannot be read, or the action fails
+   */
+  private static void readPartition(Path file, EntryAction action) throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES))) {
+      while (true) {
+        int length;
+        try {
+          length = in.readInt();
+        } catch (EOFException e) {
+          return;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        action.accept(new String(bytes, StandardCharsets.UTF_8), in.readInt());
+      }
+    }
+  }
+
+  /** This EntryAction interface receives the key and row index of each row of a partition. */
+  @FunctionalInterface
+  private interface EntryAction {
+    /**
+     * Receives one row of a partition.
+     *
+     * @param key the row's key
+     * @param row the row index
+     * @throws IOException if the row cannot be joined
+     */
+    void accept(String key, int row) throws IOException;
+  }
+
+  /**
+   * A record representing one side of the join: a CSV's rows and its key column.
+   *
+   * @param rows the rows of the CSV
+   * @param start the first row to join
+   * @param col the index of the key column
+   */
+  private record Side(List<List<String>> rows, int start, int col) {
+
+    /**
+     * Returns the key of a row.
+     *
+     * @param row the row index
+     * @return the row's cell in the key column, or null if it is empty or missing
+     */
+    String key(int row) {
+      List<String> cells = rows.get(row);
+      String cell = col < cells.size() ? cells.get(col) : "";
+      return cell.isBlank() ? null : cell;
+    }
+
+    /**
+     * Writes the key and row index of every row with a key to one of several partition files,
+     * chosen by the hash of the key.
+     *
+     * @param directory the directory to write the partitions to
+     * @param prefix the prefix of the partition file names
+     * @param partitions the number of partitions
+     * @return the partition files
+     * @throws IOException if a partition cannot be written
+     */
+    Path[] spill(Path directory, String prefix, int partitions) throws IOException {
+      Path[] files = new Path[partitions];
+      DataOutputStream[] outs = new DataOutputStream[partitions];
+      try {
+        for (int p = 0; p < partitions; p++) {
+          files[p] = directory.resolve(prefix + p + ".bin");
+          outs[p] =
+              new DataOutputStream(
+                  new BufferedOutputStream(Files.newOutputStream(files[p]), BUFFER_BYTES));
+        }
+        for (int row = start; row < rows.size(); row++) {
+          String key = key(row);
+          if (key == null) {
+            continue;
+          }
+          // Spread the hash's high bits, since String hashes of similar keys differ in low bits
+          int hash = key.hashCode();
+          DataOutputStream out = outs[Math.floorMod(hash ^ (hash >>> 16), partitions)];
+          byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+          out.writeInt(bytes.length);
+          out.write(bytes);
+          out.writeInt(row);
+        }
+      } finally {
+        for (DataOutputStream out : outs) {
+          if (out != null) {
+            out.close();
+          }
+        }
+      }
+      return files;
+    }
+  }
+
+  /**
+   * This Table class is the hash table of the build side: the first build row of each key, and for
+   * every build row, the next build row with the same key, so that a key's rows are a chain through
+   * an int[] rather than a list per key.
+   */
+  private static final class Table {
+    private final Map<String, Integer> heads = new HashMap<>();
+    private final int[] next;
+
+    /**
+     * The constructor for the Table class.
+     *
+     * @param rowCount the number of rows of the build side, so any row index can be chained
+     */
+    Table(int rowCount) {
+      this.next = new int[rowCount];
+    }
+
+    /** Empties the table, to build it again from another partition. */
+    void clear() {
+      heads.clear();
+    }
+
+    /**
+     * Adds a build row to the front of its key's chain.
+     *
+     * @param key the row's key, or null to leave the row out
+     * @param row the row index
+     */
+    void add(String key, int row) {
+      if (key != null) {
+        Integer head = heads.put(key, row);
+        next[row] = head == null ? -1 : head;
+      }
+    }
+
+    /**
+     * Joins a probe row with every build row of the same key.
+     *
+     * @param key the probe row's key, or null if it has none
+     * @param probeRow the probe row
+     * @param buildRows the rows of the build side
+     * @param sink the RowSink receiving each joined pair, probe row first
+     * @return the number of joined pairs
+     * @throws IOException if the sink fails
+     */
+    long probe(String key, List<String> probeRow, List<List<String>> buildRows, RowSink sink)
+        throws IOException {
+      if (key == null) {
+        return 0;
+      }
+      Integer head = heads.get(key);
+      long joined = 0;
+      for (int row = head == null ? -1 : head; row >= 0; row = next[row]) {
+        sink.accept(probeRow, buildRows.get(row));
+        joined++;
+      }
+      return joined;
+    }
+  }
+}
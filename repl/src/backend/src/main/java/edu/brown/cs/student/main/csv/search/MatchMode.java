@@ -0,0 +1,98 @@
+package edu.brown.cs.student.main.csv.search;
+
+import edu.brown.cs.student.main.csv.table.CellParser;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * This MatchMode enum lists the ways a /searchcsv value can match a cell. EXACT is the original
+ * behavior, comparing the cell's text exactly, quotes and case included. The other modes compare
+ * the folded text of the cell instead: without its surrounding quotes and spaces, and in lower
+ * case, so that "durham" finds "Durham" and "kent county" finds "Kent County, RI". REGEX only
+ * strips the quotes, leaving case to the pattern, which can use (?i) to ignore it.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public enum MatchMode {
+  /** The cell is exactly the value. */
+  EXACT("exact"),
+  /** The folded cell equals the folded value. */
+  CI("ci"),
+  /** The folded cell starts with the folded value. */
+  PREFIX("prefix"),
+  /** The folded cell contains the folded value anywhere. */
+  CONTAINS("contains"),
+  /** The value is a regex found somewhere in the cell, which is not folded but is unquoted. */
+  REGEX("regex");
+
+  private final String param;
+
+  /**
+   * The constructor for a MatchMode.
+   *
+   * @param param the name of the mode in the mode query parameter
+   */
+  MatchMode(String param) {
+    this.param = param;
+  }
+
+  /**
+   * Returns the name of this mode in the mode query parameter.
+   *
+   * @return the parameter value, such as contains
+   */
+  public String param() {
+    return param;
+  }
+
+  /**
+   * Finds the MatchMode named by a mode query parameter.
+   *
+   * @param param the parameter value, or null for EXACT
+   * @return the MatchMode it names
+   * @throws SearchException if it names no mode
+   */
+  public static MatchMode of(String param) throws SearchException {
+    if (param == null) {
+      return EXACT;
+    }
+    for (MatchMode mode : values()) {
+      if (mode.param.equals(param)) {
+        return mode;
+      }
+    }
+    throw new SearchException(
+        "Unknown mode " + param + ". Valid modes are exact, ci, prefix, contains and regex.");
+  }
+
+  /**
+   * Folds text for matching in the modes other than EXACT: strips surrounding quotes and spaces,
+   * and lowers its case.
+   *
+   * @param text the text of a cell or search value
+   * @return the folded text
+   */
+  public static String fold(String text) {
+    return CellParser.unquote(text).toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Checks whether a cell matches a value in this mode.
+   *
+   * @param cell the text of the cell, as parsed
+   * @param value the search value, already folded unless this mode is EXACT or REGEX
+   * @return true if the cell matches
+   * @throws java.util.regex.PatternSyntaxException if this mode is REGEX and the value is not a
+   *     valid regex
+   */
+  public boolean matches(String cell, String value) {
+    return switch (this) {
+      case EXACT -> cell.equals(value);
+      case CI -> fold(cell).equals(value);
+      case PREFIX -> fold(cell).startsWith(value);
+      case CONTAINS -> fold(cell).contains(value);
+      case REGEX -> Pattern.compile(value).matcher(CellParser.unquote(cell)).find();
+    };
+  }
+}
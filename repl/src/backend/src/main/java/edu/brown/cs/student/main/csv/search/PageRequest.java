@@ -0,0 +1,30 @@
+package edu.brown.cs.student.main.csv.search;
+
+/**
+ * This record asks a search for one page of its matching rows rather than all of them: at most
+ * limit rows, in file order or ranked by a column, continuing after the last row of the page
+ * before.
+ *
+ * <p>Rows ranked by a column come in the order /sortcsv sorts them: numeric and date columns by
+ * value and text columns lexically, ties in their original order, and rows with no value last. The
+ * last row of a page is enough to continue from, so after is that row's index rather than a count
+ * of rows to skip, and the next page never looks at the rows before it again.
+ *
+ * @param limit the most rows the page may hold, at least 1
+ * @param orderBy the name or index of the column to rank rows by, or null for file order
+ * @param descending whether the largest values of orderBy come first
+ * @param after the index of the last row of the previous page, or -1 for the first page
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public record PageRequest(int limit, String orderBy, boolean descending, int after) {
+
+  /**
+   * The constructor for a PageRequest of the first rows in file order.
+   *
+   * @param limit the most rows the page may hold, at least 1
+   */
+  public PageRequest(int limit) {
+    this(limit, null, false, -1);
+  }
+}
@@ -0,0 +1,136 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * This ParallelScan class checks every row of a large CSV on a ForkJoinPool, for the searches no
+ * index can answer. The rows are split into chunks with their Spliterator, each chunk is scanned on
+ * its own, and the matches of the chunks are joined back together in file order.
+ *
+ * <p>All scans share one pool with a thread per core, kept apart from the common pool so that scans
+ * do not compete with other parallel work in the JVM. To share it fairly, a scan splits its rows
+ * into no more chunks than its share of the threads among the scans running at once, so one large
+ * scan cannot fill the pool's queues ahead of the scans that start after it. Other work over every
+ * row, such as GroupBy aggregation, shares the pool the same way through invoke.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+final class ParallelScan {
+  private static final AtomicInteger ACTIVE_SCANS = new AtomicInteger();
+
+  /** Checks one row and adds it to the matches as many times as it matches. */
+  @FunctionalInterface
+  interface RowScanner {
+    /**
+     * Checks a row.
+     *
+     * @param row the row to check
+     * @param matches the List to add the row to if it matches
+     */
+    void scan(List<String> row, List<List<String>> matches);
+  }
+
+  /** Holds the pool, which is only started by the first parallel scan. */
+  private static final class PoolHolder {
+    private static final ForkJoinPool POOL =
+        new ForkJoinPool(
+            Runtime.getRuntime().availableProcessors(),
+            pool -> {
+              ForkJoinWorkerThread thread =
+                  ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+              thread.setName("csv-scan-" + thread.getPoolIndex());
+              thread.setDaemon(true);
+              return thread;
+            },
+            null,
+            false);
+  }
+
+  /** ParallelScan only has static methods. */
+  private ParallelScan() {}
+
+  /**
+   * Scans rows on the shared pool, waiting for the matches.
+   *
+   * @param rows the rows to scan
+   * @param minChunkRows the fewest rows worth handing to another thread
+   * @param scanner the RowScanner checking each row
+   * @return the matching rows, in the order of rows
+   */
+  static List<List<String>> scan(List<List<String>> rows, int minChunkRows, RowScanner scanner) {
+    return invoke(
+        rows.size(), minChunkRows, splits -> new ChunkTask(rows.spliterator(), scanner, splits));
+  }
+
+  /**
+   * Runs a task over some rows on the shared pool, waiting for its result. The task is told how
+   * many times it may halve its rows, which is just enough for this scan's share of the threads.
+   *
+   * @param size the number of rows the task covers
+   * @param minChunkRows the fewest rows worth handing to another thread
+   * @param task the function creating the task from the number of splits it may make
+   * @return the result of the task
+   * @param <T> the type of the task's result
+   */
+  static <T> T invoke(int size, int minChunkRows, IntFunction<ForkJoinTask<T>> task) {
+    int parallelism = PoolHolder.POOL.getParallelism();
+    int active = ACTIVE_SCANS.incrementAndGet();
+    try {
+      int wanted = Math.min(parallelism / active, size / Math.max(1, minChunkRows));
+      int chunks = Math.max(1, wanted);
+      // Each split halves a chunk, so this many splits make at most the chunks wanted
+      int splits = 31 - Integer.numberOfLeadingZeros(chunks);
+      return PoolHolder.POOL.invoke(task.apply(splits));
+    } finally {
+      ACTIVE_SCANS.decrementAndGet();
+    }
+  }
+
+  /** Scans one chunk of rows, splitting it in two first while it has splits left. */
+  private static final class ChunkTask extends RecursiveTask<List<List<String>>> {
+    private static final long serialVersionUID = 1L;
+
+    private final Spliterator<List<String>> rows;
+    private final RowScanner scanner;
+    private final int splits;
+
+    /**
+     * The constructor for a ChunkTask.
+     *
+     * @param rows the Spliterator over the chunk's rows
+     * @param scanner the RowScanner checking each row
+     * @param splits how many more times the chunk may be halved
+     */
+    ChunkTask(Spliterator<List<String>> rows, RowScanner scanner, int splits) {
+      this.rows = rows;
+      this.scanner = scanner;
+      this.splits = splits;
+    }
+
+    @Override
+    protected List<List<String>> compute() {
+      Spliterator<List<String>> prefix = splits > 0 ? rows.trySplit() : null;
+      if (prefix == null) {
+        List<List<String>> matches = new ArrayList<>();
+        rows.forEachRemaining(row -> scanner.scan(row, matches));
+        return matches;
+      }
+      // trySplit hands back the first half, so its matches come first
+      ChunkTask first = new ChunkTask(prefix, scanner, splits - 1);
+      first.fork();
+      List<List<String>> second = new ChunkTask(rows, scanner, splits - 1).compute();
+      List<List<String>> matches = first.join();
+      matches.addAll(second);
+      return matches;
+    }
+  }
+}
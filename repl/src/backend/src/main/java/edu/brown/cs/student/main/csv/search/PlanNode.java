@@ -0,0 +1,652 @@
+package edu.brown.cs.student.main.csv.search;
+
+import edu.brown.cs.student.main.csv.table.TypedColumn;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * This PlanNode class is one step of a QueryPlan. Every node can do two things: evaluate, which
+ * returns every matching row in the range of rows being searched, and matches, which checks one
+ * row. Indexed nodes evaluate from an index; the others can only check rows one at a time, and the
+ * QueryPlanner only evaluates them inside a Scan, which makes a single pass over the rows checking
+ * a whole subtree at once.
+ *
+ * <p>Each node also carries an estimate of how many rows it matches, which the QueryPlanner uses to
+ * decide the order and strategy of intersections, and a one-line description for explain.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+abstract class PlanNode {
+  /** The first row being searched, which is 1 when the first row is a header. */
+  protected final int start;
+
+  /** One past the last row being searched. */
+  protected final int end;
+
+  /**
+   * The constructor for a PlanNode.
+   *
+   * @param start the first row being searched
+   * @param end one past the last row being searched
+   */
+  protected PlanNode(int start, int end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns the estimated number of rows this node matches.
+   *
+   * @return the estimated row count
+   */
+  abstract long estimate();
+
+  /**
+   * Returns whether evaluate uses an index, rather than checking every row.
+   *
+   * @return true if this node is indexed
+   */
+  abstract boolean indexed();
+
+  /**
+   * Finds the rows this node matches. Rows outside the searched range may be included, and are
+   * dropped by the QueryPlan.
+   *
+   * @return the RowSet of matching rows
+   */
+  abstract RowSet evaluate();
+
+  /**
+   * Checks whether this node matches one row.
+   *
+   * @param row the row index
+   * @return true if the row matches
+   */
+  abstract boolean matches(int row);
+
+  /**
+   * Describes this node on one line, for explain.
+   *
+   * @return the description
+   */
+  abstract String describe();
+
+  /**
+   * Returns the nodes this node combines, if any.
+   *
+   * @return the child nodes
+   */
+  List<PlanNode> children() {
+    return List.of();
+  }
+
+  /**
+   * Returns the label put before a child's description in explain, saying what is done with it.
+   *
+   * @param child one of this node's children
+   * @return the label, possibly empty
+   */
+  String role(PlanNode child) {
+    return "";
+  }
+
+  /**
+   * Appends the explain lines of this node and its children, indenting children by two spaces.
+   *
+   * @param out the list of lines to append to
+   * @param indent the indentation of this node
+   * @param role the label given to this node by its parent
+   */
+  void explain(List<String> out, String indent, String role) {
+    out.add(indent + role + describe() + " (est. " + estimate() + " rows)");
+    for (PlanNode child : children()) {
+      child.explain(out, indent + "  ", role(child));
+    }
+  }
+
+  /**
+   * Checks every searched row with matches, the fallback for nodes without an index.
+   *
+   * @return the RowSet of matching rows
+   */
+  protected RowSet scan() {
+    int[] out = new int[Math.max(0, end - start)];
+    int n = 0;
+    for (int row = start; row < end; row++) {
+      if (matches(row)) {
+        out[n++] = row;
+      }
+    }
+    return RowSet.of(out, n);
+  }
+
+  /** A leaf finding the rows where a column has exactly some text, from its PostingsIndex. */
+  static final class Lookup extends PlanNode {
+    private final Query.Comparison comparison;
+    private final PostingsIndex index;
+
+    /**
+     * The constructor for a Lookup.
+     *
+     * @param start the first row being searched
+     * @param end one past the last row being searched
+     * @param comparison the equality comparison being looked up
+     * @param index the PostingsIndex of the compared column
+     */
+    Lookup(int start, int end, Query.Comparison comparison, PostingsIndex index) {
+      super(start, end);
+      this.comparison = comparison;
+      this.index = index;
+    }
+
+    @Override
+    long estimate() {
+      return index.count(comparison.value());
+    }
+
+    @Override
+    boolean indexed() {
+      return true;
+    }
+
+    @Override
+    RowSet evaluate() {
+      return index.rows(comparison.value());
+    }
+
+    @Override
+    boolean matches(int row) {
+      return index.rows(comparison.value()).contains(row);
+    }
+
+    @Override
+    String describe() {
+      return "lookup " + comparison + " in " + index.distinctValues() + " distinct values";
+    }
+  }
+
+  /** A leaf finding the rows where a numeric or date column is in a range, from its SortedIndex. */
+  static final class RangeLookup extends PlanNode {
+    private final Query.Comparison comparison;
+    private final TypedColumn column;
+    private final SortedIndex index;
+    private final Double lower;
+    private final boolean lowerInclusive;
+    private final Double upper;
+    private final boolean upperInclusive;
+
+    /**
+     * The constructor for a RangeLookup.
+     *
+     * @param start the first row being searched
+     * @param end one past the last row being searched
+     * @param comparison the comparison being looked up
+     * @param column the compared TypedColumn
+     * @param index the SortedIndex of the column
+     * @param lower the lower bound, or null
+     * @param lowerInclusive whether the lower bound is in the range
+     * @param upper the upper bound, or null
+     * @param upperInclusive whether the upper bound is in the range
+     */
+    RangeLookup(
+        int start,
+        int end,
+        Query.Comparison comparison,
+        TypedColumn column,
+        SortedIndex index,
+        Double lower,
+        boolean lowerInclusive,
+        Double upper,
+        boolean upperInclusive) {
+      super(start, end);
+      this.comparison = comparison;
+      this.column = column;
+      this.index = index;
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+    }
+
+    @Override
+    long estimate() {
+      return index.countInRange(lower, lowerInclusive, upper, upperInclusive);
+    }
+
+    @Override
+    boolean indexed() {
+      return true;
+    }
+
+    @Override
+    RowSet evaluate() {
+      return RowSet.of(index.rowsInRange(lower, lowerInclusive, upper, upperInclusive));
+    }
+
+    @Override
+    boolean matches(int row) {
+      if (row >= column.size() || column.isNull(row)) {
+        return false;
+      }
+      double value = column.numericAt(row);
+      boolean aboveLower = lower == null || (lowerInclusive ? value >= lower : value > lower);
+      boolean belowUpper = upper == null || (upperInclusive ? value <= upper : value < upper);
+      return aboveLower && belowUpper;
+    }
+
+    @Override
+    String describe() {
+      return "range " + comparison + " in sorted index of " + index.size() + " values";
+    }
+  }
+
+  /**
+   * A leaf matching no rows, for a comparison the column statistics show no row can match, such as
+   * a bound above the column's largest value. No index is built or read for it.
+   */
+  static final class Empty extends PlanNode {
+    private final Query.Comparison comparison;
+    private final String reason;
+
+    /**
+     * The constructor for an Empty.
+     *
+     * @param start the first row being searched
+     * @param end one past the last row being searched
+     * @param comparison the comparison that matches no rows
+     * @param reason why it matches none, for explain
+     */
+    Empty(int start, int end, Query.Comparison comparison, String reason) {
+      super(start, end);
+      this.comparison = comparison;
+      this.reason = reason;
+    }
+
+    @Override
+    long estimate() {
+      return 0;
+    }
+
+    @Override
+    boolean indexed() {
+      return true;
+    }
+
+    @Override
+    RowSet evaluate() {
+      return RowSet.empty();
+    }
+
+    @Override
+    boolean matches(int row) {
+      return false;
+    }
+
+    @Override
+    String describe() {
+      return "empty " + comparison + ": " + reason;
+    }
+  }
+
+  /** A leaf with no index, which can only check rows one at a time. */
+  static final class Filter extends PlanNode {
+    private final Query.Comparison comparison;
+    private final IntPredicate predicate;
+    private final long estimate;
+
+    /**
+     * The constructor for a Filter.
+     *
+     * @param start the first row being searched
+     * @param end one past the last row being searched
+     * @param comparison the comparison being checked
+     * @param predicate the check of one row
+     * @param estimate the estimated number of matching rows
+     */
+    Filter(int start, int end, Query.Comparison comparison, IntPredicate predicate, long estimate) {
+      super(start, end);
+      this.comparison = comparison;
+      this.predicate = predicate;
+      this.estimate = estimate;
+    }
+
+    @Override
+    long estimate() {
+      return estimate;
+    }
+
+    @Override
+    boolean indexed() {
+      return false;
+    }
+
+    @Override
+    RowSet evaluate() {
+      return scan();
+    }
+
+    @Override
+    boolean matches(int row) {
+      return predicate.test(row);
+    }
+
+    @Override
+    String describe() {
+      return "filter " + comparison;
+    }
+  }
+
+  /**
+   * A node matching the rows that match all of its children. Probes are intersected, most selective
+   * first; excludes are subtracted; and verify children, which have no index or would match too
+   * many rows to be worth evaluating, are checked only against the remaining candidates.
+   */
+  static final class Intersect extends PlanNode {
+    private final List<PlanNode> probes;
+    private final List<PlanNode> excludes;
+    private final List<PlanNode> verify;
+    private final long estimate;
+
+    /**
+     * The constructor for an Intersect. Without any probes, it is not indexed, and is only
+     * evaluated by checking every row.
+     *
+     * @param start the first row being searched
+     * @param end one past the last row being searched
+     * @param probes indexed children to intersect, in order
+     * @param excludes indexed children whose rows are removed
+     * @param verify children checked against each remaining row
+     * @param estimate the estimated number of matching rows
+     */
+    Intersect(
+        int start,
+        int end,
+        List<PlanNode> probes,
+        List<PlanNode> excludes,
+        List<PlanNode> verify,
+        long estimate) {
+      super(start, end);
+      this.probes = probes;
+      this.excludes = excludes;
+      this.verify = verify;
+      this.estimate = estimate;
+    }
+
+    @Override
+    long estimate() {
+      return estimate;
+    }
+
+    @Override
+    boolean indexed() {
+      return !probes.isEmpty();
+    }
+
+    @Override
+    RowSet evaluate() {
+      if (probes.isEmpty()) {
+        return scan();
+      }
+      RowSet rows = probes.get(0).evaluate();
+      for (int i = 1; i < probes.size() && !rows.isEmpty(); i++) {
+        rows = rows.and(probes.get(i).evaluate());
+      }
+      for (PlanNode exclude : excludes) {
+        if (rows.isEmpty()) {
+          break;
+        }
+        rows = rows.andNot(exclude.evaluate());
+      }
+      if (verify.isEmpty()) {
+        return rows;
+      }
+      int[] out = new int[rows.cardinality()];
+      int[] n = {0};
+      rows.forEach(
+          row -> {
+            if (matchesAll(verify, row)) {
+              out[n[0]++] = row;
+            }
+          });
+      return RowSet.of(out, n[0]);
+    }
+
+    @Override
+    boolean matches(int row) {
+      if (!matchesAll(probes, row) || !matchesAll(verify, row)) {
+        return false;
+      }
+      for (PlanNode exclude : excludes) {
+        if (exclude.matches(row)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Checks whether every node in a list matches a row.
+     *
+     * @param nodes the nodes to check
+     * @param row the row index
+     * @return true if all of them match
+     */
+    private static boolean matchesAll(List<PlanNode> nodes, int row) {
+      for (PlanNode node : nodes) {
+        if (!node.matches(row)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    String describe() {
+      return "intersect";
+    }
+
+    @Override
+    List<PlanNode> children() {
+      List<PlanNode> children = new ArrayList<>(probes);
+      children.addAll(excludes);
+      children.addAll(verify);
+      return children;
+    }
+
+    @Override
+    String role(PlanNode child) {
+      if (probes.contains(child)) {
+        return "probe: ";
+      }
+      return excludes.contains(child) ? "exclude: " : "verify: ";
+    }
+  }
+
+  /** A node matching the rows that match any of its children. */
+  static final class Union extends PlanNode {
+    private final List<PlanNode> children;
+
+    /**
+     * The constructor for a Union.
+     *
+     * @param start the first row being searched
+     * @param end one past the last row being searched
+     * @param children the nodes whose rows are combined
+     */
+    Union(int start, int end, List<PlanNode> children) {
+      super(start, end);
+      this.children = children;
+    }
+
+    @Override
+    long estimate() {
+      long total = 0;
+      for (PlanNode child : children) {
+        total += child.estimate();
+      }
+      return Math.min(total, end - start);
+    }
+
+    @Override
+    boolean indexed() {
+      for (PlanNode child : children) {
+        if (!child.indexed()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    RowSet evaluate() {
+      RowSet rows = RowSet.empty();
+      for (PlanNode child : children) {
+        rows = rows.or(child.evaluate());
+      }
+      return rows;
+    }
+
+    @Override
+    boolean matches(int row) {
+      for (PlanNode child : children) {
+        if (child.matches(row)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    String describe() {
+      return "union";
+    }
+
+    @Override
+    List<PlanNode> children() {
+      return children;
+    }
+  }
+
+  /** A node matching the searched rows that its child does not match. */
+  static final class Negation extends PlanNode {
+    private final PlanNode child;
+
+    /**
+     * The constructor for a Negation.
+     *
+     * @param start the first row being searched
+     * @param end one past the last row being searched
+     * @param child the node to negate
+     */
+    Negation(int start, int end, PlanNode child) {
+      super(start, end);
+      this.child = child;
+    }
+
+    /**
+     * Returns the node this node negates.
+     *
+     * @return the negated node
+     */
+    PlanNode child() {
+      return child;
+    }
+
+    @Override
+    long estimate() {
+      return Math.max(0, end - start - child.estimate());
+    }
+
+    @Override
+    boolean indexed() {
+      return child.indexed();
+    }
+
+    @Override
+    RowSet evaluate() {
+      return RowSet.range(start, end).andNot(child.evaluate());
+    }
+
+    @Override
+    boolean matches(int row) {
+      return !child.matches(row);
+    }
+
+    @Override
+    String describe() {
+      return "complement";
+    }
+
+    @Override
+    List<PlanNode> children() {
+      return List.of(child);
+    }
+  }
+
+  /**
+   * A node making one pass over the searched rows, checking its whole subtree against each row.
+   * This is how parts of a query without indexes are evaluated, so that however many unindexed
+   * comparisons they hold, the rows are only read once.
+   */
+  static final class Scan extends PlanNode {
+    private final PlanNode child;
+
+    /**
+     * The constructor for a Scan.
+     *
+     * @param start the first row being searched
+     * @param end one past the last row being searched
+     * @param child the node checked against each row
+     */
+    Scan(int start, int end, PlanNode child) {
+      super(start, end);
+      this.child = child;
+    }
+
+    @Override
+    long estimate() {
+      return child.estimate();
+    }
+
+    @Override
+    boolean indexed() {
+      return false;
+    }
+
+    @Override
+    RowSet evaluate() {
+      CsvScanEvent event = new CsvScanEvent();
+      event.begin();
+      RowSet rows = scan();
+      if (event.shouldCommit()) {
+        event.column = "query";
+        event.rowsScanned = end - start;
+        event.matches = rows.cardinality();
+        event.commit();
+      }
+      return rows;
+    }
+
+    @Override
+    boolean matches(int row) {
+      return child.matches(row);
+    }
+
+    @Override
+    String describe() {
+      return "scan rows " + start + " to " + (end - 1);
+    }
+
+    @Override
+    List<PlanNode> children() {
+      return List.of(child);
+    }
+
+    @Override
+    String role(PlanNode child) {
+      return "check: ";
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * This PostingsIndex class is an inverted index of one column: for every distinct cell text in the
+ * column, the RowSet (its postings) of the rows holding that text. Finding the rows where a column
+ * equals a value is then one hash lookup, and the number of distinct values is known for free,
+ * which the QueryPlanner uses to estimate how selective a predicate is.
+ *
+ * <p>Cells are indexed by their original text, so lookups match exactly like CsvSearcher.search
+ * does. Cells missing from short rows are not indexed.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class PostingsIndex {
+  private final Map<String, RowSet> postings;
+
+  /**
+   * The constructor for the PostingsIndex class, only called by build.
+   *
+   * @param postings the map from cell text to the RowSet of rows holding it
+   */
+  private PostingsIndex(Map<String, RowSet> postings) {
+    this.postings = postings;
+  }
+
+  /**
+   * Builds the PostingsIndex of one column, with two passes over the rows: one counting how often
+   * each value appears, so every list of rows can be allocated at its exact size, and one filling
+   * them in. Each list is then compressed into a RowSet.
+   *
+   * @param rows the CSV rows
+   * @param col the index of the column to index
+   * @return the PostingsIndex of the column
+   */
+  public static PostingsIndex build(List<List<String>> rows, int col) {
+    Map<String, int[]> counts = new HashMap<>();
+    for (List<String> row : rows) {
+      if (col < row.size()) {
+        counts.computeIfAbsent(row.get(col), value -> new int[1])[0]++;
+      }
+    }
+    Map<String, int[]> lists = new HashMap<>(counts.size() * 4 / 3 + 1);
+    for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+      lists.put(entry.getKey(), new int[entry.getValue()[0]]);
+      // From here on, each count is reused as the number of rows filled in so far
+      entry.getValue()[0] = 0;
+    }
+    for (int r = 0; r < rows.size(); r++) {
+      List<String> row = rows.get(r);
+      if (col < row.size()) {
+        String value = row.get(col);
+        int[] filled = counts.get(value);
+        lists.get(value)[filled[0]++] = r;
+      }
+    }
+    Map<String, RowSet> postings = new HashMap<>(lists.size() * 4 / 3 + 1);
+    for (Map.Entry<String, int[]> entry : lists.entrySet()) {
+      postings.put(entry.getKey(), RowSet.of(entry.getValue()));
+    }
+    return new PostingsIndex(postings);
+  }
+
+  /**
+   * Returns the rows whose cell in this column is exactly the given value.
+   *
+   * @param value the cell text to look up
+   * @return the RowSet of matching rows
+   */
+  public RowSet rows(String value) {
+    return postings.getOrDefault(value, RowSet.empty());
+  }
+
+  /**
+   * Returns how many rows hold the given value in this column.
+   *
+   * @param value the cell text to look up
+   * @return the number of matching rows
+   */
+  public int count(String value) {
+    return rows(value).cardinality();
+  }
+
+  /**
+   * Calls a BiConsumer with every distinct value in this column and its RowSet.
+   *
+   * @param action the BiConsumer to call
+   */
+  public void forEach(BiConsumer<String, RowSet> action) {
+    postings.forEach(action);
+  }
+
+  /**
+   * Estimates the bytes of heap the postings take up, not counting the cell text they are keyed by.
+   *
+   * @return the estimated size in bytes
+   */
+  public long estimatedBytes() {
+    long bytes = 0;
+    for (RowSet rows : postings.values()) {
+      bytes += rows.estimatedBytes();
+    }
+    return bytes;
+  }
+
+  /**
+   * Returns the number of distinct values in this column.
+   *
+   * @return the column's cardinality
+   */
+  public int distinctValues() {
+    return postings.size();
+  }
+}
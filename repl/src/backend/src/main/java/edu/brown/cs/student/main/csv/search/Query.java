@@ -0,0 +1,149 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.util.List;
+
+/**
+ * This Query interface is the parsed form of a /searchcsv query, such as {@code Race = Black AND
+ * NOT (Year < 2019 OR Year > 2020)}: a tree of AND, OR and NOT nodes whose leaves compare one
+ * column with a value. QueryParser builds it from text, and the QueryPlanner compiles it into a
+ * QueryPlan.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public sealed interface Query permits Query.And, Query.Or, Query.Not, Query.Comparison {
+
+  /**
+   * The comparison operators a Comparison can use.
+   *
+   * <p>EQ and NE compare cells by their text, except in numeric and date columns where the value is
+   * read the way the cells are, so {@code income = 80727} matches a cell "80,727.00". The other
+   * operators need a numeric or date column.
+   */
+  enum Operator {
+    EQ("="),
+    NE("!="),
+    GT(">"),
+    GTE(">="),
+    LT("<"),
+    LTE("<=");
+
+    private final String symbol;
+
+    /**
+     * The constructor for an Operator.
+     *
+     * @param symbol how the operator is written in a query
+     */
+    Operator(String symbol) {
+      this.symbol = symbol;
+    }
+
+    /**
+     * Returns how the operator is written in a query.
+     *
+     * @return the operator's symbol, such as >=
+     */
+    public String symbol() {
+      return symbol;
+    }
+
+    /**
+     * Finds the Operator written with the given symbol.
+     *
+     * @param symbol an operator symbol, such as >=
+     * @return the Operator, or null if the symbol is not an operator
+     */
+    public static Operator fromSymbol(String symbol) {
+      for (Operator op : values()) {
+        if (op.symbol.equals(symbol)) {
+          return op;
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * A Query matching rows that match every child.
+   *
+   * @param children the queries to combine, at least two
+   */
+  record And(List<Query> children) implements Query {
+    @Override
+    public String toString() {
+      return join(children, " AND ");
+    }
+  }
+
+  /**
+   * A Query matching rows that match any child.
+   *
+   * @param children the queries to combine, at least two
+   */
+  record Or(List<Query> children) implements Query {
+    @Override
+    public String toString() {
+      return join(children, " OR ");
+    }
+  }
+
+  /**
+   * A Query matching rows that do not match its child.
+   *
+   * @param child the query to negate
+   */
+  record Not(Query child) implements Query {
+    @Override
+    public String toString() {
+      return "NOT " + (child instanceof Comparison ? child : "(" + child + ")");
+    }
+  }
+
+  /**
+   * A Query comparing one column of each row with a value.
+   *
+   * @param column the name or index of the column, or * for any column (only with = and !=)
+   * @param op the comparison Operator
+   * @param value the value to compare with
+   */
+  record Comparison(String column, Operator op, String value) implements Query {
+    @Override
+    public String toString() {
+      return quote(column) + " " + op.symbol() + " " + quote(value);
+    }
+  }
+
+  /**
+   * Writes a list of queries joined by a keyword, wrapping compound children in parentheses.
+   *
+   * @param children the queries to write
+   * @param separator the keyword between them, with spaces around it
+   * @return the queries as query text
+   */
+  private static String join(List<Query> children, String separator) {
+    StringBuilder out = new StringBuilder();
+    for (Query child : children) {
+      if (out.length() > 0) {
+        out.append(separator);
+      }
+      boolean compound = child instanceof And || child instanceof Or;
+      out.append(compound ? "(" + child + ")" : child.toString());
+    }
+    return out.toString();
+  }
+
+  /**
+   * Writes a column name or value as it would appear in a query, quoting it unless it is a single
+   * plain word.
+   *
+   * @param text the column name or value
+   * @return the text, quoted if it needs to be
+   */
+  private static String quote(String text) {
+    if (!text.isEmpty() && QueryParser.isBareWord(text)) {
+      return text;
+    }
+    return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+}
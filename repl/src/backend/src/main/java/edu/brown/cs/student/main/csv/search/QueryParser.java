@@ -0,0 +1,276 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This QueryParser class parses the text of a /searchcsv query into a Query. The grammar, from
+ * lowest to highest precedence, is:
+ *
+ * <pre>
+ *   query      := and ("OR" and)*
+ *   and        := unary ("AND" unary)*
+ *   unary      := "NOT" unary | "(" query ")" | comparison
+ *   comparison := term ("=" | "!=" | ">" | ">=" | "&lt;" | "&lt;=") term
+ * </pre>
+ *
+ * <p>A term is either a bare word, which runs until a space, parenthesis, quote or operator
+ * character, or a double-quoted string in which \" and \\ stand for a quote and a backslash.
+ * Keywords are case-insensitive, and are only keywords when not quoted, so a column or value that
+ * is literally "and" can be quoted. For example: {@code "Median Household Income " > $100,000 AND
+ * NOT City/Town = Providence}.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class QueryParser {
+  private static final String SPECIAL = "()=!<>\"";
+
+  private final String text;
+  private final List<Token> tokens;
+  private int next;
+
+  /**
+   * A record representing one token of query text.
+   *
+   * @param text the token's text, unquoted for quoted strings
+   * @param quoted whether the token was a quoted string
+   * @param symbol whether the token is an operator or parenthesis
+   * @param position where the token starts in the query text
+   */
+  private record Token(String text, boolean quoted, boolean symbol, int position) {
+
+    /**
+     * Checks whether this token is the given unquoted keyword or symbol.
+     *
+     * @param word the keyword, in upper case, or symbol to check for
+     * @return true if this token is that keyword or symbol
+     */
+    boolean is(String word) {
+      return !quoted && text.toUpperCase(Locale.ROOT).equals(word);
+    }
+  }
+
+  /**
+   * The constructor for the QueryParser class, only called by parse.
+   *
+   * @param text the query text
+   * @param tokens the tokens of the query text
+   */
+  private QueryParser(String text, List<Token> tokens) {
+    this.text = text;
+    this.tokens = tokens;
+    this.next = 0;
+  }
+
+  /**
+   * Parses query text into a Query.
+   *
+   * @param text the query text
+   * @return the parsed Query
+   * @throws SearchException if the text is not a valid query
+   */
+  public static Query parse(String text) throws SearchException {
+    QueryParser parser = new QueryParser(text, tokenize(text));
+    if (parser.tokens.isEmpty()) {
+      throw new SearchException("Query is empty");
+    }
+    Query query = parser.parseOr();
+    if (parser.next < parser.tokens.size()) {
+      throw parser.error("Unexpected " + parser.tokens.get(parser.next).text());
+    }
+    return query;
+  }
+
+  /**
+   * Checks whether text can be written in a query without quotes.
+   *
+   * @param text the text to check
+   * @return true if the text is one bare word and not a keyword
+   */
+  static boolean isBareWord(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (Character.isWhitespace(c) || SPECIAL.indexOf(c) >= 0) {
+        return false;
+      }
+    }
+    String upper = text.toUpperCase(Locale.ROOT);
+    return !upper.equals("AND") && !upper.equals("OR") && !upper.equals("NOT");
+  }
+
+  /**
+   * Splits query text into tokens.
+   *
+   * @param text the query text
+   * @return the tokens, in order
+   * @throws SearchException if a quoted string is not closed
+   */
+  private static List<Token> tokenize(String text) throws SearchException {
+    List<Token> tokens = new ArrayList<>();
+    int i = 0;
+    while (i < text.length()) {
+      char c = text.charAt(i);
+      int start = i;
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '(' || c == ')') {
+        tokens.add(new Token(String.valueOf(c), false, true, start));
+        i++;
+      } else if (c == '=' || c == '!' || c == '<' || c == '>') {
+        boolean twoChars = i + 1 < text.length() && text.charAt(i + 1) == '=' && c != '=';
+        String op = twoChars ? text.substring(i, i + 2) : String.valueOf(c);
+        if (op.equals("!")) {
+          throw new SearchException("Expected != at position " + start + " of query");
+        }
+        tokens.add(new Token(op, false, true, start));
+        i += op.length();
+      } else if (c == '"') {
+        StringBuilder value = new StringBuilder();
+        i++;
+        while (i < text.length() && text.charAt(i) != '"') {
+          if (text.charAt(i) == '\\' && i + 1 < text.length()) {
+            i++;
+          }
+          value.append(text.charAt(i++));
+        }
+        if (i >= text.length()) {
+          throw new SearchException("Unclosed quote at position " + start + " of query");
+        }
+        i++;
+        tokens.add(new Token(value.toString(), true, false, start));
+      } else {
+        while (i < text.length()
+            && !Character.isWhitespace(text.charAt(i))
+            && SPECIAL.indexOf(text.charAt(i)) < 0) {
+          i++;
+        }
+        tokens.add(new Token(text.substring(start, i), false, false, start));
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * Parses a query: ANDs joined by OR.
+   *
+   * @return the parsed Query
+   * @throws SearchException if the text is not a valid query
+   */
+  private Query parseOr() throws SearchException {
+    List<Query> children = new ArrayList<>();
+    children.add(parseAnd());
+    while (peekIs("OR")) {
+      next++;
+      children.add(parseAnd());
+    }
+    return children.size() == 1 ? children.get(0) : new Query.Or(List.copyOf(children));
+  }
+
+  /**
+   * Parses unary queries joined by AND.
+   *
+   * @return the parsed Query
+   * @throws SearchException if the text is not a valid query
+   */
+  private Query parseAnd() throws SearchException {
+    List<Query> children = new ArrayList<>();
+    children.add(parseUnary());
+    while (peekIs("AND")) {
+      next++;
+      children.add(parseUnary());
+    }
+    return children.size() == 1 ? children.get(0) : new Query.And(List.copyOf(children));
+  }
+
+  /**
+   * Parses a negated query, a parenthesized query, or a comparison.
+   *
+   * @return the parsed Query
+   * @throws SearchException if the text is not a valid query
+   */
+  private Query parseUnary() throws SearchException {
+    if (peekIs("NOT")) {
+      next++;
+      return new Query.Not(parseUnary());
+    }
+    if (peekIs("(")) {
+      next++;
+      Query inner = parseOr();
+      if (!peekIs(")")) {
+        throw error("Expected )");
+      }
+      next++;
+      return inner;
+    }
+    Token column = term("a column");
+    Token op = take("a comparison operator");
+    Query.Operator operator = op.symbol() ? Query.Operator.fromSymbol(op.text()) : null;
+    if (operator == null) {
+      throw new SearchException(
+          "Expected a comparison operator at position "
+              + op.position()
+              + " of query, found "
+              + op.text());
+    }
+    Token value = term("a value");
+    return new Query.Comparison(column.text(), operator, value.text());
+  }
+
+  /**
+   * Takes the next token, which must be a column or value.
+   *
+   * @param expected a description of what is expected, for the error message
+   * @return the token
+   * @throws SearchException if there is no next token or it is a symbol or keyword
+   */
+  private Token term(String expected) throws SearchException {
+    Token token = take(expected);
+    if (token.symbol() || (!token.quoted() && !isBareWord(token.text()))) {
+      throw new SearchException(
+          "Expected "
+              + expected
+              + " at position "
+              + token.position()
+              + " of query, found "
+              + token.text());
+    }
+    return token;
+  }
+
+  /**
+   * Takes the next token.
+   *
+   * @param expected a description of what is expected, for the error message
+   * @return the token
+   * @throws SearchException if there are no tokens left
+   */
+  private Token take(String expected) throws SearchException {
+    if (next >= tokens.size()) {
+      throw error("Expected " + expected);
+    }
+    return tokens.get(next++);
+  }
+
+  /**
+   * Checks whether the next token is the given unquoted keyword or symbol, without taking it.
+   *
+   * @param word the keyword, in upper case, or symbol
+   * @return true if the next token is that keyword or symbol
+   */
+  private boolean peekIs(String word) {
+    return next < tokens.size() && tokens.get(next).is(word);
+  }
+
+  /**
+   * Creates a SearchException describing a problem at the current token.
+   *
+   * @param message what went wrong
+   * @return the SearchException
+   */
+  private SearchException error(String message) {
+    int position = next < tokens.size() ? tokens.get(next).position() : text.length();
+    return new SearchException(message + " at position " + position + " of query");
+  }
+}
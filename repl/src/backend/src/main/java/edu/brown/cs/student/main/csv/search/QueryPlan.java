@@ -0,0 +1,112 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This QueryPlan class is a Query compiled by the QueryPlanner against one loaded CSV: a tree of
+ * PlanNodes saying which indexes are probed, how their rows are combined, and which parts of the
+ * query are checked by scanning. A plan can be executed to find the matching rows, or explained to
+ * show the chosen strategy and the row estimates behind it.
+ *
+ * <p>A plan keeps the rows it matched the first time it runs, as a RowSet, so a cursor continuing a
+ * paged query, which keeps the plan, reads its next page from them rather than running the plan
+ * again. That takes at most a bit per row of the CSV for as long as the cursor is kept.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class QueryPlan {
+  private final Query query;
+  private final PlanNode root;
+  private final int start;
+  private volatile RowSet matches;
+
+  /**
+   * The constructor for the QueryPlan class, only called by the QueryPlanner.
+   *
+   * @param query the Query the plan was compiled from, after NOT was pushed down
+   * @param root the root PlanNode
+   * @param start the first row being searched, which is 1 when the first row is a header
+   */
+  QueryPlan(Query query, PlanNode root, int start) {
+    this.query = query;
+    this.root = root;
+    this.start = start;
+  }
+
+  /**
+   * Returns the Query this plan answers, after NOT was pushed down to the comparisons.
+   *
+   * @return the planned Query
+   */
+  public Query query() {
+    return query;
+  }
+
+  /**
+   * Returns the first row this plan searches.
+   *
+   * @return 1 when the first row is a header, and 0 otherwise
+   */
+  int start() {
+    return start;
+  }
+
+  /**
+   * Returns the estimated number of rows this plan matches.
+   *
+   * @return the estimated row count
+   */
+  public long estimate() {
+    return root.estimate();
+  }
+
+  /**
+   * Runs the plan.
+   *
+   * @return the indexes of the matching rows, in increasing order, never including a header
+   */
+  public int[] execute() {
+    return matches().toArray();
+  }
+
+  /**
+   * Returns the rows the plan matches, running it only the first time.
+   *
+   * @return the RowSet of matching rows, never including a header
+   */
+  RowSet matches() {
+    RowSet rows = matches;
+    if (rows == null) {
+      rows = root.evaluate();
+      if (start > 0) {
+        rows = rows.andNot(RowSet.range(0, start));
+      }
+      // Two threads running the plan at once both get the same rows, so either can be kept
+      matches = rows;
+    }
+    return rows;
+  }
+
+  /**
+   * Estimates the bytes of heap the rows this plan matched take up, or 0 if it has not run yet.
+   *
+   * @return the estimated size in bytes
+   */
+  public long estimatedBytes() {
+    RowSet rows = matches;
+    return rows == null ? 0 : rows.estimatedBytes();
+  }
+
+  /**
+   * Describes the plan, one line per PlanNode, with children indented under their parents.
+   *
+   * @return the lines of the explanation
+   */
+  public List<String> explain() {
+    List<String> lines = new ArrayList<>();
+    root.explain(lines, "", "");
+    return lines;
+  }
+}
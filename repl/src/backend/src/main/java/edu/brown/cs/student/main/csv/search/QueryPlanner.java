@@ -0,0 +1,384 @@
+package edu.brown.cs.student.main.csv.search;
+
+import edu.brown.cs.student.main.csv.stats.ColumnProfiler;
+import edu.brown.cs.student.main.csv.stats.TableProfiler;
+import edu.brown.cs.student.main.csv.table.ColumnType;
+import edu.brown.cs.student.main.csv.table.TypedColumn;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * This QueryPlanner class compiles a Query into a QueryPlan for one loaded CSV, choosing how each
+ * part of the query is answered from estimates of how many rows it matches.
+ *
+ * <p>First, NOT is pushed down to the comparisons with De Morgan's laws, and != becomes NOT =. Then
+ * each comparison becomes a leaf: equality on a column is looked up in the column's PostingsIndex,
+ * whose sizes give exact counts per value along with the column's cardinality, and comparisons of
+ * numeric and date columns are looked up in the column's SortedIndex, which also counts exactly
+ * with two binary searches. Comparisons on every column (*) have no index, and are estimated to
+ * match one row in DEFAULT_SELECTIVITY.
+ *
+ * <p>When the CSV was profiled while it was parsed, the column statistics come first. A comparison
+ * of a numeric or date column outside the column's minimum and maximum, or equality with text that
+ * a column with few distinct values never has, becomes an Empty leaf without building an index.
+ * Comparisons on every column are estimated from each column's frequent values instead.
+ *
+ * <p>An AND intersects its indexed children in order of increasing estimate. A child is only probed
+ * while its estimate is at most PROBE_RATIO times the running estimate; past that, reading its rows
+ * would cost more than checking the few candidates left, so it is verified row by row instead, as
+ * are unindexed children. NOTs of indexed children are subtracted. An OR of indexed children is a
+ * union. Anything left without an index, including an AND with nothing to probe, is answered by one
+ * fused Scan of the rows.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+final class QueryPlanner {
+  /** The share of rows an unindexed comparison is estimated to match. */
+  static final double DEFAULT_SELECTIVITY = 0.1;
+
+  /** How many times larger than the candidates so far an AND child may be and still be probed. */
+  static final int PROBE_RATIO = 8;
+
+  private final CsvSearcher searcher;
+  private final ColumnIndexes indexes;
+  private final TableProfiler profiler;
+  private final List<List<String>> rows;
+  private final boolean hasHeaders;
+  private final int start;
+  private final int end;
+
+  /**
+   * The constructor for the QueryPlanner class.
+   *
+   * @param searcher the CsvSearcher whose rules resolve column identifiers
+   * @param rows the CSV rows being searched
+   * @param indexes the ColumnIndexes of those rows
+   * @param hasHeaders whether the first row is a header, and so is never matched
+   */
+  QueryPlanner(
+      CsvSearcher searcher, List<List<String>> rows, ColumnIndexes indexes, boolean hasHeaders) {
+    this.searcher = searcher;
+    this.rows = rows;
+    this.indexes = indexes;
+    this.profiler = indexes.profiler().orElse(null);
+    this.hasHeaders = hasHeaders;
+    this.start = hasHeaders ? Math.min(1, rows.size()) : 0;
+    this.end = rows.size();
+  }
+
+  /**
+   * Compiles a Query into a QueryPlan.
+   *
+   * @param query the parsed Query
+   * @return the QueryPlan answering it
+   * @throws SearchException if the query names a missing column, or compares a value that does not
+   *     fit its column
+   */
+  QueryPlan plan(Query query) throws SearchException {
+    Query normalized = pushNotDown(query, false);
+    PlanNode root = compile(normalized);
+    if (!root.indexed()) {
+      root = new PlanNode.Scan(start, end, root);
+    }
+    return new QueryPlan(normalized, root, start);
+  }
+
+  /**
+   * Rewrites a query so that NOT only appears directly above comparisons, flattening nested ANDs
+   * and ORs along the way.
+   *
+   * @param query the query to rewrite
+   * @param negate whether the query is under an odd number of NOTs
+   * @return the rewritten query
+   */
+  private static Query pushNotDown(Query query, boolean negate) {
+    if (query instanceof Query.Not not) {
+      return pushNotDown(not.child(), !negate);
+    } else if (query instanceof Query.And and) {
+      List<Query> children = new ArrayList<>();
+      for (Query child : and.children()) {
+        children.add(pushNotDown(child, negate));
+      }
+      return negate ? flatten(children, false) : flatten(children, true);
+    } else if (query instanceof Query.Or or) {
+      List<Query> children = new ArrayList<>();
+      for (Query child : or.children()) {
+        children.add(pushNotDown(child, negate));
+      }
+      return negate ? flatten(children, true) : flatten(children, false);
+    }
+    Query.Comparison comparison = (Query.Comparison) query;
+    if (comparison.op() == Query.Operator.NE) {
+      Query.Comparison equals =
+          new Query.Comparison(comparison.column(), Query.Operator.EQ, comparison.value());
+      return negate ? equals : new Query.Not(equals);
+    }
+    return negate ? new Query.Not(comparison) : comparison;
+  }
+
+  /**
+   * Combines queries with AND or OR, pulling up the children of nested queries of the same kind.
+   *
+   * @param children the queries to combine
+   * @param and true to combine with AND, false for OR
+   * @return the combined query
+   */
+  private static Query flatten(List<Query> children, boolean and) {
+    List<Query> flat = new ArrayList<>();
+    for (Query child : children) {
+      if (and && child instanceof Query.And nested) {
+        flat.addAll(nested.children());
+      } else if (!and && child instanceof Query.Or nested) {
+        flat.addAll(nested.children());
+      } else {
+        flat.add(child);
+      }
+    }
+    return and ? new Query.And(List.copyOf(flat)) : new Query.Or(List.copyOf(flat));
+  }
+
+  /**
+   * Compiles a query, whose NOTs have been pushed down, into a PlanNode.
+   *
+   * @param query the query to compile
+   * @return the PlanNode answering it
+   * @throws SearchException if a comparison cannot be compiled
+   */
+  private PlanNode compile(Query query) throws SearchException {
+    if (query instanceof Query.And and) {
+      return compileAnd(and);
+    } else if (query instanceof Query.Or or) {
+      List<PlanNode> children = new ArrayList<>();
+      for (Query child : or.children()) {
+        children.add(compile(child));
+      }
+      return new PlanNode.Union(start, end, children);
+    } else if (query instanceof Query.Not not) {
+      return new PlanNode.Negation(start, end, compile(not.child()));
+    }
+    return compileComparison((Query.Comparison) query);
+  }
+
+  /**
+   * Compiles an AND, choosing which children to probe, exclude, or verify.
+   *
+   * @param and the AND to compile
+   * @return an Intersect, which is not indexed if nothing can be probed
+   * @throws SearchException if a comparison cannot be compiled
+   */
+  private PlanNode compileAnd(Query.And and) throws SearchException {
+    List<PlanNode> positive = new ArrayList<>();
+    List<PlanNode> negative = new ArrayList<>();
+    List<PlanNode> verify = new ArrayList<>();
+    for (Query child : and.children()) {
+      PlanNode node = compile(child);
+      if (!node.indexed()) {
+        verify.add(node);
+      } else if (node instanceof PlanNode.Negation negation) {
+        negative.add(negation);
+      } else {
+        positive.add(node);
+      }
+    }
+    positive.sort(Comparator.comparingLong(PlanNode::estimate));
+    negative.sort(Comparator.comparingLong(node -> ((PlanNode.Negation) node).child().estimate()));
+
+    double total = Math.max(1, end - start);
+    List<PlanNode> probes = new ArrayList<>();
+    List<PlanNode> excludes = new ArrayList<>();
+    double estimate = total;
+    for (PlanNode node : positive) {
+      if (probes.isEmpty() || node.estimate() <= estimate * PROBE_RATIO) {
+        probes.add(node);
+      } else {
+        verify.add(node);
+      }
+      estimate *= node.estimate() / total;
+    }
+    for (PlanNode node : negative) {
+      PlanNode excluded = ((PlanNode.Negation) node).child();
+      if (!probes.isEmpty() && excluded.estimate() <= estimate * PROBE_RATIO) {
+        excludes.add(excluded);
+      } else {
+        verify.add(node);
+      }
+      estimate *= node.estimate() / total;
+    }
+    for (PlanNode node : verify) {
+      if (!node.indexed()) {
+        estimate *= node.estimate() / total;
+      }
+    }
+
+    return new PlanNode.Intersect(start, end, probes, excludes, verify, Math.round(estimate));
+  }
+
+  /**
+   * Compiles one comparison into an index lookup where possible, or a Filter otherwise.
+   *
+   * @param comparison the comparison to compile, whose operator is not NE
+   * @return the leaf PlanNode
+   * @throws SearchException if the column is missing, or the value does not fit the column
+   */
+  private PlanNode compileComparison(Query.Comparison comparison) throws SearchException {
+    if (comparison.column().equals("*")) {
+      if (comparison.op() != Query.Operator.EQ) {
+        throw new SearchException("Only = and != can compare every column (*)");
+      }
+      String value = comparison.value();
+      IntPredicate anyColumn = row -> rows.get(row).contains(value);
+      return new PlanNode.Filter(start, end, comparison, anyColumn, estimateAnyColumn(value));
+    }
+
+    int col = searcher.resolveColumn(hasHeaders, comparison.column());
+    TypedColumn column = indexes.table().column(col);
+    if (comparison.op() == Query.Operator.EQ) {
+      Double number = column.isNumeric() ? parseBound(comparison.value(), column.type()) : null;
+      if (number == null) {
+        ColumnProfiler stats = stats(col);
+        String value = comparison.value();
+        // A column whose distinct values were all counted is known not to have any other value
+        if (stats != null
+            && !value.isBlank()
+            && stats.distinctCount() < ColumnProfiler.TOP_CAPACITY
+            && stats.estimateCount(value) == 0) {
+          return new PlanNode.Empty(
+              start, end, comparison, "not among " + stats.distinctCount() + " distinct values");
+        }
+        return new PlanNode.Lookup(start, end, comparison, indexes.postings(col));
+      }
+      return rangeLookup(comparison, col, column, number, true, number, true);
+    }
+
+    if (!column.isNumeric()) {
+      throw new SearchException(
+          "Column "
+              + comparison.column()
+              + " is not numeric, so it cannot be compared with "
+              + comparison.op().symbol());
+    }
+    double bound = CsvSearcher.boundValue(comparison.value(), column.type());
+    return switch (comparison.op()) {
+      case GT -> rangeLookup(comparison, col, column, bound, false, null, false);
+      case GTE -> rangeLookup(comparison, col, column, bound, true, null, false);
+      case LT -> rangeLookup(comparison, col, column, null, false, bound, false);
+      default -> rangeLookup(comparison, col, column, null, false, bound, true);
+    };
+  }
+
+  /**
+   * Compiles a comparison of a numeric or date column into a RangeLookup, or into an Empty if the
+   * column statistics show that every value of the column is outside the range.
+   *
+   * @param comparison the comparison
+   * @param col the index of the compared column
+   * @param column the compared TypedColumn
+   * @param lower the lower bound, or null
+   * @param lowerInclusive whether the lower bound is in the range
+   * @param upper the upper bound, or null
+   * @param upperInclusive whether the upper bound is in the range
+   * @return the leaf PlanNode
+   */
+  private PlanNode rangeLookup(
+      Query.Comparison comparison,
+      int col,
+      TypedColumn column,
+      Double lower,
+      boolean lowerInclusive,
+      Double upper,
+      boolean upperInclusive) {
+    ColumnProfiler stats = stats(col);
+    // The statistics read values the same way as the column only if they agree on its type
+    if (stats != null && stats.type() == column.type()) {
+      double min = stats.min();
+      double max = stats.max();
+      boolean aboveMax = lower != null && (lowerInclusive ? lower > max : lower >= max);
+      boolean belowMin = upper != null && (upperInclusive ? upper < min : upper <= min);
+      if (aboveMax || belowMin) {
+        return new PlanNode.Empty(
+            start,
+            end,
+            comparison,
+            "outside the column's range from "
+                + describeValue(min, column.type())
+                + " to "
+                + describeValue(max, column.type()));
+      }
+    }
+    return new PlanNode.RangeLookup(
+        start,
+        end,
+        comparison,
+        column,
+        indexes.sorted(col),
+        lower,
+        lowerInclusive,
+        upper,
+        upperInclusive);
+  }
+
+  /**
+   * Writes a value of a numeric or date column the way it would be written in a query.
+   *
+   * @param value the value, as a number or epoch day
+   * @param type the ColumnType of the column
+   * @return the value's text
+   */
+  private static String describeValue(double value, ColumnType type) {
+    return switch (type) {
+      case LONG -> String.valueOf((long) value);
+      case DATE -> LocalDate.ofEpochDay((long) value).toString();
+      default -> String.valueOf(value);
+    };
+  }
+
+  /**
+   * Returns the statistics of a column over the searched rows, if the CSV was profiled.
+   *
+   * @param col the column index
+   * @return the ColumnProfiler of the column, or null if there are no statistics for it
+   */
+  private ColumnProfiler stats(int col) {
+    if (profiler == null || col >= profiler.columnCount()) {
+      return null;
+    }
+    return profiler.column(col, hasHeaders);
+  }
+
+  /**
+   * Estimates how many rows have a value in any column, as the sum of each column's estimate from
+   * its frequent values, or one row in DEFAULT_SELECTIVITY if the CSV was not profiled.
+   *
+   * @param value the cell text
+   * @return the estimated number of matching rows
+   */
+  private long estimateAnyColumn(String value) {
+    if (profiler == null) {
+      return Math.round((end - start) * DEFAULT_SELECTIVITY);
+    }
+    long estimate = 0;
+    for (int col = 0; col < profiler.columnCount(); col++) {
+      estimate += profiler.column(col, hasHeaders).estimateCount(value);
+    }
+    return Math.min(estimate, end - start);
+  }
+
+  /**
+   * Reads a value as a number or date of the given column type, if it is one.
+   *
+   * @param value the value's text
+   * @param type the ColumnType of a numeric column
+   * @return the value as a double, or null if it is not a value of that type
+   */
+  private static Double parseBound(String value, ColumnType type) {
+    try {
+      return CsvSearcher.boundValue(value, type);
+    } catch (SearchException e) {
+      return null;
+    }
+  }
+}
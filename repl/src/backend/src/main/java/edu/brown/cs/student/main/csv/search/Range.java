@@ -0,0 +1,51 @@
+package edu.brown.cs.student.main.csv.search;
+
+/**
+ * This record represents a range of values to search a numeric or date column for, such as "above
+ * 100000" or "between 2017 and 2020". Either bound may be missing, for ranges open on that side.
+ * Bounds are kept as the text the user gave, and are read as numbers or dates by CsvSearcher
+ * according to the type of the column being searched.
+ *
+ * @param lower the lower bound, or null if there is none
+ * @param lowerInclusive whether a value equal to the lower bound is in the range
+ * @param upper the upper bound, or null if there is none
+ * @param upperInclusive whether a value equal to the upper bound is in the range
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public record Range(String lower, boolean lowerInclusive, String upper, boolean upperInclusive) {
+
+  /**
+   * Creates a Range from a comparison operator and its operands, as given to /searchcsv. Recognized
+   * operators are gt (greater than), gte (at least), lt (less than), lte (at most), and between,
+   * which is inclusive at both ends and needs a second operand.
+   *
+   * @param op the comparison operator
+   * @param value the value to compare with, or the lower bound for between
+   * @param to the upper bound for between, ignored by the other operators
+   * @return the Range matching the comparison
+   * @throws SearchException if the operator is unknown or between has no upper bound
+   */
+  public static Range of(String op, String value, String to) throws SearchException {
+    switch (op) {
+      case "gt":
+        return new Range(value, false, null, false);
+      case "gte":
+        return new Range(value, true, null, false);
+      case "lt":
+        return new Range(null, false, value, false);
+      case "lte":
+        return new Range(null, false, value, true);
+      case "between":
+        if (to == null) {
+          throw new SearchException("Comparison between needs an upper bound: to");
+        }
+        return new Range(value, true, to, true);
+      default:
+        throw new SearchException(
+            "Unknown comparison "
+                + op
+                + ". Valid comparisons are eq, gt, gte, lt, lte and between.");
+    }
+  }
+}
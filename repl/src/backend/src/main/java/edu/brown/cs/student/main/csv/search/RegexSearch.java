@@ -0,0 +1,416 @@
+package edu.brown.cs.student.main.csv.search;
+
+import edu.brown.cs.student.main.csv.table.CellParser;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * This RegexSearch class is one regex search in progress: a compiled pattern, the literal text any
+ * match of it must contain, and the deadline the whole search has to finish by.
+ *
+ * <p>The literals let CsvSearcher look up candidate rows in a TrigramIndex before running the
+ * pattern at all. They are found by a conservative walk over the pattern: runs of plain characters
+ * outside groups, character classes and optional quantifiers, in a pattern without a top-level
+ * alternation. Anything the walk does not understand only ends the current literal, so a pattern is
+ * never narrowed to rows that could not match it.
+ *
+ * <p>Java's regex engine can backtrack for minutes on patterns like (.*a){10}b, and cannot be
+ * interrupted. So cells are matched through a CharSequence that checks the deadline every few
+ * thousand characters read, and fails the search once it has passed.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+final class RegexSearch {
+  /** How many characters the regex engine reads between checks of the deadline. */
+  private static final int CHECK_INTERVAL = 4096;
+
+  private final Pattern pattern;
+  private final long budgetNanos;
+  private final long deadline;
+
+  /**
+   * The constructor for the RegexSearch class, which starts the search's time budget.
+   *
+   * @param regex the pattern, in java.util.regex syntax
+   * @param budgetNanos how long the search may take, in nanoseconds
+   * @throws SearchException if the pattern is not a valid regex
+   */
+  RegexSearch(String regex, long budgetNanos) throws SearchException {
+    try {
+      this.pattern = Pattern.compile(regex);
+    } catch (PatternSyntaxException e) {
+      throw new SearchException("Invalid regex " + regex + ": " + e.getDescription());
+    }
+    this.budgetNanos = budgetNanos;
+    this.deadline = System.nanoTime() + budgetNanos;
+  }
+
+  /**
+   * Checks whether the pattern matches anywhere in a cell, with its surrounding quotes stripped.
+   *
+   * @param cell the text of the cell, as parsed
+   * @return true if the pattern is found in the cell
+   * @throws SearchException if the search's time budget has run out
+   */
+  boolean find(String cell) throws SearchException {
+    checkDeadline();
+    try {
+      Matcher matcher = pattern.matcher(new DeadlineText(CellParser.unquote(cell), deadline));
+      return matcher.find();
+    } catch (BudgetExceeded e) {
+      throw budgetError();
+    }
+  }
+
+  /**
+   * Fails the search if its deadline has passed.
+   *
+   * @throws SearchException if the time budget has run out
+   */
+  void checkDeadline() throws SearchException {
+    if (System.nanoTime() > deadline) {
+      throw budgetError();
+    }
+  }
+
+  /**
+   * Creates the error for a search that ran out of time.
+   *
+   * @return the SearchException explaining the budget
+   */
+  private SearchException budgetError() {
+    return new SearchException(
+        "Regex "
+            + pattern.pattern()
+            + " took longer than its time budget of "
+            + budgetNanos / 1_000_000
+            + " ms. Try a more specific pattern.");
+  }
+
+  /**
+   * Returns the literal fragments every match of the pattern must contain.
+   *
+   * @return the required literals, possibly none
+   */
+  List<String> literals() {
+    return requiredLiterals(pattern.pattern());
+  }
+
+  /**
+   * Finds literal fragments that every match of a regex must contain. The walk is conservative:
+   * plain characters build up a literal, and any construct that could match something else (a dot,
+   * a class, a group, an anchor, or an escape other than an escaped symbol) ends it. A quantifier
+   * allowing zero repeats takes its character back off the literal. A top-level alternation, or the
+   * COMMENTS flag, means nothing is required.
+   *
+   * @param regex a valid regex
+   * @return the required literals, in the order they appear, possibly none
+   */
+  static List<String> requiredLiterals(String regex) {
+    List<String> literals = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    boolean lastWasLiteral = false;
+    int i = 0;
+    while (i < regex.length()) {
+      char c = regex.charAt(i);
+      if (c == '|') {
+        return List.of();
+      } else if (c == '*' || c == '?' || c == '+' || c == '{') {
+        int end = c == '{' ? regex.indexOf('}', i) : i;
+        if (end < 0) {
+          return List.of();
+        }
+        boolean optional = c == '*' || c == '?' || (c == '{' && minRepeats(regex, i, end) == 0);
+        if (lastWasLiteral && optional) {
+          dropLastChar(current);
+        }
+        flush(current, literals);
+        i = end + 1;
+        // Lazy and possessive quantifiers end with one more ? or +
+        if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+          i++;
+        }
+        lastWasLiteral = false;
+        continue;
+      }
+      lastWasLiteral = false;
+      if (c == '\\' && i + 1 < regex.length()) {
+        char next = regex.charAt(i + 1);
+        if (next == 'Q') {
+          int end = regex.indexOf("\\E", i + 2);
+          String quoted = regex.substring(i + 2, end < 0 ? regex.length() : end);
+          flush(current, literals);
+          current.append(quoted);
+          i = end < 0 ? regex.length() : end + 2;
+          // Only the last quoted character can be made optional by a quantifier
+          lastWasLiteral = !quoted.isEmpty();
+          continue;
+        } else if (!Character.isLetterOrDigit(next)) {
+          current.append(next);
+          lastWasLiteral = true;
+          i += 2;
+          continue;
+        }
+        flush(current, literals);
+        i = skipEscape(regex, i);
+      } else if (c == '[') {
+        flush(current, literals);
+        i = skipClass(regex, i);
+      } else if (c == '(') {
+        flush(current, literals);
+        int end = skipGroup(regex, i);
+        if (setsCommentsFlag(regex.substring(i, end))) {
+          return List.of();
+        }
+        i = end;
+      } else if (c == '.' || c == '^' || c == '$') {
+        flush(current, literals);
+        i++;
+      } else {
+        current.append(c);
+        lastWasLiteral = true;
+        i++;
+      }
+    }
+    flush(current, literals);
+    return literals;
+  }
+
+  /**
+   * Moves the literal built so far into the list, if there is one.
+   *
+   * @param current the literal built so far, emptied afterwards
+   * @param literals the list of literals found
+   */
+  private static void flush(StringBuilder current, List<String> literals) {
+    if (current.length() > 0) {
+      literals.add(current.toString());
+      current.setLength(0);
+    }
+  }
+
+  /**
+   * Removes the last character from a literal, along with the first half of a surrogate pair.
+   *
+   * @param current the literal built so far
+   */
+  private static void dropLastChar(StringBuilder current) {
+    if (current.length() == 0) {
+      return;
+    }
+    current.setLength(current.length() - 1);
+    if (current.length() > 0 && Character.isHighSurrogate(current.charAt(current.length() - 1))) {
+      current.setLength(current.length() - 1);
+    }
+  }
+
+  /**
+   * Reads the minimum repeat count of a {n}, {n,} or {n,m} quantifier.
+   *
+   * @param regex the regex
+   * @param open the index of the {
+   * @param close the index of the }
+   * @return the minimum count n
+   */
+  private static int minRepeats(String regex, int open, int close) {
+    String body = regex.substring(open + 1, close);
+    int comma = body.indexOf(',');
+    String min = (comma < 0 ? body : body.substring(0, comma)).strip();
+    try {
+      return Integer.parseInt(min);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * Skips an escape that starts with a letter or digit, such as \d, \x41, \p{Alpha} or a
+   * backreference, along with the characters that belong to it.
+   *
+   * @param regex the regex
+   * @param i the index of the backslash
+   * @return the index just after the escape
+   */
+  private static int skipEscape(String regex, int i) {
+    char kind = regex.charAt(i + 1);
+    int j = i + 2;
+    switch (kind) {
+      case 'p', 'P', 'x', 'N' -> {
+        if (j < regex.length() && regex.charAt(j) == '{') {
+          int end = regex.indexOf('}', j);
+          return end < 0 ? regex.length() : end + 1;
+        }
+        return Math.min(regex.length(), j + (kind == 'x' ? 2 : 1));
+      }
+      case 'u' -> {
+        return Math.min(regex.length(), j + 4);
+      }
+      case 'c' -> {
+        return Math.min(regex.length(), j + 1);
+      }
+      case 'k' -> {
+        int end = regex.indexOf('>', j);
+        return end < 0 ? regex.length() : end + 1;
+      }
+      default -> {
+        // Octal escapes and backreferences run on over their digits
+        if (Character.isDigit(kind)) {
+          while (j < regex.length() && Character.isDigit(regex.charAt(j))) {
+            j++;
+          }
+        }
+        return j;
+      }
+    }
+  }
+
+  /**
+   * Skips a character class, including nested classes and escaped brackets.
+   *
+   * @param regex the regex
+   * @param i the index of the opening [
+   * @return the index just after the closing ]
+   */
+  private static int skipClass(String regex, int i) {
+    int depth = 0;
+    int j = i;
+    while (j < regex.length()) {
+      char c = regex.charAt(j);
+      if (c == '\\') {
+        j += 2;
+        continue;
+      } else if (c == '[') {
+        depth++;
+        j++;
+        // A ] straight after the opening [ or [^ is a literal
+        if (j < regex.length() && regex.charAt(j) == '^') {
+          j++;
+        }
+        if (j < regex.length() && regex.charAt(j) == ']') {
+          j++;
+        }
+        continue;
+      } else if (c == ']') {
+        depth--;
+        if (depth == 0) {
+          return j + 1;
+        }
+      }
+      j++;
+    }
+    return regex.length();
+  }
+
+  /**
+   * Skips a group, including nested groups, classes and escapes inside it.
+   *
+   * @param regex the regex
+   * @param i the index of the opening (
+   * @return the index just after the closing )
+   */
+  private static int skipGroup(String regex, int i) {
+    int depth = 0;
+    int j = i;
+    while (j < regex.length()) {
+      char c = regex.charAt(j);
+      if (c == '\\') {
+        j += 2;
+        continue;
+      } else if (c == '[') {
+        j = skipClass(regex, j);
+        continue;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+        if (depth == 0) {
+          return j + 1;
+        }
+      }
+      j++;
+    }
+    return regex.length();
+  }
+
+  /**
+   * Checks whether a group turns on the COMMENTS flag, such as (?x) or (?ix:...), under which
+   * whitespace and # in the pattern are not literals.
+   *
+   * @param group the text of the group, parentheses included
+   * @return true if it sets the x flag
+   */
+  private static boolean setsCommentsFlag(String group) {
+    if (!group.startsWith("(?")) {
+      return false;
+    }
+    for (int j = 2; j < group.length(); j++) {
+      char c = group.charAt(j);
+      if (c == 'x') {
+        return true;
+      } else if (c == '-' || c == ':' || c == ')') {
+        return false;
+      } else if (!Character.isLetter(c)) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /** Thrown from inside the regex engine when a search runs past its deadline. */
+  private static final class BudgetExceeded extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /** The constructor for BudgetExceeded, which skips filling in a stack trace. */
+    BudgetExceeded() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * The text of a cell as the regex engine reads it, checking the search's deadline every
+   * CHECK_INTERVAL characters read so a runaway match can be stopped.
+   */
+  private static final class DeadlineText implements CharSequence {
+    private final String text;
+    private final long deadline;
+    private int reads;
+
+    /**
+     * The constructor for a DeadlineText.
+     *
+     * @param text the text being matched
+     * @param deadline the System.nanoTime() after which reading fails
+     */
+    DeadlineText(String text, long deadline) {
+      this.text = text;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (++reads % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+        throw new BudgetExceeded();
+      }
+      return text.charAt(index);
+    }
+
+    @Override
+    public int length() {
+      return text.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return new DeadlineText(text.substring(start, end), deadline);
+    }
+
+    @Override
+    public String toString() {
+      return text;
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package edu.brown.cs.student.main.csv.search;
+
+import edu.brown.cs.student.main.csv.table.TypedColumn;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This RowOrder class is the permutation of a CSV's rows sorted by one column: the index of every
+ * row, in the order the rows are returned by /sortcsv. Numeric and date columns are sorted by value
+ * and text columns lexically, and rows with equal values keep their original order, in both
+ * ascending and descending order. Rows with no value in the column come last, in their original
+ * order.
+ *
+ * <p>A RowOrder is built once per column and direction and then kept by ColumnIndexes, so each page
+ * of sorted rows is a copy out of the permutation. Numeric columns reuse the column's SortedIndex,
+ * and text columns walk the sorted distinct values of its PostingsIndex, so building an in-memory
+ * RowOrder compares each distinct value once rather than every pair of rows.
+ *
+ * <p>When sorting a column would take more than a memory budget, the permutation is instead
+ * produced by an ExternalSort, which spills sorted runs to a temporary directory and merges them
+ * into a file of row indexes. Pages are then read from that file, which is deleted once the
+ * RowOrder is no longer reachable.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class RowOrder {
+  /** About how many bytes of heap sorting a column in memory takes per row. */
+  static final int IN_MEMORY_BYTES_PER_ROW = 16;
+
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final int size;
+  private final int[] rows;
+  private final Path file;
+
+  /**
+   * The constructor for a RowOrder held in memory.
+   *
+   * @param rows the row indexes, in sorted order
+   */
+  private RowOrder(int[] rows) {
+    this.size = rows.length;
+    this.rows = rows;
+    this.file = null;
+  }
+
+  /**
+   * The constructor for a RowOrder spilled to a file of big-endian ints, which is deleted, along
+   * with the directory holding it, once this RowOrder is unreachable.
+   *
+   * @param file the file of row indexes, in sorted order
+   * @param size the number of row indexes in the file
+   */
+  private RowOrder(Path file, int size) {
+    this.size = size;
+    this.rows = null;
+    this.file = file;
+    CLEANER.register(this, () -> delete(file));
+  }
+
+  /**
+   * Creates a RowOrder from the file written by an ExternalSort.
+   *
+   * @param file the file of row indexes, in sorted order
+   * @param size the number of row indexes in the file
+   * @return the spilled RowOrder
+   */
+  static RowOrder spilled(Path file, int size) {
+    return new RowOrder(file, size);
+  }
+
+  /**
+   * Sorts the rows of a column, in memory if that fits in the memory budget and with an
+   * ExternalSort otherwise.
+   *
+   * @param indexes the ColumnIndexes of the CSV, whose SortedIndex or PostingsIndex of the column
+   *     is reused
+   * @param col the index of the column to sort by
+   * @param descending whether the largest values come first
+   * @param start the first row to sort, 1 to leave out a header
+   * @param memoryBudget the most bytes of heap an in-memory sort may take
+   * @return the RowOrder of rows start and after
+   * @throws UncheckedIOException if the runs of an ExternalSort cannot be written or read
+   */
+  static RowOrder build(
+      ColumnIndexes indexes, int col, boolean descending, int start, long memoryBudget) {
+    List<List<String>> rows = indexes.rows();
+    TypedColumn column = col < indexes.table().columnCount() ? indexes.table().column(col) : null;
+    int count = Math.max(0, rows.size() - start);
+    if ((long) count * IN_MEMORY_BYTES_PER_ROW > memoryBudget) {
+      try {
+        return ExternalSort.sort(rows, column, col, descending, start, memoryBudget);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    int[] order = new int[count];
+    boolean[] placed = new boolean[rows.size()];
+    int next = 0;
+    if (column != null && column.isNumeric()) {
+      SortedIndex sorted = indexes.sorted(col);
+      int end = sorted.size();
+      int runStart = 0;
+      while (descending ? end > 0 : runStart < sorted.size()) {
+        if (descending) {
+          // Walk the index backwards one run of equal values at a time, emitting each run
+          // forwards so that ties stay in their original order
+          runStart = end - 1;
+          while (runStart > 0 && sorted.keyAt(runStart - 1) == sorted.keyAt(end - 1)) {
+            runStart--;
+          }
+        } else {
+          end = runStart + 1;
+        }
+        for (int i = runStart; i < end; i++) {
+          int row = sorted.rowAt(i);
+          if (row >= start) {
+            order[next++] = row;
+            placed[row] = true;
+          }
+        }
+        if (descending) {
+          end = runStart;
+        } else {
+          runStart = end;
+        }
+      }
+    } else {
+      PostingsIndex postings = indexes.postings(col);
+      List<String> values = new ArrayList<>(postings.distinctValues());
+      postings.forEach(
+          (value, matches) -> {
+            if (!value.isBlank()) {
+              values.add(value);
+            }
+          });
+      Collections.sort(values);
+      if (descending) {
+        Collections.reverse(values);
+      }
+      for (String value : values) {
+        int[] matches = postings.rows(value).toArray();
+        for (int row : matches) {
+          if (row >= start) {
+            order[next++] = row;
+            placed[row] = true;
+          }
+        }
+      }
+    }
+    for (int row = start; row < rows.size(); row++) {
+      if (!placed[row]) {
+        order[next++] = row;
+      }
+    }
+    return new RowOrder(order);
+  }
+
+  /**
+   * Returns the number of rows in this order.
+   *
+   * @return the number of rows sorted
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns whether this order was produced by an ExternalSort and is read from a file.
+   *
+   * @return true if this order is spilled to disk
+   */
+  public boolean isSpilled() {
+    return file != null;
+  }
+
+  /**
+   * Returns the rows at positions from (inclusive) to to (exclusive) in sorted order, clamped to
+   * the rows there are.
+   *
+   * @param from the first position
+   * @param to one past the last position
+   * @return the row indexes at those positions
+   * @throws UncheckedIOException if a spilled order cannot be read
+   */
+  public int[] rows(int from, int to) {
+    from = Math.max(0, Math.min(from, size));
+    to = Math.max(from, Math.min(to, size));
+    if (rows != null) {
+      int[] page = new int[to - from];
+      System.arraycopy(rows, from, page, 0, page.length);
+      return page;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(4 * (to - from));
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long position = 4L * from;
+      while (buffer.hasRemaining()) {
+        int read = channel.read(buffer, position + buffer.position());
+        if (read < 0) {
+          throw new IOException("Sorted rows in " + file + " ended early");
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.flip();
+    int[] page = new int[to - from];
+    buffer.asIntBuffer().get(page);
+    return page;
+  }
+
+  /**
+   * Deletes the file of a spilled order and the temporary directory holding it, ignoring failures
+   * since this runs from a Cleaner, where there is no caller to report them to.
+   *
+   * @param file the file to delete
+   */
+  private static void delete(Path file) {
+    try {
+      Files.deleteIfExists(file);
+      Files.deleteIfExists(file.getParent());
+    } catch (IOException e) {
+      // A file that cannot be deleted is left in the system's temporary directory
+    }
+  }
+}
@@ -0,0 +1,926 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * This RowSet class is an immutable, compressed set of row indexes, laid out like a Roaring bitmap.
+ * Rows are split into chunks of 65536 by their high 16 bits, and each chunk that holds any rows
+ * keeps its low 16 bits in whichever of three containers is smallest:
+ *
+ * <ul>
+ *   <li>an array container, a sorted char[] of up to 4096 rows, for sparse chunks;
+ *   <li>a bitmap container, 1024 longs with one bit per row, for dense chunks;
+ *   <li>a run container, sorted runs of consecutive rows, for chunks that are mostly contiguous,
+ *       such as every row of a sorted column or the complement of a few rows.
+ * </ul>
+ *
+ * <p>This keeps the postings of a PostingsIndex and the intermediate results of a QueryPlan at
+ * about 2 bytes per row when sparse, and at most 1 bit per row when dense, rather than 4 bytes for
+ * an int[] or around 20 for a boxed list. AND, OR and AND NOT only combine chunks present in both
+ * sets, and within a chunk use word-wide bit operations where the containers allow, so combining
+ * large sets costs far less than merging two sorted lists.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class RowSet {
+  /** The most rows an array container holds before a bitmap container is smaller. */
+  private static final int ARRAY_MAX = 4096;
+
+  /** The number of longs in a bitmap container. */
+  private static final int BITMAP_WORDS = 1024;
+
+  private static final RowSet EMPTY = new RowSet(new char[0], new Container[0]);
+
+  private final char[] keys;
+  private final Container[] containers;
+  private final int cardinality;
+
+  /**
+   * The constructor for the RowSet class, only called with containers that are not empty.
+   *
+   * @param keys the high 16 bits of each chunk, in increasing order
+   * @param containers the low 16 bits of the rows in each chunk
+   */
+  private RowSet(char[] keys, Container[] containers) {
+    this.keys = keys;
+    this.containers = containers;
+    int total = 0;
+    for (Container container : containers) {
+      total += container.cardinality();
+    }
+    this.cardinality = total;
+  }
+
+  /**
+   * Returns the RowSet with no rows.
+   *
+   * @return the empty RowSet
+   */
+  public static RowSet empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Creates the RowSet of every row from start up to end, which takes one run per chunk.
+   *
+   * @param start the first row
+   * @param end one past the last row
+   * @return the RowSet of the range
+   */
+  public static RowSet range(int start, int end) {
+    if (start >= end) {
+      return EMPTY;
+    }
+    int firstKey = start >>> 16;
+    int lastKey = (end - 1) >>> 16;
+    char[] keys = new char[lastKey - firstKey + 1];
+    Container[] containers = new Container[keys.length];
+    for (int key = firstKey; key <= lastKey; key++) {
+      int low = key == firstKey ? start & 0xFFFF : 0;
+      int high = key == lastKey ? (end - 1) & 0xFFFF : 0xFFFF;
+      keys[key - firstKey] = (char) key;
+      containers[key - firstKey] =
+          new RunContainer(new char[] {(char) low}, new char[] {(char) high}, high - low + 1);
+    }
+    return new RowSet(keys, containers);
+  }
+
+  /**
+   * Creates the RowSet of a sorted array of rows.
+   *
+   * @param rows row indexes in strictly increasing order, none negative
+   * @return the RowSet of those rows
+   */
+  public static RowSet of(int... rows) {
+    return of(rows, rows.length);
+  }
+
+  /**
+   * Creates the RowSet of the first length rows of a sorted array, so that a buffer filled by a
+   * scan does not need to be copied to its exact size first.
+   *
+   * @param rows row indexes in strictly increasing order, none negative
+   * @param length how many rows of the array to use
+   * @return the RowSet of those rows
+   */
+  public static RowSet of(int[] rows, int length) {
+    if (length == 0) {
+      return EMPTY;
+    }
+    int chunks = 1;
+    for (int i = 1; i < length; i++) {
+      if (rows[i] >>> 16 != rows[i - 1] >>> 16) {
+        chunks++;
+      }
+    }
+    char[] keys = new char[chunks];
+    Container[] containers = new Container[chunks];
+    char[] low = new char[Math.min(length, 1 << 16)];
+    int chunk = 0;
+    int i = 0;
+    while (i < length) {
+      int key = rows[i] >>> 16;
+      int n = 0;
+      while (i < length && rows[i] >>> 16 == key) {
+        low[n++] = (char) rows[i++];
+      }
+      keys[chunk] = (char) key;
+      containers[chunk++] = Container.fromSorted(low, n);
+    }
+    return new RowSet(keys, containers);
+  }
+
+  /**
+   * Returns the number of rows in this set.
+   *
+   * @return the cardinality
+   */
+  public int cardinality() {
+    return cardinality;
+  }
+
+  /**
+   * Returns whether this set has no rows.
+   *
+   * @return true if the set is empty
+   */
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  /**
+   * Checks whether a row is in this set, with a binary search for its chunk and then within the
+   * chunk's container.
+   *
+   * @param row the row index
+   * @return true if the row is in the set
+   */
+  public boolean contains(int row) {
+    int index = Arrays.binarySearch(keys, (char) (row >>> 16));
+    return row >= 0 && index >= 0 && containers[index].contains((char) row);
+  }
+
+  /**
+   * Returns the rows in both this set and another.
+   *
+   * @param other the other RowSet
+   * @return the intersection
+   */
+  public RowSet and(RowSet other) {
+    int size = Math.min(keys.length, other.keys.length);
+    char[] outKeys = new char[size];
+    Container[] outContainers = new Container[size];
+    int n = 0;
+    int i = 0;
+    int j = 0;
+    while (i < keys.length && j < other.keys.length) {
+      if (keys[i] < other.keys[j]) {
+        i++;
+      } else if (keys[i] > other.keys[j]) {
+        j++;
+      } else {
+        Container container = containers[i].and(other.containers[j]);
+        if (container.cardinality() > 0) {
+          outKeys[n] = keys[i];
+          outContainers[n++] = container;
+        }
+        i++;
+        j++;
+      }
+    }
+    return create(outKeys, outContainers, n);
+  }
+
+  /**
+   * Returns the rows in either this set or another.
+   *
+   * @param other the other RowSet
+   * @return the union
+   */
+  public RowSet or(RowSet other) {
+    if (other.isEmpty()) {
+      return this;
+    } else if (isEmpty()) {
+      return other;
+    }
+    char[] outKeys = new char[keys.length + other.keys.length];
+    Container[] outContainers = new Container[outKeys.length];
+    int n = 0;
+    int i = 0;
+    int j = 0;
+    while (i < keys.length || j < other.keys.length) {
+      if (j >= other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+        outKeys[n] = keys[i];
+        outContainers[n++] = containers[i++];
+      } else if (i >= keys.length || other.keys[j] < keys[i]) {
+        outKeys[n] = other.keys[j];
+        outContainers[n++] = other.containers[j++];
+      } else {
+        outKeys[n] = keys[i];
+        outContainers[n++] = containers[i++].or(other.containers[j++]);
+      }
+    }
+    return create(outKeys, outContainers, n);
+  }
+
+  /**
+   * Returns the rows in this set but not in another.
+   *
+   * @param other the RowSet of rows to remove
+   * @return the difference
+   */
+  public RowSet andNot(RowSet other) {
+    if (other.isEmpty() || isEmpty()) {
+      return this;
+    }
+    char[] outKeys = new char[keys.length];
+    Container[] outContainers = new Container[keys.length];
+    int n = 0;
+    int j = 0;
+    for (int i = 0; i < keys.length; i++) {
+      while (j < other.keys.length && other.keys[j] < keys[i]) {
+        j++;
+      }
+      Container container = containers[i];
+      if (j < other.keys.length && other.keys[j] == keys[i]) {
+        container = container.andNot(other.containers[j]);
+      }
+      if (container.cardinality() > 0) {
+        outKeys[n] = keys[i];
+        outContainers[n++] = container;
+      }
+    }
+    return create(outKeys, outContainers, n);
+  }
+
+  /**
+   * Calls an IntConsumer with every row in this set, in increasing order.
+   *
+   * @param action the IntConsumer to call
+   */
+  public void forEach(IntConsumer action) {
+    for (int i = 0; i < keys.length; i++) {
+      containers[i].forEach(keys[i] << 16, action);
+    }
+  }
+
+  /**
+   * Returns the rows in this set as an array.
+   *
+   * @return the rows in increasing order
+   */
+  public int[] toArray() {
+    int[] out = new int[cardinality];
+    int n = 0;
+    for (int i = 0; i < keys.length; i++) {
+      n = containers[i].copyTo(keys[i] << 16, out, n);
+    }
+    return out;
+  }
+
+  /**
+   * Returns at most count of the rows in this set from a row on, as an array. Only the chunks
+   * holding those rows are read, so this costs about count rows plus one chunk however large the
+   * set is.
+   *
+   * @param from the first row that may be returned
+   * @param count the most rows to return
+   * @return the rows at or after from, in increasing order
+   */
+  public int[] toArray(int from, int count) {
+    int chunk = Arrays.binarySearch(keys, (char) (from >>> 16));
+    chunk = chunk < 0 ? -chunk - 1 : chunk;
+    if (from < 0) {
+      chunk = 0;
+    }
+    int[] out = new int[Math.min(count, cardinality)];
+    int n = 0;
+    int[] values = null;
+    for (int i = chunk; i < keys.length && n < out.length; i++) {
+      Container container = containers[i];
+      if (values == null || values.length < container.cardinality()) {
+        values = new int[container.cardinality()];
+      }
+      int size = container.copyTo(keys[i] << 16, values, 0);
+      for (int j = 0; j < size && n < out.length; j++) {
+        if (values[j] >= from) {
+          out[n++] = values[j];
+        }
+      }
+    }
+    return n == out.length ? out : Arrays.copyOf(out, n);
+  }
+
+  /**
+   * Estimates the bytes of heap this set takes up, for comparing its size with other layouts.
+   *
+   * @return the estimated size in bytes
+   */
+  public long estimatedBytes() {
+    long bytes = 32 + 16 + 2L * keys.length + 16 + 4L * containers.length;
+    for (Container container : containers) {
+      bytes += container.estimatedBytes();
+    }
+    return bytes;
+  }
+
+  /**
+   * Describes how many rows and containers of each kind this set has, for explain and debugging.
+   *
+   * @return the description
+   */
+  @Override
+  public String toString() {
+    int arrays = 0;
+    int bitmaps = 0;
+    int runs = 0;
+    for (Container container : containers) {
+      if (container instanceof ArrayContainer) {
+        arrays++;
+      } else if (container instanceof BitmapContainer) {
+        bitmaps++;
+      } else {
+        runs++;
+      }
+    }
+    return "RowSet["
+        + cardinality
+        + " rows in "
+        + arrays
+        + " array, "
+        + bitmaps
+        + " bitmap, "
+        + runs
+        + " run containers]";
+  }
+
+  /**
+   * Creates a RowSet from the first n chunks of two arrays.
+   *
+   * @param keys the chunk keys
+   * @param containers the chunk containers, none empty
+   * @param n the number of chunks in use
+   * @return the RowSet
+   */
+  private static RowSet create(char[] keys, Container[] containers, int n) {
+    if (n == 0) {
+      return EMPTY;
+    }
+    return new RowSet(Arrays.copyOf(keys, n), Arrays.copyOf(containers, n));
+  }
+
+  /** The low 16 bits of the rows in one chunk of a RowSet. */
+  private abstract static class Container {
+
+    /**
+     * Picks the smallest container for a sorted array of values.
+     *
+     * @param values values in strictly increasing order
+     * @param n how many of the values to use
+     * @return the smallest Container holding them
+     */
+    static Container fromSorted(char[] values, int n) {
+      int runs = n == 0 ? 0 : 1;
+      for (int i = 1; i < n; i++) {
+        if (values[i] != values[i - 1] + 1) {
+          runs++;
+        }
+      }
+      if (RunContainer.bytes(runs) < Math.min(ArrayContainer.bytes(n), BitmapContainer.BYTES)) {
+        return RunContainer.fromSorted(values, n, runs);
+      } else if (n <= ARRAY_MAX) {
+        return new ArrayContainer(Arrays.copyOf(values, n));
+      }
+      long[] words = new long[BITMAP_WORDS];
+      for (int i = 0; i < n; i++) {
+        words[values[i] >>> 6] |= 1L << values[i];
+      }
+      return new BitmapContainer(words, n);
+    }
+
+    /**
+     * Picks the smallest container for a bitmap of values.
+     *
+     * @param words the bitmap, which the returned container may keep
+     * @param cardinality the number of bits set
+     * @return the smallest Container holding them
+     */
+    static Container fromBitmap(long[] words, int cardinality) {
+      int runs = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        long word = words[w];
+        // A run starts at each set bit whose lower neighbor, in this word or the last, is unset
+        long previous = w == 0 ? 0 : words[w - 1] >>> 63;
+        runs += Long.bitCount(word & ~((word << 1) | previous));
+      }
+      int smallest =
+          cardinality <= ARRAY_MAX ? ArrayContainer.bytes(cardinality) : BitmapContainer.BYTES;
+      if (RunContainer.bytes(runs) < smallest) {
+        return RunContainer.fromBitmap(words, runs, cardinality);
+      } else if (cardinality <= ARRAY_MAX) {
+        return new ArrayContainer(BitmapContainer.toValues(words, cardinality));
+      }
+      return new BitmapContainer(words, cardinality);
+    }
+
+    /**
+     * Returns the number of values in this container.
+     *
+     * @return the cardinality
+     */
+    abstract int cardinality();
+
+    /**
+     * Checks whether a value is in this container.
+     *
+     * @param value the low 16 bits of a row
+     * @return true if it is in the container
+     */
+    abstract boolean contains(char value);
+
+    /**
+     * Returns a bitmap of this container's values, which the caller may modify.
+     *
+     * @return 1024 longs with one bit per value
+     */
+    abstract long[] toBitmap();
+
+    /**
+     * Calls an IntConsumer with every row in this container, in increasing order.
+     *
+     * @param high the high 16 bits of the rows, already shifted
+     * @param action the IntConsumer to call
+     */
+    abstract void forEach(int high, IntConsumer action);
+
+    /**
+     * Copies every row in this container into an array.
+     *
+     * @param high the high 16 bits of the rows, already shifted
+     * @param out the array to copy into
+     * @param offset the index to copy the first row to
+     * @return the index after the last row copied
+     */
+    abstract int copyTo(int high, int[] out, int offset);
+
+    /**
+     * Estimates the bytes of heap this container takes up.
+     *
+     * @return the estimated size in bytes
+     */
+    abstract long estimatedBytes();
+
+    /**
+     * Returns the values in both this container and another.
+     *
+     * @param other the other Container
+     * @return the intersection, possibly empty
+     */
+    Container and(Container other) {
+      if (other instanceof ArrayContainer array) {
+        return array.and(this);
+      }
+      long[] words = toBitmap();
+      long[] otherWords = other.toBitmap();
+      int cardinality = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        words[w] &= otherWords[w];
+        cardinality += Long.bitCount(words[w]);
+      }
+      return fromBitmap(words, cardinality);
+    }
+
+    /**
+     * Returns the values in either this container or another.
+     *
+     * @param other the other Container
+     * @return the union
+     */
+    Container or(Container other) {
+      long[] words = toBitmap();
+      long[] otherWords = other.toBitmap();
+      int cardinality = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        words[w] |= otherWords[w];
+        cardinality += Long.bitCount(words[w]);
+      }
+      return fromBitmap(words, cardinality);
+    }
+
+    /**
+     * Returns the values in this container but not another.
+     *
+     * @param other the Container of values to remove
+     * @return the difference, possibly empty
+     */
+    Container andNot(Container other) {
+      long[] words = toBitmap();
+      long[] otherWords = other.toBitmap();
+      int cardinality = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        words[w] &= ~otherWords[w];
+        cardinality += Long.bitCount(words[w]);
+      }
+      return fromBitmap(words, cardinality);
+    }
+  }
+
+  /** A Container of up to 4096 values, kept as a sorted array. */
+  private static final class ArrayContainer extends Container {
+    private final char[] values;
+
+    /**
+     * The constructor for an ArrayContainer.
+     *
+     * @param values the values in strictly increasing order, which the container keeps
+     */
+    ArrayContainer(char[] values) {
+      this.values = values;
+    }
+
+    /**
+     * Returns the bytes an ArrayContainer of n values takes up.
+     *
+     * @param n the number of values
+     * @return the size in bytes
+     */
+    static int bytes(int n) {
+      return 2 * n;
+    }
+
+    @Override
+    int cardinality() {
+      return values.length;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    @Override
+    long[] toBitmap() {
+      long[] words = new long[BITMAP_WORDS];
+      for (char value : values) {
+        words[value >>> 6] |= 1L << value;
+      }
+      return words;
+    }
+
+    @Override
+    void forEach(int high, IntConsumer action) {
+      for (char value : values) {
+        action.accept(high | value);
+      }
+    }
+
+    @Override
+    int copyTo(int high, int[] out, int offset) {
+      for (char value : values) {
+        out[offset++] = high | value;
+      }
+      return offset;
+    }
+
+    @Override
+    long estimatedBytes() {
+      return 16 + 16 + bytes(values.length);
+    }
+
+    @Override
+    Container and(Container other) {
+      char[] out = new char[values.length];
+      int n = 0;
+      if (other instanceof ArrayContainer array) {
+        // Merge two sorted arrays
+        char[] b = array.values;
+        int i = 0;
+        int j = 0;
+        while (i < values.length && j < b.length) {
+          if (values[i] < b[j]) {
+            i++;
+          } else if (values[i] > b[j]) {
+            j++;
+          } else {
+            out[n++] = values[i];
+            i++;
+            j++;
+          }
+        }
+      } else {
+        for (char value : values) {
+          if (other.contains(value)) {
+            out[n++] = value;
+          }
+        }
+      }
+      return new ArrayContainer(Arrays.copyOf(out, n));
+    }
+
+    @Override
+    Container or(Container other) {
+      if (other instanceof ArrayContainer array
+          && values.length + array.values.length <= ARRAY_MAX) {
+        char[] b = array.values;
+        char[] out = new char[values.length + b.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < values.length || j < b.length) {
+          if (j >= b.length || (i < values.length && values[i] < b[j])) {
+            out[n++] = values[i++];
+          } else if (i >= values.length || b[j] < values[i]) {
+            out[n++] = b[j++];
+          } else {
+            out[n++] = values[i];
+            i++;
+            j++;
+          }
+        }
+        return fromSorted(out, n);
+      }
+      return super.or(other);
+    }
+
+    @Override
+    Container andNot(Container other) {
+      char[] out = new char[values.length];
+      int n = 0;
+      for (char value : values) {
+        if (!other.contains(value)) {
+          out[n++] = value;
+        }
+      }
+      return new ArrayContainer(Arrays.copyOf(out, n));
+    }
+  }
+
+  /** A Container of more than 4096 values, kept as a bitmap with one bit per possible value. */
+  private static final class BitmapContainer extends Container {
+    /** The bytes a BitmapContainer takes up, whatever its cardinality. */
+    static final int BYTES = 8 * BITMAP_WORDS;
+
+    private final long[] words;
+    private final int cardinality;
+
+    /**
+     * The constructor for a BitmapContainer.
+     *
+     * @param words the 1024 longs of the bitmap, which the container keeps
+     * @param cardinality the number of bits set
+     */
+    BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    /**
+     * Lists the values set in a bitmap.
+     *
+     * @param words the bitmap
+     * @param cardinality the number of bits set
+     * @return the values in increasing order
+     */
+    static char[] toValues(long[] words, int cardinality) {
+      char[] values = new char[cardinality];
+      int n = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        long word = words[w];
+        while (word != 0) {
+          values[n++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return values;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    long[] toBitmap() {
+      return words.clone();
+    }
+
+    @Override
+    void forEach(int high, IntConsumer action) {
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        long word = words[w];
+        while (word != 0) {
+          action.accept(high | (w << 6) + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+    }
+
+    @Override
+    int copyTo(int high, int[] out, int offset) {
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        long word = words[w];
+        while (word != 0) {
+          out[offset++] = high | (w << 6) + Long.numberOfTrailingZeros(word);
+          word &= word - 1;
+        }
+      }
+      return offset;
+    }
+
+    @Override
+    long estimatedBytes() {
+      return 24 + 16 + BYTES;
+    }
+  }
+
+  /** A Container kept as sorted runs of consecutive values, each a start and an inclusive end. */
+  private static final class RunContainer extends Container {
+    private final char[] starts;
+    private final char[] ends;
+    private final int cardinality;
+
+    /**
+     * The constructor for a RunContainer.
+     *
+     * @param starts the first value of each run, in increasing order
+     * @param ends the last value of each run
+     * @param cardinality the total number of values in the runs
+     */
+    RunContainer(char[] starts, char[] ends, int cardinality) {
+      this.starts = starts;
+      this.ends = ends;
+      this.cardinality = cardinality;
+    }
+
+    /**
+     * Returns the bytes a RunContainer of the given number of runs takes up.
+     *
+     * @param runs the number of runs
+     * @return the size in bytes
+     */
+    static int bytes(int runs) {
+      return 4 * runs;
+    }
+
+    /**
+     * Creates the RunContainer of a sorted array of values.
+     *
+     * @param values values in strictly increasing order
+     * @param n how many of the values to use
+     * @param runs the number of runs they form
+     * @return the RunContainer
+     */
+    static RunContainer fromSorted(char[] values, int n, int runs) {
+      char[] starts = new char[runs];
+      char[] ends = new char[runs];
+      int r = -1;
+      for (int i = 0; i < n; i++) {
+        if (i == 0 || values[i] != values[i - 1] + 1) {
+          starts[++r] = values[i];
+        }
+        ends[r] = values[i];
+      }
+      return new RunContainer(starts, ends, n);
+    }
+
+    /**
+     * Creates the RunContainer of a bitmap, finding each run with a few bit tricks per word rather
+     * than visiting every value.
+     *
+     * @param words the bitmap
+     * @param runs the number of runs in the bitmap
+     * @param cardinality the number of bits set
+     * @return the RunContainer
+     */
+    static RunContainer fromBitmap(long[] words, int runs, int cardinality) {
+      char[] starts = new char[runs];
+      char[] ends = new char[runs];
+      int r = 0;
+      int w = 0;
+      long word = words[0];
+      while (r < runs) {
+        while (word == 0) {
+          word = words[++w];
+        }
+        starts[r] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+        // Set every bit below the run too, so the run is the word's trailing ones
+        word |= word - 1;
+        while (word == -1L && w < BITMAP_WORDS - 1) {
+          word = words[++w];
+        }
+        if (word == -1L) {
+          ends[r++] = (char) 0xFFFF;
+          break;
+        }
+        ends[r++] = (char) ((w << 6) + Long.numberOfTrailingZeros(~word) - 1);
+        // Clear the trailing ones, leaving the bits after the run
+        word &= word + 1;
+      }
+      return new RunContainer(starts, ends, cardinality);
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+      int index = Arrays.binarySearch(starts, value);
+      if (index >= 0) {
+        return true;
+      }
+      int run = -index - 2;
+      return run >= 0 && value <= ends[run];
+    }
+
+    @Override
+    long[] toBitmap() {
+      long[] words = new long[BITMAP_WORDS];
+      for (int r = 0; r < starts.length; r++) {
+        int from = starts[r];
+        int to = ends[r] + 1;
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        if (firstWord == lastWord) {
+          words[firstWord] |= (-1L >>> (64 - (to - from))) << from;
+        } else {
+          words[firstWord] |= -1L << from;
+          Arrays.fill(words, firstWord + 1, lastWord, -1L);
+          words[lastWord] |= -1L >>> -to;
+        }
+      }
+      return words;
+    }
+
+    @Override
+    void forEach(int high, IntConsumer action) {
+      for (int r = 0; r < starts.length; r++) {
+        for (int value = starts[r]; value <= ends[r]; value++) {
+          action.accept(high | value);
+        }
+      }
+    }
+
+    @Override
+    int copyTo(int high, int[] out, int offset) {
+      for (int r = 0; r < starts.length; r++) {
+        for (int value = starts[r]; value <= ends[r]; value++) {
+          out[offset++] = high | value;
+        }
+      }
+      return offset;
+    }
+
+    @Override
+    long estimatedBytes() {
+      return 24 + 32 + bytes(starts.length);
+    }
+
+    @Override
+    Container and(Container other) {
+      if (!(other instanceof RunContainer runs)) {
+        return super.and(other);
+      }
+      // Intersect the two lists of intervals directly
+      char[] outStarts = new char[starts.length + runs.starts.length];
+      char[] outEnds = new char[outStarts.length];
+      int n = 0;
+      int total = 0;
+      int i = 0;
+      int j = 0;
+      while (i < starts.length && j < runs.starts.length) {
+        int from = Math.max(starts[i], runs.starts[j]);
+        int to = Math.min(ends[i], runs.ends[j]);
+        if (from <= to) {
+          outStarts[n] = (char) from;
+          outEnds[n++] = (char) to;
+          total += to - from + 1;
+        }
+        if (ends[i] < runs.ends[j]) {
+          i++;
+        } else {
+          j++;
+        }
+      }
+      if (total <= ARRAY_MAX && ArrayContainer.bytes(total) <= bytes(n)) {
+        char[] values = new char[total];
+        int v = 0;
+        for (int r = 0; r < n; r++) {
+          for (int value = outStarts[r]; value <= outEnds[r]; value++) {
+            values[v++] = (char) value;
+          }
+        }
+        return new ArrayContainer(values);
+      }
+      return new RunContainer(Arrays.copyOf(outStarts, n), Arrays.copyOf(outEnds, n), total);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package edu.brown.cs.student.main.csv.search;
+
+/**
+ * This SearchMatches class stands for the rows matching a range search, or a search matching cells
+ * the way a MatchMode says, over one loaded CSV. Like a QueryPlan, it finds its rows the first time
+ * they are needed and keeps them as a RowSet, so a cursor continuing a paged search, which keeps
+ * it, reads each later page from them rather than searching again.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class SearchMatches {
+  /** Finds the matching rows. */
+  @FunctionalInterface
+  interface Finder {
+    /**
+     * Finds the rows.
+     *
+     * @return the RowSet of matching rows, never including a header
+     * @throws SearchException if the search fails, such as a regex running out of time
+     */
+    RowSet find() throws SearchException;
+  }
+
+  private final int start;
+  private final int rowCount;
+  private final Finder finder;
+  private volatile RowSet matches;
+
+  /**
+   * The constructor for the SearchMatches class, only called by the CsvSearcher.
+   *
+   * @param start the first row being searched, which is 1 when the first row is a header
+   * @param rowCount the number of rows of the CSV, including any header
+   * @param finder the Finder of the matching rows, only run the first time they are needed
+   */
+  SearchMatches(int start, int rowCount, Finder finder) {
+    this.start = start;
+    this.rowCount = rowCount;
+    this.finder = finder;
+  }
+
+  /**
+   * The constructor for the SearchMatches class, for rows that have already been found.
+   *
+   * @param start the first row searched, which is 1 when the first row is a header
+   * @param matches the RowSet of matching rows, never including a header
+   */
+  SearchMatches(int start, RowSet matches) {
+    this(start, 0, () -> matches);
+    this.matches = matches;
+  }
+
+  /**
+   * Returns the first row searched.
+   *
+   * @return 1 when the first row is a header, and 0 otherwise
+   */
+  int start() {
+    return start;
+  }
+
+  /**
+   * Returns the matching rows, finding them only the first time.
+   *
+   * @return the RowSet of matching rows, never including a header
+   * @throws SearchException if the search fails
+   */
+  RowSet rows() throws SearchException {
+    RowSet rows = matches;
+    if (rows == null) {
+      // Two threads finding the rows at once both get the same rows, so either can be kept
+      rows = finder.find();
+      matches = rows;
+    }
+    return rows;
+  }
+
+  /**
+   * Estimates the bytes of heap the matching rows take up once found. Before then, it is the most
+   * they could take, a bit per row of the CSV, so callers weighing it never count too little.
+   *
+   * @return the estimated size in bytes
+   */
+  public long estimatedBytes() {
+    RowSet rows = matches;
+    if (rows != null) {
+      return rows.estimatedBytes();
+    }
+    // A full bitmap container per chunk of 65536 rows, and the arrays of keys and containers
+    long chunks = (rowCount >>> 16) + 1;
+    return 64 + chunks * (8192 + 48);
+  }
+}
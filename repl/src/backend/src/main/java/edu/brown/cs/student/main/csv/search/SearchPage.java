@@ -0,0 +1,15 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.util.List;
+
+/**
+ * This record holds one page of the rows matching a search, along with whether more rows match
+ * after it, so a caller can ask for the next page with a PageRequest continuing after last.
+ *
+ * @param rows the rows of this page, in file order or ranked by a column
+ * @param more whether more rows match after this page
+ * @param last the index of the last row of this page, or -1 if it is empty
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public record SearchPage(List<List<String>> rows, boolean more, int last) {}
@@ -0,0 +1,223 @@
+package edu.brown.cs.student.main.csv.search;
+
+import edu.brown.cs.student.main.csv.table.TypedColumn;
+import java.util.Arrays;
+
+/**
+ * This SortedIndex class is a sorted permutation of the rows of one numeric or date column: the
+ * indexes of every row with a value, ordered by that value, next to the values themselves. Finding
+ * the rows in a range is then two binary searches for the ends of the range and a copy of the
+ * contiguous rows between them, instead of a pass over the whole table.
+ *
+ * <p>Rows with equal values keep their original order. Rows whose cell in the column is null, such
+ * as a header row, are left out.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class SortedIndex {
+  private final int[] rows;
+  private final double[] keys;
+
+  /**
+   * The constructor for the SortedIndex class, only called by build.
+   *
+   * @param rows the row indexes, sorted by value
+   * @param keys the value of each row in rows
+   */
+  private SortedIndex(int[] rows, double[] keys) {
+    this.rows = rows;
+    this.keys = keys;
+  }
+
+  /**
+   * Builds the SortedIndex of a numeric or date column.
+   *
+   * @param column the TypedColumn to index
+   * @return the SortedIndex of the column
+   * @throws IllegalArgumentException if the column is not numeric
+   */
+  public static SortedIndex build(TypedColumn column) {
+    if (!column.isNumeric()) {
+      throw new IllegalArgumentException("Cannot build a sorted index of a TEXT column");
+    }
+    int count = column.size() - column.nullCount();
+    int[] rows = new int[count];
+    double[] keys = new double[count];
+    int next = 0;
+    for (int row = 0; row < column.size(); row++) {
+      if (!column.isNull(row)) {
+        rows[next] = row;
+        keys[next] = column.numericAt(row);
+        next++;
+      }
+    }
+    mergeSort(rows, keys, rows.clone(), keys.clone(), 0, count);
+    return new SortedIndex(rows, keys);
+  }
+
+  /**
+   * Sorts rows[from, to) by keys, keeping equal keys in their original order. The scratch arrays
+   * must start out as copies of rows and keys, and are overwritten.
+   *
+   * @param rows the row indexes to sort
+   * @param keys the value of each row, sorted along with it
+   * @param scratchRows a copy of rows to merge from
+   * @param scratchKeys a copy of keys to merge from
+   * @param from the first index to sort
+   * @param to one past the last index to sort
+   */
+  private static void mergeSort(
+      int[] rows, double[] keys, int[] scratchRows, double[] scratchKeys, int from, int to) {
+    if (to - from < 2) {
+      return;
+    }
+    int middle = (from + to) >>> 1;
+    // Sort each half of the scratch arrays, using the output arrays as their scratch space
+    mergeSort(scratchRows, scratchKeys, rows, keys, from, middle);
+    mergeSort(scratchRows, scratchKeys, rows, keys, middle, to);
+    int left = from;
+    int right = middle;
+    for (int i = from; i < to; i++) {
+      if (right >= to || (left < middle && scratchKeys[left] <= scratchKeys[right])) {
+        rows[i] = scratchRows[left];
+        keys[i] = scratchKeys[left++];
+      } else {
+        rows[i] = scratchRows[right];
+        keys[i] = scratchKeys[right++];
+      }
+    }
+  }
+
+  /**
+   * Finds the rows whose values are in the given range, in their original order.
+   *
+   * @param lower the lower bound, or null for no lower bound
+   * @param lowerInclusive whether a value equal to lower is in the range
+   * @param upper the upper bound, or null for no upper bound
+   * @param upperInclusive whether a value equal to upper is in the range
+   * @return the indexes of the matching rows, in increasing order
+   */
+  public int[] rowsInRange(
+      Double lower, boolean lowerInclusive, Double upper, boolean upperInclusive) {
+    int from = start(lower, lowerInclusive);
+    int to = end(upper, upperInclusive);
+    if (from >= to) {
+      return new int[0];
+    }
+    int[] matches = Arrays.copyOfRange(rows, from, to);
+    Arrays.sort(matches);
+    return matches;
+  }
+
+  /**
+   * Counts the rows whose values are in the given range, with two binary searches and no copying.
+   *
+   * @param lower the lower bound, or null for no lower bound
+   * @param lowerInclusive whether a value equal to lower is in the range
+   * @param upper the upper bound, or null for no upper bound
+   * @param upperInclusive whether a value equal to upper is in the range
+   * @return the number of matching rows
+   */
+  public int countInRange(
+      Double lower, boolean lowerInclusive, Double upper, boolean upperInclusive) {
+    return Math.max(0, end(upper, upperInclusive) - start(lower, lowerInclusive));
+  }
+
+  /**
+   * Finds the first position in a range.
+   *
+   * @param lower the lower bound, or null for no lower bound
+   * @param lowerInclusive whether a value equal to lower is in the range
+   * @return the first position whose value is in the range, if any is
+   */
+  private int start(Double lower, boolean lowerInclusive) {
+    if (lower == null) {
+      return 0;
+    }
+    return lowerInclusive ? firstAtLeast(lower) : firstAbove(lower);
+  }
+
+  /**
+   * Finds one past the last position in a range.
+   *
+   * @param upper the upper bound, or null for no upper bound
+   * @param upperInclusive whether a value equal to upper is in the range
+   * @return one past the last position whose value is in the range, if any is
+   */
+  private int end(Double upper, boolean upperInclusive) {
+    if (upper == null) {
+      return rows.length;
+    }
+    return upperInclusive ? firstAbove(upper) : firstAtLeast(upper);
+  }
+
+  /**
+   * Finds the first position whose value is at least the given key.
+   *
+   * @param key the value to look for
+   * @return the position, or the number of indexed rows if every value is smaller
+   */
+  private int firstAtLeast(double key) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (keys[middle] < key) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Finds the first position whose value is greater than the given key.
+   *
+   * @param key the value to look for
+   * @return the position, or the number of indexed rows if no value is greater
+   */
+  private int firstAbove(double key) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (keys[middle] <= key) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the number of rows in the index, which is every row with a value.
+   *
+   * @return the number of indexed rows
+   */
+  public int size() {
+    return rows.length;
+  }
+
+  /**
+   * Returns the row at the given position in sorted order.
+   *
+   * @param position a position between 0 and size() - 1
+   * @return the index of the row with the position-th smallest value
+   */
+  public int rowAt(int position) {
+    return rows[position];
+  }
+
+  /**
+   * Returns the value at the given position in sorted order.
+   *
+   * @param position a position between 0 and size() - 1
+   * @return the position-th smallest value
+   */
+  public double keyAt(int position) {
+    return keys[position];
+  }
+}
@@ -0,0 +1,15 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.util.List;
+
+/**
+ * This record holds one page of rows sorted by a column, along with how many rows were sorted in
+ * total, so a caller can tell whether there are more pages.
+ *
+ * @param total the number of rows sorted, not counting a header
+ * @param rows the rows of this page, in sorted order
+ * @param spilled whether the sort was too large for its memory budget and was spilled to disk
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public record SortedPage(int total, List<List<String>> rows, boolean spilled) {}
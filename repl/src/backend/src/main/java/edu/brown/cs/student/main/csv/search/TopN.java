@@ -0,0 +1,279 @@
+package edu.brown.cs.student.main.csv.search;
+
+import edu.brown.cs.student.main.csv.table.TypedColumn;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This TopN class picks one page of the rows matching a search for a PageRequest, without
+ * collecting every match first.
+ *
+ * <p>In file order, rows are checked from just after the previous page, and the check stops as soon
+ * as one more row than the page holds has matched: that row is only needed to tell that there are
+ * more. A search for a common value then checks about a page of rows rather than the whole CSV.
+ *
+ * <p>Ranked by a column, every row must be checked, but only the best limit of them are kept, in a
+ * bounded binary heap of row indexes whose root is the worst row kept. Each match either loses to
+ * the root or replaces it, so picking the top rows takes log(limit) time per match and no more than
+ * limit ints of memory. Rows ranked at or before the last row of the previous page are skipped,
+ * which makes every page the same cost however far into the results it is.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+final class TopN {
+
+  /** Checks whether one row matches a search. */
+  @FunctionalInterface
+  interface RowMatcher {
+    /**
+     * Checks a row.
+     *
+     * @param row the row index
+     * @return true if the row matches
+     * @throws SearchException if the search fails, such as a regex running out of time
+     */
+    boolean matches(int row) throws SearchException;
+  }
+
+  /** Compares two rows by their rank, as a total order with no two rows equal. */
+  @FunctionalInterface
+  interface RowComparator {
+    /**
+     * Compares two rows.
+     *
+     * @param a the index of one row
+     * @param b the index of the other row
+     * @return a negative number if a ranks first, and a positive number if b does
+     */
+    int compare(int a, int b);
+  }
+
+  private final List<List<String>> rows;
+  private final RowComparator order;
+  private final int limit;
+  private final int after;
+  private long scanned;
+
+  /**
+   * The constructor for the TopN class.
+   *
+   * @param rows the rows of the CSV
+   * @param order the RowComparator ranking rows, or null for file order
+   * @param limit the most rows the page may hold, at least 1
+   * @param after the index of the last row of the previous page, or -1 for the first page
+   */
+  TopN(List<List<String>> rows, RowComparator order, int limit, int after) {
+    this.rows = rows;
+    this.order = order;
+    this.limit = limit;
+    this.after = after;
+  }
+
+  /**
+   * Creates a RowComparator ranking rows by a column, the way a RowOrder sorts them.
+   *
+   * @param rows the rows of the CSV
+   * @param column the TypedColumn of the column, or null if the column is past the typed ones
+   * @param col the index of the column
+   * @param descending whether the largest values come first
+   * @return the RowComparator
+   */
+  static RowComparator byColumn(
+      List<List<String>> rows, TypedColumn column, int col, boolean descending) {
+    boolean numeric = column != null && column.isNumeric();
+    return (a, b) -> {
+      String cellA = numeric ? null : cell(rows, a, col);
+      String cellB = numeric ? null : cell(rows, b, col);
+      boolean hasA = numeric ? !column.isNull(a) : !cellA.isBlank();
+      boolean hasB = numeric ? !column.isNull(b) : !cellB.isBlank();
+      if (hasA != hasB) {
+        // Rows with no value come last in either direction
+        return hasA ? -1 : 1;
+      }
+      if (hasA) {
+        int byValue =
+            numeric
+                ? Double.compare(column.numericAt(a), column.numericAt(b))
+                : cellA.compareTo(cellB);
+        if (byValue != 0) {
+          return descending ? -byValue : byValue;
+        }
+      }
+      return Integer.compare(a, b);
+    };
+  }
+
+  /**
+   * Returns a row's cell in a column.
+   *
+   * @param rows the rows of the CSV
+   * @param row the row index
+   * @param col the column index
+   * @return the cell, or an empty String if the row is too short to have one
+   */
+  private static String cell(List<List<String>> rows, int row, int col) {
+    List<String> cells = rows.get(row);
+    return col < cells.size() ? cells.get(col) : "";
+  }
+
+  /**
+   * Picks the page of matching rows.
+   *
+   * @param start the first row searched, which is 1 when the first row is a header
+   * @param candidates the only rows that could match, in increasing order, or null if every row
+   *     from start could
+   * @param matcher the RowMatcher checking each candidate
+   * @return the SearchPage of matching rows
+   * @throws SearchException if the matcher fails
+   */
+  SearchPage select(int start, int[] candidates, RowMatcher matcher) throws SearchException {
+    return order == null
+        ? firstMatches(start, candidates, matcher)
+        : topMatches(start, candidates, matcher);
+  }
+
+  /**
+   * Returns the number of rows checked by the last call to select.
+   *
+   * @return the number of rows checked
+   */
+  long scanned() {
+    return scanned;
+  }
+
+  /**
+   * Picks the first matching rows after the previous page, in file order, stopping at the first
+   * match past the page.
+   *
+   * @param start the first row searched
+   * @param candidates the only rows that could match, or null if every row from start could
+   * @param matcher the RowMatcher checking each candidate
+   * @return the SearchPage of matching rows
+   * @throws SearchException if the matcher fails
+   */
+  private SearchPage firstMatches(int start, int[] candidates, RowMatcher matcher)
+      throws SearchException {
+    int first = Math.max(start, after + 1);
+    int from = 0;
+    int end = rows.size();
+    if (candidates != null) {
+      from = Arrays.binarySearch(candidates, first);
+      from = from < 0 ? -from - 1 : from;
+      end = candidates.length;
+    } else {
+      from = first;
+    }
+    List<List<String>> page = new ArrayList<>(Math.min(limit, 1024));
+    int last = -1;
+    scanned = 0;
+    for (int i = from; i < end; i++) {
+      int row = candidates != null ? candidates[i] : i;
+      scanned++;
+      if (matcher.matches(row)) {
+        if (page.size() == limit) {
+          return new SearchPage(Collections.unmodifiableList(page), true, last);
+        }
+        page.add(rows.get(row));
+        last = row;
+      }
+    }
+    return new SearchPage(Collections.unmodifiableList(page), false, last);
+  }
+
+  /**
+   * Picks the best ranked matching rows after the previous page, keeping them in a bounded heap.
+   *
+   * @param start the first row searched
+   * @param candidates the only rows that could match, or null if every row from start could
+   * @param matcher the RowMatcher checking each candidate
+   * @return the SearchPage of matching rows
+   * @throws SearchException if the matcher fails
+   */
+  private SearchPage topMatches(int start, int[] candidates, RowMatcher matcher)
+      throws SearchException {
+    int end = candidates != null ? candidates.length : rows.size();
+    int[] heap = new int[Math.min(limit, Math.max(0, end))];
+    int size = 0;
+    long matched = 0;
+    scanned = 0;
+    for (int i = candidates != null ? 0 : start; i < end; i++) {
+      int row = candidates != null ? candidates[i] : i;
+      if (row < start || (after >= 0 && order.compare(row, after) <= 0)) {
+        continue;
+      }
+      scanned++;
+      if (!matcher.matches(row)) {
+        continue;
+      }
+      matched++;
+      if (size < heap.length) {
+        heap[size] = row;
+        siftUp(heap, size++);
+      } else if (size > 0 && order.compare(row, heap[0]) < 0) {
+        heap[0] = row;
+        siftDown(heap, size);
+      }
+    }
+    // Popping the worst row each time fills the page from its end
+    int[] ranked = new int[size];
+    for (int n = size; n > 0; n--) {
+      ranked[n - 1] = heap[0];
+      heap[0] = heap[n - 1];
+      siftDown(heap, n - 1);
+    }
+    List<List<String>> page = new ArrayList<>(size);
+    for (int row : ranked) {
+      page.add(rows.get(row));
+    }
+    int last = size > 0 ? ranked[size - 1] : -1;
+    return new SearchPage(Collections.unmodifiableList(page), matched > size, last);
+  }
+
+  /**
+   * Moves the row at a position of the heap up until its parent ranks after it.
+   *
+   * @param heap the heap, with the worst ranked row at its root
+   * @param i the position of the row
+   */
+  private void siftUp(int[] heap, int i) {
+    int row = heap[i];
+    while (i > 0) {
+      int parent = (i - 1) / 2;
+      if (order.compare(heap[parent], row) >= 0) {
+        break;
+      }
+      heap[i] = heap[parent];
+      i = parent;
+    }
+    heap[i] = row;
+  }
+
+  /**
+   * Moves the root of the heap down until both its children rank before it.
+   *
+   * @param heap the heap, with the worst ranked row at its root
+   * @param size the number of rows in the heap
+   */
+  private void siftDown(int[] heap, int size) {
+    if (size == 0) {
+      return;
+    }
+    int row = heap[0];
+    int i = 0;
+    while (2 * i + 1 < size) {
+      int child = 2 * i + 1;
+      if (child + 1 < size && order.compare(heap[child + 1], heap[child]) > 0) {
+        child++;
+      }
+      if (order.compare(heap[child], row) <= 0) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = row;
+  }
+}
@@ -0,0 +1,146 @@
+package edu.brown.cs.student.main.csv.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This TrigramIndex class indexes one column by the trigrams, the runs of three consecutive
+ * characters, of its folded cells, keeping a RowSet of the rows containing each trigram. Any cell
+ * containing a value of three or more characters must contain every trigram of that value, so
+ * intersecting those trigrams' RowSets narrows a substring search down to a few candidate rows,
+ * which are then checked with String.contains. A cell only matching some of the trigrams, or all of
+ * them in a different order, is a false positive that the check removes.
+ *
+ * <p>Values shorter than three characters have no trigrams, so searching for them still checks
+ * every row.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class TrigramIndex {
+  /** The number of characters in a gram. */
+  public static final int GRAM = 3;
+
+  private final Map<Long, RowSet> postings;
+
+  /**
+   * The constructor for the TrigramIndex class, only called by build.
+   *
+   * @param postings the map from packed trigram to the RowSet of rows containing it
+   */
+  private TrigramIndex(Map<Long, RowSet> postings) {
+    this.postings = postings;
+  }
+
+  /** A growing list of the rows containing one trigram, used while building. */
+  private static final class RowList {
+    private int[] rows = new int[4];
+    private int size;
+
+    /**
+     * Adds a row, unless it was the last row added, since a trigram can appear in one cell twice.
+     *
+     * @param row the row index, no smaller than any added before
+     */
+    void add(int row) {
+      if (size > 0 && rows[size - 1] == row) {
+        return;
+      }
+      if (size == rows.length) {
+        rows = Arrays.copyOf(rows, size * 2);
+      }
+      rows[size++] = row;
+    }
+  }
+
+  /**
+   * Builds the TrigramIndex of one column.
+   *
+   * @param rows the CSV rows
+   * @param col the index of the column to index
+   * @return the TrigramIndex of the column
+   */
+  public static TrigramIndex build(List<List<String>> rows, int col) {
+    Map<Long, RowList> lists = new HashMap<>();
+    for (int r = 0; r < rows.size(); r++) {
+      List<String> row = rows.get(r);
+      if (col >= row.size()) {
+        continue;
+      }
+      String cell = MatchMode.fold(row.get(col));
+      for (int i = 0; i + GRAM <= cell.length(); i++) {
+        lists.computeIfAbsent(pack(cell, i), gram -> new RowList()).add(r);
+      }
+    }
+    Map<Long, RowSet> postings = new HashMap<>(lists.size() * 4 / 3 + 1);
+    for (Map.Entry<Long, RowList> entry : lists.entrySet()) {
+      postings.put(entry.getKey(), RowSet.of(entry.getValue().rows, entry.getValue().size));
+    }
+    return new TrigramIndex(postings);
+  }
+
+  /**
+   * Packs the trigram starting at an index of some text into a long, 16 bits per character, so that
+   * trigrams can be hashed without creating a String for each one.
+   *
+   * @param text the text
+   * @param i the index of the trigram's first character
+   * @return the packed trigram
+   */
+  private static long pack(String text, int i) {
+    return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+  }
+
+  /**
+   * Finds the rows that could contain a folded value: those containing every one of its trigrams.
+   * The rarest trigrams are intersected first, and the search stops as soon as nothing is left.
+   *
+   * @param value the folded value to search for
+   * @return the RowSet of candidate rows, or null if the value is too short to have trigrams
+   */
+  public RowSet candidates(String value) {
+    if (value.length() < GRAM) {
+      return null;
+    }
+    List<RowSet> sets = new ArrayList<>();
+    for (int i = 0; i + GRAM <= value.length(); i++) {
+      RowSet rows = postings.get(pack(value, i));
+      if (rows == null) {
+        return RowSet.empty();
+      }
+      sets.add(rows);
+    }
+    sets.sort((a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+    RowSet candidates = sets.get(0);
+    for (int i = 1; i < sets.size() && !candidates.isEmpty(); i++) {
+      candidates = candidates.and(sets.get(i));
+    }
+    return candidates;
+  }
+
+  /**
+   * Returns the number of distinct trigrams in this column.
+   *
+   * @return the number of trigrams indexed
+   */
+  public int size() {
+    return postings.size();
+  }
+
+  /**
+   * Estimates the bytes of heap the trigram postings take up.
+   *
+   * @return the estimated size in bytes
+   */
+  public long estimatedBytes() {
+    long bytes = 0;
+    for (RowSet rows : postings.values()) {
+      // Each entry also holds a boxed Long key and a hash map node
+      bytes += rows.estimatedBytes() + 48;
+    }
+    return bytes;
+  }
+}
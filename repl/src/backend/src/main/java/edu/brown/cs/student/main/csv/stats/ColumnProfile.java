@@ -0,0 +1,31 @@
+package edu.brown.cs.student.main.csv.stats;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This record holds the statistics of one column of a CSV, as served by /profile. Distinct counts,
+ * frequent values and quantiles come from sketches, so they are estimates on large CSVs, while the
+ * null count, type, minimum and maximum are exact.
+ *
+ * @param column the column's header, or its index if the CSV has no headers
+ * @param type the narrowest type every non-empty cell can be read as: long, double, date or text
+ * @param nulls the number of rows where the column is empty or missing
+ * @param distinct the number of distinct non-empty values, exact if the column has few of them
+ * @param min the text of the cell with the smallest value, or null for text columns
+ * @param max the text of the cell with the largest value, or null for text columns
+ * @param quantiles estimates of the 1st, 25th, 50th, 75th and 99th percentiles of a numeric column,
+ *     keyed p1 to p99, or null for other columns
+ * @param top the most frequent values, most frequent first
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public record ColumnProfile(
+    String column,
+    String type,
+    long nulls,
+    long distinct,
+    String min,
+    String max,
+    Map<String, Double> quantiles,
+    List<ValueCount> top) {}
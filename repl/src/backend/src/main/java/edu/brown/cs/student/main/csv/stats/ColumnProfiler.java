@@ -0,0 +1,246 @@
+package edu.brown.cs.student.main.csv.stats;
+
+import edu.brown.cs.student.main.csv.table.CellParser;
+import edu.brown.cs.student.main.csv.table.ColumnType;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This ColumnProfiler class gathers the statistics of one column, one cell at a time, as the CSV is
+ * parsed: how many cells have a value, which type they can all be read as, the smallest and largest
+ * values, a HyperLogLog of distinct values, a SpaceSaving of frequent values and, while every cell
+ * is a number, a QuantileSketch.
+ *
+ * <p>Numbers and dates are read the same way as by TypedColumn, so the minimum and maximum are
+ * those of the column's numericAt values whenever the types agree.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class ColumnProfiler {
+  /** How many frequent values each column keeps a counter for. */
+  public static final int TOP_CAPACITY = 64;
+
+  /** How many frequent values a ColumnProfile lists. */
+  public static final int TOP_VALUES = 10;
+
+  /** How many numbers each level of the QuantileSketch holds. */
+  static final int QUANTILE_CAPACITY = 256;
+
+  private static final double[] PERCENTILES = {0.01, 0.25, 0.5, 0.75, 0.99};
+
+  private long values;
+  private boolean allLong = true;
+  private boolean allNumber = true;
+  private boolean allDate = true;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+  private String minText;
+  private String maxText;
+  private int minDay = Integer.MAX_VALUE;
+  private int maxDay = Integer.MIN_VALUE;
+  private String minDayText;
+  private String maxDayText;
+  private HyperLogLog distinct = new HyperLogLog();
+  private SpaceSaving top = new SpaceSaving(TOP_CAPACITY);
+  private QuantileSketch quantiles = new QuantileSketch(QUANTILE_CAPACITY);
+
+  /**
+   * Adds one cell of the column.
+   *
+   * @param cell the cell's text, which is skipped if blank
+   */
+  public void add(String cell) {
+    if (cell.isBlank()) {
+      return;
+    }
+    values++;
+    distinct.add(cell);
+    top.add(cell);
+    if (allNumber) {
+      String number = CellParser.normalizeNumber(cell);
+      if (number == null) {
+        allNumber = false;
+        allLong = false;
+        // Quantiles are only kept for numeric columns, so the sketch can be dropped
+        quantiles = null;
+      } else {
+        allLong = allLong && CellParser.isLong(number);
+        double value = Double.parseDouble(number);
+        if (value < min) {
+          min = value;
+          minText = cell;
+        }
+        if (value > max) {
+          max = value;
+          maxText = cell;
+        }
+        quantiles.add(value);
+      }
+    }
+    if (allDate) {
+      Integer day = CellParser.parseEpochDay(cell);
+      if (day == null) {
+        allDate = false;
+      } else {
+        if (day < minDay) {
+          minDay = day;
+          minDayText = cell;
+        }
+        if (day > maxDay) {
+          maxDay = day;
+          maxDayText = cell;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the number of non-empty cells added.
+   *
+   * @return the value count
+   */
+  public long values() {
+    return values;
+  }
+
+  /**
+   * Returns the narrowest type every non-empty cell can be read as, which is TEXT if there are
+   * none.
+   *
+   * @return the ColumnType of the cells
+   */
+  public ColumnType type() {
+    if (values == 0) {
+      return ColumnType.TEXT;
+    } else if (allNumber) {
+      return allLong ? ColumnType.LONG : ColumnType.DOUBLE;
+    }
+    return allDate ? ColumnType.DATE : ColumnType.TEXT;
+  }
+
+  /**
+   * Returns the smallest value of a numeric or date column, as TypedColumn.numericAt reads it.
+   *
+   * @return the smallest number or epoch day, or positive infinity if there is no value
+   * @throws IllegalStateException if the column is TEXT
+   */
+  public double min() {
+    return switch (type()) {
+      case LONG, DOUBLE -> min;
+      case DATE -> minDay;
+      case TEXT -> throw new IllegalStateException("Text columns have no minimum");
+    };
+  }
+
+  /**
+   * Returns the largest value of a numeric or date column, as TypedColumn.numericAt reads it.
+   *
+   * @return the largest number or epoch day, or negative infinity if there is no value
+   * @throws IllegalStateException if the column is TEXT
+   */
+  public double max() {
+    return switch (type()) {
+      case LONG, DOUBLE -> max;
+      case DATE -> maxDay;
+      case TEXT -> throw new IllegalStateException("Text columns have no maximum");
+    };
+  }
+
+  /**
+   * Estimates how many non-empty cells have some text: exactly if it is among the values counted by
+   * the SpaceSaving, and otherwise as an even share of the cells not counted there, capped by the
+   * least count kept.
+   *
+   * @param value the cell text
+   * @return the estimated number of cells with that text
+   */
+  public long estimateCount(String value) {
+    long counted = top.count(value);
+    if (counted > 0 || top.isExact()) {
+      return counted;
+    }
+    long keptCells = 0;
+    for (ValueCount kept : top.top(TOP_CAPACITY)) {
+      keptCells += kept.count();
+    }
+    long others = Math.max(1, distinctCount() - top.size());
+    return Math.min(top.minCount(), Math.max(0, values - keptCells) / others);
+  }
+
+  /**
+   * Returns the number of distinct non-empty values, exactly while they all fit in the SpaceSaving
+   * and estimated by the HyperLogLog after that.
+   *
+   * @return the distinct count
+   */
+  public long distinctCount() {
+    if (top.isExact()) {
+      return top.size();
+    }
+    return Math.min(values, Math.max(top.size(), distinct.estimate()));
+  }
+
+  /**
+   * Summarizes the statistics gathered so far.
+   *
+   * @param column the name of the column
+   * @param rows the number of rows, including those too short to have the column
+   * @return the ColumnProfile of the column
+   */
+  public ColumnProfile profile(String column, long rows) {
+    ColumnType type = type();
+    String low = null;
+    String high = null;
+    Map<String, Double> percentiles = null;
+    if ((type == ColumnType.LONG || type == ColumnType.DOUBLE) && values > 0) {
+      low = minText;
+      high = maxText;
+      percentiles = new LinkedHashMap<>();
+      double[] estimates = quantiles.quantiles(PERCENTILES);
+      for (int i = 0; i < PERCENTILES.length; i++) {
+        percentiles.put("p" + Math.round(PERCENTILES[i] * 100), estimates[i]);
+      }
+      percentiles = Collections.unmodifiableMap(percentiles);
+    } else if (type == ColumnType.DATE) {
+      low = minDayText;
+      high = maxDayText;
+    }
+    return new ColumnProfile(
+        column,
+        type.name().toLowerCase(Locale.ROOT),
+        rows - values,
+        distinctCount(),
+        low,
+        high,
+        percentiles,
+        top.top(TOP_VALUES));
+  }
+
+  /**
+   * Returns a copy of this ColumnProfiler, which can be added to without changing this one.
+   *
+   * @return the copy
+   */
+  public ColumnProfiler copy() {
+    ColumnProfiler copy = new ColumnProfiler();
+    copy.values = values;
+    copy.allLong = allLong;
+    copy.allNumber = allNumber;
+    copy.allDate = allDate;
+    copy.min = min;
+    copy.max = max;
+    copy.minText = minText;
+    copy.maxText = maxText;
+    copy.minDay = minDay;
+    copy.maxDay = maxDay;
+    copy.minDayText = minDayText;
+    copy.maxDayText = maxDayText;
+    copy.distinct = distinct.copy();
+    copy.top = top.copy();
+    copy.quantiles = quantiles == null ? null : quantiles.copy();
+    return copy;
+  }
+}
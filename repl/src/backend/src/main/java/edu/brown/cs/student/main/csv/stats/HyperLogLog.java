@@ -0,0 +1,101 @@
+package edu.brown.cs.student.main.csv.stats;
+
+import java.util.Arrays;
+
+/**
+ * This HyperLogLog class estimates how many distinct Strings it has been given, in a fixed 4 KB of
+ * registers however many values there are. Each value is hashed to 64 bits; the first 12 bits pick
+ * one of 4096 registers, and the register keeps the longest run of leading zeros seen in the rest
+ * of the bits. The estimate is typically within about 2% of the true count.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class HyperLogLog {
+  private static final int PRECISION = 12;
+  private static final int REGISTERS = 1 << PRECISION;
+
+  private final byte[] registers;
+
+  /** The constructor for an empty HyperLogLog. */
+  public HyperLogLog() {
+    this(new byte[REGISTERS]);
+  }
+
+  /**
+   * The constructor for a HyperLogLog with the given registers.
+   *
+   * @param registers the registers, which are not copied
+   */
+  private HyperLogLog(byte[] registers) {
+    this.registers = registers;
+  }
+
+  /**
+   * Adds a value.
+   *
+   * @param value the value to count
+   */
+  public void add(String value) {
+    long hash = hash(value);
+    int register = (int) (hash >>> (64 - PRECISION));
+    // The sentinel bit caps the run at the number of bits left after the register index
+    int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+    if (rank > registers[register]) {
+      registers[register] = (byte) rank;
+    }
+  }
+
+  /**
+   * Estimates the number of distinct values added, correcting for small counts by counting empty
+   * registers instead.
+   *
+   * @return the estimated distinct count
+   */
+  public long estimate() {
+    double sum = 0;
+    int empty = 0;
+    for (byte register : registers) {
+      sum += Math.scalb(1.0, -register);
+      if (register == 0) {
+        empty++;
+      }
+    }
+    double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+    double estimate = alpha * REGISTERS * REGISTERS / sum;
+    if (estimate <= 2.5 * REGISTERS && empty > 0) {
+      estimate = REGISTERS * Math.log((double) REGISTERS / empty);
+    }
+    return Math.round(estimate);
+  }
+
+  /**
+   * Returns a copy of this HyperLogLog, which can be added to without changing this one.
+   *
+   * @return the copy
+   */
+  public HyperLogLog copy() {
+    return new HyperLogLog(Arrays.copyOf(registers, REGISTERS));
+  }
+
+  /**
+   * Hashes a String to 64 well-mixed bits, with FNV-1a over its characters followed by the
+   * finalizer of MurmurHash3.
+   *
+   * @param value the String to hash
+   * @return its hash
+   */
+  static long hash(String value) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      h ^= value.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,149 @@
+package edu.brown.cs.student.main.csv.stats;
+
+import java.util.Arrays;
+
+/**
+ * This QuantileSketch class estimates quantiles, such as the median, of a stream of numbers in a
+ * few kilobytes. It is a stack of compactors, as in the KLL sketch: numbers go into the bottom
+ * level, and when a level fills up it is sorted and every other number is moved up a level, where
+ * each number stands for twice as many. The offset taken alternates between compactions so that
+ * errors cancel out, and a quantile's rank is typically off by about one percent of the count.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class QuantileSketch {
+  private final int capacity;
+  private double[][] levels;
+  private int[] sizes;
+  private long count;
+  private long compactions;
+
+  /**
+   * The constructor for an empty QuantileSketch.
+   *
+   * @param capacity the number of values each level holds before it is compacted, which must be
+   *     even
+   */
+  public QuantileSketch(int capacity) {
+    this.capacity = capacity;
+    this.levels = new double[][] {new double[capacity]};
+    this.sizes = new int[1];
+  }
+
+  /**
+   * Adds a number.
+   *
+   * @param value the number
+   */
+  public void add(double value) {
+    count++;
+    insert(0, value);
+  }
+
+  /**
+   * Inserts a number into a level, compacting the level if that fills it.
+   *
+   * @param level the level
+   * @param value the number
+   */
+  private void insert(int level, double value) {
+    levels[level][sizes[level]++] = value;
+    if (sizes[level] == capacity) {
+      compact(level);
+    }
+  }
+
+  /**
+   * Sorts a full level and moves every other number in it up a level, emptying it.
+   *
+   * @param level the full level
+   */
+  private void compact(int level) {
+    if (level + 1 == levels.length) {
+      levels = Arrays.copyOf(levels, levels.length + 1);
+      levels[level + 1] = new double[capacity];
+      sizes = Arrays.copyOf(sizes, sizes.length + 1);
+    }
+    double[] values = levels[level];
+    Arrays.sort(values);
+    sizes[level] = 0;
+    // Compactions only cascade upwards, so this level is not written to while it is read
+    for (int i = (int) (compactions++ & 1); i < capacity; i += 2) {
+      insert(level + 1, values[i]);
+    }
+  }
+
+  /**
+   * Returns the number of numbers added.
+   *
+   * @return the count
+   */
+  public long count() {
+    return count;
+  }
+
+  /**
+   * Estimates quantiles of the numbers added.
+   *
+   * @param fractions the quantiles to estimate, each between 0 and 1, such as 0.5 for the median
+   * @return the estimate of each quantile, or NaN for each if no number has been added
+   */
+  public double[] quantiles(double... fractions) {
+    double[] out = new double[fractions.length];
+    int retained = 0;
+    for (int size : sizes) {
+      retained += size;
+    }
+    if (retained == 0) {
+      Arrays.fill(out, Double.NaN);
+      return out;
+    }
+    // A number retained at level l stands for 2^l of the numbers added
+    double[] values = new double[retained];
+    long[] weights = new long[retained];
+    Integer[] order = new Integer[retained];
+    int n = 0;
+    long total = 0;
+    for (int level = 0; level < levels.length; level++) {
+      for (int i = 0; i < sizes[level]; i++) {
+        values[n] = levels[level][i];
+        weights[n] = 1L << level;
+        order[n] = n;
+        total += weights[n];
+        n++;
+      }
+    }
+    Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+    for (int q = 0; q < fractions.length; q++) {
+      double target = fractions[q] * total;
+      long cumulative = 0;
+      out[q] = values[order[retained - 1]];
+      for (int i : order) {
+        cumulative += weights[i];
+        if (cumulative >= target) {
+          out[q] = values[i];
+          break;
+        }
+      }
+    }
+    return out;
+  }
+
+  /**
+   * Returns a copy of this QuantileSketch, which can be added to without changing this one.
+   *
+   * @return the copy
+   */
+  public QuantileSketch copy() {
+    QuantileSketch copy = new QuantileSketch(capacity);
+    copy.levels = new double[levels.length][];
+    for (int level = 0; level < levels.length; level++) {
+      copy.levels[level] = levels[level].clone();
+    }
+    copy.sizes = sizes.clone();
+    copy.count = count;
+    copy.compactions = compactions;
+    return copy;
+  }
+}
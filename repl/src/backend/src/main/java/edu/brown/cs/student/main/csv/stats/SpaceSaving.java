@@ -0,0 +1,133 @@
+package edu.brown.cs.student.main.csv.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This SpaceSaving class finds the most frequent Strings it has been given, keeping a counter for
+ * at most a fixed number of values. A new value takes over the counter of the least frequent value
+ * kept, inheriting its count, so counts may be too high, by at most the number of values added
+ * divided by the capacity. Any value more frequent than that is always kept.
+ *
+ * <p>Until it is full, every value has its own counter, so its counts are exact.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class SpaceSaving {
+  private final int capacity;
+  private final Map<String, long[]> counters;
+  private boolean evicted;
+
+  /**
+   * The constructor for an empty SpaceSaving.
+   *
+   * @param capacity the most values to keep a counter for
+   */
+  public SpaceSaving(int capacity) {
+    this.capacity = capacity;
+    this.counters = new HashMap<>();
+  }
+
+  /**
+   * Counts one occurrence of a value.
+   *
+   * @param value the value
+   */
+  public void add(String value) {
+    long[] counter = counters.get(value);
+    if (counter != null) {
+      counter[0]++;
+    } else if (counters.size() < capacity) {
+      counters.put(value, new long[] {1});
+    } else {
+      String least = null;
+      long leastCount = Long.MAX_VALUE;
+      for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+        if (entry.getValue()[0] < leastCount) {
+          least = entry.getKey();
+          leastCount = entry.getValue()[0];
+        }
+      }
+      counter = counters.remove(least);
+      counter[0]++;
+      counters.put(value, counter);
+      evicted = true;
+    }
+  }
+
+  /**
+   * Returns whether every value added still has its own counter, so that counts are exact and the
+   * values kept are all the distinct values.
+   *
+   * @return true if no counter has been taken over
+   */
+  public boolean isExact() {
+    return !evicted;
+  }
+
+  /**
+   * Returns the number of values with a counter.
+   *
+   * @return the number of values kept
+   */
+  public int size() {
+    return counters.size();
+  }
+
+  /**
+   * Returns the counted occurrences of a value.
+   *
+   * @param value the value
+   * @return its count, or 0 if it has no counter
+   */
+  public long count(String value) {
+    long[] counter = counters.get(value);
+    return counter == null ? 0 : counter[0];
+  }
+
+  /**
+   * Returns the smallest count kept, an upper bound on the count of any value without a counter.
+   *
+   * @return the smallest count, or 0 if the counters are not yet full
+   */
+  public long minCount() {
+    if (counters.size() < capacity) {
+      return 0;
+    }
+    long least = Long.MAX_VALUE;
+    for (long[] counter : counters.values()) {
+      least = Math.min(least, counter[0]);
+    }
+    return least;
+  }
+
+  /**
+   * Returns the most frequent values, most frequent first, breaking ties by value.
+   *
+   * @param n the most values to return
+   * @return the values and their counts
+   */
+  public List<ValueCount> top(int n) {
+    List<ValueCount> all = new ArrayList<>(counters.size());
+    counters.forEach((value, counter) -> all.add(new ValueCount(value, counter[0])));
+    all.sort(
+        Comparator.comparingLong(ValueCount::count).reversed().thenComparing(ValueCount::value));
+    return List.copyOf(all.subList(0, Math.min(n, all.size())));
+  }
+
+  /**
+   * Returns a copy of this SpaceSaving, which can be added to without changing this one.
+   *
+   * @return the copy
+   */
+  public SpaceSaving copy() {
+    SpaceSaving copy = new SpaceSaving(capacity);
+    counters.forEach((value, counter) -> copy.counters.put(value, counter.clone()));
+    copy.evicted = evicted;
+    return copy;
+  }
+}
@@ -0,0 +1,130 @@
+package edu.brown.cs.student.main.csv.stats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This TableProfiler class gathers the statistics of every column of a CSV as its rows are parsed,
+ * with a ColumnProfiler per column, so that profiling a CSV takes no extra pass over it.
+ *
+ * <p>Whether the first row is a header is only known when the CSV is searched or profiled, so the
+ * first row is kept aside rather than profiled. Statistics of a CSV without headers add it to a
+ * copy of the column profilers, made the first time they are asked for.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class TableProfiler {
+  private final List<ColumnProfiler> columns;
+  private List<String> firstRow;
+  private long rows;
+  private List<ColumnProfiler> withFirstRow;
+
+  /** The constructor for a TableProfiler that has seen no rows. */
+  public TableProfiler() {
+    this.columns = new ArrayList<>();
+    this.firstRow = List.of();
+  }
+
+  /**
+   * Profiles the rows of an already parsed CSV, for data that was not profiled while parsing.
+   *
+   * @param rows the parsed CSV rows
+   * @return the TableProfiler of the rows
+   */
+  public static TableProfiler of(List<List<String>> rows) {
+    TableProfiler profiler = new TableProfiler();
+    for (List<String> row : rows) {
+      profiler.add(row);
+    }
+    return profiler;
+  }
+
+  /**
+   * Adds the next row of the CSV.
+   *
+   * @param row the cells of the row
+   */
+  public void add(List<String> row) {
+    withFirstRow = null;
+    while (columns.size() < row.size()) {
+      columns.add(new ColumnProfiler());
+    }
+    if (rows++ == 0) {
+      firstRow = List.copyOf(row);
+      return;
+    }
+    for (int col = 0; col < row.size(); col++) {
+      columns.get(col).add(row.get(col));
+    }
+  }
+
+  /**
+   * Returns the number of rows searched or profiled.
+   *
+   * @param hasHeaders whether the first row is a header, and so not counted
+   * @return the row count
+   */
+  public long rowCount(boolean hasHeaders) {
+    return hasHeaders ? Math.max(0, rows - 1) : rows;
+  }
+
+  /**
+   * Returns the number of columns, the width of the widest row.
+   *
+   * @return the column count
+   */
+  public int columnCount() {
+    return columns.size();
+  }
+
+  /**
+   * Returns the statistics gathered for one column. They must not be added to.
+   *
+   * @param col the column index
+   * @param hasHeaders whether the first row is a header, and so left out of the statistics
+   * @return the ColumnProfiler of the column
+   * @throws IndexOutOfBoundsException if there is no such column
+   */
+  public ColumnProfiler column(int col, boolean hasHeaders) {
+    return hasHeaders ? columns.get(col) : withFirstRow().get(col);
+  }
+
+  /**
+   * Summarizes the statistics of every column.
+   *
+   * @param hasHeaders whether the first row is a header, which names the columns instead of being
+   *     profiled
+   * @return a ColumnProfile per column, in order
+   */
+  public List<ColumnProfile> profile(boolean hasHeaders) {
+    List<ColumnProfile> profiles = new ArrayList<>(columns.size());
+    for (int col = 0; col < columns.size(); col++) {
+      String name = hasHeaders && col < firstRow.size() ? firstRow.get(col) : String.valueOf(col);
+      profiles.add(column(col, hasHeaders).profile(name, rowCount(hasHeaders)));
+    }
+    return Collections.unmodifiableList(profiles);
+  }
+
+  /**
+   * Returns copies of the column profilers with the first row added, making them the first time
+   * they are needed.
+   *
+   * @return the ColumnProfilers of every row
+   */
+  private synchronized List<ColumnProfiler> withFirstRow() {
+    if (withFirstRow == null) {
+      List<ColumnProfiler> copies = new ArrayList<>(columns.size());
+      for (int col = 0; col < columns.size(); col++) {
+        ColumnProfiler copy = columns.get(col).copy();
+        if (col < firstRow.size()) {
+          copy.add(firstRow.get(col));
+        }
+        copies.add(copy);
+      }
+      withFirstRow = Collections.unmodifiableList(copies);
+    }
+    return withFirstRow;
+  }
+}
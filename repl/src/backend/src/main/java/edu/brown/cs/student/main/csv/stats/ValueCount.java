@@ -0,0 +1,12 @@
+package edu.brown.cs.student.main.csv.stats;
+
+/**
+ * This record holds one of the most frequent values of a column, and how many cells have it.
+ *
+ * @param value the cell text
+ * @param count the number of cells with that text, which is exact unless the column has more
+ *     distinct values than are counted
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public record ValueCount(String value, long count) {}
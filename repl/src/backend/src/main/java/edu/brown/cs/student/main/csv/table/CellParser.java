@@ -0,0 +1,157 @@
+package edu.brown.cs.student.main.csv.table;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+
+/**
+ * This CellParser class reads numbers and dates out of the text of CSV cells, the way they are
+ * written in our census datasets rather than the way Java writes them. CsvParser keeps the quotes
+ * around quoted cells, so cells may be wrapped in quotes as well as spaces. Numbers may start with
+ * a dollar sign, use commas as thousands separators and end in a percent sign, so "\" $1,058.47 \""
+ * is read as 1058.47 and "75%" as 75. Dates may be written as 2021-09-25 or 9/25/2021.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class CellParser {
+  private static final DateTimeFormatter US_DATE =
+      DateTimeFormatter.ofPattern("M/d/uuuu").withResolverStyle(ResolverStyle.STRICT);
+
+  /** CellParser only has static methods, so it cannot be constructed. */
+  private CellParser() {}
+
+  /**
+   * Strips the spaces around a cell, and the quotes around it if it was quoted, along with any
+   * spaces inside those quotes.
+   *
+   * @param cell the text of a cell
+   * @return the bare text of the cell
+   */
+  public static String unquote(String cell) {
+    String text = cell.strip();
+    if (text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")) {
+      text = text.substring(1, text.length() - 1).strip();
+    }
+    return text;
+  }
+
+  /**
+   * Strips the quotes, currency sign, thousands separators, percent sign and surrounding spaces
+   * from a numeric cell, leaving text that Long.parseLong or Double.parseDouble accepts. Commas
+   * must separate groups of exactly three digits, so that a list like "1,2" is not read as 12.
+   *
+   * @param cell the text of a cell
+   * @return the plain number, such as -1058.47, or null if the cell is not a number
+   */
+  public static String normalizeNumber(String cell) {
+    String text = unquote(cell);
+    if (text.endsWith("%")) {
+      text = text.substring(0, text.length() - 1).stripTrailing();
+    }
+    StringBuilder number = new StringBuilder(text.length());
+    int i = 0;
+    if (i < text.length() && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+      number.append(text.charAt(i++));
+    }
+    if (i < text.length() && text.charAt(i) == '$') {
+      i++;
+      if (number.length() == 0 && i < text.length() && text.charAt(i) == '-') {
+        number.append(text.charAt(i++));
+      }
+    }
+    int digits = 0;
+    int sinceComma = -1;
+    for (;
+        i < text.length()
+            && text.charAt(i) != '.'
+            && text.charAt(i) != 'e'
+            && text.charAt(i) != 'E';
+        i++) {
+      char c = text.charAt(i);
+      if (c >= '0' && c <= '9') {
+        number.append(c);
+        digits++;
+        if (sinceComma >= 0) {
+          sinceComma++;
+        }
+      } else if (c == ',' && digits > 0 && (sinceComma == -1 || sinceComma == 3)) {
+        if (sinceComma == -1 && digits > 3) {
+          return null;
+        }
+        sinceComma = 0;
+      } else {
+        return null;
+      }
+    }
+    if (sinceComma >= 0 && sinceComma != 3) {
+      return null;
+    }
+    if (i < text.length() && text.charAt(i) == '.') {
+      number.append('.');
+      for (i++; i < text.length() && Character.isDigit(text.charAt(i)); i++) {
+        number.append(text.charAt(i));
+        digits++;
+      }
+    }
+    if (digits == 0) {
+      return null;
+    }
+    if (i < text.length() && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+      number.append('e');
+      i++;
+      if (i < text.length() && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+        number.append(text.charAt(i++));
+      }
+      int exponentStart = i;
+      for (; i < text.length() && Character.isDigit(text.charAt(i)); i++) {
+        number.append(text.charAt(i));
+      }
+      if (i == exponentStart) {
+        return null;
+      }
+    }
+    return i == text.length() ? number.toString() : null;
+  }
+
+  /**
+   * Checks whether a normalized number is a whole number that fits in a long.
+   *
+   * @param number a number returned by normalizeNumber
+   * @return true if the number can be stored in a long
+   */
+  public static boolean isLong(String number) {
+    if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0) {
+      return false;
+    }
+    try {
+      Long.parseLong(number);
+      return true;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Reads a date cell as the number of days since 1970-01-01, accepting ISO dates (2021-09-25) and
+   * US dates (9/25/2021 or 09/25/2021).
+   *
+   * @param cell the text of a cell
+   * @return the day number, or null if the cell is not a date
+   */
+  public static Integer parseEpochDay(String cell) {
+    String text = unquote(cell);
+    // Every date is 8 to 10 characters long, which rules out most text without throwing
+    if (text.length() < 8 || text.length() > 10 || !Character.isDigit(text.charAt(0))) {
+      return null;
+    }
+    try {
+      LocalDate date =
+          text.indexOf('/') >= 0 ? LocalDate.parse(text, US_DATE) : LocalDate.parse(text);
+      return Math.toIntExact(date.toEpochDay());
+    } catch (DateTimeParseException | ArithmeticException e) {
+      return null;
+    }
+  }
+}
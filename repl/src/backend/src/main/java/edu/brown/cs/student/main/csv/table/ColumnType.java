@@ -0,0 +1,19 @@
+package edu.brown.cs.student.main.csv.table;
+
+/**
+ * This ColumnType enum lists the types a column of CSV data can be inferred to have, which decide
+ * how its values are stored in a TypedColumn.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public enum ColumnType {
+  /** Whole numbers, stored in a long[]. */
+  LONG,
+  /** Numbers with a fractional part, stored in a double[]. */
+  DOUBLE,
+  /** Calendar dates, stored in an int[] as days since 1970-01-01. */
+  DATE,
+  /** Anything else, which is only kept in its original text form. */
+  TEXT
+}
@@ -0,0 +1,198 @@
+package edu.brown.cs.student.main.csv.table;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This Schema class describes the shape of a loaded CSV, computed in one pass when it is loaded:
+ * the header row and a map from each header to its column, the number of columns, how many rows are
+ * ragged (a different width from the first row), and how many cells of each column are filled in.
+ *
+ * <p>Searches look columns up here instead of scanning the header row on every request, and check
+ * whether a column identifier is an index without compiling a regex.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class Schema {
+  private static final Schema EMPTY = new Schema(List.of(), Map.of(), 0, 0, 0, new int[0]);
+
+  private final List<String> headers;
+  private final Map<String, Integer> headerIndexes;
+  private final int columnCount;
+  private final int minRowWidth;
+  private final int raggedRows;
+  private final int[] filledCells;
+
+  /**
+   * The constructor for the Schema class, only called by of.
+   *
+   * @param headers the first row
+   * @param headerIndexes the index of the first column with each header
+   * @param columnCount the width of the widest row
+   * @param minRowWidth the width of the narrowest row
+   * @param raggedRows the number of rows whose width differs from the first row's
+   * @param filledCells the number of non-blank cells in each column
+   */
+  private Schema(
+      List<String> headers,
+      Map<String, Integer> headerIndexes,
+      int columnCount,
+      int minRowWidth,
+      int raggedRows,
+      int[] filledCells) {
+    this.headers = headers;
+    this.headerIndexes = headerIndexes;
+    this.columnCount = columnCount;
+    this.minRowWidth = minRowWidth;
+    this.raggedRows = raggedRows;
+    this.filledCells = filledCells;
+  }
+
+  /**
+   * Returns the Schema of a CSV with no rows.
+   *
+   * @return the empty Schema
+   */
+  public static Schema empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Computes the Schema of some rows, reading every row once.
+   *
+   * @param rows the parsed CSV rows, whose first row is taken as the headers
+   * @return the Schema of the rows
+   */
+  public static Schema of(List<List<String>> rows) {
+    if (rows.isEmpty()) {
+      return EMPTY;
+    }
+    List<String> headers = List.copyOf(rows.get(0));
+    Map<String, Integer> headerIndexes = new HashMap<>();
+    for (int col = 0; col < headers.size(); col++) {
+      // Keep the first of repeated headers, as List.indexOf would
+      headerIndexes.putIfAbsent(headers.get(col), col);
+    }
+    int columnCount = 0;
+    int minRowWidth = Integer.MAX_VALUE;
+    int raggedRows = 0;
+    int[] filledCells = new int[headers.size()];
+    for (List<String> row : rows) {
+      if (row.size() > filledCells.length) {
+        int[] wider = new int[row.size()];
+        System.arraycopy(filledCells, 0, wider, 0, filledCells.length);
+        filledCells = wider;
+      }
+      columnCount = Math.max(columnCount, row.size());
+      minRowWidth = Math.min(minRowWidth, row.size());
+      if (row.size() != headers.size()) {
+        raggedRows++;
+      }
+      for (int col = 0; col < row.size(); col++) {
+        if (!row.get(col).isBlank()) {
+          filledCells[col]++;
+        }
+      }
+    }
+    return new Schema(
+        headers,
+        Collections.unmodifiableMap(headerIndexes),
+        columnCount,
+        minRowWidth,
+        raggedRows,
+        filledCells);
+  }
+
+  /**
+   * Checks whether a column identifier is a column index, an optional minus sign followed by ASCII
+   * digits, rather than a header.
+   *
+   * @param colId the column identifier
+   * @return true if it is written as a number
+   */
+  public static boolean isColumnIndex(String colId) {
+    int start = colId.startsWith("-") ? 1 : 0;
+    if (colId.length() == start) {
+      return false;
+    }
+    for (int i = start; i < colId.length(); i++) {
+      char c = colId.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the index of the first column with a header.
+   *
+   * @param header the header to find
+   * @return the index of its column, or -1 if no column has it
+   */
+  public int columnIndex(String header) {
+    return headerIndexes.getOrDefault(header, -1);
+  }
+
+  /**
+   * Returns the first row of the CSV, which holds the headers if it has any.
+   *
+   * @return an unmodifiable List of the first row's cells
+   */
+  public List<String> headers() {
+    return headers;
+  }
+
+  /**
+   * Returns the number of columns, the width of the widest row.
+   *
+   * @return the column count
+   */
+  public int columnCount() {
+    return columnCount;
+  }
+
+  /**
+   * Returns the width of the narrowest row.
+   *
+   * @return the fewest cells in any row, or 0 if there are no rows
+   */
+  public int minRowWidth() {
+    return minRowWidth;
+  }
+
+  /**
+   * Returns the number of rows with a different number of cells from the first row.
+   *
+   * @return the ragged row count
+   */
+  public int raggedRows() {
+    return raggedRows;
+  }
+
+  /**
+   * Checks whether any row has a different number of cells from the first row.
+   *
+   * @return true if the rows are ragged
+   */
+  public boolean isRagged() {
+    return raggedRows > 0;
+  }
+
+  /**
+   * Returns the number of rows with a non-blank cell in a column, counting the first row.
+   *
+   * @param col the column index
+   * @return the filled cell count
+   * @throws IndexOutOfBoundsException if there is no such column
+   */
+  public int filledCells(int col) {
+    if (col < 0 || col >= columnCount) {
+      throw new IndexOutOfBoundsException("Column index " + col + " not found.");
+    }
+    return filledCells[col];
+  }
+}
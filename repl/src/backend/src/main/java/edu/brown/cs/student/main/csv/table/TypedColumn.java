@@ -0,0 +1,230 @@
+package edu.brown.cs.student.main.csv.table;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * This TypedColumn class stores one column of CSV data in primitive form, according to its
+ * ColumnType: a long[] for LONG columns, a double[] for DOUBLE columns and an int[] of epoch days
+ * for DATE columns. Cells that are empty, missing from a short row, or that cannot be read as the
+ * column's type (such as a header) are marked in a null bitmap instead.
+ *
+ * <p>A TEXT column stores no values, only which of its cells are empty. The original text of every
+ * cell, of any type, stays in the parsed rows, which is what view and search return.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class TypedColumn {
+  private final ColumnType type;
+  private final int size;
+  private final long[] longs;
+  private final double[] doubles;
+  private final int[] days;
+  private final BitSet nulls;
+
+  /**
+   * The constructor for the TypedColumn class, only called by build. Exactly one of the arrays is
+   * non-null for LONG, DOUBLE and DATE columns, and none are for TEXT columns.
+   *
+   * @param type the ColumnType of the column
+   * @param size the number of rows in the column
+   * @param longs the values of a LONG column
+   * @param doubles the values of a DOUBLE column
+   * @param days the values of a DATE column
+   * @param nulls the rows whose cells have no value
+   */
+  private TypedColumn(
+      ColumnType type, int size, long[] longs, double[] doubles, int[] days, BitSet nulls) {
+    this.type = type;
+    this.size = size;
+    this.longs = longs;
+    this.doubles = doubles;
+    this.days = days;
+    this.nulls = nulls;
+  }
+
+  /**
+   * Builds the given column of the rows with the given type. Only the first row may fail to parse
+   * as the type (since it may be a header); if any later non-empty cell fails, null is returned so
+   * the caller can try a wider type.
+   *
+   * @param rows the parsed CSV rows
+   * @param col the index of the column to build
+   * @param type the ColumnType to store the column as
+   * @return the TypedColumn, or null if some cell after the first row is not of the given type
+   */
+  static TypedColumn build(List<List<String>> rows, int col, ColumnType type) {
+    int size = rows.size();
+    BitSet nulls = new BitSet(size);
+    long[] longs = type == ColumnType.LONG ? new long[size] : null;
+    double[] doubles = type == ColumnType.DOUBLE ? new double[size] : null;
+    int[] days = type == ColumnType.DATE ? new int[size] : null;
+    for (int row = 0; row < size; row++) {
+      List<String> cells = rows.get(row);
+      String cell = col < cells.size() ? cells.get(col) : "";
+      if (cell.isBlank()) {
+        nulls.set(row);
+        continue;
+      }
+      boolean parsed =
+          switch (type) {
+            case LONG -> {
+              String number = CellParser.normalizeNumber(cell);
+              if (number == null || !CellParser.isLong(number)) {
+                yield false;
+              }
+              longs[row] = Long.parseLong(number);
+              yield true;
+            }
+            case DOUBLE -> {
+              String number = CellParser.normalizeNumber(cell);
+              if (number == null) {
+                yield false;
+              }
+              doubles[row] = Double.parseDouble(number);
+              yield true;
+            }
+            case DATE -> {
+              Integer day = CellParser.parseEpochDay(cell);
+              if (day == null) {
+                yield false;
+              }
+              days[row] = day;
+              yield true;
+            }
+            case TEXT -> true;
+          };
+      if (!parsed) {
+        if (row > 0) {
+          return null;
+        }
+        nulls.set(row);
+      }
+    }
+    return new TypedColumn(type, size, longs, doubles, days, nulls);
+  }
+
+  /**
+   * Returns the type of this column.
+   *
+   * @return the ColumnType the column is stored as
+   */
+  public ColumnType type() {
+    return type;
+  }
+
+  /**
+   * Returns the number of rows in this column.
+   *
+   * @return the row count
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns whether this column is stored as numbers (LONG, DOUBLE or DATE), so that its values can
+   * be read with numericAt.
+   *
+   * @return true if this column is numeric
+   */
+  public boolean isNumeric() {
+    return type != ColumnType.TEXT;
+  }
+
+  /**
+   * Returns whether the cell in the given row has no value of this column's type.
+   *
+   * @param row the row index
+   * @return true if the cell is empty, missing or unreadable
+   */
+  public boolean isNull(int row) {
+    return nulls.get(row);
+  }
+
+  /**
+   * Returns the number of cells in this column with no value.
+   *
+   * @return the null count
+   */
+  public int nullCount() {
+    return nulls.cardinality();
+  }
+
+  /**
+   * Returns the value of a LONG cell.
+   *
+   * @param row the row index, which must not be null
+   * @return the stored long
+   * @throws IllegalStateException if this is not a LONG column
+   */
+  public long longAt(int row) {
+    if (longs == null) {
+      throw new IllegalStateException("Column of type " + type + " has no long values");
+    }
+    return longs[row];
+  }
+
+  /**
+   * Returns the value of a DOUBLE cell.
+   *
+   * @param row the row index, which must not be null
+   * @return the stored double
+   * @throws IllegalStateException if this is not a DOUBLE column
+   */
+  public double doubleAt(int row) {
+    if (doubles == null) {
+      throw new IllegalStateException("Column of type " + type + " has no double values");
+    }
+    return doubles[row];
+  }
+
+  /**
+   * Returns the value of a DATE cell, as the number of days since 1970-01-01.
+   *
+   * @param row the row index, which must not be null
+   * @return the stored epoch day
+   * @throws IllegalStateException if this is not a DATE column
+   */
+  public int epochDayAt(int row) {
+    if (days == null) {
+      throw new IllegalStateException("Column of type " + type + " has no date values");
+    }
+    return days[row];
+  }
+
+  /**
+   * Returns the value of a cell of any numeric column as a double, so that columns of different
+   * types can be compared the same way. Dates are returned as epoch days.
+   *
+   * @param row the row index, which must not be null
+   * @return the stored value as a double
+   * @throws IllegalStateException if this is a TEXT column
+   */
+  public double numericAt(int row) {
+    return switch (type) {
+      case LONG -> longs[row];
+      case DOUBLE -> doubles[row];
+      case DATE -> days[row];
+      case TEXT -> throw new IllegalStateException("Column of type TEXT has no numeric values");
+    };
+  }
+
+  /**
+   * Estimates the heap this column takes up: its primitive array plus its null bitmap.
+   *
+   * @return the estimated size in bytes
+   */
+  public long estimatedBytes() {
+    long bytes = 32 + 16 + nulls.size() / 8;
+    if (longs != null) {
+      bytes += 16 + 8L * longs.length;
+    } else if (doubles != null) {
+      bytes += 16 + 8L * doubles.length;
+    } else if (days != null) {
+      bytes += 16 + 4L * days.length;
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,179 @@
+package edu.brown.cs.student.main.csv.table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This TypedTable class holds a TypedColumn for every column of a loaded CSV, whose types are
+ * inferred once when the CSV is loaded. Inference samples up to SAMPLE_ROWS rows spread evenly
+ * through the data, and picks the narrowest type (LONG, then DOUBLE, then DATE) that every
+ * non-empty sampled cell can be read as, falling back to TEXT. The first row is never sampled,
+ * since it may be a header.
+ *
+ * <p>Because only a sample is checked, building a column can still find a cell that does not fit
+ * the sampled type, in which case the column is rebuilt with the next wider type: a LONG column
+ * becomes DOUBLE, and any other becomes TEXT.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class TypedTable {
+  /** The most rows inference looks at for each column. */
+  public static final int SAMPLE_ROWS = 1000;
+
+  private static final TypedTable EMPTY = new TypedTable(List.of(), 0, Schema.empty());
+
+  private final List<TypedColumn> columns;
+  private final int rowCount;
+  private final Schema schema;
+
+  /**
+   * The constructor for the TypedTable class, only called by infer.
+   *
+   * @param columns the TypedColumns, one per column
+   * @param rowCount the number of rows in the table
+   * @param schema the Schema of the rows
+   */
+  private TypedTable(List<TypedColumn> columns, int rowCount, Schema schema) {
+    this.columns = columns;
+    this.rowCount = rowCount;
+    this.schema = schema;
+  }
+
+  /**
+   * Returns a TypedTable with no rows or columns, standing in before any CSV is loaded.
+   *
+   * @return the empty TypedTable
+   */
+  public static TypedTable empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Infers the type of every column of the given rows and stores each one as a TypedColumn, along
+   * with the Schema of the rows. The number of columns is that of the widest row; cells missing
+   * from shorter rows are null.
+   *
+   * @param rows the parsed CSV rows, possibly starting with a header
+   * @return the TypedTable of the rows
+   */
+  public static TypedTable infer(List<List<String>> rows) {
+    Schema schema = Schema.of(rows);
+    int width = schema.columnCount();
+    List<TypedColumn> columns = new ArrayList<>(width);
+    for (int col = 0; col < width; col++) {
+      ColumnType type = sampleType(rows, col);
+      TypedColumn column = TypedColumn.build(rows, col, type);
+      while (column == null) {
+        type = type == ColumnType.LONG ? ColumnType.DOUBLE : ColumnType.TEXT;
+        column = TypedColumn.build(rows, col, type);
+      }
+      columns.add(column);
+    }
+    return new TypedTable(Collections.unmodifiableList(columns), rows.size(), schema);
+  }
+
+  /**
+   * Picks the narrowest type every non-empty sampled cell of a column can be read as. A column
+   * whose sampled cells are all empty is TEXT.
+   *
+   * @param rows the parsed CSV rows
+   * @param col the index of the column to sample
+   * @return the inferred ColumnType
+   */
+  private static ColumnType sampleType(List<List<String>> rows, int col) {
+    boolean allLong = true;
+    boolean allNumber = true;
+    boolean allDate = true;
+    boolean anyValue = false;
+    int candidates = rows.size() - 1;
+    int step = Math.max(1, candidates / SAMPLE_ROWS);
+    for (int row = 1; row < rows.size() && (allNumber || allDate); row += step) {
+      List<String> cells = rows.get(row);
+      if (col >= cells.size() || cells.get(col).isBlank()) {
+        continue;
+      }
+      anyValue = true;
+      String cell = cells.get(col);
+      String number = allNumber ? CellParser.normalizeNumber(cell) : null;
+      if (number == null) {
+        allNumber = false;
+        allLong = false;
+      } else if (allLong && !CellParser.isLong(number)) {
+        allLong = false;
+      }
+      if (allDate && CellParser.parseEpochDay(cell) == null) {
+        allDate = false;
+      }
+    }
+    if (!anyValue) {
+      return ColumnType.TEXT;
+    } else if (allNumber) {
+      return allLong ? ColumnType.LONG : ColumnType.DOUBLE;
+    } else if (allDate) {
+      return ColumnType.DATE;
+    }
+    return ColumnType.TEXT;
+  }
+
+  /**
+   * Returns the TypedColumn at the given index.
+   *
+   * @param col the column index
+   * @return the TypedColumn
+   * @throws IndexOutOfBoundsException if there is no such column
+   */
+  public TypedColumn column(int col) {
+    return columns.get(col);
+  }
+
+  /**
+   * Returns every TypedColumn, in column order.
+   *
+   * @return an unmodifiable List of the columns
+   */
+  public List<TypedColumn> columns() {
+    return columns;
+  }
+
+  /**
+   * Returns the number of columns in the table.
+   *
+   * @return the column count
+   */
+  public int columnCount() {
+    return columns.size();
+  }
+
+  /**
+   * Returns the Schema of the rows, computed when the table was inferred.
+   *
+   * @return the Schema
+   */
+  public Schema schema() {
+    return schema;
+  }
+
+  /**
+   * Returns the number of rows in the table, including a header row if there is one.
+   *
+   * @return the row count
+   */
+  public int rowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Estimates the heap the typed columns take up, on top of the original rows.
+   *
+   * @return the estimated size in bytes
+   */
+  public long estimatedBytes() {
+    long bytes = 32;
+    for (TypedColumn column : columns) {
+      bytes += column.estimatedBytes();
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,205 @@
+package edu.brown.cs.student.main.loadtest;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.brown.cs.student.main.sources.mocks.StaleMockCensusSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This CensusStub class is a local stand-in for api.census.gov, used by the load test so that it
+ * never sends traffic to the real census API. It answers the three requests AcsCensusSource makes
+ * (the list of states, the counties of a state, and the broadband access of a county) with the same
+ * Json the real API returns, using the stale rows of StaleMockCensusSource as its data.
+ *
+ * <p>Every response is delayed by a configurable latency, so the load test can model a slow or fast
+ * upstream API. Requests are served on one thread each, so delayed responses overlap the way they
+ * would against the real API.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class CensusStub {
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final long latencyMillis;
+  private final JsonAdapter<List<List<String>>> adapter;
+  private final Map<String, String> stateCodes;
+  private final Map<String, List<List<String>>> countiesByState;
+
+  /**
+   * The constructor for the CensusStub class, which starts serving immediately.
+   *
+   * @param port the port to listen on, or 0 to pick a free port
+   * @param latencyMillis how long to wait before answering each request, in milliseconds
+   * @throws IOException if the port cannot be bound
+   */
+  public CensusStub(int port, long latencyMillis) throws IOException {
+    this.latencyMillis = latencyMillis;
+    Type listOfListOfString = Types.newParameterizedType(List.class, List.class, String.class);
+    this.adapter = new Moshi.Builder().build().adapter(listOfListOfString);
+    this.stateCodes = new LinkedHashMap<>();
+    this.countiesByState = new HashMap<>();
+    List<List<String>> rows = StaleMockCensusSource.staleRows();
+    for (List<String> row : rows.subList(1, rows.size())) {
+      String stateName = row.get(0).substring(row.get(0).indexOf(", ") + 2);
+      stateCodes.put(stateName, row.get(2));
+      countiesByState.computeIfAbsent(row.get(2), code -> new ArrayList<>()).add(row);
+    }
+
+    this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    this.executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.createContext("/data/2010/dec/sf1", this::handleNames);
+    server.createContext("/data/2021/acs/acs1/subject/variables", this::handleBroadband);
+    server.start();
+  }
+
+  /**
+   * Returns the port this stub is listening on.
+   *
+   * @return the port number
+   */
+  public int port() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Returns the names of the states this stub has counties for, in the form /broadband expects.
+   *
+   * @return the state names
+   */
+  public List<String> stateNames() {
+    return new ArrayList<>(stateCodes.keySet());
+  }
+
+  /**
+   * Returns the short names of the counties of a state, in the form /broadband expects (without the
+   * " County, State" suffix).
+   *
+   * @param stateName the name of the state
+   * @return the county names in that state, or an empty list if the state is unknown
+   */
+  public List<String> countyNames(String stateName) {
+    List<String> names = new ArrayList<>();
+    for (List<String> row : countiesByState.getOrDefault(stateCodes.get(stateName), List.of())) {
+      names.add(row.get(0).substring(0, row.get(0).indexOf(" County, ")));
+    }
+    return names;
+  }
+
+  /** Stops the stub, closing its port immediately. */
+  public void stop() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  /**
+   * Answers /data/2010/dec/sf1, which lists states (for=state:*) or the counties of one state
+   * (for=county:*&in=state:NN).
+   *
+   * @param exchange the request to answer
+   * @throws IOException if the response cannot be written
+   */
+  private void handleNames(HttpExchange exchange) throws IOException {
+    Map<String, String> query = query(exchange);
+    List<List<String>> body = new ArrayList<>();
+    if ("state:*".equals(query.get("for"))) {
+      body.add(List.of("NAME", "state"));
+      stateCodes.forEach((name, code) -> body.add(List.of(name, code)));
+    } else {
+      String stateCode = query.getOrDefault("in", "").replace("state:", "");
+      body.add(List.of("NAME", "state", "county"));
+      for (List<String> row : countiesByState.getOrDefault(stateCode, List.of())) {
+        body.add(List.of(row.get(0), row.get(2), row.get(3)));
+      }
+    }
+    respond(exchange, body);
+  }
+
+  /**
+   * Answers /data/2021/acs/acs1/subject/variables with the broadband access of one county
+   * (for=county:NNN&in=state:NN), or a 204 with no body if the county is unknown, as the real API
+   * does.
+   *
+   * @param exchange the request to answer
+   * @throws IOException if the response cannot be written
+   */
+  private void handleBroadband(HttpExchange exchange) throws IOException {
+    Map<String, String> query = query(exchange);
+    String stateCode = query.getOrDefault("in", "").replace("state:", "");
+    String countyCode = query.getOrDefault("for", "").replace("county:", "");
+    for (List<String> row : countiesByState.getOrDefault(stateCode, List.of())) {
+      if (row.get(3).equals(countyCode)) {
+        respond(exchange, List.of(List.of("NAME", "S2802_C03_022E", "state", "county"), row));
+        return;
+      }
+    }
+    delay();
+    exchange.sendResponseHeaders(204, -1);
+    exchange.close();
+  }
+
+  /**
+   * Waits the configured latency, then writes the given rows as a Json response.
+   *
+   * @param exchange the request to answer
+   * @param body the rows to send
+   * @throws IOException if the response cannot be written
+   */
+  private void respond(HttpExchange exchange, List<List<String>> body) throws IOException {
+    delay();
+    byte[] json = adapter.toJson(body).getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+    exchange.sendResponseHeaders(200, json.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(json);
+    }
+  }
+
+  /** Sleeps for the configured latency. */
+  private void delay() {
+    if (latencyMillis <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(latencyMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Parses the query string of a request. The census API's parameters never contain escaped
+   * characters, so no decoding is done.
+   *
+   * @param exchange the request
+   * @return a map from parameter name to value
+   */
+  private static Map<String, String> query(HttpExchange exchange) {
+    Map<String, String> params = new HashMap<>();
+    String raw = exchange.getRequestURI().getRawQuery();
+    if (raw != null) {
+      for (String pair : raw.split("&")) {
+        int equals = pair.indexOf('=');
+        if (equals > 0) {
+          params.put(pair.substring(0, equals), pair.substring(equals + 1));
+        }
+      }
+    }
+    return params;
+  }
+}
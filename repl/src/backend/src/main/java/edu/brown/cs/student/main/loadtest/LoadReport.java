@@ -0,0 +1,112 @@
+package edu.brown.cs.student.main.loadtest;
+
+import edu.brown.cs.student.main.metrics.Histogram;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This record is the result of one LoadTest run: the latency distribution, throughput and error
+ * count of every kind of request sent, plus how long the run took.
+ *
+ * @param operations the statistics of each kind of request, in the order they were configured
+ * @param elapsedNanos how long the clients were sending requests, in nanoseconds
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public record LoadReport(List<OperationStats> operations, long elapsedNanos) {
+
+  /**
+   * A record holding what was measured about one kind of request.
+   *
+   * @param name the route the requests were sent to
+   * @param latencyNanos the distribution of latencies of every request, in nanoseconds
+   * @param errors the number of requests that failed or did not return a success response
+   */
+  public record OperationStats(String name, Histogram latencyNanos, long errors) {}
+
+  /**
+   * Returns the number of requests sent, of every kind.
+   *
+   * @return the total request count
+   */
+  public long totalRequests() {
+    long total = 0;
+    for (OperationStats operation : operations) {
+      total += operation.latencyNanos().count();
+    }
+    return total;
+  }
+
+  /**
+   * Returns the number of failed requests, of every kind.
+   *
+   * @return the total error count
+   */
+  public long totalErrors() {
+    long total = 0;
+    for (OperationStats operation : operations) {
+      total += operation.errors();
+    }
+    return total;
+  }
+
+  /**
+   * Formats the report as a table with one line per kind of request and a total line, giving the
+   * request count, throughput, errors and p50, p99, p99.9 and maximum latency in milliseconds.
+   *
+   * @return the formatted report
+   */
+  public String format() {
+    double seconds = Math.max(elapsedNanos, 1) / 1e9;
+    StringBuilder out = new StringBuilder();
+    out.append(
+        String.format(
+            Locale.ROOT,
+            "%-10s %9s %9s %7s %9s %9s %9s %9s%n",
+            "route",
+            "requests",
+            "req/s",
+            "errors",
+            "p50 ms",
+            "p99 ms",
+            "p99.9 ms",
+            "max ms"));
+    for (OperationStats operation : operations) {
+      line(out, operation.name(), operation.latencyNanos(), operation.errors(), seconds);
+    }
+    out.append(
+        String.format(
+            Locale.ROOT,
+            "%-10s %9d %9.1f %7d%n",
+            "total",
+            totalRequests(),
+            totalRequests() / seconds,
+            totalErrors()));
+    return out.toString();
+  }
+
+  /**
+   * Appends the table line of one kind of request.
+   *
+   * @param out the StringBuilder to append to
+   * @param name the route name
+   * @param latency the latencies of its requests, in nanoseconds
+   * @param errors the number of failed requests
+   * @param seconds how long the run took, in seconds
+   */
+  private static void line(
+      StringBuilder out, String name, Histogram latency, long errors, double seconds) {
+    out.append(
+        String.format(
+            Locale.ROOT,
+            "%-10s %9d %9.1f %7d %9.2f %9.2f %9.2f %9.2f%n",
+            name,
+            latency.count(),
+            latency.count() / seconds,
+            errors,
+            latency.valueAtQuantile(0.5) / 1e6,
+            latency.valueAtQuantile(0.99) / 1e6,
+            latency.valueAtQuantile(0.999) / 1e6,
+            latency.max() / 1e6));
+  }
+}
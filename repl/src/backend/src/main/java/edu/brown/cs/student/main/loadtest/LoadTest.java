@@ -0,0 +1,273 @@
+package edu.brown.cs.student.main.loadtest;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import edu.brown.cs.student.main.loadtest.LoadReport.OperationStats;
+import edu.brown.cs.student.main.metrics.Histogram;
+import edu.brown.cs.student.main.server.Server;
+import edu.brown.cs.student.main.server.ServerOptions;
+import edu.brown.cs.student.main.sources.AcsCensusSource;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This LoadTest class drives an in-process Server with a reproducible mix of /loadcsv, /viewcsv,
+ * /searchcsv and /broadband requests, and reports the latency percentiles and throughput of each.
+ * The Server's AcsCensusSource is pointed at a local CensusStub instead of api.census.gov, so load
+ * tests never hit the real census API, and the stub's latency can be set to model it.
+ *
+ * <p>Each client sends one request, waits for the response, and immediately sends the next (a
+ * closed loop), choosing the kind of request at random according to the configured weights. Search
+ * values are taken from the loaded CSV itself, and broadband requests pick a random county the stub
+ * knows about, so every request should succeed; any that don't are counted as errors.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class LoadTest {
+  private static final String[] ROUTES = {"loadcsv", "viewcsv", "searchcsv", "broadband"};
+
+  private final LoadTestOptions options;
+  private final HttpClient client;
+  private final JsonAdapter<Map<String, Object>> adapter;
+
+  /**
+   * The constructor for the LoadTest class.
+   *
+   * @param options the LoadTestOptions describing the traffic to send and the Server to send it to
+   */
+  public LoadTest(LoadTestOptions options) {
+    this.options = options;
+    this.client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    Type mapStringObject = Types.newParameterizedType(Map.class, String.class, Object.class);
+    this.adapter = new Moshi.Builder().build().adapter(mapStringObject);
+  }
+
+  /**
+   * Starts a CensusStub and a Server using it, loads the CSV file, sends traffic for the configured
+   * duration, and stops both again.
+   *
+   * @return the LoadReport of the run
+   * @throws Exception if the stub or server cannot be started, or the CSV file cannot be loaded
+   */
+  public LoadReport run() throws Exception {
+    CensusStub stub = new CensusStub(0, options.censusLatencyMillis());
+    Server server =
+        new Server(
+            new ServerOptions(0, options.threadPerRequest(), options.workerThreads()),
+            new AcsCensusSource("http", "localhost", stub.port()));
+    try {
+      return drive("http://localhost:" + server.port() + "/", stub);
+    } finally {
+      server.stop();
+      stub.stop();
+    }
+  }
+
+  /**
+   * Loads the CSV file, collects the values to search for, and then runs the clients.
+   *
+   * @param baseUrl the URL of the Server under test, ending in a slash
+   * @param stub the CensusStub the Server gets broadband data from
+   * @return the LoadReport of the run
+   * @throws Exception if the CSV file cannot be loaded or viewed
+   */
+  private LoadReport drive(String baseUrl, CensusStub stub) throws Exception {
+    String loadCall = "loadcsv?filepath=" + encode(options.filepath());
+    if (!isSuccess(get(baseUrl + loadCall))) {
+      throw new IOException("Could not load " + options.filepath() + " into the server");
+    }
+    List<String> searchCalls = searchCalls(get(baseUrl + "viewcsv"));
+    List<String> broadbandCalls = new ArrayList<>();
+    for (String state : stub.stateNames()) {
+      for (String county : stub.countyNames(state)) {
+        broadbandCalls.add("broadband?state=" + encode(state) + "&county=" + encode(county));
+      }
+    }
+    List<List<String>> callsByRoute =
+        List.of(List.of(loadCall), List.of("viewcsv"), searchCalls, broadbandCalls);
+
+    Histogram[] latencies = new Histogram[ROUTES.length];
+    AtomicLong[] errors = new AtomicLong[ROUTES.length];
+    for (int i = 0; i < ROUTES.length; i++) {
+      latencies[i] = new Histogram();
+      errors[i] = new AtomicLong();
+    }
+    int[] weights = {
+      options.loadWeight(), options.viewWeight(), options.searchWeight(), options.broadbandWeight()
+    };
+
+    ExecutorService clients = Executors.newFixedThreadPool(options.concurrency());
+    long start = System.nanoTime();
+    long deadline = start + options.durationMillis() * 1_000_000;
+    List<Future<?>> running = new ArrayList<>();
+    for (int c = 0; c < options.concurrency(); c++) {
+      running.add(
+          clients.submit(
+              () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                  int route = pick(weights, random.nextInt(options.totalWeight()));
+                  List<String> calls = callsByRoute.get(route);
+                  String call = calls.get(random.nextInt(calls.size()));
+                  long requestStart = System.nanoTime();
+                  boolean success;
+                  try {
+                    success = isSuccess(get(baseUrl + call));
+                  } catch (IOException e) {
+                    success = false;
+                  }
+                  latencies[route].record(System.nanoTime() - requestStart);
+                  if (!success) {
+                    errors[route].incrementAndGet();
+                  }
+                }
+                return null;
+              }));
+    }
+    for (Future<?> pending : running) {
+      pending.get();
+    }
+    long elapsed = System.nanoTime() - start;
+    clients.shutdown();
+
+    List<OperationStats> operations = new ArrayList<>();
+    for (int i = 0; i < ROUTES.length; i++) {
+      operations.add(new OperationStats(ROUTES[i], latencies[i], errors[i].get()));
+    }
+    return new LoadReport(operations, elapsed);
+  }
+
+  /**
+   * Builds the /searchcsv calls the clients choose from: for every distinct value in the loaded
+   * CSV, one search of all columns and one search of the column the value is in.
+   *
+   * @param viewBody the Json body of the /viewcsv response
+   * @return the search calls
+   * @throws IOException if the body is not a successful /viewcsv response
+   */
+  private List<String> searchCalls(String viewBody) throws IOException {
+    Map<String, Object> view = adapter.fromJson(viewBody);
+    if (view == null || !"success".equals(view.get("result"))) {
+      throw new IOException("Could not view the loaded CSV: " + viewBody);
+    }
+    @SuppressWarnings("unchecked")
+    List<List<String>> rows = (List<List<String>>) view.get("data");
+    List<String> calls = new ArrayList<>();
+    for (List<String> row : rows.subList(1, rows.size())) {
+      for (int col = 0; col < row.size(); col++) {
+        String value = row.get(col).trim();
+        if (!value.isEmpty()) {
+          calls.add("searchcsv?headers=true&value=" + encode(value));
+          calls.add("searchcsv?headers=true&colid=" + col + "&value=" + encode(value));
+        }
+      }
+    }
+    if (calls.isEmpty()) {
+      throw new IOException("The loaded CSV has no values to search for");
+    }
+    return calls;
+  }
+
+  /**
+   * Picks the route a random number falls into, where each route covers a range as wide as its
+   * weight.
+   *
+   * @param weights the weight of each route
+   * @param roll a random number between 0 and the total weight, exclusive
+   * @return the index of the chosen route
+   */
+  private static int pick(int[] weights, int roll) {
+    int remaining = roll;
+    for (int i = 0; i < weights.length; i++) {
+      if (remaining < weights[i]) {
+        return i;
+      }
+      remaining -= weights[i];
+    }
+    return weights.length - 1;
+  }
+
+  /**
+   * Sends a GET request and returns the response body.
+   *
+   * @param url the URL to request
+   * @return the response body
+   * @throws IOException if the request fails or is interrupted
+   */
+  private String get(String url) throws IOException {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+    try {
+      return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while requesting " + url);
+    }
+  }
+
+  /**
+   * Checks whether a response body is a Json object whose result is success.
+   *
+   * @param body the response body
+   * @return true if the request succeeded
+   */
+  private boolean isSuccess(String body) {
+    try {
+      Map<String, Object> json = adapter.fromJson(body);
+      return json != null && "success".equals(json.get("result"));
+    } catch (IOException | RuntimeException e) {
+      return false;
+    }
+  }
+
+  /**
+   * URL-encodes a query parameter value.
+   *
+   * @param value the value to encode
+   * @return the encoded value
+   */
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * The main method of the LoadTest class, which runs one load test and prints its report.
+   *
+   * @param args the command line arguments, as described in LoadTestOptions.fromArgs
+   * @throws Exception if the load test cannot be run
+   */
+  public static void main(String[] args) throws Exception {
+    LoadTestOptions options = LoadTestOptions.fromArgs(args);
+    System.out.println(
+        "Running "
+            + options.concurrency()
+            + " clients for "
+            + options.durationMillis() / 1000
+            + " s against a census API answering in "
+            + options.censusLatencyMillis()
+            + " ms"
+            + (options.threadPerRequest() ? ", one thread per request" : ""));
+    System.out.print(new LoadTest(options).run().format());
+    System.exit(0);
+  }
+}
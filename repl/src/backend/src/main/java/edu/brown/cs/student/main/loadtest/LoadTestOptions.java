@@ -0,0 +1,126 @@
+package edu.brown.cs.student.main.loadtest;
+
+/**
+ * This record holds the options a LoadTest runs with: how many clients send requests and for how
+ * long, how slow the census stand-in answers, the relative weights of each kind of request, how the
+ * Server under test is threaded, and which CSV file it loads.
+ *
+ * @param concurrency the number of clients, each sending one request at a time
+ * @param durationMillis how long the clients send requests for, in milliseconds
+ * @param censusLatencyMillis how long the census stand-in waits before each response
+ * @param loadWeight the relative share of /loadcsv requests
+ * @param viewWeight the relative share of /viewcsv requests
+ * @param searchWeight the relative share of /searchcsv requests
+ * @param broadbandWeight the relative share of /broadband requests
+ * @param threadPerRequest whether the Server under test runs one thread per request
+ * @param workerThreads the number of WorkerPool threads the Server under test has
+ * @param filepath the CSV file the Server under test loads, relative to the classpath
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public record LoadTestOptions(
+    int concurrency,
+    long durationMillis,
+    long censusLatencyMillis,
+    int loadWeight,
+    int viewWeight,
+    int searchWeight,
+    int broadbandWeight,
+    boolean threadPerRequest,
+    int workerThreads,
+    String filepath) {
+
+  /**
+   * Creates the default options: 16 clients for 10 seconds, a 50 ms census API, a mix of 1% loads,
+   * 20% views, 59% searches and 20% broadband calls, Spark's default thread pool, one worker thread
+   * per processor, and the Rhode Island income CSV.
+   *
+   * @return the default LoadTestOptions
+   */
+  public static LoadTestOptions defaults() {
+    return new LoadTestOptions(
+        16,
+        10_000,
+        50,
+        1,
+        20,
+        59,
+        20,
+        false,
+        Runtime.getRuntime().availableProcessors(),
+        "data/census/ri_city_town_income_us_census_2017_2021.csv");
+  }
+
+  /**
+   * Returns the sum of all request weights.
+   *
+   * @return the total weight
+   */
+  public int totalWeight() {
+    return loadWeight + viewWeight + searchWeight + broadbandWeight;
+  }
+
+  /**
+   * Parses LoadTestOptions from command line arguments. Recognized arguments are --concurrency=N,
+   * --duration=SECONDS, --census-latency=MILLIS, --mix=LOAD:VIEW:SEARCH:BROADBAND,
+   * --thread-per-request, --workers=N and --file=PATH; anything not given keeps its default value.
+   *
+   * @param args the command line arguments passed to LoadTest.main
+   * @return the LoadTestOptions described by the arguments
+   * @throws IllegalArgumentException if an argument is not recognized or a number is malformed
+   */
+  public static LoadTestOptions fromArgs(String[] args) {
+    LoadTestOptions options = defaults();
+    int concurrency = options.concurrency();
+    long durationMillis = options.durationMillis();
+    long censusLatencyMillis = options.censusLatencyMillis();
+    int[] mix = {
+      options.loadWeight(), options.viewWeight(), options.searchWeight(), options.broadbandWeight()
+    };
+    boolean threadPerRequest = options.threadPerRequest();
+    int workerThreads = options.workerThreads();
+    String filepath = options.filepath();
+    for (String arg : args) {
+      if (arg.startsWith("--concurrency=")) {
+        concurrency = Integer.parseInt(arg.substring("--concurrency=".length()));
+      } else if (arg.startsWith("--duration=")) {
+        durationMillis = Long.parseLong(arg.substring("--duration=".length())) * 1000;
+      } else if (arg.startsWith("--census-latency=")) {
+        censusLatencyMillis = Long.parseLong(arg.substring("--census-latency=".length()));
+      } else if (arg.startsWith("--mix=")) {
+        String[] weights = arg.substring("--mix=".length()).split(":");
+        if (weights.length != mix.length) {
+          throw new IllegalArgumentException(
+              "--mix takes four weights, LOAD:VIEW:SEARCH:BROADBAND, but got " + arg);
+        }
+        for (int i = 0; i < mix.length; i++) {
+          mix[i] = Integer.parseInt(weights[i]);
+        }
+      } else if (arg.equals("--thread-per-request")) {
+        threadPerRequest = true;
+      } else if (arg.startsWith("--workers=")) {
+        workerThreads = Integer.parseInt(arg.substring("--workers=".length()));
+      } else if (arg.startsWith("--file=")) {
+        filepath = arg.substring("--file=".length());
+      } else {
+        throw new IllegalArgumentException(
+            "Unrecognized argument "
+                + arg
+                + ". Valid arguments are --concurrency=N, --duration=SECONDS,"
+                + " --census-latency=MILLIS, --mix=LOAD:VIEW:SEARCH:BROADBAND,"
+                + " --thread-per-request, --workers=N and --file=PATH.");
+      }
+    }
+    return new LoadTestOptions(
+        concurrency,
+        durationMillis,
+        censusLatencyMillis,
+        mix[0],
+        mix[1],
+        mix[2],
+        mix[3],
+        threadPerRequest,
+        workerThreads,
+        filepath);
+  }
+}
@@ -0,0 +1,151 @@
+package edu.brown.cs.student.main.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This Histogram class records a distribution of non-negative long values, such as request
+ * latencies in nanoseconds or response sizes in bytes, without taking any locks.
+ *
+ * <p>Like an HDR histogram, values are counted in log-linear buckets: every power of two is split
+ * into 16 equally wide sub-buckets, so any recorded value is known to within 1/16 (6.25%) of its
+ * true size while the whole long range fits in under a thousand counters. Recording a value is a
+ * couple of atomic increments, which keeps it cheap enough to do on every request.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class Histogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts;
+  private final LongAdder count;
+  private final LongAdder sum;
+  private final LongAccumulator max;
+
+  /** The constructor for the Histogram class, creating an empty histogram. */
+  public Histogram() {
+    this.counts = new AtomicLongArray(BUCKETS);
+    this.count = new LongAdder();
+    this.sum = new LongAdder();
+    this.max = new LongAccumulator(Math::max, 0);
+  }
+
+  /**
+   * Finds the index of the bucket counting the given value.
+   *
+   * @param value a non-negative value
+   * @return the index of its bucket
+   */
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * Finds the smallest value counted by the bucket with the given index.
+   *
+   * @param index the index of a bucket
+   * @return the inclusive lower bound of that bucket
+   */
+  static long bucketLowerBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long subBucket = index % SUB_BUCKETS;
+    return (SUB_BUCKETS + subBucket) << shift;
+  }
+
+  /**
+   * Records one occurrence of the given value. Negative values are counted as zero.
+   *
+   * @param value the value to record
+   */
+  public void record(long value) {
+    long clamped = Math.max(0, value);
+    counts.incrementAndGet(bucketIndex(clamped));
+    count.increment();
+    sum.add(clamped);
+    max.accumulate(clamped);
+  }
+
+  /**
+   * Returns the number of values recorded.
+   *
+   * @return the total count
+   */
+  public long count() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the sum of all values recorded.
+   *
+   * @return the total of all recorded values
+   */
+  public long sum() {
+    return sum.sum();
+  }
+
+  /**
+   * Returns the largest value recorded, or 0 if nothing has been recorded.
+   *
+   * @return the maximum recorded value
+   */
+  public long max() {
+    return max.get();
+  }
+
+  /**
+   * Returns how many recorded values were strictly below the given bound. The result is exact when
+   * the bound is a power of two (or below 16), since those are always bucket boundaries.
+   *
+   * @param bound the exclusive upper bound
+   * @return the number of values below bound
+   */
+  public long countBelow(long bound) {
+    int end = bucketIndex(Math.max(0, bound));
+    long below = 0;
+    for (int i = 0; i < end; i++) {
+      below += counts.get(i);
+    }
+    return below;
+  }
+
+  /**
+   * Estimates the value at the given quantile, such as 0.99 for the 99th percentile. The estimate
+   * is the upper end of the bucket holding that value, so it never under-reports.
+   *
+   * @param quantile a number between 0 and 1
+   * @return the estimated value at that quantile, or 0 if nothing has been recorded
+   */
+  public long valueAtQuantile(double quantile) {
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(quantile * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        long upper = i + 1 < BUCKETS ? bucketLowerBound(i + 1) - 1 : Long.MAX_VALUE;
+        return Math.min(upper, max());
+      }
+    }
+    return max();
+  }
+}
@@ -0,0 +1,268 @@
+package edu.brown.cs.student.main.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * This Metrics class is the registry of everything the server measures about itself. Per route, it
+ * keeps a request counter, a latency Histogram and a response size Histogram; other parts of the
+ * server, such as the broadband cache or the loaded dataset, register callbacks that are read only
+ * when the metrics are scraped.
+ *
+ * <p>The scrape() method renders all metrics in the Prometheus text exposition format, which is
+ * what the /metrics endpoint returns. Only routes registered with track() are recorded, so that
+ * requests to arbitrary paths cannot create an unbounded number of time series.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class Metrics {
+  private static final double[] LATENCY_BUCKETS_SECONDS = {
+    0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+  };
+  private static final long[] SIZE_BUCKETS_BYTES = {
+    128, 1024, 8192, 65536, 524288, 4194304, 33554432
+  };
+
+  private final Map<String, RouteMetrics> routes;
+  private final List<Callback> callbacks;
+
+  /**
+   * A record representing a metric whose value is read from a callback when scraped.
+   *
+   * @param name the metric name, without labels
+   * @param type the Prometheus type, either counter or gauge
+   * @param help the help text describing the metric
+   * @param labels the label set, such as {route="broadband"}, or an empty String
+   * @param value the DoubleSupplier that reads the current value
+   */
+  private record Callback(
+      String name, String type, String help, String labels, DoubleSupplier value) {}
+
+  /**
+   * A record holding everything recorded about one route.
+   *
+   * @param requests the number of requests handled
+   * @param latencyNanos the distribution of request latencies in nanoseconds
+   * @param responseBytes the distribution of response body sizes in bytes
+   */
+  public record RouteMetrics(LongAdder requests, Histogram latencyNanos, Histogram responseBytes) {
+
+    /** The constructor for an empty RouteMetrics. */
+    public RouteMetrics() {
+      this(new LongAdder(), new Histogram(), new Histogram());
+    }
+  }
+
+  /** The constructor for the Metrics class, creating an empty registry. */
+  public Metrics() {
+    this.routes = new ConcurrentHashMap<>();
+    this.callbacks = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Starts recording metrics for the route with the given name.
+   *
+   * @param route the route name, such as searchcsv
+   */
+  public void track(String route) {
+    routes.putIfAbsent(route, new RouteMetrics());
+  }
+
+  /**
+   * Returns the metrics recorded for the given route, or null if the route is not tracked.
+   *
+   * @param route the route name
+   * @return the RouteMetrics of that route, or null
+   */
+  public RouteMetrics route(String route) {
+    return routes.get(route);
+  }
+
+  /**
+   * Records one handled request for the given route. Requests to untracked routes are ignored.
+   *
+   * @param route the route name
+   * @param latencyNanos how long the request took, in nanoseconds
+   */
+  public void recordRequest(String route, long latencyNanos) {
+    RouteMetrics metrics = routes.get(route);
+    if (metrics != null) {
+      metrics.requests().increment();
+      metrics.latencyNanos().record(latencyNanos);
+    }
+  }
+
+  /**
+   * Records the size of one response body for the given route. Untracked routes are ignored.
+   *
+   * @param route the route name
+   * @param bytes the size of the response body in bytes
+   */
+  public void recordResponseSize(String route, long bytes) {
+    RouteMetrics metrics = routes.get(route);
+    if (metrics != null) {
+      metrics.responseBytes().record(bytes);
+    }
+  }
+
+  /**
+   * Registers a counter whose value is read from the given supplier on every scrape.
+   *
+   * @param name the metric name, which should end in _total
+   * @param help the help text describing the metric
+   * @param labels the label set, such as {route="broadband"}, or an empty String
+   * @param value the supplier of the current count
+   */
+  public void counter(String name, String help, String labels, DoubleSupplier value) {
+    callbacks.add(new Callback(name, "counter", help, labels, value));
+  }
+
+  /**
+   * Registers a gauge whose value is read from the given supplier on every scrape.
+   *
+   * @param name the metric name
+   * @param help the help text describing the metric
+   * @param labels the label set, such as {route="broadband"}, or an empty String
+   * @param value the supplier of the current value
+   */
+  public void gauge(String name, String help, String labels, DoubleSupplier value) {
+    callbacks.add(new Callback(name, "gauge", help, labels, value));
+  }
+
+  /**
+   * Renders every metric in the Prometheus text exposition format.
+   *
+   * @return the scraped metrics as a String
+   */
+  public String scrape() {
+    StringBuilder out = new StringBuilder();
+    List<String> names = new ArrayList<>(routes.keySet());
+    names.sort(null);
+
+    header(out, "repl_requests_total", "counter", "Requests handled, per route.");
+    for (String name : names) {
+      sample(out, "repl_requests_total", label(name), routes.get(name).requests().sum());
+    }
+
+    header(
+        out,
+        "repl_request_duration_seconds",
+        "histogram",
+        "Request latency in seconds, per route.");
+    for (String name : names) {
+      Histogram latency = routes.get(name).latencyNanos();
+      long[] bounds = new long[LATENCY_BUCKETS_SECONDS.length];
+      for (int i = 0; i < bounds.length; i++) {
+        bounds[i] = (long) (LATENCY_BUCKETS_SECONDS[i] * 1e9);
+      }
+      histogram(out, "repl_request_duration_seconds", name, latency, bounds, 1e-9);
+    }
+
+    header(out, "repl_response_size_bytes", "histogram", "Response body size in bytes, per route.");
+    for (String name : names) {
+      histogram(
+          out,
+          "repl_response_size_bytes",
+          name,
+          routes.get(name).responseBytes(),
+          SIZE_BUCKETS_BYTES,
+          1);
+    }
+
+    // Group callbacks of the same metric under one header, keeping registration order otherwise
+    List<Callback> sorted = new ArrayList<>(callbacks);
+    sorted.sort(Comparator.comparing(Callback::name));
+    String previous = null;
+    for (Callback callback : sorted) {
+      if (!callback.name().equals(previous)) {
+        header(out, callback.name(), callback.type(), callback.help());
+        previous = callback.name();
+      }
+      sample(out, callback.name(), callback.labels(), callback.value().getAsDouble());
+    }
+    return out.toString();
+  }
+
+  /**
+   * Appends the cumulative buckets, sum and count of one Histogram.
+   *
+   * @param out the StringBuilder to append to
+   * @param name the metric name
+   * @param route the route label value
+   * @param histogram the Histogram to render
+   * @param bounds the bucket upper bounds, in the Histogram's unit
+   * @param scale the factor converting the Histogram's unit to the exported unit
+   */
+  private static void histogram(
+      StringBuilder out,
+      String name,
+      String route,
+      Histogram histogram,
+      long[] bounds,
+      double scale) {
+    for (long bound : bounds) {
+      String labels = "{route=\"" + route + "\",le=\"" + format(bound * scale) + "\"}";
+      sample(out, name + "_bucket", labels, histogram.countBelow(bound + 1));
+    }
+    long count = histogram.count();
+    sample(out, name + "_bucket", "{route=\"" + route + "\",le=\"+Inf\"}", count);
+    sample(out, name + "_sum", label(route), histogram.sum() * scale);
+    sample(out, name + "_count", label(route), count);
+  }
+
+  /**
+   * Appends the HELP and TYPE lines introducing a metric.
+   *
+   * @param out the StringBuilder to append to
+   * @param name the metric name
+   * @param type the Prometheus type
+   * @param help the help text
+   */
+  private static void header(StringBuilder out, String name, String type, String help) {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  /**
+   * Appends one sample line.
+   *
+   * @param out the StringBuilder to append to
+   * @param name the metric name
+   * @param labels the label set, or an empty String
+   * @param value the sample value
+   */
+  private static void sample(StringBuilder out, String name, String labels, double value) {
+    out.append(name).append(labels).append(' ').append(format(value)).append('\n');
+  }
+
+  /**
+   * Builds the label set for a route.
+   *
+   * @param route the route name
+   * @return the label set {route="..."}
+   */
+  private static String label(String route) {
+    return "{route=\"" + route + "\"}";
+  }
+
+  /**
+   * Formats a sample value, printing whole numbers without a decimal point.
+   *
+   * @param value the value to format
+   * @return the formatted value
+   */
+  private static String format(double value) {
+    if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      return Long.toString((long) value);
+    }
+    return String.format(Locale.ROOT, "%s", value);
+  }
+}
@@ -0,0 +1,143 @@
+package edu.brown.cs.student.main.server;
+
+import com.squareup.moshi.Moshi;
+import edu.brown.cs.student.main.csv.search.Aggregate;
+import edu.brown.cs.student.main.csv.search.AggregateResult;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import java.util.ArrayList;
+import java.util.List;
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * This AggregateHandler class handles an /aggregate request to our server. It is constructed with a
+ * CsvDataWrapper object, wrapping a List of List of String representing the CSV data. If there is
+ * data loaded in the CsvDataWrapper object, then this request groups the rows of that CSV data by
+ * the groupby columns and returns a row per group with the requested aggregates.
+ *
+ * <p>The aggs parameter is a comma-separated list of count, count(col), sum(col), avg(col),
+ * min(col) and max(col), and defaults to count. Sums and averages need a numeric column, and
+ * minimums and maximums a numeric or date column. Without groupby, the whole CSV is one group.
+ *
+ * <p>Groups are found from dictionary-encoded columns and aggregates accumulated into primitive
+ * arrays, in parallel for large CSVs, so no row is copied or re-parsed.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class AggregateHandler implements Route {
+  private final CsvDataWrapper csvData;
+  private final WorkerPool workers;
+
+  /**
+   * The constructor for the AggregateHandler class.
+   *
+   * @param csvData a CsvDataWrapper object wrapping a List of List of String of CSV data and a
+   *     boolean representing whether a CSV file has been loaded
+   * @param workers the WorkerPool that aggregation runs on
+   */
+  public AggregateHandler(CsvDataWrapper csvData, WorkerPool workers) {
+    this.csvData = csvData;
+    this.workers = workers;
+  }
+
+  /**
+   * Method that handles an /aggregate request to our Server. Given a request and response, returns
+   * a failure or success response object. If successful, the response object contains a row per
+   * group, holding the group's values and then its aggregates.
+   *
+   * @param request the Request object passed by client, should contain request parameter headers,
+   *     and optionally groupby and aggs
+   * @param response the Response object that we do not use
+   * @return response object depending on whether the aggregation was successful, and its rows
+   */
+  @Override
+  public Object handle(Request request, Response response) {
+    if (csvData.getData().isEmpty()) {
+      if (!csvData.getLoaded()) {
+        return new AggregateFailureResponse("error_not_loaded", "CSV file not loaded").serialize();
+      }
+    }
+    String hasHeaders = request.queryParams("headers");
+    String groupByParam = request.queryParams("groupby");
+    String aggsParam = request.queryParams("aggs");
+    if (hasHeaders == null) {
+      return new AggregateFailureResponse(
+              "error_bad_request", "Required parameter missing: headers")
+          .serialize();
+    }
+    List<String> groupBy = new ArrayList<>();
+    if (groupByParam != null && !groupByParam.isBlank()) {
+      for (String column : groupByParam.split(",")) {
+        groupBy.add(column.strip());
+      }
+    }
+    try {
+      List<Aggregate> aggregates = Aggregate.parseList(aggsParam == null ? "count" : aggsParam);
+      CsvSearcher searcher = csvData.getSearcher();
+      boolean headers = Boolean.parseBoolean(hasHeaders);
+      AggregateResult result = workers.run(() -> searcher.aggregate(headers, groupBy, aggregates));
+      return new AggregateSuccessResponse(
+              "success", hasHeaders, groupByParam, aggsParam, result.columns(), result.rows())
+          .serialize();
+    } catch (Exception e) {
+      return new AggregateFailureResponse("error_bad_request", e.getMessage()).serialize();
+    }
+  }
+
+  /**
+   * A record representing a failed call to the /aggregate handler, containing a result with an
+   * error code and an error message with more information.
+   *
+   * @param result the String containing an error code
+   * @param error_message the String containing a more specific error message
+   */
+  public record AggregateFailureResponse(String result, String error_message) {
+    /**
+     * This method serializes a failure response object.
+     *
+     * @return this failure response object, serialized as Json
+     */
+    String serialize() {
+      Moshi moshi = new Moshi.Builder().build();
+      return moshi.adapter(AggregateFailureResponse.class).toJson(this);
+    }
+  }
+
+  /**
+   * A record representing a successful call to the /aggregate handler, containing a result of
+   * success, the headers, groupby and aggs parameters, the names of the result columns, and a row
+   * per group.
+   *
+   * @param result the String containing "success"
+   * @param headers the String containing the query parameter headers, a boolean representing
+   *     whether the CSV data has headers
+   * @param groupby the String containing the columns grouped by, or null for a single group
+   * @param aggs the String containing the aggregates requested, or null for the default count
+   * @param columns the List of String naming each column of data
+   * @param data the List of rows, each holding a group's values and then its aggregates
+   */
+  public record AggregateSuccessResponse(
+      String result,
+      String headers,
+      String groupby,
+      String aggs,
+      List<String> columns,
+      List<List<Object>> data) {
+
+    /**
+     * This method serializes a success response object.
+     *
+     * @return this success response object, serialized as Json
+     */
+    String serialize() {
+      SerializeEvent event = new SerializeEvent("aggregate");
+      event.begin();
+      Moshi moshi = new Moshi.Builder().build();
+      String json = moshi.adapter(AggregateSuccessResponse.class).toJson(this);
+      event.commit(json);
+      return json;
+    }
+  }
+}
@@ -2,6 +2,7 @@ package edu.brown.cs.student.main.server;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import com.squareup.moshi.Moshi;
 import edu.brown.cs.student.main.sources.CensusData;
@@ -28,13 +29,26 @@ import spark.Route;
  * CacheBuilder parameter in the structure. Otherwise, they should pass a CacheBuilder with their
  * desired attributes (eviction rules, size, etc.).
  *
+ * <p>With a cache, each successful response is tagged with an ETag of the time its cache entry was
+ * fetched from the source. A request sending that tag in If-None-Match gets a 304 for as long as
+ * the entry stays cached, and the full response once it has been fetched again.
+ *
  * @author sarahridley juliazdzilowska prlakshm
  * @version 2.0
  */
 public class BroadbandHandler implements Route {
 
   private final CensusSource source;
-  private final Optional<LoadingCache<Pair<String, String>, Object>> cache;
+  private final Optional<LoadingCache<Pair<String, String>, CachedResponse>> cache;
+
+  /**
+   * A record representing a response fetched from the source, as it is kept in the cache.
+   *
+   * @param body the serialized success or failure response
+   * @param success whether the response was a success, which is the only kind tagged
+   * @param fetchedMillis the time the response was fetched, in milliseconds since the epoch
+   */
+  private record CachedResponse(Object body, boolean success, long fetchedMillis) {}
 
   /**
    * Constructor for the BroadbandHandler class.
@@ -48,11 +62,11 @@ public class BroadbandHandler implements Route {
     if (cacheBuilder == null) {
       this.cache = Optional.empty();
     } else {
-      LoadingCache<Pair<String, String>, Object> loadingCache =
+      LoadingCache<Pair<String, String>, CachedResponse> loadingCache =
           cacheBuilder.build(
-              new CacheLoader<Pair<String, String>, Object>() {
+              new CacheLoader<Pair<String, String>, CachedResponse>() {
                 @Override
-                public Object load(Pair<String, String> stateAndCounty) {
+                public CachedResponse load(Pair<String, String> stateAndCounty) {
                   String state = stateAndCounty.component1();
                   String county = stateAndCounty.component2();
                   return handleCacheMiss(state, county);
@@ -69,7 +83,7 @@ public class BroadbandHandler implements Route {
    *
    * @param request the Request object passed by the client, should contain request parameters state
    *     and county
-   * @param response the Response object that we do not use
+   * @param response the Response object that is tagged with an ETag, or answered with a 304
    * @return success or failure response object with json information from the source
    */
   @Override
@@ -87,9 +101,17 @@ public class BroadbandHandler implements Route {
             .serialize();
       }
       if (cache.isEmpty()) {
-        return handleCacheMiss(state, county);
+        return handleCacheMiss(state, county).body();
+      }
+      CachedResponse cached = cache.get().get(new Pair<>(state, county));
+      if (cached.success()) {
+        String etag = ETags.of(cached.fetchedMillis());
+        if (ETags.matches(request, etag)) {
+          return ETags.notModified(response, etag);
+        }
+        ETags.tag(response, etag);
       }
-      return cache.get().get(new Pair<>(state, county));
+      return cached.body();
     } catch (Exception e) {
       return new BroadbandFailureResponse("error_bad_request", e.getMessage()).serialize();
     }
@@ -98,22 +120,28 @@ public class BroadbandHandler implements Route {
   /**
    * Method that handles the Server's request in the case that the request state and county
    * broadband information was not found in the cache. Returns an object representing a success or
-   * failure response.
+   * failure response, along with when it was fetched.
    *
    * @param state the state request parameter passed by client
    * @param county the county request parameter passed by client
-   * @return success or failure response object with json information from the source
+   * @return the CachedResponse holding the success or failure response object
    */
-  private Object handleCacheMiss(String state, String county) {
+  private CachedResponse handleCacheMiss(String state, String county) {
     Date today = new Date();
     Long now = today.getTime();
     String dateTimeFormatted = new SimpleDateFormat("MM/dd/yyyy HH:mm").format(now);
     try {
       CensusData censusData = source.getBroadbandAccess(state, county);
-      return new BroadbandSuccessResponse(state, county, dateTimeFormatted, censusData.data())
-          .serialize();
+      return new CachedResponse(
+          new BroadbandSuccessResponse(state, county, dateTimeFormatted, censusData.data())
+              .serialize(),
+          true,
+          now);
     } catch (Exception e) {
-      return new BroadbandFailureResponse("error_bad_request", e.getMessage()).serialize();
+      return new CachedResponse(
+          new BroadbandFailureResponse("error_bad_request", e.getMessage()).serialize(),
+          false,
+          now);
     }
   }
 
@@ -188,9 +216,25 @@ public class BroadbandHandler implements Route {
   public List<Object> getCache() {
     List<Object> cachedElements = new ArrayList<>();
     if (cache.isPresent()) {
-      Map<Pair<String, String>, Object> cacheMap = cache.get().asMap();
-      cachedElements.addAll(cacheMap.values());
+      Map<Pair<String, String>, CachedResponse> cacheMap = cache.get().asMap();
+      for (CachedResponse cached : cacheMap.values()) {
+        cachedElements.add(cached.body());
+      }
     }
     return cachedElements;
   }
+
+  /**
+   * Gets the hit, miss and eviction statistics of the cache. These are only counted if the
+   * CacheBuilder passed to the constructor had recordStats() called on it; if no CacheBuilder has
+   * been provided (caching disabled), returns empty statistics.
+   *
+   * @return the CacheStats of the cache
+   */
+  public CacheStats getCacheStats() {
+    if (cache.isPresent()) {
+      return cache.get().stats();
+    }
+    return new CacheStats(0, 0, 0, 0, 0, 0);
+  }
 }
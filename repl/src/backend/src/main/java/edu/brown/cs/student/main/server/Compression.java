@@ -0,0 +1,329 @@
+package edu.brown.cs.student.main.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * This Compression class compresses response bodies for clients that accept it, choosing gzip or
+ * deflate from the request's Accept-Encoding header. A body a handler returns, as a String or as
+ * bytes, is already held in memory whole; it is written to the client through the compressor a
+ * buffer at a time, so at least its compressed copy is never held too. Handlers that serialize
+ * straight into the response instead, like /join, a full /viewcsv and the formats of RowFormat,
+ * write through the same compressor with open, and hold neither copy.
+ *
+ * <p>Bodies smaller than a minimum size are sent as they are, since compressing them saves less
+ * than the headers and CPU it costs. Larger bodies are compressed at the highest level, up to a
+ * maximum, that is estimated to fit in a CPU budget per request: higher levels shrink a body a few
+ * percent more but take several times as long, so large bodies are compressed at lower levels. The
+ * budget is only an estimate, from the body's size and a fixed table of nanoseconds per byte at
+ * each level: the time compressing takes is not measured, and a request on a slower CPU or with a
+ * less compressible body can take longer than the budget. Streamed bodies, whose size is not known
+ * up front, are compressed at the fastest level. Brotli is not offered, since the JDK has no Brotli
+ * encoder.
+ *
+ * <p>Spark would otherwise gzip any response with a Content-Encoding: gzip header itself, at the
+ * default level and whatever its size, so compressed bodies are written straight to the servlet
+ * response, which commits it, and Spark then leaves it alone. The headers the Server's after filter
+ * adds would come too late for a committed response, so they are set here first.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class Compression {
+  /** The smallest body, in bytes, that is compressed by default. */
+  public static final int DEFAULT_MIN_BYTES = 1024;
+
+  /** The highest deflate level used by default. */
+  public static final int DEFAULT_MAX_LEVEL = 6;
+
+  /** How many milliseconds of CPU compressing one response should take at most, by default. */
+  public static final long DEFAULT_BUDGET_MILLIS = 20;
+
+  /**
+   * About how many nanoseconds deflate takes per byte of JSON at each level from 0 to 9, measured
+   * once on CSV responses: level 1 is several times faster than the default level 6, and levels 7
+   * to 9 are slower still for little gain. These are fixed guesses, not measured at run time.
+   */
+  private static final double[] NANOS_PER_BYTE = {1, 4, 5, 6, 8, 11, 15, 20, 30, 40};
+
+  private static final int BUFFER_BYTES = 8 * 1024;
+
+  /** The encodings a body can be sent in. */
+  public enum Encoding {
+    GZIP("gzip"),
+    DEFLATE("deflate"),
+    IDENTITY("identity");
+
+    private final String header;
+
+    /**
+     * The constructor for an Encoding.
+     *
+     * @param header the name of the encoding in Accept-Encoding and Content-Encoding headers
+     */
+    Encoding(String header) {
+      this.header = header;
+    }
+
+    /**
+     * Returns the name of this encoding in Accept-Encoding and Content-Encoding headers.
+     *
+     * @return the header value
+     */
+    public String header() {
+      return header;
+    }
+  }
+
+  private final int minBytes;
+  private final int maxLevel;
+  private final long budgetNanos;
+
+  /** The constructor for the Compression class, with the default size, level and budget. */
+  public Compression() {
+    this(DEFAULT_MIN_BYTES, DEFAULT_MAX_LEVEL, DEFAULT_BUDGET_MILLIS);
+  }
+
+  /**
+   * The constructor for the Compression class.
+   *
+   * @param minBytes the smallest body, in bytes, to compress
+   * @param maxLevel the highest deflate level to use, from 1 to 9
+   * @param budgetMillis how many milliseconds of CPU compressing one response should take at most
+   */
+  public Compression(int minBytes, int maxLevel, long budgetMillis) {
+    if (maxLevel < 1 || maxLevel > 9) {
+      throw new IllegalArgumentException("Deflate levels are from 1 to 9, not " + maxLevel);
+    }
+    this.minBytes = minBytes;
+    this.maxLevel = maxLevel;
+    this.budgetNanos = budgetMillis * 1_000_000;
+  }
+
+  /**
+   * Returns the smallest body this Compression compresses, below which compressing costs more than
+   * it saves.
+   *
+   * @return the smallest body to compress, in bytes
+   */
+  public int minBytes() {
+    return minBytes;
+  }
+
+  /**
+   * Chooses the encoding of a response from a request's Accept-Encoding header: gzip if it is
+   * accepted, then deflate, and otherwise none. Encodings given a quality of 0 are refused, and *
+   * stands for any encoding not named.
+   *
+   * @param acceptEncoding the Accept-Encoding header, or null if the request had none
+   * @return the Encoding to send the response in
+   */
+  public static Encoding negotiate(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return Encoding.IDENTITY;
+    }
+    Double gzip = null;
+    Double deflate = null;
+    Double any = null;
+    for (String part : acceptEncoding.split(",")) {
+      String[] fields = part.split(";");
+      String name = fields[0].strip().toLowerCase(Locale.ROOT);
+      double quality = 1;
+      for (int i = 1; i < fields.length; i++) {
+        String param = fields[i].strip();
+        if (param.startsWith("q=")) {
+          try {
+            quality = Double.parseDouble(param.substring(2));
+          } catch (NumberFormatException e) {
+            quality = 0;
+          }
+        }
+      }
+      switch (name) {
+        case "gzip", "x-gzip" -> gzip = quality;
+        case "deflate" -> deflate = quality;
+        case "*" -> any = quality;
+        default -> {}
+      }
+    }
+    double gzipQuality = gzip != null ? gzip : any != null ? any : 0;
+    double deflateQuality = deflate != null ? deflate : any != null ? any : 0;
+    if (gzipQuality > 0 && gzipQuality >= deflateQuality) {
+      return Encoding.GZIP;
+    } else if (deflateQuality > 0) {
+      return Encoding.DEFLATE;
+    }
+    return Encoding.IDENTITY;
+  }
+
+  /**
+   * Chooses the deflate level for a body: the highest level, up to the maximum, estimated to
+   * compress it within the CPU budget, and level 1 if none is.
+   *
+   * @param bytes the size of the body in bytes, or -1 if it is streamed and its size is unknown
+   * @return the deflate level
+   */
+  public int levelFor(long bytes) {
+    if (bytes < 0) {
+      // A streamed body could be any size, so it gets the fastest level
+      return 1;
+    }
+    for (int level = maxLevel; level > 1; level--) {
+      if (bytes * NANOS_PER_BYTE[level] <= budgetNanos) {
+        return level;
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * Wraps a Route so that the bodies it returns are compressed for clients that accept it.
+   *
+   * @param handler the Route whose bodies to compress
+   * @return the wrapped Route
+   */
+  public Route wrap(Route handler) {
+    return (request, response) -> {
+      Object body = handler.handle(request, response);
+      response.header("Vary", "Accept-Encoding");
+      if (response.raw().isCommitted()) {
+        // The handler streamed its own response
+        return body;
+      }
+      return write(request, response, body);
+    };
+  }
+
+  /**
+   * Writes a body through a compressor, if the client accepts one and the body is large enough.
+   *
+   * @param request the Request, whose Accept-Encoding header is read
+   * @param response the Response to write to
+   * @param body the body the handler returned
+   * @return the body if it was not written, for Spark to send, and an empty String if it was
+   * @throws IOException if the body cannot be written
+   */
+  private Object write(Request request, Response response, Object body) throws IOException {
+    long size;
+    if (body instanceof String text) {
+      // Each char is at least one UTF-8 byte, so this is enough to compare with the minimum
+      size = text.length();
+    } else if (body instanceof byte[] bytes) {
+      size = bytes.length;
+    } else {
+      return body;
+    }
+    Encoding encoding = negotiate(request.headers("Accept-Encoding"));
+    if (encoding == Encoding.IDENTITY || size < minBytes) {
+      return body;
+    }
+    try (OutputStream out = open(response, encoding, levelFor(size))) {
+      if (body instanceof byte[] bytes) {
+        out.write(bytes);
+      } else {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write((String) body);
+        writer.flush();
+      }
+    }
+    return "";
+  }
+
+  /**
+   * Opens the body of a response that a handler streams itself, through a compressor if the client
+   * accepts one. Streamed bodies are compressed whatever their size, at the fastest level.
+   *
+   * @param request the Request, whose Accept-Encoding header is read
+   * @param response the Response to write to, whose content type should already be set
+   * @return the OutputStream to write the body to, which must be closed to finish the body
+   * @throws IOException if the response cannot be opened
+   */
+  public OutputStream open(Request request, Response response) throws IOException {
+    Encoding encoding = negotiate(request.headers("Accept-Encoding"));
+    response.header("Vary", "Accept-Encoding");
+    return open(response, encoding, levelFor(-1));
+  }
+
+  /**
+   * Sets the headers of a response and opens its body through a compressor.
+   *
+   * @param response the Response to write to
+   * @param encoding the Encoding to write the body in
+   * @param level the deflate level
+   * @return the OutputStream to write the body to
+   * @throws IOException if the response cannot be opened
+   */
+  private static OutputStream open(Response response, Encoding encoding, int level)
+      throws IOException {
+    HttpServletResponse raw = response.raw();
+    if (raw.getContentType() == null) {
+      // The type Spark gives a body it writes itself
+      raw.setContentType("text/html; charset=utf-8");
+    }
+    raw.setHeader("Access-Control-Allow-Origin", "*");
+    raw.setHeader("Access-Control-Allow-Methods", "*");
+    OutputStream out = raw.getOutputStream();
+    return switch (encoding) {
+      case GZIP -> {
+        raw.setHeader("Content-Encoding", encoding.header());
+        yield new LevelGzipOutputStream(out, level);
+      }
+      case DEFLATE -> {
+        raw.setHeader("Content-Encoding", encoding.header());
+        yield new EndingDeflaterOutputStream(out, new Deflater(level));
+      }
+      case IDENTITY -> out;
+    };
+  }
+
+  /** A GZIPOutputStream compressing at a chosen level rather than the default one. */
+  private static final class LevelGzipOutputStream extends GZIPOutputStream {
+    /**
+     * The constructor for a LevelGzipOutputStream.
+     *
+     * @param out the stream to write the compressed body to
+     * @param level the deflate level
+     * @throws IOException if the gzip header cannot be written
+     */
+    LevelGzipOutputStream(OutputStream out, int level) throws IOException {
+      super(out, BUFFER_BYTES);
+      def.setLevel(level);
+    }
+  }
+
+  /**
+   * A DeflaterOutputStream that frees its Deflater's native memory when closed, since a Deflater
+   * passed in is not ended by the stream.
+   */
+  private static final class EndingDeflaterOutputStream extends DeflaterOutputStream {
+    /**
+     * The constructor for an EndingDeflaterOutputStream.
+     *
+     * @param out the stream to write the compressed body to
+     * @param deflater the Deflater compressing the body, ended when this stream is closed
+     */
+    EndingDeflaterOutputStream(OutputStream out, Deflater deflater) {
+      super(out, deflater, BUFFER_BYTES);
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        def.end();
+      }
+    }
+  }
+}
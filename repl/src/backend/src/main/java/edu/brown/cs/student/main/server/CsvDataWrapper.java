@@ -1,19 +1,112 @@
 package edu.brown.cs.student.main.server;
 
+import edu.brown.cs.student.main.csv.search.ColumnIndexes;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.stats.TableProfiler;
+import edu.brown.cs.student.main.csv.table.Schema;
+import edu.brown.cs.student.main.csv.table.TypedTable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This CsvDataWrapper class wraps a List of List of String representing the CSV data parsed by
  * loadcsv, which can be viewed or searched with viewcsv and searchcsv endpoints respectively. This
  * class also has the field loadedInPast, representing whether any CSV data has been loaded.
  *
+ * <p>Alongside the rows, the wrapper keeps a TypedTable with the types inferred for each column
+ * when the data was set, storing numeric and date columns in primitive form. The rows themselves
+ * are left untouched, so viewing and searching still return every cell's original text. The search
+ * indexes built from that table live here too, so they last exactly as long as the data, as do the
+ * column statistics gathered by a TableProfiler while the data was parsed.
+ *
+ * <p>Everything derived from one load is kept together in an immutable Snapshot, which setData
+ * replaces in one step. A request reading the data while another loads a new CSV therefore sees
+ * either the old data or the new data in full, never a half-replaced list, and a searcher never
+ * pairs the rows of one load with the indexes of another. Each Snapshot is numbered with a version
+ * that goes up with every load, so caches of anything derived from the data can tell when it is out
+ * of date, and with a hash of its cells, so that the ETags of responses built from it change
+ * exactly when the data does, even across restarts that start the versions over.
+ *
+ * <p>A handler that uses more than one thing derived from the data, such as the rows and the ETag
+ * built from their version and hash, should read them all from one Snapshot returned by
+ * getSnapshot, since each of the other getters reads the current Snapshot again.
+ *
+ * <p>Data can also be set pre-encoded, in which case the Snapshot keeps the Json of every row in
+ * EncodedRows, for view and search responses to copy rather than serialize.
+ *
  * @author sarahridley juliazdzilowska prlakshm
  * @version 2.0
  */
 public class CsvDataWrapper {
-  private final List<List<String>> csvData;
-  private boolean loadedInPast;
+  private final AtomicLong versions = new AtomicLong();
+  private volatile Snapshot snapshot;
+  private volatile boolean loadedInPast;
+
+  /**
+   * A record holding one set of loaded CSV data and everything derived from it.
+   *
+   * @param rows the unmodifiable rows of CSV data
+   * @param table the TypedTable inferred from the rows
+   * @param profiler the TableProfiler holding the statistics of each column
+   * @param searcher the CsvSearcher of the rows, sharing their ColumnIndexes between requests
+   * @param estimatedBytes the estimated heap used by the rows and the TypedTable
+   * @param version the number of this load, higher than that of every earlier load
+   * @param contentHash the hash of every cell of the rows, in order
+   * @param encoded the EncodedRows of the rows, or null if they were not pre-encoded
+   */
+  public record Snapshot(
+      List<List<String>> rows,
+      TypedTable table,
+      TableProfiler profiler,
+      CsvSearcher searcher,
+      long estimatedBytes,
+      long version,
+      long contentHash,
+      EncodedRows encoded) {
+
+    /**
+     * Returns the Json of every row, if the rows were pre-encoded.
+     *
+     * @return the EncodedRows of the rows, or empty if they were not pre-encoded
+     */
+    public Optional<EncodedRows> encodedRows() {
+      return Optional.ofNullable(encoded);
+    }
+
+    /**
+     * Creates the Snapshot of the given rows.
+     *
+     * @param data the rows of CSV data, which are copied
+     * @param table the TypedTable inferred from data
+     * @param profiler the TableProfiler of data
+     * @param version the version of this load
+     * @param preencode whether to encode every row as Json now
+     * @return the Snapshot
+     */
+    static Snapshot of(
+        List<List<String>> data,
+        TypedTable table,
+        TableProfiler profiler,
+        long version,
+        boolean preencode) {
+      List<List<String>> rows = Collections.unmodifiableList(new ArrayList<>(data));
+      EncodedRows encoded = preencode ? EncodedRows.encode(rows) : null;
+      return new Snapshot(
+          rows,
+          table,
+          profiler,
+          new CsvSearcher(rows, new ColumnIndexes(rows, table, profiler)),
+          estimateBytes(rows)
+              + table.estimatedBytes()
+              + (encoded != null ? encoded.estimatedBytes() : 0),
+          version,
+          hash(rows),
+          encoded);
+    }
+  }
 
   /**
    * The constructor for the CsvDataWrapper class.
@@ -22,18 +115,188 @@ public class CsvDataWrapper {
    * @param loadedInPast the boolean representing whether any CSV data has been loaded
    */
   public CsvDataWrapper(List<List<String>> csvData, boolean loadedInPast) {
-    this.csvData = csvData;
+    this.snapshot =
+        Snapshot.of(
+            csvData, TypedTable.infer(csvData), TableProfiler.of(csvData), versions.get(), false);
     this.loadedInPast = loadedInPast;
   }
 
   /**
-   * A setter method allowing the caller to reset the value of csvData (cleared and then set).
+   * A setter method allowing the caller to replace the value of csvData, inferring the types of its
+   * columns and profiling them.
    *
-   * @param data the List of List of String to replace the contents of csvData with
+   * @param data the List of List of String to replace csvData with
    */
   public void setData(List<List<String>> data) {
-    this.csvData.clear();
-    this.csvData.addAll(data);
+    setData(data, TypedTable.infer(data));
+  }
+
+  /**
+   * A setter method allowing the caller to replace the value of csvData, along with the TypedTable
+   * already inferred from it, so that inference can run off the caller's thread. The columns are
+   * profiled here, in a pass over data.
+   *
+   * @param data the List of List of String to replace csvData with
+   * @param table the TypedTable inferred from data
+   */
+  public void setData(List<List<String>> data, TypedTable table) {
+    setData(data, table, TableProfiler.of(data));
+  }
+
+  /**
+   * A setter method allowing the caller to replace the value of csvData, along with the TypedTable
+   * inferred from it and the TableProfiler gathered while parsing it.
+   *
+   * @param data the List of List of String to replace csvData with
+   * @param table the TypedTable inferred from data
+   * @param profiler the TableProfiler of data
+   */
+  public void setData(List<List<String>> data, TypedTable table, TableProfiler profiler) {
+    setData(data, table, profiler, false);
+  }
+
+  /**
+   * A setter method allowing the caller to replace the value of csvData, along with the TypedTable
+   * inferred from it and the TableProfiler gathered while parsing it, optionally encoding every row
+   * as Json for responses to copy. Encoding takes a pass over data and about as much heap as the
+   * Json of every row, so it is worth it for CSVs that are viewed or searched often.
+   *
+   * @param data the List of List of String to replace csvData with
+   * @param table the TypedTable inferred from data
+   * @param profiler the TableProfiler of data
+   * @param preencode whether to encode every row as Json
+   */
+  public void setData(
+      List<List<String>> data, TypedTable table, TableProfiler profiler, boolean preencode) {
+    this.snapshot = Snapshot.of(data, table, profiler, versions.incrementAndGet(), preencode);
+  }
+
+  /**
+   * A getter method for everything derived from one load of the CSV data at once, so that a caller
+   * using several of them, such as the rows and their version and hash, gets them from the same
+   * load even if the data is set again meanwhile.
+   *
+   * @return the Snapshot of the loaded data
+   */
+  public Snapshot getSnapshot() {
+    return this.snapshot;
+  }
+
+  /**
+   * A getter method for the version of the loaded CSV data, which changes every time the data is
+   * set.
+   *
+   * @return the version of the loaded data
+   */
+  public long getVersion() {
+    return this.snapshot.version();
+  }
+
+  /**
+   * A getter method for the Json of every row of the loaded CSV data, if it was set pre-encoded.
+   * Before copying rows from it, callers should check that it encodes the rows they got from
+   * getData, since the data may have been set again in between.
+   *
+   * @return the EncodedRows of the loaded data, or empty if it was not pre-encoded
+   */
+  public Optional<EncodedRows> getEncodedRows() {
+    return Optional.ofNullable(this.snapshot.encoded());
+  }
+
+  /**
+   * A getter method for the hash of the loaded CSV data's cells, computed once when the data is
+   * set.
+   *
+   * @return the content hash of the loaded data
+   */
+  public long getContentHash() {
+    return this.snapshot.contentHash();
+  }
+
+  /**
+   * A getter method for a CsvSearcher of the loaded CSV data. The same searcher is returned until
+   * the data is set again, so the indexes it builds are reused by every search of this data.
+   *
+   * @return the CsvSearcher of the loaded data
+   */
+  public CsvSearcher getSearcher() {
+    return this.snapshot.searcher();
+  }
+
+  /**
+   * A getter method for the typed form of the loaded CSV data's columns.
+   *
+   * @return the TypedTable inferred when the data was set
+   */
+  public TypedTable getTable() {
+    return this.snapshot.table();
+  }
+
+  /**
+   * A getter method for the statistics of each column of the loaded CSV data.
+   *
+   * @return the TableProfiler of the loaded data
+   */
+  public TableProfiler getProfiler() {
+    return this.snapshot.profiler();
+  }
+
+  /**
+   * A getter method for the Schema of the loaded CSV data, computed once when the data is set.
+   *
+   * @return the Schema of the loaded data
+   */
+  public Schema getSchema() {
+    return this.snapshot.table().schema();
+  }
+
+  /**
+   * A getter method for the approximate number of bytes of heap the loaded CSV data takes up,
+   * computed once when the data is set.
+   *
+   * @return the estimated size of csvData in bytes
+   */
+  public long getEstimatedBytes() {
+    return this.snapshot.estimatedBytes();
+  }
+
+  /**
+   * Estimates the heap used by rows of CSV data, assuming a 64-bit JVM with compressed references
+   * and compact (one byte per character) Strings.
+   *
+   * @param data the List of List of String to measure
+   * @return the estimated size in bytes
+   */
+  private static long estimateBytes(List<List<String>> data) {
+    // 16 bytes of list header plus a 16 byte backing array header, 4 bytes per reference
+    long bytes = 32 + 4L * data.size();
+    for (List<String> row : data) {
+      bytes += 32 + 4L * row.size();
+      for (String cell : row) {
+        // 24 bytes of String object plus a 16 byte byte[] header and its contents
+        bytes += 40 + cell.length();
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Hashes the cells of rows of CSV data in order, as a 64-bit FNV-1a hash of each cell's hash and
+   * length with a marker after each row, so moving a cell to another row changes the hash too.
+   *
+   * @param data the List of List of String to hash
+   * @return the hash
+   */
+  private static long hash(List<List<String>> data) {
+    long hash = 0xcbf29ce484222325L;
+    for (List<String> row : data) {
+      for (String cell : row) {
+        hash = (hash ^ cell.hashCode()) * 0x100000001b3L;
+        hash = (hash ^ cell.length()) * 0x100000001b3L;
+      }
+      hash = (hash ^ -1L) * 0x100000001b3L;
+    }
+    return hash;
   }
 
   /**
@@ -43,7 +306,7 @@ public class CsvDataWrapper {
    * @return an unmodiiable List of List of String, allowing the caller to view csvData
    */
   public List<List<String>> getData() {
-    return Collections.unmodifiableList(this.csvData);
+    return this.snapshot.rows();
   }
 
   /**
@@ -0,0 +1,134 @@
+package edu.brown.cs.student.main.server;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * This Cursors class keeps the state needed to continue a paged response, such as the next page of
+ * /viewcsv or /searchcsv, under an opaque cursor handed to the client. The client passes the cursor
+ * back to get the next page, and the handler picks up where the previous page stopped rather than
+ * starting over, so each page costs about as much as the rows it returns.
+ *
+ * <p>Cursors are random, so they cannot be guessed or forged, and say nothing about the state they
+ * stand for. The state lives in a cache that forgets each cursor a time to live after it was
+ * issued, and the oldest cursors first once it holds its most, so clients that never ask for their
+ * next page cannot fill the heap. Its most can be a number of cursors, or, for state whose size
+ * varies, such as the rows a search matched, a number of bytes estimated by a weigher.
+ *
+ * @param <T> the type of state kept for each cursor
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class Cursors<T> {
+  /** How many minutes a cursor can be used for after it was issued, by default. */
+  public static final long DEFAULT_TTL_MINUTES = 5;
+
+  /** How many cursors are kept at once, by default. */
+  public static final long DEFAULT_MAX_CURSORS = 10_000;
+
+  /** How many bytes of state are kept at once, by default, when the state is weighed. */
+  public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private final Cache<String, T> states;
+
+  /** The constructor for the Cursors class, with the default time to live and size. */
+  public Cursors() {
+    this(DEFAULT_TTL_MINUTES, TimeUnit.MINUTES, DEFAULT_MAX_CURSORS, Ticker.systemTicker());
+  }
+
+  /**
+   * The constructor for the Cursors class.
+   *
+   * @param ttl how long a cursor can be used for after it was issued
+   * @param unit the TimeUnit of ttl
+   * @param maxCursors the most cursors to keep at once
+   * @param ticker the Ticker telling the time, which tests can advance by hand
+   */
+  public Cursors(long ttl, TimeUnit unit, long maxCursors, Ticker ticker) {
+    this.states =
+        CacheBuilder.newBuilder()
+            .expireAfterWrite(ttl, unit)
+            .maximumSize(maxCursors)
+            .ticker(ticker)
+            .build();
+  }
+
+  /**
+   * The constructor for the Cursors class, with the default time to live, keeping at most
+   * DEFAULT_MAX_BYTES of state as estimated by a weigher.
+   *
+   * @param weigher estimates the bytes of heap a state takes up, counted when it is issued
+   */
+  public Cursors(ToLongFunction<? super T> weigher) {
+    this(DEFAULT_TTL_MINUTES, TimeUnit.MINUTES, DEFAULT_MAX_BYTES, weigher, Ticker.systemTicker());
+  }
+
+  /**
+   * The constructor for the Cursors class, bounded by the estimated bytes of state rather than the
+   * number of cursors.
+   *
+   * @param ttl how long a cursor can be used for after it was issued
+   * @param unit the TimeUnit of ttl
+   * @param maxBytes the most bytes of state to keep at once
+   * @param weigher estimates the bytes of heap a state takes up, counted when it is issued
+   * @param ticker the Ticker telling the time, which tests can advance by hand
+   */
+  public Cursors(
+      long ttl, TimeUnit unit, long maxBytes, ToLongFunction<? super T> weigher, Ticker ticker) {
+    this.states =
+        CacheBuilder.newBuilder()
+            .expireAfterWrite(ttl, unit)
+            .maximumWeight(maxBytes)
+            .<String, T>weigher(
+                (cursor, state) -> (int) Math.min(Integer.MAX_VALUE, weigher.applyAsLong(state)))
+            .ticker(ticker)
+            .build();
+  }
+
+  /**
+   * Keeps some state under a new cursor.
+   *
+   * @param state the state to continue from
+   * @return the cursor, 22 URL-safe characters
+   */
+  public String issue(T state) {
+    byte[] bytes = new byte[16];
+    RANDOM.nextBytes(bytes);
+    String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    states.put(cursor, state);
+    return cursor;
+  }
+
+  /**
+   * Looks up the state kept under a cursor.
+   *
+   * @param cursor the cursor
+   * @return the state, or empty if the cursor was never issued or has expired
+   */
+  public Optional<T> get(String cursor) {
+    return Optional.ofNullable(states.getIfPresent(cursor));
+  }
+
+  /** Forgets every cursor, such as once the data they continue from has been loaded again. */
+  public void clear() {
+    states.invalidateAll();
+  }
+
+  /**
+   * Returns how many cursors are kept, which may include some that have expired but have not yet
+   * been cleaned up.
+   *
+   * @return the number of cursors
+   */
+  public long size() {
+    return states.size();
+  }
+}
@@ -0,0 +1,58 @@
+package edu.brown.cs.student.main.server;
+
+import edu.brown.cs.student.main.csv.stats.TableProfiler;
+import edu.brown.cs.student.main.csv.table.TypedTable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This Datasets class holds the CSVs loaded by /loadcsv under a name, each in its own
+ * CsvDataWrapper, so that more than one CSV can be loaded at once and joined by /join. Loading a
+ * CSV under a name that is already taken replaces it, in the same way loading a CSV without a name
+ * replaces the CSV that /viewcsv and /searchcsv use.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class Datasets {
+  private final Map<String, CsvDataWrapper> datasets = new ConcurrentHashMap<>();
+
+  /**
+   * Stores rows of CSV data under a name, replacing any CSV loaded under it before.
+   *
+   * @param name the name of the dataset
+   * @param rows the List of List of String of the parsed CSV data
+   * @param table the TypedTable inferred from rows
+   * @param profiler the TableProfiler gathered while parsing rows
+   */
+  public void put(String name, List<List<String>> rows, TypedTable table, TableProfiler profiler) {
+    CsvDataWrapper csvData =
+        datasets.computeIfAbsent(name, n -> new CsvDataWrapper(new ArrayList<>(), false));
+    csvData.setData(rows, table, profiler);
+    csvData.setLoaded(true);
+  }
+
+  /**
+   * A getter method for the CSV data loaded under a name.
+   *
+   * @param name the name of the dataset
+   * @return the CsvDataWrapper of the dataset, or empty if nothing was loaded under that name
+   */
+  public Optional<CsvDataWrapper> get(String name) {
+    return Optional.ofNullable(datasets.get(name));
+  }
+
+  /**
+   * A getter method for the names of every loaded dataset.
+   *
+   * @return the names, in alphabetical order
+   */
+  public Set<String> names() {
+    return new TreeSet<>(datasets.keySet());
+  }
+}
@@ -0,0 +1,98 @@
+package edu.brown.cs.student.main.server;
+
+import spark.Request;
+import spark.Response;
+
+/**
+ * This ETags class builds the entity tags of responses and answers conditional requests for them. A
+ * handler that can tell its response has not changed, such as a /viewcsv of the same loaded data,
+ * tags the response with an ETag. A client sending that tag back in If-None-Match then gets a 304
+ * with no body, which the handler can answer before it searches or serializes anything.
+ *
+ * <p>Tags are weak, since the same response can be sent gzipped, deflated or as it is, and they
+ * come with Cache-Control: no-cache so that browsers check each tag with the server before reusing
+ * a response rather than reusing it unchecked.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public final class ETags {
+
+  /** The ETags class only has static methods, so it cannot be constructed. */
+  private ETags() {}
+
+  /**
+   * Builds an ETag from the numbers a response depends on, such as the version and content hash of
+   * the data it came from.
+   *
+   * @param parts the numbers identifying the response
+   * @return the weak ETag, such as W/"3-9f1c2b4d7a0e6c15"
+   */
+  public static String of(long... parts) {
+    StringBuilder tag = new StringBuilder("W/\"");
+    for (int i = 0; i < parts.length; i++) {
+      if (i > 0) {
+        tag.append('-');
+      }
+      tag.append(Long.toHexString(parts[i]));
+    }
+    return tag.append('"').toString();
+  }
+
+  /**
+   * Checks whether a request's If-None-Match header holds an ETag, comparing tags weakly as
+   * If-None-Match requires.
+   *
+   * @param request the Request to check
+   * @param etag the current ETag of the response
+   * @return true if the client already has the response
+   */
+  public static boolean matches(Request request, String etag) {
+    String ifNoneMatch = request.headers("If-None-Match");
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    String opaque = opaque(etag);
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.strip();
+      if (tag.equals("*") || opaque(tag).equals(opaque)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Tags a response with an ETag.
+   *
+   * @param response the Response to tag
+   * @param etag the ETag of the response
+   */
+  public static void tag(Response response, String etag) {
+    response.header("ETag", etag);
+    response.header("Cache-Control", "no-cache");
+  }
+
+  /**
+   * Answers a request whose client already has the response with a 304 Not Modified.
+   *
+   * @param response the Response to answer with
+   * @param etag the ETag of the response the client has
+   * @return the empty body of the 304
+   */
+  public static String notModified(Response response, String etag) {
+    tag(response, etag);
+    response.status(304);
+    return "";
+  }
+
+  /**
+   * Strips the weak prefix from an ETag, leaving the quoted part that weak comparison compares.
+   *
+   * @param etag the ETag
+   * @return the ETag without W/
+   */
+  private static String opaque(String etag) {
+    return etag.startsWith("W/") ? etag.substring(2) : etag;
+  }
+}
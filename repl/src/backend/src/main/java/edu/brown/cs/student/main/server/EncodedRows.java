@@ -0,0 +1,221 @@
+package edu.brown.cs.student.main.server;
+
+import com.squareup.moshi.JsonWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import okio.Buffer;
+
+/**
+ * This EncodedRows class holds every row of a CSV already serialized to Json, so that responses
+ * carrying rows can be built by copying bytes rather than serializing each cell again. The rows are
+ * encoded once, when the CSV is loaded, the same way Moshi serializes a List of String, and kept
+ * back to back in one byte array with an array of where each row starts.
+ *
+ * <p>Each row's Json is followed by a comma, so a run of consecutive rows, such as a page of
+ * /viewcsv, is one slice of the array and is copied in one call. Rows found by a search are copied
+ * one slice each. A search returns rows rather than their indexes, so the rows are also indexed by
+ * identity in an open addressing table of row indexes. The table has a power of two slots, at least
+ * twice as many as rows so that it is at most half full, which takes two to four ints per row.
+ *
+ * <p>A response is built from its envelope: the response serialized by Moshi with no rows, which
+ * ends with the empty data array. The rows are copied in between that array's brackets, giving the
+ * same bytes Moshi would have written for the whole response.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class EncodedRows {
+  /** The most bytes of Json that can be kept, the size of the largest byte array. */
+  private static final long MAX_BYTES = Integer.MAX_VALUE - 8;
+
+  private static final byte[] EMPTY_DATA_END = "[]}".getBytes(StandardCharsets.UTF_8);
+
+  private final List<List<String>> rows;
+  private final byte[] json;
+  private final int[] offsets;
+  private final int[] identities;
+
+  /**
+   * The constructor for the EncodedRows class, used by encode.
+   *
+   * @param rows the rows that were encoded
+   * @param json the Json of every row, each followed by a comma
+   * @param offsets where each row starts in json, with one more for the end of the last row
+   */
+  private EncodedRows(List<List<String>> rows, byte[] json, int[] offsets) {
+    this.rows = rows;
+    this.json = json;
+    this.offsets = offsets;
+    // The smallest power of two at least the number of rows, doubled
+    this.identities = new int[Integer.highestOneBit(Math.max(1, 2 * rows.size() - 1)) * 2];
+    int mask = identities.length - 1;
+    for (int i = 0; i < rows.size(); i++) {
+      int slot = System.identityHashCode(rows.get(i)) & mask;
+      while (identities[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      // Slots hold the row index plus one, so that zero is an empty slot
+      identities[slot] = i + 1;
+    }
+  }
+
+  /**
+   * Encodes every row of a CSV as Json.
+   *
+   * @param rows the rows of the CSV, which must not change afterwards
+   * @return the EncodedRows, or null if the rows' Json would be too large for one byte array
+   */
+  public static EncodedRows encode(List<List<String>> rows) {
+    Buffer buffer = new Buffer();
+    int[] offsets = new int[rows.size() + 1];
+    try {
+      for (int i = 0; i < rows.size(); i++) {
+        JsonWriter writer = JsonWriter.of(buffer);
+        writer.beginArray();
+        for (String cell : rows.get(i)) {
+          writer.value(cell);
+        }
+        writer.endArray();
+        writer.flush();
+        buffer.writeByte(',');
+        if (buffer.size() > MAX_BYTES) {
+          return null;
+        }
+        offsets[i + 1] = (int) buffer.size();
+      }
+    } catch (IOException e) {
+      // A Buffer never fails to be written to
+      throw new UncheckedIOException(e);
+    }
+    return new EncodedRows(rows, buffer.readByteArray(), offsets);
+  }
+
+  /**
+   * Checks whether these are the encoded forms of a list of rows, which is the case only for the
+   * very list that was encoded.
+   *
+   * @param rows the rows
+   * @return true if these EncodedRows were encoded from rows
+   */
+  public boolean encodes(List<List<String>> rows) {
+    return this.rows == rows;
+  }
+
+  /**
+   * Finds the index of a row among the encoded rows, by identity.
+   *
+   * @param row the row, as returned by a search of the encoded rows
+   * @return the index of the row, or -1 if it is not one of the encoded rows
+   */
+  public int indexOf(List<String> row) {
+    int mask = identities.length - 1;
+    int slot = System.identityHashCode(row) & mask;
+    while (identities[slot] != 0) {
+      int index = identities[slot] - 1;
+      if (rows.get(index) == row) {
+        return index;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Builds a response holding a run of consecutive rows.
+   *
+   * @param envelope the response serialized with no rows, ending with "data":[]}
+   * @param from the index of the first row
+   * @param to the index after the last row
+   * @return the UTF-8 bytes of the response
+   */
+  public byte[] toJson(String envelope, int from, int to) {
+    byte[] head = head(envelope);
+    int length = to > from ? offsets[to] - offsets[from] - 1 : 0;
+    byte[] out = new byte[head.length + length + 2];
+    System.arraycopy(head, 0, out, 0, head.length);
+    System.arraycopy(json, offsets[from], out, head.length, length);
+    out[out.length - 2] = ']';
+    out[out.length - 1] = '}';
+    return out;
+  }
+
+  /**
+   * Builds a response holding some of the encoded rows, in the order given.
+   *
+   * @param envelope the response serialized with no rows, ending with "data":[]}
+   * @param found the rows, each of which should be one of the encoded rows
+   * @return the UTF-8 bytes of the response, or null if a row is not one of the encoded rows
+   */
+  public byte[] toJson(String envelope, List<List<String>> found) {
+    byte[] head = head(envelope);
+    int[] indexes = new int[found.size()];
+    long length = head.length + 2;
+    for (int i = 0; i < indexes.length; i++) {
+      indexes[i] = indexOf(found.get(i));
+      if (indexes[i] < 0) {
+        return null;
+      }
+      // Each row's slice includes the comma that follows it
+      length += offsets[indexes[i] + 1] - offsets[indexes[i]];
+    }
+    if (indexes.length > 0) {
+      // The last row is copied without its comma
+      length--;
+    }
+    if (length > MAX_BYTES) {
+      return null;
+    }
+    byte[] out = new byte[(int) length];
+    System.arraycopy(head, 0, out, 0, head.length);
+    int at = head.length;
+    for (int i = 0; i < indexes.length; i++) {
+      int start = offsets[indexes[i]];
+      int slice = offsets[indexes[i] + 1] - start - (i == indexes.length - 1 ? 1 : 0);
+      System.arraycopy(json, start, out, at, slice);
+      at += slice;
+    }
+    out[out.length - 2] = ']';
+    out[out.length - 1] = '}';
+    return out;
+  }
+
+  /**
+   * Returns the bytes of an envelope up to and including the opening bracket of its data array.
+   *
+   * @param envelope the response serialized with no rows
+   * @return the UTF-8 bytes of the envelope before the rows
+   */
+  private static byte[] head(String envelope) {
+    byte[] bytes = envelope.getBytes(StandardCharsets.UTF_8);
+    int end = bytes.length - EMPTY_DATA_END.length;
+    for (int i = 0; i < EMPTY_DATA_END.length; i++) {
+      if (end < 0 || bytes[end + i] != EMPTY_DATA_END[i]) {
+        throw new IllegalArgumentException("The envelope must end with an empty data array");
+      }
+    }
+    byte[] head = new byte[end + 1];
+    System.arraycopy(bytes, 0, head, 0, end + 1);
+    return head;
+  }
+
+  /**
+   * Returns the number of rows encoded.
+   *
+   * @return the number of rows
+   */
+  public int size() {
+    return offsets.length - 1;
+  }
+
+  /**
+   * Estimates the heap taken by the encoded rows and their indexes.
+   *
+   * @return the estimated size in bytes
+   */
+  public long estimatedBytes() {
+    // A 16 byte header for each of the three arrays
+    return 48 + json.length + 4L * offsets.length + 4L * identities.length;
+  }
+}
@@ -0,0 +1,198 @@
+package edu.brown.cs.student.main.server;
+
+import com.squareup.moshi.JsonWriter;
+import com.squareup.moshi.Moshi;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.HashJoin;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import okio.BufferedSink;
+import okio.Okio;
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * This JoinHandler class handles a /join request to our server. It is constructed with a Datasets
+ * object, holding the CSVs loaded by /loadcsv under a name. If both the left and right datasets are
+ * loaded, then this request joins their rows whose cells in the lefton and righton columns are
+ * equal, and returns each joined row: the left row's cells followed by the right row's cells.
+ *
+ * <p>The join is a hash join: a hash table of the dataset with fewer rows is built, and the rows of
+ * the other are streamed past it. Joined rows are written to the response as Json as soon as they
+ * are found, rather than collected and serialized at the end, so a large join never holds its
+ * result in memory. Once rows have started streaming the response cannot become an error, so a join
+ * that fails partway cuts the response short instead.
+ *
+ * <p>If the hash table would take more than the handler's memory budget, both datasets are split
+ * into partitions on disk by the hash of their keys and joined a partition at a time, as a grace
+ * hash join, and joined rows then come a partition at a time.
+ *
+ * <p>The streamed rows go through the handler's Compression, so clients that accept gzip or deflate
+ * get the join compressed as it is written.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class JoinHandler implements Route {
+  /** How many bytes of heap a join's hash table may take before it is spilled, by default. */
+  public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+  private final Datasets datasets;
+  private final WorkerPool workers;
+  private final long memoryBudget;
+  private final Compression compression;
+
+  /**
+   * The constructor for the JoinHandler class, which joins on the request thread with the default
+   * memory budget.
+   *
+   * @param datasets the Datasets holding the CSVs loaded under a name
+   */
+  public JoinHandler(Datasets datasets) {
+    this(datasets, WorkerPool.inline(), DEFAULT_MEMORY_BUDGET);
+  }
+
+  /**
+   * The constructor for the JoinHandler class.
+   *
+   * @param datasets the Datasets holding the CSVs loaded under a name
+   * @param workers the WorkerPool that joins run on
+   * @param memoryBudget the most bytes of heap a join's hash table may take before it is spilled
+   */
+  public JoinHandler(Datasets datasets, WorkerPool workers, long memoryBudget) {
+    this(datasets, workers, memoryBudget, new Compression());
+  }
+
+  /**
+   * The constructor for the JoinHandler class, with the Compression its responses are streamed
+   * through.
+   *
+   * @param datasets the Datasets holding the CSVs loaded under a name
+   * @param workers the WorkerPool that joins run on
+   * @param memoryBudget the most bytes of heap a join's hash table may take before it is spilled
+   * @param compression the Compression negotiating how responses are encoded
+   */
+  public JoinHandler(
+      Datasets datasets, WorkerPool workers, long memoryBudget, Compression compression) {
+    this.datasets = datasets;
+    this.workers = workers;
+    this.memoryBudget = memoryBudget;
+    this.compression = compression;
+  }
+
+  /**
+   * Method that handles a /join request to our Server. Given a request and response, returns a
+   * failure response object, or streams a success response into the response and returns an empty
+   * body. The success response contains the names of the joined columns and every joined row.
+   *
+   * @param request the Request object passed by client, should contain request parameters left,
+   *     right, lefton, righton and headers
+   * @param response the Response object that a successful join is streamed into
+   * @return a failure response object, or an empty String if the join was streamed
+   */
+  @Override
+  public Object handle(Request request, Response response) {
+    String left = request.queryParams("left");
+    String right = request.queryParams("right");
+    String leftOn = request.queryParams("lefton");
+    String rightOn = request.queryParams("righton");
+    String hasHeaders = request.queryParams("headers");
+    if (left == null || right == null || leftOn == null || rightOn == null || hasHeaders == null) {
+      return new JoinFailureResponse(
+              "error_bad_request",
+              "Required parameter(s) missing: left, right, lefton, righton and/or headers")
+          .serialize();
+    }
+    Optional<CsvDataWrapper> leftData = datasets.get(left);
+    Optional<CsvDataWrapper> rightData = datasets.get(right);
+    if (leftData.isEmpty() || rightData.isEmpty()) {
+      return new JoinFailureResponse(
+              "error_not_loaded",
+              "Dataset "
+                  + (leftData.isEmpty() ? left : right)
+                  + " not loaded. Loaded datasets are "
+                  + datasets.names()
+                  + ".")
+          .serialize();
+    }
+    boolean headers = Boolean.parseBoolean(hasHeaders);
+    CsvSearcher leftSearcher = leftData.get().getSearcher();
+    CsvSearcher rightSearcher = rightData.get().getSearcher();
+    HashJoin join;
+    try {
+      join = leftSearcher.join(headers, leftOn, rightSearcher, rightOn, memoryBudget);
+    } catch (Exception e) {
+      return new JoinFailureResponse("error_bad_request", e.getMessage()).serialize();
+    }
+    List<String> columns = null;
+    if (headers) {
+      columns = new ArrayList<>(leftSearcher.schema().headers());
+      columns.addAll(rightSearcher.schema().headers());
+    }
+    // Headers are sent with the first streamed rows, so compression sets the after filter's too
+    response.type("application/json");
+    // The sink is closed even if the join fails, so its compressor's native memory is released
+    try (BufferedSink sink = Okio.buffer(Okio.sink(compression.open(request, response)))) {
+      JsonWriter writer = JsonWriter.of(sink);
+      writer.beginObject();
+      writer.name("result").value("success");
+      writer.name("left").value(left);
+      writer.name("right").value(right);
+      writer.name("lefton").value(leftOn);
+      writer.name("righton").value(rightOn);
+      writer.name("headers").value(hasHeaders);
+      if (columns != null) {
+        writer.name("columns").beginArray();
+        for (String column : columns) {
+          writer.value(column);
+        }
+        writer.endArray();
+      }
+      writer.name("data").beginArray();
+      long rows =
+          workers.run(
+              () ->
+                  join.run(
+                      (leftRow, rightRow) -> {
+                        writer.beginArray();
+                        for (String cell : leftRow) {
+                          writer.value(cell);
+                        }
+                        for (String cell : rightRow) {
+                          writer.value(cell);
+                        }
+                        writer.endArray();
+                      }));
+      writer.endArray();
+      writer.name("rows").value(rows);
+      writer.endObject();
+      // Closing finishes the compressed stream as well as flushing it
+      writer.close();
+      return "";
+    } catch (Exception e) {
+      // The response may be partly written, so it can only be cut short
+      throw new IllegalStateException("Join of " + left + " and " + right + " failed", e);
+    }
+  }
+
+  /**
+   * A record representing a failed call to the /join handler, containing a result with an error
+   * code and an error message with more information.
+   *
+   * @param result the String containing an error code
+   * @param error_message the String containing a more specific error message
+   */
+  public record JoinFailureResponse(String result, String error_message) {
+    /**
+     * This method serializes a failure response object.
+     *
+     * @return this failure response object, serialized as Json
+     */
+    String serialize() {
+      Moshi moshi = new Moshi.Builder().build();
+      return moshi.adapter(JoinFailureResponse.class).toJson(this);
+    }
+  }
+}
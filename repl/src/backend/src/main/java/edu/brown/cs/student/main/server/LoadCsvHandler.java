@@ -3,7 +3,7 @@ package edu.brown.cs.student.main.server;
 import com.squareup.moshi.Moshi;
 import edu.brown.cs.student.main.creator.ListStringFromRow;
 import edu.brown.cs.student.main.csv.parse.CsvParser;
-
+import edu.brown.cs.student.main.csv.table.TypedTable;
 import java.io.*;
 import java.util.List;
 import spark.Request;
@@ -14,22 +14,58 @@ import spark.Route;
  * This LoadCsvHandler class handles a /loadcsv request to our server. It is constructed with a
  * CsvDataWrapper object, wrapping a List of List of String representing the CSV data. If the
  * filepath passed as a query parameter is found, the handle method parses the CSV and stores its
- * rows in the CsvDataWrapper object and sets the wrapper's loadedInPast field to true.
+ * rows in the CsvDataWrapper object and sets the wrapper's loadedInPast field to true. The types of
+ * the CSV's columns are inferred as part of the load, so later requests never need to, and the
+ * statistics of each column are gathered while it is parsed, for /profile and the query planner.
+ *
+ * <p>With the optional name parameter, the CSV is instead stored under that name in a Datasets
+ * object, for /join, and the CSV used by /viewcsv and /searchcsv is left as it was.
+ *
+ * <p>With preencode=true, every row of the CSV is also encoded as Json while it is loaded, so that
+ * /viewcsv and /searchcsv responses copy the rows' bytes rather than serializing each cell again.
  *
  * @author sarahridley juliazdzilowska prlakshm
  * @version 2.0
  */
 public class LoadCsvHandler implements Route {
   private final CsvDataWrapper csvData;
+  private final WorkerPool workers;
+  private final Datasets datasets;
 
   /**
-   * The constructor for the LoadCsvHandler class.
+   * The constructor for the LoadCsvHandler class, which parses CSV files on the request thread.
    *
    * @param csvData a CsvDataWrapper object, with fields csvData, representing rows of loaded CSV
    *     data, and loadedInPast, a boolean representing whether a CSV has been loaded
    */
   public LoadCsvHandler(CsvDataWrapper csvData) {
+    this(csvData, WorkerPool.inline());
+  }
+
+  /**
+   * The constructor for the LoadCsvHandler class, which parses CSV files on the given WorkerPool.
+   *
+   * @param csvData a CsvDataWrapper object, with fields csvData, representing rows of loaded CSV
+   *     data, and loadedInPast, a boolean representing whether a CSV has been loaded
+   * @param workers the WorkerPool that CSV parsing runs on
+   */
+  public LoadCsvHandler(CsvDataWrapper csvData, WorkerPool workers) {
+    this(csvData, workers, new Datasets());
+  }
+
+  /**
+   * The constructor for the LoadCsvHandler class, which parses CSV files on the given WorkerPool
+   * and stores CSVs loaded with a name in the given Datasets.
+   *
+   * @param csvData a CsvDataWrapper object, with fields csvData, representing rows of loaded CSV
+   *     data, and loadedInPast, a boolean representing whether a CSV has been loaded
+   * @param workers the WorkerPool that CSV parsing runs on
+   * @param datasets the Datasets holding CSVs loaded under a name
+   */
+  public LoadCsvHandler(CsvDataWrapper csvData, WorkerPool workers, Datasets datasets) {
     this.csvData = csvData;
+    this.workers = workers;
+    this.datasets = datasets;
   }
 
   /**
@@ -38,13 +74,16 @@ public class LoadCsvHandler implements Route {
    * CsvDataWrapper and its loadedInPast field is set to true. A load is only successful if the file
    * to be loaded is located in the data directory.
    *
-   * @param request the Request object passed by client, should contain request parameter filepath
+   * @param request the Request object passed by client, should contain request parameter filepath,
+   *     and optionally name or preencode
    * @param response the Response object that we do not use
    * @return response object depending on whether the file loading and parsing was successful
    */
   @Override
   public Object handle(Request request, Response response) {
     String csvFilePath = request.queryParams("filepath");
+    String name = request.queryParams("name");
+    boolean preencode = Boolean.parseBoolean(request.queryParams("preencode"));
     if (csvFilePath == null) {
       return new LoadFailureResponse(
               "error_bad_request", "Missing required parameter: filepath", "")
@@ -52,7 +91,8 @@ public class LoadCsvHandler implements Route {
     }
     try {
       // String[] paths = csvFilePath.split("/");
-      // if (!(paths[0].equals("repl") && paths[1].equals("src") && paths[2].equals("backend") && paths[4].equals("data"))) {
+      // if (!(paths[0].equals("repl") && paths[1].equals("src") && paths[2].equals("backend") &&
+      // paths[4].equals("data"))) {
       //   return new LoadFailureResponse(
       //           "error_datasource", "Filepath located in an inaccessible directory", csvFilePath)
       //       .serialize();
@@ -61,18 +101,27 @@ public class LoadCsvHandler implements Route {
       ClassLoader classLoader = getClass().getClassLoader();
       InputStream inputStream = classLoader.getResourceAsStream(csvFilePath);
 
-      //Check file in resource folder
+      // Check file in resource folder
       if (inputStream == null) {
         return new LoadFailureResponse(
                 "error_datasource", "File not found \"" + csvFilePath + "\"", csvFilePath)
-                .serialize();
+            .serialize();
       }
 
       InputStreamReader reader = new InputStreamReader(inputStream);
-      CsvParser<List<String>> parser = new CsvParser<>(reader, new ListStringFromRow());
-      parser.parseCsv();
-      List<List<String>> rows = parser.getStoreRows();
-      csvData.setData(rows);
+      CsvParser<List<String>> parser = new CsvParser<>(reader, new ListStringFromRow(), true);
+      List<List<String>> rows =
+          workers.run(
+              () -> {
+                parser.parseCsv();
+                return parser.getStoreRows();
+              });
+      TypedTable table = workers.run(() -> TypedTable.infer(rows));
+      if (name != null) {
+        datasets.put(name, rows, table, parser.getProfiler().orElseThrow());
+        return new LoadSuccessResponse("success", csvFilePath, name).serialize();
+      }
+      csvData.setData(rows, table, parser.getProfiler().orElseThrow(), preencode);
       csvData.setLoaded(true);
       return new LoadSuccessResponse(csvFilePath).serialize();
     } catch (FileNotFoundException fnfe) {
@@ -82,7 +131,6 @@ public class LoadCsvHandler implements Route {
     }
   }
 
-
   /**
    * A record representing a failed call to the /loadcsv handler, containing a result with an error
    * code, an error message with more information, and the given filepath.
@@ -105,19 +153,20 @@ public class LoadCsvHandler implements Route {
 
   /**
    * A record representing a successful call to the /loadcsv handler, containing a result of
-   * success, as well as the given filepath parameter.
+   * success, as well as the given filepath and name parameters.
    *
    * @param result the String containing "success"
    * @param filepath the String containing the filepath to the loaded file
+   * @param name the String containing the name the CSV was stored under, or null if none
    */
-  public record LoadSuccessResponse(String result, String filepath) {
+  public record LoadSuccessResponse(String result, String filepath, String name) {
     /**
      * The constructor for the LoadSuccessResponse record.
      *
      * @param filepath the String filepath parameter given
      */
     public LoadSuccessResponse(String filepath) {
-      this("success", filepath);
+      this("success", filepath, null);
     }
     /**
      * This method serializes a success response object.
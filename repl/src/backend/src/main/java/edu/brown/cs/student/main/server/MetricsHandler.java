@@ -0,0 +1,40 @@
+package edu.brown.cs.student.main.server;
+
+import edu.brown.cs.student.main.metrics.Metrics;
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * This MetricsHandler class handles a /metrics request to our server. It is constructed with the
+ * Metrics registry the server records into, and returns every metric in the Prometheus text
+ * exposition format, so the server can be scraped by Prometheus or read by a person.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class MetricsHandler implements Route {
+  private final Metrics metrics;
+
+  /**
+   * The constructor for the MetricsHandler class.
+   *
+   * @param metrics the Metrics registry to render on every request
+   */
+  public MetricsHandler(Metrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Method that handles a /metrics request to our Server, returning all recorded metrics.
+   *
+   * @param request the Request object passed by client, which needs no query parameters
+   * @param response the Response object, whose content type is set to Prometheus' text format
+   * @return the metrics in the Prometheus text exposition format
+   */
+  @Override
+  public Object handle(Request request, Response response) {
+    response.type("text/plain; version=0.0.4; charset=utf-8");
+    return metrics.scrape();
+  }
+}
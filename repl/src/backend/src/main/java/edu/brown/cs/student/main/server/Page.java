@@ -0,0 +1,16 @@
+package edu.brown.cs.student.main.server;
+
+/**
+ * A record describing one page of a paged /viewcsv or /searchcsv response: the limit and ordering
+ * it was asked for, whether more rows come after it, and the opaque cursor that asks for them.
+ *
+ * @param limit the most rows the page could hold
+ * @param orderby the String containing the column rows were ranked by, or null for file order
+ * @param order the String containing asc or desc, or null for file order
+ * @param more whether more rows come after this page
+ * @param cursor the String to pass as the cursor parameter for the next page, or null if there are
+ *     no more rows
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public record Page(int limit, String orderby, String order, boolean more, String cursor) {}
@@ -0,0 +1,111 @@
+package edu.brown.cs.student.main.server;
+
+import com.squareup.moshi.Moshi;
+import edu.brown.cs.student.main.csv.stats.ColumnProfile;
+import edu.brown.cs.student.main.csv.stats.TableProfiler;
+import java.util.List;
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * This ProfileHandler class handles a /profile request to our server. It is constructed with a
+ * CsvDataWrapper object, wrapping a List of List of String representing the CSV data. If there is
+ * data loaded in the CsvDataWrapper object, then this request returns the statistics of each of its
+ * columns: the inferred type, how many cells are empty, an estimate of the distinct values, the
+ * minimum and maximum, percentiles of numeric columns, and the most frequent values.
+ *
+ * <p>The statistics are gathered while the CSV is parsed by /loadcsv, so this request does not read
+ * the rows again.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class ProfileHandler implements Route {
+  private final CsvDataWrapper csvData;
+
+  /**
+   * The constructor for the ProfileHandler class.
+   *
+   * @param csvData a CsvDataWrapper object wrapping a List of List of String of CSV data and a
+   *     boolean representing whether a CSV file has been loaded
+   */
+  public ProfileHandler(CsvDataWrapper csvData) {
+    this.csvData = csvData;
+  }
+
+  /**
+   * Method that handles a /profile request to our Server. Given a request and response, returns a
+   * failure or success response object. If successful, the response object contains the statistics
+   * of every column of the loaded CSV data.
+   *
+   * @param request the Request object passed by client, should contain request parameter headers
+   * @param response the Response object that we do not use
+   * @return response object depending on whether the profile was successful, and the statistics
+   */
+  @Override
+  public Object handle(Request request, Response response) {
+    if (csvData.getData().isEmpty()) {
+      if (!csvData.getLoaded()) {
+        return new ProfileFailureResponse("error_not_loaded", "CSV file not loaded").serialize();
+      }
+    }
+    String hasHeaders = request.queryParams("headers");
+    if (hasHeaders == null) {
+      return new ProfileFailureResponse("error_bad_request", "Required parameter missing: headers")
+          .serialize();
+    }
+    boolean headers = Boolean.parseBoolean(hasHeaders);
+    TableProfiler profiler = csvData.getProfiler();
+    return new ProfileSuccessResponse(
+            "success", hasHeaders, profiler.rowCount(headers), profiler.profile(headers))
+        .serialize();
+  }
+
+  /**
+   * A record representing a failed call to the /profile handler, containing a result with an error
+   * code and an error message with more information.
+   *
+   * @param result the String containing an error code
+   * @param error_message the String containing a more specific error message
+   */
+  public record ProfileFailureResponse(String result, String error_message) {
+    /**
+     * This method serializes a failure response object.
+     *
+     * @return this failure response object, serialized as Json
+     */
+    String serialize() {
+      Moshi moshi = new Moshi.Builder().build();
+      return moshi.adapter(ProfileFailureResponse.class).toJson(this);
+    }
+  }
+
+  /**
+   * A record representing a successful call to the /profile handler, containing a result of
+   * success, the headers parameter, the number of rows profiled, and the statistics of each column.
+   *
+   * @param result the String containing "success"
+   * @param headers the String containing the query parameter headers, a boolean representing
+   *     whether the CSV data has headers
+   * @param rows the number of rows profiled, not counting a header
+   * @param columns the List of ColumnProfile containing the statistics of each column, in order
+   */
+  public record ProfileSuccessResponse(
+      String result, String headers, long rows, List<ColumnProfile> columns) {
+
+    /**
+     * This method serializes a success response object.
+     *
+     * @return this success response object, serialized as Json
+     */
+    String serialize() {
+      SerializeEvent event = new SerializeEvent("profile");
+      event.begin();
+      Moshi moshi = new Moshi.Builder().build();
+      String json = moshi.adapter(ProfileSuccessResponse.class).toJson(this);
+      event.commit(json);
+      return json;
+    }
+  }
+}
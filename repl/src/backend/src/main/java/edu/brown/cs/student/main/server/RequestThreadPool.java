@@ -0,0 +1,179 @@
+package edu.brown.cs.student.main.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+/**
+ * This RequestThreadPool class is a Jetty ThreadPool that runs every request on its own thread,
+ * instead of queueing requests behind the fixed number of threads in Spark's default pool. This
+ * means a handler that blocks for a long time (a large /loadcsv, or a /broadband call waiting on
+ * the census API) cannot starve quick requests such as /searchcsv.
+ *
+ * <p>When the running JVM supports virtual threads, each request gets a virtual thread. Otherwise,
+ * the pool falls back to an unbounded cached pool of platform threads, which gives the same
+ * thread-per-request behavior at a higher cost per thread.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class RequestThreadPool extends AbstractLifeCycle implements ThreadPool {
+  private final Supplier<ExecutorService> executorFactory;
+  private final AtomicInteger activeThreads;
+  private volatile ExecutorService executor;
+
+  /**
+   * The constructor for the RequestThreadPool class.
+   *
+   * @param executorFactory a Supplier creating the ExecutorService requests run on, called every
+   *     time the pool is started by Jetty
+   */
+  public RequestThreadPool(Supplier<ExecutorService> executorFactory) {
+    this.executorFactory = executorFactory;
+    this.activeThreads = new AtomicInteger();
+    this.executor = executorFactory.get();
+  }
+
+  /**
+   * Creates a RequestThreadPool with one thread per request, using virtual threads when the JVM
+   * supports them and cached platform threads otherwise.
+   *
+   * @return a thread-per-request RequestThreadPool
+   */
+  public static RequestThreadPool perRequest() {
+    return new RequestThreadPool(RequestThreadPool::newPerTaskExecutor);
+  }
+
+  /**
+   * Returns whether the running JVM can create virtual threads, in which case perRequest() will use
+   * them.
+   *
+   * @return true if virtual threads are available
+   */
+  public static boolean virtualThreadsAvailable() {
+    return virtualThreadFactory() != null;
+  }
+
+  /**
+   * Creates an ExecutorService that starts a new thread for every task. Virtual threads are looked
+   * up reflectively so that this class still compiles and runs on JDKs without them.
+   *
+   * @return an ExecutorService starting one thread per submitted task
+   */
+  private static ExecutorService newPerTaskExecutor() {
+    Method factory = virtualThreadFactory();
+    if (factory != null) {
+      try {
+        return (ExecutorService) factory.invoke(null);
+      } catch (ReflectiveOperationException e) {
+        // fall through to platform threads
+      }
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadFactory threadFactory =
+        runnable -> {
+          Thread thread = new Thread(runnable, "request-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        };
+    return Executors.newCachedThreadPool(threadFactory);
+  }
+
+  /**
+   * Finds Executors.newVirtualThreadPerTaskExecutor() if this JVM has it.
+   *
+   * @return the factory method, or null if virtual threads are not supported
+   */
+  private static Method virtualThreadFactory() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Runs the given task on its own thread, keeping count of how many tasks are currently running.
+   *
+   * @param task the Runnable submitted by Jetty
+   */
+  @Override
+  public void execute(Runnable task) {
+    executor.execute(
+        () -> {
+          activeThreads.incrementAndGet();
+          try {
+            task.run();
+          } finally {
+            activeThreads.decrementAndGet();
+          }
+        });
+  }
+
+  /**
+   * Called by Jetty when the server starts; replaces the executor if a previous stop shut it down.
+   */
+  @Override
+  protected void doStart() {
+    if (executor.isShutdown()) {
+      executor = executorFactory.get();
+    }
+  }
+
+  /** Called by Jetty when the server stops; stops accepting tasks and interrupts running ones. */
+  @Override
+  protected void doStop() throws InterruptedException {
+    executor.shutdown();
+    if (!executor.awaitTermination(getStopTimeout(), TimeUnit.MILLISECONDS)) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Blocks until the pool has been stopped and all running tasks have finished.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  @Override
+  public void join() throws InterruptedException {
+    while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+      // keep waiting until the executor terminates
+    }
+  }
+
+  /**
+   * Returns the number of threads currently running a task.
+   *
+   * @return the number of busy threads
+   */
+  @Override
+  public int getThreads() {
+    return activeThreads.get();
+  }
+
+  /**
+   * A thread-per-request pool never keeps idle threads around for Jetty to reuse.
+   *
+   * @return always 0
+   */
+  @Override
+  public int getIdleThreads() {
+    return 0;
+  }
+
+  /**
+   * A thread-per-request pool never runs out of threads.
+   *
+   * @return always false
+   */
+  @Override
+  public boolean isLowOnThreads() {
+    return false;
+  }
+}
@@ -0,0 +1,228 @@
+package edu.brown.cs.student.main.server;
+
+import com.squareup.moshi.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import okio.BufferedSink;
+import okio.ByteString;
+import okio.Okio;
+import spark.Request;
+import spark.Response;
+
+/**
+ * This RowFormat enum lists the formats /viewcsv and /searchcsv can send rows in, chosen with the
+ * format query parameter. JSON, the default, is the usual response object with a data array. The
+ * other formats hold only the rows, and are written straight to the response, through its
+ * Compression, rather than built in memory first:
+ *
+ * <ul>
+ *   <li>NDJSON writes each row as a Json array on its own line, so a client can handle rows as they
+ *       arrive.
+ *   <li>CSV writes each row as a line of CSV, quoting cells that hold commas, quotes or line breaks
+ *       and doubling their quotes, with lines ending in CRLF.
+ *   <li>BINARY writes the rows a column at a time, each column as a dictionary of its distinct
+ *       values and one code per row into it, which for the repetitive columns of most CSVs is a
+ *       fraction of the size of the Json.
+ * </ul>
+ *
+ * <p>The binary format is little-endian, for DataView in the frontend, and every string and list in
+ * it is prefixed with its length:
+ *
+ * <pre>
+ * "RPLC" magic, u8 version (1), u32 row count, u32 column count
+ * for each column:
+ *   u32 dictionary size, then for each value: u32 UTF-8 byte length, UTF-8 bytes
+ *   u8 code width (1, 2 or 4), then one code per row of that many bytes
+ * </pre>
+ *
+ * <p>A code is the index of the row's cell in the column's dictionary, and a code equal to the
+ * dictionary size means the row is too short to have a cell in that column. The column count is the
+ * length of the longest row. src/frontend/types/ColumnarRows.ts decodes it.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public enum RowFormat {
+  JSON("json", "application/json"),
+  NDJSON("ndjson", "application/x-ndjson"),
+  CSV("csv", "text/csv; charset=utf-8"),
+  BINARY("binary", "application/octet-stream");
+
+  /** The version of the binary format written after its magic. */
+  public static final int BINARY_VERSION = 1;
+
+  private static final ByteString MAGIC = ByteString.encodeUtf8("RPLC");
+
+  private final String param;
+  private final String contentType;
+
+  /**
+   * The constructor for a RowFormat.
+   *
+   * @param param the value of the format query parameter naming it
+   * @param contentType the Content-Type of responses in it
+   */
+  RowFormat(String param, String contentType) {
+    this.param = param;
+    this.contentType = contentType;
+  }
+
+  /**
+   * Finds the RowFormat named by a format query parameter.
+   *
+   * @param param the parameter value, or null for JSON
+   * @return the RowFormat it names
+   * @throws IllegalArgumentException if it names no format
+   */
+  public static RowFormat of(String param) {
+    if (param == null) {
+      return JSON;
+    }
+    for (RowFormat format : values()) {
+      if (format.param.equals(param)) {
+        return format;
+      }
+    }
+    throw new IllegalArgumentException(
+        "Unknown format " + param + ". Valid formats are json, ndjson, csv and binary.");
+  }
+
+  /**
+   * Returns the value of the format query parameter naming this format.
+   *
+   * @return the parameter value
+   */
+  public String param() {
+    return param;
+  }
+
+  /**
+   * Streams rows to a response in this format, through a Compression, setting its content type.
+   *
+   * @param request the Request, whose Accept-Encoding header is read
+   * @param response the Response to write to
+   * @param compression the Compression negotiating how the response is encoded
+   * @param rows the rows to write
+   * @return the empty body, since the rows have been written
+   * @throws IOException if the response cannot be written
+   */
+  public String stream(
+      Request request, Response response, Compression compression, List<List<String>> rows)
+      throws IOException {
+    response.type(contentType);
+    try (BufferedSink sink = Okio.buffer(Okio.sink(compression.open(request, response)))) {
+      write(rows, sink);
+    }
+    return "";
+  }
+
+  /**
+   * Writes rows in this format.
+   *
+   * @param rows the rows to write
+   * @param sink the BufferedSink to write them to
+   * @throws IOException if the sink cannot be written
+   */
+  public void write(List<List<String>> rows, BufferedSink sink) throws IOException {
+    switch (this) {
+      case JSON -> throw new IllegalStateException("JSON responses are serialized by handlers");
+      case NDJSON -> writeNdjson(rows, sink);
+      case CSV -> writeCsv(rows, sink);
+      case BINARY -> writeBinary(rows, sink);
+    }
+  }
+
+  /**
+   * Writes each row as a Json array followed by a newline.
+   *
+   * @param rows the rows to write
+   * @param sink the BufferedSink to write them to
+   * @throws IOException if the sink cannot be written
+   */
+  private static void writeNdjson(List<List<String>> rows, BufferedSink sink) throws IOException {
+    for (List<String> row : rows) {
+      JsonWriter writer = JsonWriter.of(sink);
+      writer.beginArray();
+      for (String cell : row) {
+        writer.value(cell);
+      }
+      writer.endArray();
+      // Flushing the writer only moves its output into the sink's buffer
+      writer.flush();
+      sink.writeByte('\n');
+    }
+  }
+
+  /**
+   * Writes each row as a line of CSV.
+   *
+   * @param rows the rows to write
+   * @param sink the BufferedSink to write them to
+   * @throws IOException if the sink cannot be written
+   */
+  private static void writeCsv(List<List<String>> rows, BufferedSink sink) throws IOException {
+    for (List<String> row : rows) {
+      for (int i = 0; i < row.size(); i++) {
+        if (i > 0) {
+          sink.writeByte(',');
+        }
+        String cell = row.get(i);
+        if (cell.indexOf(',') >= 0
+            || cell.indexOf('"') >= 0
+            || cell.indexOf('\n') >= 0
+            || cell.indexOf('\r') >= 0) {
+          sink.writeByte('"').writeUtf8(cell.replace("\"", "\"\"")).writeByte('"');
+        } else {
+          sink.writeUtf8(cell);
+        }
+      }
+      sink.writeUtf8("\r\n");
+    }
+  }
+
+  /**
+   * Writes the rows in the binary columnar format, one column at a time, so only one column's
+   * dictionary is held at once.
+   *
+   * @param rows the rows to write
+   * @param sink the BufferedSink to write them to
+   * @throws IOException if the sink cannot be written
+   */
+  private static void writeBinary(List<List<String>> rows, BufferedSink sink) throws IOException {
+    int columns = 0;
+    for (List<String> row : rows) {
+      columns = Math.max(columns, row.size());
+    }
+    sink.write(MAGIC).writeByte(BINARY_VERSION).writeIntLe(rows.size()).writeIntLe(columns);
+    for (int col = 0; col < columns; col++) {
+      Map<String, Integer> codes = new HashMap<>();
+      List<String> dictionary = new ArrayList<>();
+      for (List<String> row : rows) {
+        if (col < row.size() && !codes.containsKey(row.get(col))) {
+          codes.put(row.get(col), dictionary.size());
+          dictionary.add(row.get(col));
+        }
+      }
+      sink.writeIntLe(dictionary.size());
+      for (String value : dictionary) {
+        ByteString bytes = ByteString.encodeUtf8(value);
+        sink.writeIntLe(bytes.size()).write(bytes);
+      }
+      // The dictionary size itself is the code of a missing cell, so it must fit too
+      int missing = dictionary.size();
+      int width = missing < 1 << 8 ? 1 : missing < 1 << 16 ? 2 : 4;
+      sink.writeByte(width);
+      for (List<String> row : rows) {
+        int code = col < row.size() ? codes.get(row.get(col)) : missing;
+        switch (width) {
+          case 1 -> sink.writeByte(code);
+          case 2 -> sink.writeShortLe(code);
+          default -> sink.writeIntLe(code);
+        }
+      }
+    }
+  }
+}
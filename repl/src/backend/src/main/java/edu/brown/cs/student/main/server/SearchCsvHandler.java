@@ -1,8 +1,22 @@
 package edu.brown.cs.student.main.server;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.squareup.moshi.Moshi;
 import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.MatchMode;
+import edu.brown.cs.student.main.csv.search.PageRequest;
+import edu.brown.cs.student.main.csv.search.QueryPlan;
+import edu.brown.cs.student.main.csv.search.Range;
+import edu.brown.cs.student.main.csv.search.SearchException;
+import edu.brown.cs.student.main.csv.search.SearchMatches;
+import edu.brown.cs.student.main.csv.search.SearchPage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 import spark.Request;
 import spark.Response;
 import spark.Route;
@@ -13,21 +27,212 @@ import spark.Route;
  * data loaded in the CsvDataWrapper object, then this request searches that CSV data with the given
  * query parameters and returns the rows matching the query.
  *
+ * <p>By default, rows are matched by exact value. The optional op parameter instead compares a
+ * numeric or date column with value: gt, gte, lt and lte, or between value and the to parameter,
+ * inclusive. Comparisons are answered from the column's sorted index rather than a full scan.
+ *
+ * <p>The optional mode parameter loosens exact matches: ci ignores case, prefix matches cells
+ * starting with value, and contains matches cells containing it, all ignoring case. With
+ * mode=regex, value is a java.util.regex pattern found anywhere in a cell. These searches check
+ * only the rows a trigram index says could match, and regex searches that run past
+ * CsvSearcher.REGEX_BUDGET_MILLIS are stopped with an error.
+ *
+ * <p>The optional fuzzy parameter, a number of edits from 0 to 3, also matches cells that are
+ * misspelled by up to that many inserted, deleted or substituted characters, ignoring case. Rows
+ * come back closest first, and are found from a BK-tree of each column's distinct values.
+ *
+ * <p>Instead of value, a query parameter can combine comparisons with AND, OR and NOT, such as
+ * Year>=2020 AND (Race="Asian" OR Race="Black"). The query is planned from the sizes of the column
+ * indexes before it runs, and with explain=true the plan is returned instead of the rows.
+ *
+ * <p>The optional limit parameter returns at most that many rows, and orderby ranks them by a
+ * column first, in the order given by order (asc, the default, or desc) and the way /sortcsv sorts
+ * it. Without orderby the search stops as soon as the page is full; with it only the best rows are
+ * kept as every match is found. Fuzzy searches cannot be paged.
+ *
+ * <p>If more rows match, the response's page says so with more, and gives an opaque cursor. A
+ * request with only the cursor parameter returns the next page: the cursor stands for the search's
+ * parameters, its planned query, the version of the data it searched and the last row returned, all
+ * kept by the handler in Cursors, so the next page continues after that row rather than searching
+ * from the start. A planned query, a range search and a search with a mode keep the rows they
+ * matched, so their next pages only read the rows after the previous page rather than searching
+ * again. Cursors expire after Cursors.DEFAULT_TTL_MINUTES, and are kept up to
+ * Cursors.DEFAULT_MAX_BYTES, weighed by the rows they keep. A cursor from before the data was
+ * loaded again is an error, and the first search after a load forgets them all.
+ *
+ * <p>A handler constructed with a cache size keeps the UTF-8 bytes of successful responses in a
+ * cache bounded by that many bytes, keyed by the version of the loaded data and the search
+ * parameters, so repeated searches are answered without searching or serializing again. Loading new
+ * data empties the cache.
+ *
+ * <p>If the CSV was loaded with preencode=true, the rows of successful responses are copied from
+ * their Json encoded at load time by EncodedRows, rather than serialized again.
+ *
+ * <p>Successful responses that are not pages are tagged with an ETag of the data's version and
+ * content hash, and a request sending that tag in If-None-Match gets a 304 instead. The 304 is
+ * answered straight from the cache for a search that is cached, and otherwise once the search has
+ * checked its parameters and run, but before its response is serialized, so an invalid search still
+ * gets its error.
+ *
+ * <p>With the format parameter, the rows found are instead streamed as NDJSON, CSV or the binary
+ * columnar format described by RowFormat, through the handler's Compression. Those formats hold
+ * only the rows, so they cannot be paged or explained, and they are not cached. Errors are still
+ * sent as Json.
+ *
  * @author sarahridley juliazdzilowska prlakshm
  * @version 2.0
  */
 public class SearchCsvHandler implements Route {
+  /** How many rows a page holds if orderby or order is given without a limit. */
+  public static final int DEFAULT_LIMIT = 100;
 
   private final CsvDataWrapper csvData;
+  private final WorkerPool workers;
+  private final Compression compression;
+  private final Optional<Cache<SearchKey, byte[]>> cache;
+  private final Cursors<SearchCursor> cursors = new Cursors<>(SearchCursor::estimatedBytes);
+  private volatile long cachedVersion;
+  private volatile long cursorVersion;
+
+  /**
+   * A record representing the parameters of a search that determine its response, along with the
+   * version of the data it searched. Parameters a search does not read are not part of it, and
+   * neither is their order in the request.
+   *
+   * @param version the version of the loaded data
+   * @param headers the headers parameter
+   * @param value the value parameter
+   * @param colid the colid parameter
+   * @param op the op parameter
+   * @param to the to parameter
+   * @param mode the mode parameter
+   * @param fuzzy the fuzzy parameter
+   * @param query the query parameter
+   * @param explain the explain parameter
+   * @param limit the limit parameter
+   * @param orderby the orderby parameter
+   * @param order the order parameter
+   */
+  private record SearchKey(
+      long version,
+      String headers,
+      String value,
+      String colid,
+      String op,
+      String to,
+      String mode,
+      String fuzzy,
+      String query,
+      String explain,
+      String limit,
+      String orderby,
+      String order) {
+
+    /**
+     * Estimates the heap this key takes up as a cache key, in bytes.
+     *
+     * @return the estimated size in bytes
+     */
+    int estimatedBytes() {
+      int bytes = 64;
+      for (String param :
+          new String[] {
+            headers, value, colid, op, to, mode, fuzzy, query, explain, limit, orderby, order
+          }) {
+        bytes += param == null ? 0 : 40 + param.length();
+      }
+      return bytes;
+    }
+  }
+
+  /**
+   * A record representing the state a cursor continues a paged search from.
+   *
+   * @param key the SearchKey of the search's parameters, including the version of the data
+   * @param next the PageRequest of the next page, continuing after the last row returned
+   * @param plan the QueryPlan of a compound query, so it is not planned again, or null
+   * @param matches the SearchMatches of a range search or a search with a mode other than exact, so
+   *     the rows it matched are not found again, or null
+   */
+  private record SearchCursor(
+      SearchKey key, PageRequest next, QueryPlan plan, SearchMatches matches) {
+
+    /**
+     * Estimates the heap this state takes up as kept by Cursors, in bytes, counting the rows kept
+     * by its plan or matches, which are shared by the cursors of every page of one search.
+     *
+     * @return the estimated size in bytes
+     */
+    long estimatedBytes() {
+      return key.estimatedBytes()
+          + 128
+          + (plan == null ? 0 : plan.estimatedBytes())
+          + (matches == null ? 0 : matches.estimatedBytes());
+    }
+  }
 
   /**
-   * The constructor for the SearchCsvHandler class.
+   * The constructor for the SearchCsvHandler class, which searches on the request thread.
    *
    * @param csvData a CsvDataWrapper object wrapping a List of List of String of CSV data and a
    *     boolean representing whether a CSV file has been loaded
    */
   public SearchCsvHandler(CsvDataWrapper csvData) {
+    this(csvData, WorkerPool.inline());
+  }
+
+  /**
+   * The constructor for the SearchCsvHandler class, which searches on the given WorkerPool.
+   *
+   * @param csvData a CsvDataWrapper object wrapping a List of List of String of CSV data and a
+   *     boolean representing whether a CSV file has been loaded
+   * @param workers the WorkerPool that row scanning runs on
+   */
+  public SearchCsvHandler(CsvDataWrapper csvData, WorkerPool workers) {
+    this(csvData, workers, 0);
+  }
+
+  /**
+   * The constructor for the SearchCsvHandler class, which searches on the given WorkerPool and
+   * caches successful responses.
+   *
+   * @param csvData a CsvDataWrapper object wrapping a List of List of String of CSV data and a
+   *     boolean representing whether a CSV file has been loaded
+   * @param workers the WorkerPool that row scanning runs on
+   * @param cacheBytes the most bytes of responses and keys to cache, or 0 for no cache
+   */
+  public SearchCsvHandler(CsvDataWrapper csvData, WorkerPool workers, long cacheBytes) {
+    this(csvData, workers, cacheBytes, new Compression());
+  }
+
+  /**
+   * The constructor for the SearchCsvHandler class, which searches on the given WorkerPool, caches
+   * successful responses and streams rows in formats other than Json through the given Compression.
+   *
+   * @param csvData a CsvDataWrapper object wrapping a List of List of String of CSV data and a
+   *     boolean representing whether a CSV file has been loaded
+   * @param workers the WorkerPool that row scanning runs on
+   * @param cacheBytes the most bytes of responses and keys to cache, or 0 for no cache
+   * @param compression the Compression negotiating how streamed responses are encoded
+   */
+  public SearchCsvHandler(
+      CsvDataWrapper csvData, WorkerPool workers, long cacheBytes, Compression compression) {
     this.csvData = csvData;
+    this.workers = workers;
+    this.compression = compression;
+    this.cachedVersion = csvData.getVersion();
+    this.cursorVersion = cachedVersion;
+    if (cacheBytes <= 0) {
+      this.cache = Optional.empty();
+    } else {
+      Cache<SearchKey, byte[]> responses =
+          CacheBuilder.newBuilder()
+              .maximumWeight(cacheBytes)
+              .<SearchKey, byte[]>weigher((key, bytes) -> key.estimatedBytes() + 16 + bytes.length)
+              .recordStats()
+              .build();
+      this.cache = Optional.of(responses);
+    }
   }
 
   /**
@@ -36,21 +241,130 @@ public class SearchCsvHandler implements Route {
    * data that were found to match the query parameters passed.
    *
    * @param request the Request object passed by client, should contain request parameters headers,
-   *     value, and optionally colid
-   * @param response the Response object that we do not use
+   *     and either value, and optionally colid, mode, fuzzy, op and to, or query and optionally
+   *     explain, and optionally limit, orderby and order, or format, or only cursor
+   * @param response the Response object that is tagged with an ETag, or answered with a 304, and
+   *     that rows in formats other than Json are streamed into
    * @return response object depending on whether the search was successful, and data found
    */
   @Override
   public Object handle(Request request, Response response) {
-    if (csvData.getData().isEmpty()) {
+    // The rows searched, their ETag and their Json are all read from the same load
+    CsvDataWrapper.Snapshot snapshot = csvData.getSnapshot();
+    if (snapshot.rows().isEmpty()) {
       if (!csvData.getLoaded()) {
         return new SearchFailureResponse("error_not_loaded", "CSV file not loaded").serialize();
       }
     }
-    String hasHeaders = request.queryParams("headers");
-    String value = request.queryParams("value");
-    String origColId = request.queryParams("colid");
+    if (snapshot.version() != cursorVersion) {
+      // Cursors from before a load can never be used again, and would keep its rows reachable
+      cursorVersion = snapshot.version();
+      cursors.clear();
+    }
+    String cursor = request.queryParams("cursor");
+    RowFormat format;
+    try {
+      format = RowFormat.of(request.queryParams("format"));
+    } catch (IllegalArgumentException e) {
+      return new SearchFailureResponse("error_bad_request", e.getMessage()).serialize();
+    }
+    if (format != RowFormat.JSON
+        && (cursor != null
+            || request.queryParams("limit") != null
+            || request.queryParams("orderby") != null
+            || request.queryParams("order") != null
+            || Boolean.parseBoolean(request.queryParams("explain")))) {
+      return new SearchFailureResponse(
+              "error_bad_request",
+              "The format parameter cannot be combined with limit, orderby, order, cursor or"
+                  + " explain")
+          .serialize();
+    }
+    SearchKey key;
+    PageRequest page;
+    QueryPlan plan = null;
+    SearchMatches matched;
+    if (cursor != null) {
+      Optional<SearchCursor> state = cursors.get(cursor);
+      if (state.isEmpty()) {
+        return new SearchFailureResponse(
+                "error_bad_request",
+                "Cursor " + cursor + " is not valid or has expired. Search again from the start.")
+            .serialize();
+      } else if (state.get().key().version() != snapshot.version()) {
+        return new SearchFailureResponse(
+                "error_bad_request",
+                "Cursor "
+                    + cursor
+                    + " is from a CSV that has since been loaded again. Search again from the start.")
+            .serialize();
+      }
+      key = state.get().key();
+      page = state.get().next();
+      plan = state.get().plan();
+      matched = state.get().matches();
+    } else {
+      matched = null;
+      key =
+          new SearchKey(
+              snapshot.version(),
+              request.queryParams("headers"),
+              request.queryParams("value"),
+              request.queryParams("colid"),
+              request.queryParams("op"),
+              request.queryParams("to"),
+              request.queryParams("mode"),
+              request.queryParams("fuzzy"),
+              request.queryParams("query"),
+              request.queryParams("explain"),
+              request.queryParams("limit"),
+              request.queryParams("orderby"),
+              request.queryParams("order"));
+      // Only Json responses are cached, so the format is not part of the key
+      byte[] cached = format == RowFormat.JSON ? lookup(key) : null;
+      if (cached != null) {
+        // Only successful searches are cached, so their parameters have already been checked
+        String etag = etag(snapshot);
+        if (ETags.matches(request, etag)) {
+          return ETags.notModified(response, etag);
+        }
+        ETags.tag(response, etag);
+        return cached;
+      }
+      try {
+        page = pageRequest(key.limit(), key.orderby(), key.order());
+      } catch (SearchException e) {
+        return new SearchFailureResponse("error_bad_request", e.getMessage()).serialize();
+      }
+    }
+    Optional<EncodedRows> encoded = snapshot.encodedRows();
+    String hasHeaders = key.headers();
+    String value = key.value();
+    String origColId = key.colid();
+    String op = key.op();
+    String to = key.to();
+    String modeParam = key.mode();
+    String fuzzyParam = key.fuzzy();
+    String query = key.query();
+    String explain = key.explain();
     String colId = origColId;
+    if (query != null) {
+      if (hasHeaders == null) {
+        return new SearchFailureResponse("error_bad_request", "Required parameter missing: headers")
+            .serialize();
+      }
+      return handleQuery(
+          request,
+          response,
+          snapshot,
+          key,
+          format,
+          query,
+          hasHeaders,
+          Boolean.parseBoolean(explain),
+          page,
+          plan);
+    }
     if (value == null) {
       if (hasHeaders == null) {
         return new SearchFailureResponse(
@@ -68,14 +382,354 @@ public class SearchCsvHandler implements Route {
       colId = "*";
     }
     try {
-      CsvSearcher searcher = new CsvSearcher(csvData.getData());
-      List<List<String>> rows = searcher.search(Boolean.parseBoolean(hasHeaders), value, colId);
-      return new SearchSuccessResponse(value, hasHeaders, origColId, rows).serialize();
+      CsvSearcher searcher = snapshot.searcher();
+      String searchColId = colId;
+      boolean headers = Boolean.parseBoolean(hasHeaders);
+      MatchMode mode = MatchMode.of(modeParam);
+      if (fuzzyParam != null) {
+        if (op != null || modeParam != null || page != null) {
+          return new SearchFailureResponse(
+                  "error_bad_request",
+                  "The fuzzy parameter cannot be combined with op, mode, limit, orderby or order")
+              .serialize();
+        }
+        int fuzzy;
+        try {
+          fuzzy = Integer.parseInt(fuzzyParam);
+        } catch (NumberFormatException e) {
+          return new SearchFailureResponse(
+                  "error_bad_request",
+                  "The fuzzy parameter must be a number of edits: " + fuzzyParam)
+              .serialize();
+        }
+        List<List<String>> rows =
+            workers.run(() -> searcher.searchFuzzy(headers, value, searchColId, fuzzy));
+        return respond(
+            request,
+            response,
+            snapshot,
+            key,
+            format,
+            rows,
+            () ->
+                new SearchSuccessResponse(
+                        "success",
+                        value,
+                        hasHeaders,
+                        origColId,
+                        null,
+                        null,
+                        null,
+                        fuzzy,
+                        null,
+                        rows)
+                    .serialize(encoded));
+      }
+      if (op != null && !op.equals("eq")) {
+        if (mode != MatchMode.EXACT) {
+          return new SearchFailureResponse(
+                  "error_bad_request", "The mode parameter cannot be combined with op " + op)
+              .serialize();
+        }
+        Range range = Range.of(op, value, to);
+        if (page != null) {
+          // The rows in the range are found once, and later pages read theirs from the cursor
+          SearchMatches matches =
+              matched != null
+                  ? matched
+                  : workers.run(() -> searcher.matchRange(headers, range, searchColId));
+          SearchPage found = workers.run(() -> searcher.execute(matches, page));
+          return new SearchSuccessResponse(
+                  "success",
+                  value,
+                  hasHeaders,
+                  origColId,
+                  op,
+                  to,
+                  null,
+                  null,
+                  page(key, page, found, null, matches),
+                  found.rows())
+              .serialize(encoded);
+        }
+        List<List<String>> rows =
+            workers.run(() -> searcher.searchRange(headers, range, searchColId));
+        return respond(
+            request,
+            response,
+            snapshot,
+            key,
+            format,
+            rows,
+            () ->
+                new SearchSuccessResponse(value, hasHeaders, origColId, op, to, rows)
+                    .serialize(encoded));
+      }
+      String modeName = mode == MatchMode.EXACT ? null : mode.param();
+      if (page != null) {
+        SearchPage found;
+        SearchMatches matches = matched;
+        if (matches != null) {
+          found = workers.run(() -> searcher.execute(matched, page));
+        } else {
+          // The first page stops once it is full, and only a cursor finds every matching row
+          found = workers.run(() -> searcher.search(headers, value, searchColId, mode, page));
+          if (found.more() && mode != MatchMode.EXACT) {
+            matches = searcher.match(headers, value, searchColId, mode);
+          }
+        }
+        return new SearchSuccessResponse(
+                "success",
+                value,
+                hasHeaders,
+                origColId,
+                null,
+                null,
+                modeName,
+                null,
+                page(key, page, found, null, matches),
+                found.rows())
+            .serialize(encoded);
+      }
+      List<List<String>> rows =
+          workers.run(() -> searcher.search(headers, value, searchColId, mode));
+      return respond(
+          request,
+          response,
+          snapshot,
+          key,
+          format,
+          rows,
+          () ->
+              new SearchSuccessResponse(
+                      "success",
+                      value,
+                      hasHeaders,
+                      origColId,
+                      null,
+                      null,
+                      modeName,
+                      null,
+                      null,
+                      rows)
+                  .serialize(encoded));
+    } catch (Exception e) {
+      return new SearchFailureResponse("error_bad_request", e.getMessage()).serialize();
+    }
+  }
+
+  /**
+   * Plans a compound query over the loaded CSV data, and either runs it or explains the plan.
+   *
+   * @param request the Request, whose If-None-Match and Accept-Encoding headers are read
+   * @param response the Response to tag with an ETag if the query succeeds
+   * @param snapshot the Snapshot of the loaded data to query
+   * @param key the SearchKey to cache the response under
+   * @param format the RowFormat to send the rows in
+   * @param query the String containing the query parameter
+   * @param hasHeaders the String containing the headers parameter
+   * @param explain whether to return the plan instead of running it
+   * @param page the PageRequest saying which matching rows to return, or null for all of them
+   * @param planned the QueryPlan kept by a cursor, or null to plan the query
+   * @return the serialized response
+   */
+  private Object handleQuery(
+      Request request,
+      Response response,
+      CsvDataWrapper.Snapshot snapshot,
+      SearchKey key,
+      RowFormat format,
+      String query,
+      String hasHeaders,
+      boolean explain,
+      PageRequest page,
+      QueryPlan planned) {
+    Optional<EncodedRows> encoded = snapshot.encodedRows();
+    try {
+      CsvSearcher searcher = snapshot.searcher();
+      boolean headers = Boolean.parseBoolean(hasHeaders);
+      QueryPlan plan = planned != null ? planned : workers.run(() -> searcher.plan(headers, query));
+      if (explain) {
+        return respond(
+            request,
+            response,
+            snapshot,
+            key,
+            format,
+            List.of(),
+            () ->
+                new ExplainResponse(
+                        "success",
+                        plan.query().toString(),
+                        hasHeaders,
+                        plan.estimate(),
+                        plan.explain())
+                    .serialize());
+      }
+      if (page != null) {
+        SearchPage found = workers.run(() -> searcher.execute(plan, page));
+        return new QuerySuccessResponse(
+                "success", query, hasHeaders, page(key, page, found, plan, null), found.rows())
+            .serialize(encoded);
+      }
+      List<List<String>> rows = workers.run(() -> searcher.execute(plan));
+      return respond(
+          request,
+          response,
+          snapshot,
+          key,
+          format,
+          rows,
+          () ->
+              new QuerySuccessResponse("success", query, hasHeaders, null, rows)
+                  .serialize(encoded));
     } catch (Exception e) {
       return new SearchFailureResponse("error_bad_request", e.getMessage()).serialize();
     }
   }
 
+  /**
+   * Reads the limit, orderby and order parameters of a paged search.
+   *
+   * @param limit the limit parameter, or null
+   * @param orderBy the orderby parameter, or null
+   * @param order the order parameter, or null
+   * @return the PageRequest of the first page, or null if none of the parameters were given
+   * @throws SearchException if a parameter is not valid
+   */
+  private static PageRequest pageRequest(String limit, String orderBy, String order)
+      throws SearchException {
+    if (limit == null && orderBy == null && order == null) {
+      return null;
+    }
+    if (order != null && !order.equals("asc") && !order.equals("desc")) {
+      throw new SearchException("Order " + order + " is not valid. Valid orders are asc and desc.");
+    } else if (order != null && orderBy == null) {
+      throw new SearchException("The order parameter needs a column to order by: orderby");
+    }
+    try {
+      int count = limit == null ? DEFAULT_LIMIT : Integer.parseInt(limit.strip());
+      return new PageRequest(count, orderBy, "desc".equals(order), -1);
+    } catch (NumberFormatException e) {
+      throw new SearchException("Limit must be a whole number.");
+    }
+  }
+
+  /**
+   * Describes the page a search returned, issuing a cursor for the next page if there is one.
+   *
+   * @param key the SearchKey of the search
+   * @param request the PageRequest the search was given
+   * @param found the SearchPage the search returned
+   * @param plan the QueryPlan of a compound query, or null
+   * @param matches the SearchMatches of the search, or null
+   * @return the Page
+   */
+  private Page page(
+      SearchKey key, PageRequest request, SearchPage found, QueryPlan plan, SearchMatches matches) {
+    String order = request.orderBy() == null ? null : request.descending() ? "desc" : "asc";
+    String cursor = null;
+    if (found.more()) {
+      PageRequest next =
+          new PageRequest(request.limit(), request.orderBy(), request.descending(), found.last());
+      cursor = cursors.issue(new SearchCursor(key, next, plan, matches));
+    }
+    return new Page(request.limit(), request.orderBy(), order, found.more(), cursor);
+  }
+
+  /**
+   * Looks up the cached response to a search, first emptying the cache if new data has been loaded
+   * since it was filled.
+   *
+   * @param key the SearchKey of the search
+   * @return the UTF-8 bytes of the cached response, or null if there is none
+   */
+  private byte[] lookup(SearchKey key) {
+    if (cache.isEmpty()) {
+      return null;
+    }
+    if (key.version() != cachedVersion) {
+      cachedVersion = key.version();
+      cache.get().invalidateAll();
+    }
+    return cache.get().getIfPresent(key);
+  }
+
+  /**
+   * Caches the response to a successful search, unless the data was loaded again while it ran.
+   *
+   * @param key the SearchKey of the search
+   * @param json the serialized response, as a String or as UTF-8 bytes
+   * @return the response, as UTF-8 bytes if it is cached, and as given otherwise
+   */
+  private Object store(SearchKey key, Object json) {
+    if (cache.isEmpty() || csvData.getVersion() != key.version()) {
+      return json;
+    }
+    byte[] bytes =
+        json instanceof byte[] encoded ? encoded : ((String) json).getBytes(StandardCharsets.UTF_8);
+    cache.get().put(key, bytes);
+    return bytes;
+  }
+
+  /**
+   * Builds the ETag of responses built from one load of the data.
+   *
+   * @param snapshot the Snapshot of the loaded data
+   * @return the ETag of its version and content hash
+   */
+  private static String etag(CsvDataWrapper.Snapshot snapshot) {
+    return ETags.of(snapshot.version(), snapshot.contentHash());
+  }
+
+  /**
+   * Sends the result of a search that is not paged, once its parameters have been checked and it
+   * has run without error. A request already holding the response's ETag gets a 304 before the
+   * response is serialized. Otherwise the response is tagged, and Json responses are cached by
+   * store while rows in other formats are streamed.
+   *
+   * @param request the Request, whose If-None-Match and Accept-Encoding headers are read
+   * @param response the Response to tag, and to stream rows into
+   * @param snapshot the Snapshot of the loaded data that was searched
+   * @param key the SearchKey of the search
+   * @param format the RowFormat to send the rows in
+   * @param rows the rows found
+   * @param json serializes the Json response, only called for RowFormat.JSON
+   * @return the response, or the empty body if the rows were streamed
+   * @throws IOException if rows cannot be streamed
+   */
+  private Object respond(
+      Request request,
+      Response response,
+      CsvDataWrapper.Snapshot snapshot,
+      SearchKey key,
+      RowFormat format,
+      List<List<String>> rows,
+      Supplier<Object> json)
+      throws IOException {
+    String etag = etag(snapshot);
+    if (ETags.matches(request, etag)) {
+      return ETags.notModified(response, etag);
+    }
+    ETags.tag(response, etag);
+    if (format == RowFormat.JSON) {
+      return store(key, json.get());
+    }
+    return format.stream(request, response, compression, rows);
+  }
+
+  /**
+   * Returns the statistics of this handler's response cache.
+   *
+   * @return the CacheStats of the cache, or empty statistics if there is no cache
+   */
+  public CacheStats getCacheStats() {
+    if (cache.isPresent()) {
+      return cache.get().stats();
+    }
+    return new CacheStats(0, 0, 0, 0, 0, 0);
+  }
+
   /**
    * A record representing a failed call to the /searchcsv handler, containing a result with an
    * error code and an error message with more information.
@@ -97,7 +751,8 @@ public class SearchCsvHandler implements Route {
 
   /**
    * A record representing a successful call to the /searchcsv handler, containing a result of
-   * success, as well as the value, headers, and colid parameters, and the found CSV data.
+   * success, as well as the value, headers, colid, op, to, mode and fuzzy parameters, and the found
+   * CSV data.
    *
    * @param result the String containing "success"
    * @param value the String containing the query parameter value to be matched in the CSV data
@@ -105,13 +760,29 @@ public class SearchCsvHandler implements Route {
    *     whether the CSV data to be searched has headers
    * @param colid the String containing the numeric or non-numeric column identifier to search, or *
    *     to search every column
+   * @param op the String containing the comparison the column was searched with, or null for an
+   *     exact match
+   * @param to the String containing the upper bound of a between comparison, or null
+   * @param mode the String containing the match mode, such as contains, or null for exact matches
+   * @param fuzzy the Integer containing the most edits a match was allowed, or null if the search
+   *     was not fuzzy
+   * @param page the Page describing which matching rows data holds, or null if it holds all of them
    * @param data the List of List of String containing the matched CSV rows found
    */
   public record SearchSuccessResponse(
-      String result, String value, String headers, String colid, List<List<String>> data) {
+      String result,
+      String value,
+      String headers,
+      String colid,
+      String op,
+      String to,
+      String mode,
+      Integer fuzzy,
+      Page page,
+      List<List<String>> data) {
 
     /**
-     * The constructor for the SearchSuccessResponse class.
+     * The constructor for the SearchSuccessResponse class, for an exact match search.
      *
      * @param value the String containing the query parameter value to be matched in the CSV data
      * @param headers the String containing the query parameter headers, a boolean representing
@@ -122,7 +793,23 @@ public class SearchCsvHandler implements Route {
      */
     public SearchSuccessResponse(
         String value, String headers, String colid, List<List<String>> data) {
-      this("success", value, headers, colid, data);
+      this("success", value, headers, colid, null, null, null, null, null, data);
+    }
+
+    /**
+     * The constructor for the SearchSuccessResponse class, for a comparison search.
+     *
+     * @param value the String containing the query parameter value to compare the column with
+     * @param headers the String containing the query parameter headers, a boolean representing
+     *     whether the CSV data to be searched has headers
+     * @param colid the String containing the column identifier that was searched
+     * @param op the String containing the comparison, such as gt or between
+     * @param to the String containing the upper bound of a between comparison, or null
+     * @param data the List of List of String containing the matched CSV rows found
+     */
+    public SearchSuccessResponse(
+        String value, String headers, String colid, String op, String to, List<List<String>> data) {
+      this("success", value, headers, colid, op, to, null, null, null, data);
     }
 
     /**
@@ -130,9 +817,120 @@ public class SearchCsvHandler implements Route {
      *
      * @return this success response object, serialized as Json
      */
+    String serialize() {
+      SerializeEvent event = new SerializeEvent("searchcsv");
+      event.begin();
+      Moshi moshi = new Moshi.Builder().build();
+      String json = moshi.adapter(SearchSuccessResponse.class).toJson(this);
+      event.commit(json);
+      return json;
+    }
+
+    /**
+     * This method serializes a success response object, copying its rows from their pre-encoded
+     * Json if the loaded CSV was pre-encoded.
+     *
+     * @param encoded the EncodedRows of the loaded CSV, or empty if it was not pre-encoded
+     * @return this success response object, serialized as Json, as UTF-8 bytes if it was copied
+     */
+    Object serialize(Optional<EncodedRows> encoded) {
+      if (encoded.isEmpty()) {
+        return serialize();
+      }
+      SerializeEvent event = new SerializeEvent("searchcsv");
+      event.begin();
+      Moshi moshi = new Moshi.Builder().build();
+      SearchSuccessResponse envelope =
+          new SearchSuccessResponse(
+              result, value, headers, colid, op, to, mode, fuzzy, page, List.of());
+      byte[] json =
+          encoded.get().toJson(moshi.adapter(SearchSuccessResponse.class).toJson(envelope), data);
+      if (json == null) {
+        // The rows are from a CSV loaded before the pre-encoded one
+        return serialize();
+      }
+      event.bytes = json.length;
+      event.commit();
+      return json;
+    }
+  }
+
+  /**
+   * A record representing a successful compound query to the /searchcsv handler, containing a
+   * result of success, the query and headers parameters, and the found CSV data.
+   *
+   * @param result the String containing "success"
+   * @param query the String containing the query parameter
+   * @param headers the String containing the query parameter headers
+   * @param page the Page describing which matching rows data holds, or null if it holds all of them
+   * @param data the List of List of String containing the matched CSV rows found
+   */
+  public record QuerySuccessResponse(
+      String result, String query, String headers, Page page, List<List<String>> data) {
+    /**
+     * This method serializes a query success response object.
+     *
+     * @return this query success response object, serialized as Json
+     */
+    String serialize() {
+      SerializeEvent event = new SerializeEvent("searchcsv");
+      event.begin();
+      Moshi moshi = new Moshi.Builder().build();
+      String json = moshi.adapter(QuerySuccessResponse.class).toJson(this);
+      event.commit(json);
+      return json;
+    }
+
+    /**
+     * This method serializes a query success response object, copying its rows from their
+     * pre-encoded Json if the loaded CSV was pre-encoded.
+     *
+     * @param encoded the EncodedRows of the loaded CSV, or empty if it was not pre-encoded
+     * @return this query success response object, serialized as Json, as UTF-8 bytes if it was
+     *     copied
+     */
+    Object serialize(Optional<EncodedRows> encoded) {
+      if (encoded.isEmpty()) {
+        return serialize();
+      }
+      SerializeEvent event = new SerializeEvent("searchcsv");
+      event.begin();
+      Moshi moshi = new Moshi.Builder().build();
+      QuerySuccessResponse envelope =
+          new QuerySuccessResponse(result, query, headers, page, List.of());
+      byte[] json =
+          encoded.get().toJson(moshi.adapter(QuerySuccessResponse.class).toJson(envelope), data);
+      if (json == null) {
+        // The rows are from a CSV loaded before the pre-encoded one
+        return serialize();
+      }
+      event.bytes = json.length;
+      event.commit();
+      return json;
+    }
+  }
+
+  /**
+   * A record representing a /searchcsv request with explain=true, containing the plan chosen for a
+   * compound query instead of its results.
+   *
+   * @param result the String containing "success"
+   * @param query the String containing the planned query, with NOT pushed down to comparisons
+   * @param headers the String containing the query parameter headers
+   * @param estimate the estimated number of matching rows
+   * @param plan the List of String containing one line per step of the plan, indented under the
+   *     step that uses it
+   */
+  public record ExplainResponse(
+      String result, String query, String headers, long estimate, List<String> plan) {
+    /**
+     * This method serializes an explain response object.
+     *
+     * @return this explain response object, serialized as Json
+     */
     String serialize() {
       Moshi moshi = new Moshi.Builder().build();
-      return moshi.adapter(SearchSuccessResponse.class).toJson(this);
+      return moshi.adapter(ExplainResponse.class).toJson(this);
     }
   }
 }
@@ -0,0 +1,83 @@
+package edu.brown.cs.student.main.server;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This SerializeEvent class is a JDK Flight Recorder event committed by handlers when they
+ * serialize a response carrying CSV rows to Json, recording how long serialization took and how
+ * many UTF-8 bytes the result takes, whether it was built as a String, copied as bytes or streamed.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+@Name("edu.brown.cs.student.Serialize")
+@Label("Response Serialization")
+@Category({"REPL", "Server"})
+@Description("Serialization of a response to Json by a handler")
+@StackTrace(false)
+public class SerializeEvent extends Event {
+  @Label("Route")
+  String route;
+
+  @Label("Bytes")
+  @Description("The size of the serialized response in UTF-8, before any compression")
+  @DataAmount
+  long bytes;
+
+  /**
+   * The constructor for the SerializeEvent class.
+   *
+   * @param route the name of the route whose response is serialized
+   */
+  SerializeEvent(String route) {
+    this.route = route;
+  }
+
+  /**
+   * Commits this event for a response serialized as a String, counting its UTF-8 bytes only if
+   * Flight Recorder is recording the event.
+   *
+   * @param json the serialized response
+   */
+  void commit(String json) {
+    if (shouldCommit()) {
+      bytes = utf8Length(json);
+      commit();
+    }
+  }
+
+  /**
+   * Counts the bytes a String takes in UTF-8, the way String.getBytes encodes it, without encoding
+   * it.
+   *
+   * @param text the String
+   * @return its length in UTF-8 bytes
+   */
+  static long utf8Length(String text) {
+    long length = text.length();
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c < 0x80) {
+        continue;
+      } else if (c < 0x800) {
+        length += 1;
+      } else if (!Character.isSurrogate(c)) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < text.length()
+          && Character.isLowSurrogate(text.charAt(i + 1))) {
+        // A pair of chars is one code point of four bytes
+        length += 2;
+        i++;
+      }
+      // An unpaired surrogate is encoded as one byte, '?'
+    }
+    return length;
+  }
+}
@@ -1,80 +1,282 @@
 package edu.brown.cs.student.main.server;
 
-import static spark.Spark.after;
-
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import edu.brown.cs.student.main.metrics.Metrics;
 import edu.brown.cs.student.main.sources.AcsCensusSource;
 import edu.brown.cs.student.main.sources.CensusSource;
 import edu.brown.cs.student.main.sources.mocks.StaleMockCensusSource;
-
-import java.net.InetAddress;
-import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.concurrent.TimeUnit;
-import spark.Spark;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import spark.Route;
+import spark.Service;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
 
 /**
  * The top-level class for our Server project. Contains the main() method which starts Spark and
- * runs the various handlers for our four endpoints: /loadcsv, /viewcsv, /searchcsv, /broadband.
+ * runs the various handlers for our endpoints: /loadcsv, /viewcsv, /searchcsv, /sortcsv,
+ * /aggregate, /profile, /join and /broadband.
  *
- * <p>These four endpoints need to share state, so they share the csvData object of type
+ * <p>The CSV endpoints need to share state, so they share the csvData object of type
  * CsvDataWrapper. This wrapper allows for dependency injection, as well as defensive programming,
  * as its get method to access the actual List of List of String representing rows of CSV data
- * returns an unmodifiable copy of said data.
+ * returns an unmodifiable copy of said data. CSVs loaded with a name are kept in a shared Datasets
+ * object instead, where /join finds them.
  *
  * <p>Also allows a developer using these endpoints to create their own CacheBuilder, or pass a null
  * CacheBuilder to the constructor, to specify how they want responses from the source to be cached,
  * or for responses not to be cached at all (the null case).
  *
+ * <p>By default, requests run on Spark's bounded Jetty thread pool, whose size the requestThreads
+ * option can change. With the threadPerRequest option, every request instead runs on its own thread
+ * from a RequestThreadPool, so slow requests cannot starve fast ones, while parsing and searching
+ * are queued on a separate WorkerPool.
+ *
+ * <p>Every route is measured: before and after filters record each request's latency into the
+ * server's Metrics, along with response sizes, broadband and search cache statistics and the size
+ * of the loaded dataset, all of which are served in Prometheus format at /metrics.
+ *
+ * <p>Every route's responses also go through a shared Compression, which gzips or deflates bodies
+ * large enough to be worth it for clients that accept either. Response sizes are recorded before
+ * compression.
+ *
  * @author sarahridley juliazdzilowska prlakshm
  * @version 2.0
  */
 public class Server {
 
-  static final int port = 3232;
+  private static final String START_NANOS = "metrics.startNanos";
+
+  /** How many bytes of /searchcsv responses are cached. */
+  private static final long SEARCH_CACHE_BYTES = 32L * 1024 * 1024;
+
+  /** How many bytes of heap a /sortcsv sort may take before it is spilled to disk. */
+  private static final long SORT_MEMORY_BYTES = 64L * 1024 * 1024;
+
+  /** How many bytes of heap a /join hash table may take before it is spilled to disk. */
+  private static final long JOIN_MEMORY_BYTES = 64L * 1024 * 1024;
+
+  /**
+   * The identifier of the Jetty factory running each request on its own thread. Spark keeps
+   * factories in a static map with no way to remove them, so it is registered once for every
+   * server, and gives each server it creates a RequestThreadPool of its own.
+   */
+  private static final String PER_REQUEST_SERVER = "repl-thread-per-request";
+
+  static {
+    EmbeddedServers.add(
+        PER_REQUEST_SERVER,
+        (routes, staticFiles, exceptionMapper, hasMultipleHandler) ->
+            new EmbeddedJettyFactory()
+                .withThreadPool(RequestThreadPool.perRequest())
+                .create(routes, staticFiles, exceptionMapper, hasMultipleHandler));
+  }
+
+  private final Service http;
+  private final WorkerPool workers;
+  private final Metrics metrics;
+  private final Compression compression;
+
+  /** The constructor for the Server class, starting a server with the default ServerOptions. */
+  public Server() {
+    this(ServerOptions.defaults(), new AcsCensusSource());
+  }
 
   /**
    * The constructor for the Server class.
    *
+   * @param options the ServerOptions specifying the port and threading of this server
    * @param source the CensusSource object representing the source to get broadband data from
-   * @param cacheBuilder the CacheBuilder object representing null, to specify no cache, or a
-   *     CacheBuilder object specifying how requests should be cached
    */
-  public Server() {
-    // CensusSource source = new AcsCensusSource(); 
-    // CacheBuilder cacheBuilder = new CacheBuilder(); 
-    // newBuilder().maximumSize(1000).expireAfterWrite(10, TimeUnit.MINUTES); 
+  public Server(ServerOptions options, CensusSource source) {
     CsvDataWrapper csvData = new CsvDataWrapper(new ArrayList<>(), false);
+    Datasets datasets = new Datasets();
+    this.workers = new WorkerPool(options.workerThreads());
+    this.metrics = new Metrics();
+    this.compression = new Compression();
+    this.http = Service.ignite();
+
+    if (options.threadPerRequest()) {
+      // Other Spark services keep their default thread pool
+      http.embeddedServerIdentifier(PER_REQUEST_SERVER);
+    } else if (options.requestThreads() > 0) {
+      http.threadPool(options.requestThreads());
+    }
 
     // Bind Spark to the external IP and port
-    Spark.ipAddress("0.0.0.0");
-    Spark.port(port);
-    after(
+    http.ipAddress("0.0.0.0");
+    http.port(options.port());
+    http.before((request, response) -> request.attribute(START_NANOS, System.nanoTime()));
+    http.after(
         (request, response) -> {
           response.header("Access-Control-Allow-Origin", "*");
           response.header("Access-Control-Allow-Methods", "*");
+          Long startNanos = request.attribute(START_NANOS);
+          if (startNanos != null) {
+            metrics.recordRequest(request.pathInfo().substring(1), System.nanoTime() - startNanos);
+          }
         });
 
     // Setting up the handler for the GET /order and /mock endpoints
-    Spark.get("loadcsv", new LoadCsvHandler(csvData));
-    Spark.get("viewcsv", new ViewCsvHandler(csvData));
-    Spark.get("searchcsv", new SearchCsvHandler(csvData));
-    Spark.get("broadband", new BroadbandHandler(new AcsCensusSource(),
-    CacheBuilder.newBuilder().maximumSize(1000).expireAfterWrite(10, TimeUnit.MINUTES)));
-    Spark.get("mockbroadband", new BroadbandHandler(new StaleMockCensusSource(),
-    CacheBuilder.newBuilder().maximumSize(1000).expireAfterWrite(10, TimeUnit.MINUTES)));
-    Spark.init();
-    Spark.awaitInitialization();
+    BroadbandHandler broadband =
+        new BroadbandHandler(
+            source,
+            CacheBuilder.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .recordStats());
+    BroadbandHandler mockBroadband =
+        new BroadbandHandler(
+            new StaleMockCensusSource(),
+            CacheBuilder.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .recordStats());
+    route("loadcsv", new LoadCsvHandler(csvData, workers, datasets));
+    route("viewcsv", new ViewCsvHandler(csvData, compression));
+    SearchCsvHandler search =
+        new SearchCsvHandler(csvData, workers, SEARCH_CACHE_BYTES, compression);
+    route("searchcsv", search);
+    route("sortcsv", new SortCsvHandler(csvData, workers, SORT_MEMORY_BYTES));
+    route("aggregate", new AggregateHandler(csvData, workers));
+    route("profile", new ProfileHandler(csvData));
+    route("join", new JoinHandler(datasets, workers, JOIN_MEMORY_BYTES, compression));
+    route("broadband", broadband);
+    route("mockbroadband", mockBroadband);
+    route("metrics", new MetricsHandler(metrics));
+
+    registerCacheMetrics("broadband", broadband::getCacheStats);
+    registerCacheMetrics("mockbroadband", mockBroadband::getCacheStats);
+    registerCacheMetrics("searchcsv", search::getCacheStats);
+    metrics.gauge(
+        "repl_dataset_bytes",
+        "Estimated heap used by the loaded CSV data.",
+        "",
+        csvData::getEstimatedBytes);
+    metrics.gauge(
+        "repl_dataset_rows", "Rows in the loaded CSV data.", "", () -> csvData.getData().size());
+    http.init();
+    http.awaitInitialization();
+  }
+
+  /**
+   * Maps a GET route, and starts recording its metrics. The handler is wrapped so that the size of
+   * every response body it returns is recorded too, and then so that the body is compressed.
+   *
+   * @param path the route path, which is also its name in the metrics
+   * @param handler the Route handling requests to that path
+   */
+  private void route(String path, Route handler) {
+    metrics.track(path);
+    http.get(
+        path,
+        compression.wrap(
+            (request, response) -> {
+              Object body = handler.handle(request, response);
+              if (body instanceof String text) {
+                metrics.recordResponseSize(path, utf8Length(text));
+              } else if (body instanceof byte[] bytes) {
+                metrics.recordResponseSize(path, bytes.length);
+              }
+              return body;
+            }));
+  }
+
+  /**
+   * Registers the hit, miss and eviction counts of a handler's cache as metrics.
+   *
+   * @param path the route the handler serves, used as the route label
+   * @param stats the Supplier reading the current CacheStats of the handler's cache
+   */
+  private void registerCacheMetrics(String path, Supplier<CacheStats> stats) {
+    String labels = "{route=\"" + path + "\"}";
+    cacheCounter(
+        "repl_cache_hits_total", "Response cache hits.", labels, stats, CacheStats::hitCount);
+    cacheCounter(
+        "repl_cache_misses_total", "Response cache misses.", labels, stats, CacheStats::missCount);
+    cacheCounter(
+        "repl_cache_evictions_total",
+        "Response cache evictions.",
+        labels,
+        stats,
+        CacheStats::evictionCount);
+  }
+
+  /**
+   * Registers one statistic of a handler's cache as a counter.
+   *
+   * @param name the metric name
+   * @param help the help text describing the metric
+   * @param labels the label set of the metric
+   * @param stats the Supplier reading the current CacheStats of the handler's cache
+   * @param statistic the function reading the statistic out of CacheStats
+   */
+  private void cacheCounter(
+      String name,
+      String help,
+      String labels,
+      Supplier<CacheStats> stats,
+      ToLongFunction<CacheStats> statistic) {
+    metrics.counter(name, help, labels, () -> statistic.applyAsLong(stats.get()));
+  }
+
+  /**
+   * Counts the bytes a String takes up when encoded as UTF-8, without encoding it.
+   *
+   * @param text the String to measure
+   * @return its length in UTF-8 bytes
+   */
+  private static long utf8Length(String text) {
+    long bytes = text.length();
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c >= 0x800) {
+        // Surrogate pairs are 2 chars and 4 bytes, other chars from here up are 3 bytes
+        bytes += Character.isSurrogate(c) ? 1 : 2;
+      } else if (c >= 0x80) {
+        bytes += 1;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Returns the Metrics this server records into.
+   *
+   * @return the server's Metrics
+   */
+  public Metrics metrics() {
+    return metrics;
+  }
+
+  /**
+   * Returns the port this server is listening on.
+   *
+   * @return the port number
+   */
+  public int port() {
+    return http.port();
+  }
 
+  /** Stops this server and its worker threads, and waits until the server has stopped. */
+  public void stop() {
+    http.stop();
+    http.awaitStop();
+    workers.shutdown();
   }
 
   /**
    * The main method of the Server class which starts the server and then exits.
    *
-   * @param args the command line arguments, which are not accessed
+   * @param args the command line arguments: --port=N, --thread-per-request, --workers=N and
+   *     --request-threads=N, all optional
    */
   public static void main(String[] args) {
-    new Server();
+    ServerOptions options = ServerOptions.fromArgs(args);
+    new Server(options, new AcsCensusSource());
     // Print the IP address and port after initialization
     System.out.println("Server started at https://cs32customserver.com/repl/");
   }
@@ -0,0 +1,78 @@
+package edu.brown.cs.student.main.server;
+
+/**
+ * This record holds the options a Server is started with: the port it listens on, whether requests
+ * run one-per-thread on a RequestThreadPool instead of Spark's bounded default pool, how many
+ * threads that bounded pool may have, and how many threads the WorkerPool for CPU-heavy parse and
+ * search work has.
+ *
+ * @param port the port the server listens on
+ * @param threadPerRequest true to run every request on its own (virtual, when available) thread
+ * @param workerThreads the number of threads in the WorkerPool used for parsing and searching
+ * @param requestThreads the most threads of Spark's bounded pool, or 0 for Spark's default, which
+ *     is ignored with threadPerRequest
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public record ServerOptions(
+    int port, boolean threadPerRequest, int workerThreads, int requestThreads) {
+
+  /** The port the server listens on if no --port option is given. */
+  public static final int DEFAULT_PORT = 3232;
+
+  /**
+   * Creates options using Spark's default number of request threads.
+   *
+   * @param port the port the server listens on
+   * @param threadPerRequest true to run every request on its own (virtual, when available) thread
+   * @param workerThreads the number of threads in the WorkerPool used for parsing and searching
+   */
+  public ServerOptions(int port, boolean threadPerRequest, int workerThreads) {
+    this(port, threadPerRequest, workerThreads, 0);
+  }
+
+  /**
+   * Creates the default options: port 3232, Spark's default thread pool, and one worker thread per
+   * available processor.
+   *
+   * @return the default ServerOptions
+   */
+  public static ServerOptions defaults() {
+    return new ServerOptions(DEFAULT_PORT, false, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Parses ServerOptions from command line arguments. Recognized arguments are --port=N,
+   * --thread-per-request, --workers=N and --request-threads=N; anything not given keeps its default
+   * value.
+   *
+   * @param args the command line arguments passed to Server.main
+   * @return the ServerOptions described by the arguments
+   * @throws IllegalArgumentException if an argument is not recognized or a number is malformed
+   */
+  public static ServerOptions fromArgs(String[] args) {
+    ServerOptions options = defaults();
+    int port = options.port();
+    boolean threadPerRequest = options.threadPerRequest();
+    int workerThreads = options.workerThreads();
+    int requestThreads = options.requestThreads();
+    for (String arg : args) {
+      if (arg.startsWith("--port=")) {
+        port = Integer.parseInt(arg.substring("--port=".length()));
+      } else if (arg.equals("--thread-per-request")) {
+        threadPerRequest = true;
+      } else if (arg.startsWith("--workers=")) {
+        workerThreads = Integer.parseInt(arg.substring("--workers=".length()));
+      } else if (arg.startsWith("--request-threads=")) {
+        requestThreads = Integer.parseInt(arg.substring("--request-threads=".length()));
+      } else {
+        throw new IllegalArgumentException(
+            "Unrecognized argument "
+                + arg
+                + ". Valid arguments are --port=N, --thread-per-request, --workers=N and"
+                + " --request-threads=N.");
+      }
+    }
+    return new ServerOptions(port, threadPerRequest, workerThreads, requestThreads);
+  }
+}
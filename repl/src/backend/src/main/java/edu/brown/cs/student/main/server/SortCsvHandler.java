@@ -0,0 +1,198 @@
+package edu.brown.cs.student.main.server;
+
+import com.squareup.moshi.Moshi;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.SortedPage;
+import java.util.List;
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * This SortCsvHandler class handles a /sortcsv request to our server. It is constructed with a
+ * CsvDataWrapper object, wrapping a List of List of String representing the CSV data. If there is
+ * data loaded in the CsvDataWrapper object, then this request returns a page of its rows sorted by
+ * the column given as by.
+ *
+ * <p>Columns inferred as numbers or dates are sorted by value, and text columns lexically. The
+ * optional order parameter is asc (the default) or desc; either way, rows with equal values keep
+ * their original order and rows with an empty cell come last. Pages are chosen with the optional
+ * offset and limit parameters, which default to 0 and DEFAULT_LIMIT.
+ *
+ * <p>Each column is sorted once per load and direction, and later pages are copied out of that
+ * sort. A sort that would take more heap than the handler's memory budget is spilled to disk as
+ * sorted runs in a temporary directory and merged there.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class SortCsvHandler implements Route {
+  /** How many rows a page holds if no limit is given. */
+  public static final int DEFAULT_LIMIT = 100;
+
+  /** How many bytes of heap a sort may take before it is spilled to disk, by default. */
+  public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+  private final CsvDataWrapper csvData;
+  private final WorkerPool workers;
+  private final long memoryBudget;
+
+  /**
+   * The constructor for the SortCsvHandler class, which sorts on the request thread with the
+   * default memory budget.
+   *
+   * @param csvData a CsvDataWrapper object wrapping a List of List of String of CSV data and a
+   *     boolean representing whether a CSV file has been loaded
+   */
+  public SortCsvHandler(CsvDataWrapper csvData) {
+    this(csvData, WorkerPool.inline(), DEFAULT_MEMORY_BUDGET);
+  }
+
+  /**
+   * The constructor for the SortCsvHandler class.
+   *
+   * @param csvData a CsvDataWrapper object wrapping a List of List of String of CSV data and a
+   *     boolean representing whether a CSV file has been loaded
+   * @param workers the WorkerPool that sorting runs on
+   * @param memoryBudget the most bytes of heap a sort may take before it is spilled to disk
+   */
+  public SortCsvHandler(CsvDataWrapper csvData, WorkerPool workers, long memoryBudget) {
+    this.csvData = csvData;
+    this.workers = workers;
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * Method that handles a /sortcsv request to our Server. Given a request and response, returns a
+   * failure or success response object. If successful, the response object contains a page of the
+   * rows of CSV data, sorted by a column, and the total number of rows sorted.
+   *
+   * @param request the Request object passed by client, should contain request parameters headers
+   *     and by, and optionally order, offset and limit
+   * @param response the Response object that we do not use
+   * @return response object depending on whether the sort was successful, and the page of rows
+   */
+  @Override
+  public Object handle(Request request, Response response) {
+    if (csvData.getData().isEmpty()) {
+      if (!csvData.getLoaded()) {
+        return new SortFailureResponse("error_not_loaded", "CSV file not loaded").serialize();
+      }
+    }
+    String hasHeaders = request.queryParams("headers");
+    String by = request.queryParams("by");
+    String order = request.queryParams("order");
+    if (hasHeaders == null || by == null) {
+      return new SortFailureResponse(
+              "error_bad_request", "Required parameter(s) missing: headers and/or by")
+          .serialize();
+    }
+    if (order == null) {
+      order = "asc";
+    } else if (!order.equals("asc") && !order.equals("desc")) {
+      return new SortFailureResponse(
+              "error_bad_request",
+              "Order " + order + " is not valid. Valid orders are asc and desc.")
+          .serialize();
+    }
+    int offset;
+    int limit;
+    try {
+      offset = parseCount(request.queryParams("offset"), 0);
+      limit = parseCount(request.queryParams("limit"), DEFAULT_LIMIT);
+    } catch (NumberFormatException e) {
+      return new SortFailureResponse(
+              "error_bad_request", "Offset and limit must be whole numbers that are not negative.")
+          .serialize();
+    }
+    try {
+      CsvSearcher searcher = csvData.getSearcher();
+      boolean headers = Boolean.parseBoolean(hasHeaders);
+      boolean descending = order.equals("desc");
+      SortedPage page =
+          workers.run(() -> searcher.sort(headers, by, descending, offset, limit, memoryBudget));
+      return new SortSuccessResponse(
+              "success", hasHeaders, by, order, offset, limit, page.total(), page.rows())
+          .serialize();
+    } catch (Exception e) {
+      return new SortFailureResponse("error_bad_request", e.getMessage()).serialize();
+    }
+  }
+
+  /**
+   * Parses an offset or limit parameter.
+   *
+   * @param param the parameter's value, or null if it was not given
+   * @param defaultValue the value to use if it was not given
+   * @return the parsed count
+   * @throws NumberFormatException if the parameter is not a whole number, or is negative
+   */
+  private static int parseCount(String param, int defaultValue) {
+    if (param == null) {
+      return defaultValue;
+    }
+    int count = Integer.parseInt(param.strip());
+    if (count < 0) {
+      throw new NumberFormatException("Negative count " + count);
+    }
+    return count;
+  }
+
+  /**
+   * A record representing a failed call to the /sortcsv handler, containing a result with an error
+   * code and an error message with more information.
+   *
+   * @param result the String containing an error code
+   * @param error_message the String containing a more specific error message
+   */
+  public record SortFailureResponse(String result, String error_message) {
+    /**
+     * This method serializes a failure response object.
+     *
+     * @return this failure response object, serialized as Json
+     */
+    String serialize() {
+      Moshi moshi = new Moshi.Builder().build();
+      return moshi.adapter(SortFailureResponse.class).toJson(this);
+    }
+  }
+
+  /**
+   * A record representing a successful call to the /sortcsv handler, containing a result of
+   * success, the parameters of the sort, the total number of rows sorted, and a page of them.
+   *
+   * @param result the String containing "success"
+   * @param headers the String containing the query parameter headers, a boolean representing
+   *     whether the CSV data has headers
+   * @param by the String containing the name or index of the column sorted by
+   * @param order the String containing the order, asc or desc
+   * @param offset the number of sorted rows skipped before this page
+   * @param limit the most rows this page could hold
+   * @param total the number of rows sorted, not counting a header
+   * @param data the List of List of String containing the rows of this page, in sorted order
+   */
+  public record SortSuccessResponse(
+      String result,
+      String headers,
+      String by,
+      String order,
+      int offset,
+      int limit,
+      int total,
+      List<List<String>> data) {
+
+    /**
+     * This method serializes a success response object.
+     *
+     * @return this success response object, serialized as Json
+     */
+    String serialize() {
+      SerializeEvent event = new SerializeEvent("sortcsv");
+      event.begin();
+      Moshi moshi = new Moshi.Builder().build();
+      String json = moshi.adapter(SortSuccessResponse.class).toJson(this);
+      event.commit(json);
+      return json;
+    }
+  }
+}
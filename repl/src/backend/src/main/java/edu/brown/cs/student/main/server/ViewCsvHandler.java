@@ -1,7 +1,15 @@
 package edu.brown.cs.student.main.server;
 
+import com.squareup.moshi.JsonWriter;
 import com.squareup.moshi.Moshi;
+import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+import okio.Sink;
 import spark.Request;
 import spark.Response;
 import spark.Route;
@@ -12,11 +20,41 @@ import spark.Route;
  * data loaded in the CsvDataWrapper object, then this request returns an object with a field
  * containing all the rows of that CSV data.
  *
+ * <p>With the optional limit parameter, only that many rows are returned, and if more rows follow,
+ * the response's page gives an opaque cursor. A request with only the cursor parameter returns the
+ * next page, copied straight from the row the last page stopped at. Cursors are kept in Cursors,
+ * expire after Cursors.DEFAULT_TTL_MINUTES, and are an error once the CSV has been loaded again.
+ *
+ * <p>A view of all the rows is tagged with an ETag of the data's version and content hash, and a
+ * request sending that tag in If-None-Match gets a 304 without the rows being serialized. Pages are
+ * not tagged, since each one issues a new cursor.
+ *
+ * <p>If the CSV was loaded with preencode=true, the rows are copied from their Json encoded at load
+ * time by EncodedRows, in one copy for all the rows or for a page of them, instead of serializing
+ * each cell again. Otherwise, a view of all the rows for a client accepting gzip or deflate is
+ * serialized straight into the handler's Compression as Moshi writes it, rather than built as a
+ * String and then compressed, unless its cells are too few to reach the Compression's minimum size.
+ *
+ * <p>With the format parameter, all the rows are instead streamed as NDJSON, CSV or the binary
+ * columnar format described by RowFormat, through the handler's Compression. Those formats hold
+ * only the rows, so they cannot be paged, and errors are still sent as Json.
+ *
  * @author sarahridley juliazdzilowska prlakshm
  * @version 2.0
  */
 public class ViewCsvHandler implements Route {
   private final CsvDataWrapper csvData;
+  private final Compression compression;
+  private final Cursors<ViewCursor> cursors = new Cursors<>();
+
+  /**
+   * A record representing the state a cursor continues a paged view from.
+   *
+   * @param version the version of the data viewed
+   * @param limit the most rows of each page
+   * @param next the index of the first row of the next page
+   */
+  private record ViewCursor(long version, int limit, int next) {}
 
   /**
    * The constructor for the ViewCsvHandler class.
@@ -25,26 +63,116 @@ public class ViewCsvHandler implements Route {
    *     boolean representing whether a CSV file has been loaded
    */
   public ViewCsvHandler(CsvDataWrapper csvData) {
+    this(csvData, new Compression());
+  }
+
+  /**
+   * The constructor for the ViewCsvHandler class, with the Compression that rows in formats other
+   * than Json are streamed through.
+   *
+   * @param csvData a CsvDataWrapper object wrapping a List of List of String of CSV data and a
+   *     boolean representing whether a CSV file has been loaded
+   * @param compression the Compression negotiating how streamed responses are encoded
+   */
+  public ViewCsvHandler(CsvDataWrapper csvData, Compression compression) {
     this.csvData = csvData;
+    this.compression = compression;
   }
 
   /**
    * Method that handles a /viewcsv request to our Server. Given a request and response, returns a
    * failure or success response object. If successful, the response object contains all the rows of
-   * CSV data in the CSV file loaded.
+   * CSV data in the CSV file loaded, or one page of them.
    *
-   * @param request the Request object passed by client, which needs no query parameters
-   * @param response the Response object that we do not use
+   * @param request the Request object passed by client, which needs no query parameters, and may
+   *     contain limit, or only cursor, or format
+   * @param response the Response object that is tagged with an ETag, or answered with a 304, and
+   *     that rows in formats other than Json are streamed into
    * @return response object depending on whether the search was successful, and all CSV data
+   * @throws IOException if rows cannot be streamed
    */
   @Override
-  public Object handle(Request request, Response response) {
-    if (csvData.getData().isEmpty()) {
+  public Object handle(Request request, Response response) throws IOException {
+    // The rows, their ETag and their Json are all read from the same load
+    CsvDataWrapper.Snapshot snapshot = csvData.getSnapshot();
+    if (snapshot.rows().isEmpty()) {
       if (!csvData.getLoaded()) {
         return new ViewFailureResponse("error_not_loaded", "CSV file not loaded").serialize();
       }
     }
-    return new ViewSuccessResponse(csvData.getData()).serialize();
+    String cursor = request.queryParams("cursor");
+    String limitParam = request.queryParams("limit");
+    RowFormat format;
+    try {
+      format = RowFormat.of(request.queryParams("format"));
+    } catch (IllegalArgumentException e) {
+      return new ViewFailureResponse("error_bad_request", e.getMessage()).serialize();
+    }
+    if (format != RowFormat.JSON && (cursor != null || limitParam != null)) {
+      return new ViewFailureResponse(
+              "error_bad_request", "The format parameter cannot be combined with limit or cursor")
+          .serialize();
+    }
+    if (cursor == null && limitParam == null) {
+      String etag = ETags.of(snapshot.version(), snapshot.contentHash());
+      if (ETags.matches(request, etag)) {
+        return ETags.notModified(response, etag);
+      }
+      ETags.tag(response, etag);
+      List<List<String>> rows = snapshot.rows();
+      if (format != RowFormat.JSON) {
+        return format.stream(request, response, compression, rows);
+      }
+      Optional<EncodedRows> encoded = snapshot.encodedRows();
+      // Bodies too small to compress are built whole, and sent uncompressed by the wrap
+      if (encoded.isEmpty()
+          && Compression.negotiate(request.headers("Accept-Encoding"))
+              != Compression.Encoding.IDENTITY
+          && jsonAtLeast(rows, compression.minBytes())) {
+        return new ViewSuccessResponse(rows).stream(request, response, compression);
+      }
+      return new ViewSuccessResponse(rows).serialize(encoded, 0);
+    }
+    long version = snapshot.version();
+    List<List<String>> rows = snapshot.rows();
+    int limit;
+    int from;
+    if (cursor != null) {
+      Optional<ViewCursor> state = cursors.get(cursor);
+      if (state.isEmpty()) {
+        return new ViewFailureResponse(
+                "error_bad_request",
+                "Cursor " + cursor + " is not valid or has expired. View again from the start.")
+            .serialize();
+      } else if (state.get().version() != version) {
+        return new ViewFailureResponse(
+                "error_bad_request",
+                "Cursor "
+                    + cursor
+                    + " is from a CSV that has since been loaded again. View again from the start.")
+            .serialize();
+      }
+      limit = state.get().limit();
+      from = state.get().next();
+    } else {
+      try {
+        limit = Integer.parseInt(limitParam.strip());
+      } catch (NumberFormatException e) {
+        limit = 0;
+      }
+      if (limit < 1) {
+        return new ViewFailureResponse(
+                "error_bad_request", "Limit must be a whole number of at least 1: " + limitParam)
+            .serialize();
+      }
+      from = 0;
+    }
+    int to = (int) Math.min(rows.size(), (long) from + limit);
+    boolean more = to < rows.size();
+    String next = more ? cursors.issue(new ViewCursor(version, limit, to)) : null;
+    return new ViewSuccessResponse(
+            "success", new Page(limit, null, null, more, next), rows.subList(from, to))
+        .serialize(snapshot.encodedRows(), from);
   }
 
   /**
@@ -69,12 +197,13 @@ public class ViewCsvHandler implements Route {
 
   /**
    * A record representing a successful call to the /viewcsv handler, containing a result of
-   * success, as well as all the loaded CSV data.
+   * success, as well as all the loaded CSV data or one page of it.
    *
    * @param result the String containing "success"
-   * @param data the List of List of String containing all the CSV data loaded
+   * @param page the Page describing which rows data holds, or null if it holds all of them
+   * @param data the List of List of String containing the CSV data loaded
    */
-  public record ViewSuccessResponse(String result, List<List<String>> data) {
+  public record ViewSuccessResponse(String result, Page page, List<List<String>> data) {
 
     /**
      * The constructor for the ViewSuccessResponse class.
@@ -82,7 +211,7 @@ public class ViewCsvHandler implements Route {
      * @param data the List of List of String containing all the CSV data loaded
      */
     public ViewSuccessResponse(List<List<String>> data) {
-      this("success", data);
+      this("success", null, data);
     }
 
     /**
@@ -91,8 +220,105 @@ public class ViewCsvHandler implements Route {
      * @return this success response object, serialized as Json
      */
     String serialize() {
+      SerializeEvent event = new SerializeEvent("viewcsv");
+      event.begin();
       Moshi moshi = new Moshi.Builder().build();
-      return moshi.adapter(ViewSuccessResponse.class).toJson(this);
+      String json = moshi.adapter(ViewSuccessResponse.class).toJson(this);
+      event.commit(json);
+      return json;
+    }
+
+    /**
+     * This method serializes a success response object straight into a response, through a
+     * Compression, so that neither the Json nor its compressed copy is held in memory whole.
+     *
+     * @param request the Request, whose Accept-Encoding header is read
+     * @param response the Response to write to
+     * @param compression the Compression negotiating how the response is encoded
+     * @return the empty body, since the response has been written
+     * @throws IOException if the response cannot be written
+     */
+    String stream(Request request, Response response, Compression compression) throws IOException {
+      SerializeEvent event = new SerializeEvent("viewcsv");
+      event.begin();
+      response.type("application/json");
+      CountingSink counted = new CountingSink(Okio.sink(compression.open(request, response)));
+      try (BufferedSink sink = Okio.buffer(counted)) {
+        Moshi moshi = new Moshi.Builder().build();
+        moshi.adapter(ViewSuccessResponse.class).toJson(JsonWriter.of(sink), this);
+      }
+      event.bytes = counted.bytes;
+      event.commit();
+      return "";
+    }
+
+    /**
+     * This method serializes a success response object, copying its rows from their pre-encoded
+     * Json if the loaded CSV was pre-encoded.
+     *
+     * @param encoded the EncodedRows of the loaded CSV, or empty if it was not pre-encoded
+     * @param from the index in the loaded CSV of the first row of data
+     * @return this success response object, serialized as Json, as UTF-8 bytes if it was copied
+     */
+    Object serialize(Optional<EncodedRows> encoded, int from) {
+      if (encoded.isEmpty()) {
+        return serialize();
+      }
+      SerializeEvent event = new SerializeEvent("viewcsv");
+      event.begin();
+      Moshi moshi = new Moshi.Builder().build();
+      String envelope =
+          moshi
+              .adapter(ViewSuccessResponse.class)
+              .toJson(new ViewSuccessResponse(result, page, List.of()));
+      byte[] json = encoded.get().toJson(envelope, from, from + data.size());
+      event.bytes = json.length;
+      event.commit();
+      return json;
+    }
+  }
+
+  /**
+   * Checks whether the Json of some rows is at least a number of bytes long, counting each cell's
+   * characters and the quotes and commas around it, and stopping as soon as it is. Cells with
+   * characters that are escaped or take more than a byte in UTF-8 are undercounted, so a body this
+   * says is too small may still be compressed once it is built.
+   *
+   * @param rows the rows
+   * @param bytes the number of bytes
+   * @return true if the rows' Json takes at least that many bytes
+   */
+  private static boolean jsonAtLeast(List<List<String>> rows, long bytes) {
+    long total = 0;
+    for (List<String> row : rows) {
+      total += 3;
+      for (String cell : row) {
+        total += cell.length() + 3;
+      }
+      if (total >= bytes) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** A Sink counting the bytes written through it, before they are compressed. */
+  private static final class CountingSink extends ForwardingSink {
+    private long bytes;
+
+    /**
+     * The constructor for a CountingSink.
+     *
+     * @param delegate the Sink to write to
+     */
+    CountingSink(Sink delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public void write(Buffer source, long byteCount) throws IOException {
+      super.write(source, byteCount);
+      bytes += byteCount;
     }
   }
 }
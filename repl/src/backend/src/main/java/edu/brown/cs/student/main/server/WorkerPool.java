@@ -0,0 +1,94 @@
+package edu.brown.cs.student.main.server;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This WorkerPool class runs the CPU-heavy part of a request, such as parsing a CSV in /loadcsv or
+ * scanning rows in /searchcsv, on a fixed number of threads that is kept separate from the threads
+ * handling requests. Request threads can be plentiful (see RequestThreadPool), but CPU-bound work
+ * gains nothing from running on more threads than there are cores, so it is queued here instead.
+ *
+ * <p>A WorkerPool created with inline() runs every task directly on the calling thread, which is
+ * what the handlers use when they are constructed without a pool.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class WorkerPool {
+  private final ExecutorService executor;
+
+  /**
+   * The constructor for the WorkerPool class.
+   *
+   * @param threads the number of threads CPU-heavy work may run on at once, must be positive
+   */
+  public WorkerPool(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("WorkerPool needs at least one thread, got " + threads);
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            threads,
+            runnable -> {
+              Thread thread = new Thread(runnable, "worker-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** A private constructor for a WorkerPool that runs tasks on the caller's thread. */
+  private WorkerPool() {
+    this.executor = null;
+  }
+
+  /**
+   * Creates a WorkerPool that runs every task directly on the calling thread.
+   *
+   * @return an inline WorkerPool
+   */
+  public static WorkerPool inline() {
+    return new WorkerPool();
+  }
+
+  /**
+   * Runs the given task on this pool and waits for its result. If the task throws, the same
+   * exception is rethrown to the caller, so handlers can keep their existing error handling.
+   *
+   * @param task the Callable to run
+   * @return the value returned by the task
+   * @param <T> the type of value returned by the task
+   * @throws Exception the exception thrown by the task, if any
+   */
+  public <T> T run(Callable<T> task) throws Exception {
+    if (executor == null) {
+      return task.call();
+    }
+    Future<T> future = executor.submit(task);
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception exception) {
+        throw exception;
+      }
+      throw (Error) cause;
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw e;
+    }
+  }
+
+  /** Stops the threads of this pool once queued tasks have finished. */
+  public void shutdown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+}
@@ -9,8 +9,9 @@ import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import okio.Buffer;
 
 /**
@@ -25,11 +26,33 @@ import okio.Buffer;
  * @version 2.0
  */
 public class AcsCensusSource implements CensusSource {
-  private final HashMap<String, String> stateIds;
+  private final Map<String, String> stateIds;
+  private final String scheme;
+  private final String host;
+  private final int port;
 
-  /** The constructor for the AcsCensusSource class, sets the stateIds field to an empty HashMap. */
+  /**
+   * The constructor for the AcsCensusSource class, querying the real census API at
+   * https://api.census.gov. Sets the stateIds field to an empty map.
+   */
   public AcsCensusSource() {
-    stateIds = new HashMap<>();
+    this("https", "api.census.gov", -1);
+  }
+
+  /**
+   * The constructor for the AcsCensusSource class, querying a census API at the given location
+   * instead of the real one, such as a local stand-in used for load testing. Sets the stateIds
+   * field to an empty map.
+   *
+   * @param scheme the protocol to connect with, http or https
+   * @param host the host name serving the census API
+   * @param port the port to connect to, or -1 for the protocol's default port
+   */
+  public AcsCensusSource(String scheme, String host, int port) {
+    this.stateIds = new ConcurrentHashMap<>();
+    this.scheme = scheme;
+    this.host = host;
+    this.port = port;
   }
 
   /**
@@ -54,10 +77,40 @@ public class AcsCensusSource implements CensusSource {
     return clientConnection;
   }
 
+  /**
+   * This method makes a request to the ACS API and parses its Json body as a List of List of
+   * String, the format every census API response comes in. Each request is recorded as a
+   * CensusFetchEvent for Flight Recorder, whose status is left as 0 if the request fails.
+   *
+   * @param requestURL the URL to make an API request to
+   * @return the rows of the census API response
+   * @throws DataSourceException if the connection fails
+   * @throws IOException if an I/O exception occurs
+   */
+  private static List<List<String>> fetchRows(URL requestURL)
+      throws DataSourceException, IOException {
+    CensusFetchEvent event = new CensusFetchEvent();
+    event.begin();
+    event.url = requestURL.toString();
+    try {
+      HttpURLConnection clientConnection = connect(requestURL);
+      event.status = clientConnection.getResponseCode();
+      Buffer body = new Buffer().readFrom(clientConnection.getInputStream());
+      event.bytes = body.size();
+      event.end();
+      Moshi moshi = new Moshi.Builder().build();
+      Type listOfListOfString = Types.newParameterizedType(List.class, List.class, String.class);
+      JsonAdapter<List<List<String>>> adapter = moshi.adapter(listOfListOfString);
+      return adapter.fromJson(body);
+    } finally {
+      event.commit();
+    }
+  }
+
   /**
    * This method returns the state code associated with the given String state. The first time this
    * method is called while the server is running, this method stores all state codes in the
-   * stateIds field, and references that HashMap on future calls to this method.
+   * stateIds field, and references that map on future calls to this method.
    *
    * @param state the String representing the state to find the ID for
    * @return the String representing the ID of the given state
@@ -66,14 +119,8 @@ public class AcsCensusSource implements CensusSource {
   public String getStateCode(String state) throws DataSourceException {
     try {
       if (stateIds.isEmpty()) {
-        URL requestURL =
-            new URL("https", "api.census.gov", "/data/2010/dec/sf1?get=NAME&for=state:*");
-        HttpURLConnection clientConnection = connect(requestURL);
-        Moshi moshi = new Moshi.Builder().build();
-        Type listOfListOfString = Types.newParameterizedType(List.class, List.class, String.class);
-        JsonAdapter<List<List<String>>> adapter = moshi.adapter(listOfListOfString);
-        List<List<String>> data =
-            adapter.fromJson(new Buffer().readFrom(clientConnection.getInputStream()));
+        URL requestURL = new URL(scheme, host, port, "/data/2010/dec/sf1?get=NAME&for=state:*");
+        List<List<String>> data = fetchRows(requestURL);
         for (List<String> row : data) {
           stateIds.put(row.get(0), row.get(1));
         }
@@ -106,15 +153,8 @@ public class AcsCensusSource implements CensusSource {
       String fullCounty = county + " County, " + state;
       URL requestURL =
           new URL(
-              "https",
-              "api.census.gov",
-              "/data/2010/dec/sf1?get=NAME&for=county:*&in=state:" + stateCode);
-      HttpURLConnection clientConnection = connect(requestURL);
-      Moshi moshi = new Moshi.Builder().build();
-      Type listOfListOfString = Types.newParameterizedType(List.class, List.class, String.class);
-      JsonAdapter<List<List<String>>> adapter = moshi.adapter(listOfListOfString);
-      List<List<String>> data =
-          adapter.fromJson(new Buffer().readFrom(clientConnection.getInputStream()));
+              scheme, host, port, "/data/2010/dec/sf1?get=NAME&for=county:*&in=state:" + stateCode);
+      List<List<String>> data = fetchRows(requestURL);
       for (List<String> row : data) {
         if (row.get(0).equals(fullCounty)) {
           return row.get(2);
@@ -145,18 +185,14 @@ public class AcsCensusSource implements CensusSource {
     try {
       URL requestURL =
           new URL(
-              "https",
-              "api.census.gov",
+              scheme,
+              host,
+              port,
               "/data/2021/acs/acs1/subject/variables?get=NAME,S2802_C03_022E&for=county:"
                   + countyCode
                   + "&in=state:"
                   + stateCode);
-      HttpURLConnection clientConnection = connect(requestURL);
-      Moshi moshi = new Moshi.Builder().build();
-      Type listOfListOfString = Types.newParameterizedType(List.class, List.class, String.class);
-      JsonAdapter<List<List<String>>> adapter = moshi.adapter(listOfListOfString);
-      List<List<String>> data =
-          adapter.fromJson(new Buffer().readFrom(clientConnection.getInputStream()));
+      List<List<String>> data = fetchRows(requestURL);
       String percent = data.get(1).get(1);
       Double numPercent = Double.parseDouble(percent);
       return new CensusData(numPercent);
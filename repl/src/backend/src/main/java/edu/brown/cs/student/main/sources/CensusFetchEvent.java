@@ -0,0 +1,34 @@
+package edu.brown.cs.student.main.sources;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This CensusFetchEvent class is a JDK Flight Recorder event committed by AcsCensusSource for every
+ * HTTP request it makes to the census API, recording the URL, the response status, the size of the
+ * response and, as the event's duration, the latency of the request.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+@Name("edu.brown.cs.student.CensusFetch")
+@Label("Census API Fetch")
+@Category({"REPL", "Census"})
+@Description("HTTP request to the census API by AcsCensusSource")
+@StackTrace(false)
+public class CensusFetchEvent extends Event {
+  @Label("URL")
+  String url;
+
+  @Label("Status")
+  int status;
+
+  @Label("Response Size")
+  @DataAmount
+  long bytes;
+}
@@ -0,0 +1,66 @@
+package edu.brown.cs.student.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This is a testing class that tests the Flight Recorder events committed by CsvParser and
+ * CsvSearcher. A recording is started around a parse and a search, and the events read back from it
+ * should describe the rows and bytes parsed and the rows scanned and matched.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestCsvEvents {
+
+  /**
+   * Parsing a three row CSV and searching one column commits one CsvParse and one CsvScan event.
+   *
+   * @throws Exception if parsing, searching or recording fails
+   */
+  @Test
+  public void testParseAndScanEventsRecorded() throws Exception {
+    String csv = "name,town\nAlice,Bristol\nBob,Warren";
+    Path dump = Files.createTempFile("csv-events", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("edu.brown.cs.student.CsvParse");
+      recording.enable("edu.brown.cs.student.CsvScan");
+      recording.start();
+      CsvParser<List<String>> parser =
+          new CsvParser<>(new StringReader(csv), new ListStringFromRow());
+      parser.parseCsv();
+      new CsvSearcher(parser.getStoreRows()).search(true, "Warren", "town");
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+    Files.delete(dump);
+    RecordedEvent parse =
+        events.stream()
+            .filter(e -> e.getEventType().getName().equals("edu.brown.cs.student.CsvParse"))
+            .findFirst()
+            .orElseThrow();
+    assertEquals(3, parse.getLong("rows"));
+    assertEquals(csv.length() + 1, parse.getLong("bytes"));
+    RecordedEvent scan =
+        events.stream()
+            .filter(e -> e.getEventType().getName().equals("edu.brown.cs.student.CsvScan"))
+            .findFirst()
+            .orElseThrow();
+    assertEquals("town", scan.getString("column"));
+    assertEquals(2, scan.getLong("rowsScanned"));
+    assertEquals(1, scan.getLong("matches"));
+  }
+}
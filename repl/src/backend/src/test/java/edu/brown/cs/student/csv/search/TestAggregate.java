@@ -0,0 +1,185 @@
+package edu.brown.cs.student.csv.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.Aggregate;
+import edu.brown.cs.student.main.csv.search.AggregateResult;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.SearchException;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests grouping rows and aggregating each group with CsvSearcher, against sums worked
+ * out row by row.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestAggregate {
+  private List<List<String>> rows;
+  private CsvSearcher searcher;
+
+  /**
+   * Parses the income by race CSV.
+   *
+   * @throws Exception if the file cannot be read or parsed
+   */
+  @BeforeEach
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new FileReader("data/census/income_by_race_edited.csv"), new ListStringFromRow());
+    parser.parseCsv();
+    rows = parser.getStoreRows();
+    searcher = new CsvSearcher(rows);
+  }
+
+  /**
+   * Tests counting the rows of each group, in the order the groups first appear.
+   *
+   * @throws SearchException if the aggregation fails
+   */
+  @Test
+  public void testCountByGroup() throws SearchException {
+    AggregateResult result =
+        searcher.aggregate(true, List.of("Race"), Aggregate.parseList("count"));
+    assertEquals(List.of("Race", "count"), result.columns());
+    assertEquals(List.of("Total", 40L), result.rows().get(0));
+    Map<Object, Object> counts = new LinkedHashMap<>();
+    for (List<Object> row : result.rows()) {
+      counts.put(row.get(0), row.get(1));
+    }
+    assertEquals(40L, counts.get("Asian"));
+    assertEquals(34L, counts.get("Black"));
+    assertEquals(35L, counts.get("Two Or More"));
+    long total = 0;
+    for (Object count : counts.values()) {
+      total += (Long) count;
+    }
+    assertEquals(rows.size() - 1, total);
+  }
+
+  /**
+   * Tests sums, averages, minimums and maximums against values worked out row by row.
+   *
+   * @throws SearchException if the aggregation fails
+   */
+  @Test
+  public void testNumericAggregates() throws SearchException {
+    AggregateResult result =
+        searcher.aggregate(
+            true,
+            List.of("Race"),
+            Aggregate.parseList("sum(4),avg(4),min(Year),max(Year),count(4)"));
+    for (List<Object> row : result.rows()) {
+      long sum = 0;
+      long count = 0;
+      long min = Long.MAX_VALUE;
+      long max = Long.MIN_VALUE;
+      for (List<String> csvRow : rows.subList(1, rows.size())) {
+        if (csvRow.get(1).equals(row.get(0))) {
+          sum += Long.parseLong(csvRow.get(4));
+          count++;
+          min = Math.min(min, Long.parseLong(csvRow.get(3)));
+          max = Math.max(max, Long.parseLong(csvRow.get(3)));
+        }
+      }
+      assertEquals(List.of(row.get(0), sum, (double) sum / count, min, max, count), row);
+    }
+  }
+
+  /**
+   * Tests grouping by two columns, and aggregating with no group-by columns at all.
+   *
+   * @throws SearchException if the aggregation fails
+   */
+  @Test
+  public void testGroupByColumns() throws SearchException {
+    AggregateResult pairs =
+        searcher.aggregate(true, List.of("Race", "Year"), Aggregate.parseList("count"));
+    Map<List<String>, Long> expected = new LinkedHashMap<>();
+    for (List<String> row : rows.subList(1, rows.size())) {
+      expected.merge(List.of(row.get(1), row.get(3)), 1L, Long::sum);
+    }
+    List<List<Object>> expectedRows = new ArrayList<>();
+    expected.forEach((key, count) -> expectedRows.add(List.of(key.get(0), key.get(1), count)));
+    assertEquals(expectedRows, pairs.rows());
+
+    AggregateResult whole = searcher.aggregate(true, List.of(), Aggregate.parseList("count"));
+    assertEquals(List.of(List.of((long) rows.size() - 1)), whole.rows());
+    AggregateResult noHeaders = searcher.aggregate(false, List.of(), Aggregate.parseList("count"));
+    assertEquals(List.of(List.of((long) rows.size())), noHeaders.rows());
+  }
+
+  /**
+   * Tests that aggregating in parallel gives the same groups and values as on one thread.
+   *
+   * @throws SearchException if the aggregation fails
+   */
+  @Test
+  public void testParallelMatchesSequential() throws SearchException {
+    List<List<String>> repeated = new ArrayList<>(rows);
+    for (int i = 1; i < 20; i++) {
+      repeated.addAll(rows.subList(1, rows.size()));
+    }
+    CsvSearcher sequential = new CsvSearcher(repeated, null, Integer.MAX_VALUE);
+    CsvSearcher parallel = new CsvSearcher(repeated, null, 1);
+    List<Aggregate> aggregates = Aggregate.parseList("count,sum(4),avg(5),min(3),max(4)");
+    assertEquals(
+        sequential.aggregate(true, List.of("Race"), aggregates),
+        parallel.aggregate(true, List.of("Race"), aggregates));
+    assertEquals(
+        sequential.aggregate(true, List.of("Geography", "Year"), aggregates),
+        parallel.aggregate(true, List.of("Geography", "Year"), aggregates));
+  }
+
+  /**
+   * Tests that aggregates of a group with no values in their column are null.
+   *
+   * @throws SearchException if the aggregation fails
+   */
+  @Test
+  public void testEmptyGroups() throws SearchException {
+    List<List<String>> sparse =
+        List.of(
+            List.of("Town", "Income"),
+            List.of("Providence", "100"),
+            List.of("Warwick", ""),
+            List.of("Providence", "300"));
+    AggregateResult result =
+        new CsvSearcher(sparse)
+            .aggregate(
+                true, List.of("Town"), Aggregate.parseList("count,count(Income),avg(Income)"));
+    assertEquals(List.of("Providence", 2L, 2L, 200.0), result.rows().get(0));
+    assertEquals("Warwick", result.rows().get(1).get(0));
+    assertEquals(0L, result.rows().get(1).get(2));
+    assertNull(result.rows().get(1).get(3));
+  }
+
+  /** Tests that unknown functions, missing columns and aggregates of text columns are errors. */
+  @Test
+  public void testErrors() {
+    assertThrows(SearchException.class, () -> Aggregate.parseList("median(4)"));
+    assertThrows(SearchException.class, () -> Aggregate.parseList("sum"));
+    assertThrows(SearchException.class, () -> Aggregate.parseList("sum(4"));
+    assertThrows(
+        SearchException.class,
+        () -> searcher.aggregate(true, List.of("Nowhere"), Aggregate.parseList("count")));
+    assertThrows(
+        SearchException.class,
+        () -> searcher.aggregate(true, List.of("Year"), Aggregate.parseList("avg(Race)")));
+    assertThrows(
+        SearchException.class,
+        () -> searcher.aggregate(false, List.of("Race"), Aggregate.parseList("count")));
+  }
+}
@@ -0,0 +1,171 @@
+package edu.brown.cs.student.csv.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.BkTree;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.MatchMode;
+import edu.brown.cs.student.main.csv.search.PostingsIndex;
+import edu.brown.cs.student.main.csv.search.SearchException;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests fuzzy searches with CsvSearcher, and the BkTree of distinct values they use.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestFuzzySearch {
+  private List<List<String>> income;
+  private CsvSearcher searcher;
+
+  /**
+   * Parses the Rhode Island city and town income CSV before every test.
+   *
+   * @throws Exception if the file cannot be read or parsed
+   */
+  @BeforeEach
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new FileReader("data/census/ri_city_town_income_us_census_2017_2021.csv"),
+            new ListStringFromRow());
+    parser.parseCsv();
+    income = parser.getStoreRows();
+    searcher = new CsvSearcher(income);
+  }
+
+  /**
+   * Helper to list the first cell of each row.
+   *
+   * @param rows the rows found by a search
+   * @return the first cell of each row
+   */
+  private static List<String> names(List<List<String>> rows) {
+    List<String> names = new ArrayList<>();
+    for (List<String> row : rows) {
+      names.add(row.get(0));
+    }
+    return names;
+  }
+
+  /** Tests the edit distances BkTree computes. */
+  @Test
+  public void testDistance() {
+    assertEquals(0, BkTree.distance("bristol", "bristol"));
+    assertEquals(1, BkTree.distance("bristl", "bristol"));
+    assertEquals(1, BkTree.distance("providense", "providence"));
+    assertEquals(3, BkTree.distance("kitten", "sitting"));
+    assertEquals(3, BkTree.distance("sitting", "kitten"));
+    assertEquals(5, BkTree.distance("", "salem"));
+  }
+
+  /**
+   * Tests that misspelled towns are found in any case, where exact searches find nothing.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testMisspelledTowns() throws SearchException {
+    assertEquals(List.of(), searcher.search(true, "Providense", "City/Town"));
+    assertEquals(
+        List.of("Providence"), names(searcher.searchFuzzy(true, "Providense", "City/Town", 1)));
+    assertEquals(List.of("Bristol"), names(searcher.searchFuzzy(true, "bristl", "0", 1)));
+    assertEquals(List.of("Westerly"), names(searcher.searchFuzzy(true, "WESTERLEY", "*", 1)));
+    assertEquals(List.of(), searcher.searchFuzzy(true, "Providense", "City/Town", 0));
+    assertEquals(List.of("Bristol"), names(searcher.searchFuzzy(true, "BRISTOL", "0", 0)));
+  }
+
+  /**
+   * Tests that rows come back closest first, and in file order at the same distance.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testRankedByDistance() throws SearchException {
+    List<String> found = names(searcher.searchFuzzy(true, "Warwik", "0", 3));
+    assertEquals("Warwick", found.get(0));
+    assertTrue(found.contains("Warren"));
+    for (int i = 1; i < found.size(); i++) {
+      int previous = BkTree.distance("warwik", MatchMode.fold(found.get(i - 1)));
+      int current = BkTree.distance("warwik", MatchMode.fold(found.get(i)));
+      assertTrue(previous <= current);
+      if (previous == current) {
+        assertTrue(indexOf(found.get(i - 1)) < indexOf(found.get(i)));
+      }
+    }
+  }
+
+  /**
+   * Helper to find the row of a town in the file.
+   *
+   * @param town the name of the town
+   * @return the index of its row
+   */
+  private int indexOf(String town) {
+    for (int i = 0; i < income.size(); i++) {
+      if (income.get(i).get(0).equals(town)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Tests that the BkTree finds exactly the values a comparison with every value would, while
+   * comparing the query with fewer of them.
+   */
+  @Test
+  public void testTreeMatchesBruteForce() {
+    PostingsIndex postings = PostingsIndex.build(income, 0);
+    BkTree tree = BkTree.build(postings);
+    Set<String> values = new TreeSet<>();
+    for (List<String> row : income) {
+      values.add(MatchMode.fold(row.get(0)));
+    }
+    assertEquals(values.size(), tree.size());
+
+    int compared = 0;
+    for (String query : List.of("providense", "bristl", "newprt", "cranstn", "xyz", "warwik")) {
+      for (int k = 0; k <= CsvSearcher.MAX_FUZZY_DISTANCE; k++) {
+        Set<String> expected = new TreeSet<>();
+        for (String value : values) {
+          if (BkTree.distance(query, value) <= k) {
+            expected.add(value);
+          }
+        }
+        BkTree.Result result = tree.search(query, k);
+        Set<String> actual = new TreeSet<>();
+        for (BkTree.Match match : result.matches()) {
+          actual.add(match.value());
+          assertEquals(BkTree.distance(query, match.value()), match.distance());
+        }
+        assertEquals(expected, actual);
+        if (k == 1) {
+          compared += result.comparisons();
+        }
+      }
+    }
+    assertTrue(compared < 6 * values.size());
+  }
+
+  /** Tests that edit counts outside 0 to MAX_FUZZY_DISTANCE are rejected. */
+  @Test
+  public void testInvalidDistance() {
+    assertThrows(SearchException.class, () -> searcher.searchFuzzy(true, "Bristol", "0", -1));
+    assertThrows(
+        SearchException.class,
+        () -> searcher.searchFuzzy(true, "Bristol", "0", CsvSearcher.MAX_FUZZY_DISTANCE + 1));
+    assertThrows(SearchException.class, () -> searcher.searchFuzzy(true, "Bristol", "Town", 1));
+  }
+}
@@ -0,0 +1,192 @@
+package edu.brown.cs.student.csv.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.HashJoin;
+import edu.brown.cs.student.main.csv.search.SearchException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests joining two CSVs with a HashJoin, in memory and spilled to partitions on disk,
+ * against joining every pair of rows with nested loops.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestHashJoin {
+  private static final long IN_MEMORY = Long.MAX_VALUE;
+  private static final long SPILLED = 0;
+
+  private List<List<String>> income;
+  private List<List<String>> earnings;
+
+  /**
+   * Parses a CSV file.
+   *
+   * @param path the path of the CSV file
+   * @return the parsed rows
+   * @throws Exception if the file cannot be read or parsed
+   */
+  private static List<List<String>> parse(String path) throws Exception {
+    CsvParser<List<String>> parser = new CsvParser<>(new FileReader(path), new ListStringFromRow());
+    parser.parseCsv();
+    return parser.getStoreRows();
+  }
+
+  /**
+   * Parses the income by race and earnings disparity CSVs, which share race names.
+   *
+   * @throws Exception if a file cannot be read or parsed
+   */
+  @BeforeEach
+  public void setup() throws Exception {
+    income = parse("data/census/income_by_race_edited.csv");
+    earnings = parse("data/census/dol_ri_earnings_disparity.csv");
+  }
+
+  /**
+   * Joins every pair of data rows whose cells are equal, with nested loops over left then right.
+   *
+   * @param left the rows of the left CSV, with a header
+   * @param leftCol the left key column
+   * @param right the rows of the right CSV, with a header
+   * @param rightCol the right key column
+   * @return the joined rows, each the left row's cells then the right row's cells
+   */
+  private static List<List<String>> nestedLoops(
+      List<List<String>> left, int leftCol, List<List<String>> right, int rightCol) {
+    List<List<String>> joined = new ArrayList<>();
+    for (List<String> leftRow : left.subList(1, left.size())) {
+      for (List<String> rightRow : right.subList(1, right.size())) {
+        if (leftRow.get(leftCol).equals(rightRow.get(rightCol))) {
+          List<String> row = new ArrayList<>(leftRow);
+          row.addAll(rightRow);
+          joined.add(row);
+        }
+      }
+    }
+    return joined;
+  }
+
+  /**
+   * Runs a HashJoin, collecting its joined rows.
+   *
+   * @param join the HashJoin to run
+   * @return the joined rows, each the left row's cells then the right row's cells
+   * @throws IOException if the join fails
+   */
+  private static List<List<String>> collect(HashJoin join) throws IOException {
+    List<List<String>> joined = new ArrayList<>();
+    long count =
+        join.run(
+            (left, right) -> {
+              List<String> row = new ArrayList<>(left);
+              row.addAll(right);
+              joined.add(row);
+            });
+    assertEquals(joined.size(), count);
+    return joined;
+  }
+
+  /**
+   * Sorts joined rows by their text, to compare joins whose rows come in different orders.
+   *
+   * @param rows the joined rows
+   * @return a sorted copy of the rows
+   */
+  private static List<List<String>> sorted(List<List<String>> rows) {
+    List<List<String>> copy = new ArrayList<>(rows);
+    copy.sort(Comparator.comparing(List::toString));
+    return copy;
+  }
+
+  /**
+   * Tests an in-memory join, building on the smaller right CSV, in the larger left CSV's order.
+   *
+   * @throws Exception if the join fails
+   */
+  @Test
+  public void testJoinInMemory() throws Exception {
+    HashJoin join =
+        new CsvSearcher(income)
+            .join(true, "Race", new CsvSearcher(earnings), "Data Type", IN_MEMORY);
+    List<List<String>> joined = collect(join);
+    assertEquals(nestedLoops(income, 1, earnings, 1), joined);
+    // 40 White and 34 Black rows of income each match one row of earnings
+    assertEquals(74, joined.size());
+    assertEquals(income.get(0).size() + earnings.get(0).size(), joined.get(0).size());
+  }
+
+  /**
+   * Tests that building on the left CSV still gives the left row's cells first.
+   *
+   * @throws Exception if the join fails
+   */
+  @Test
+  public void testJoinBuildsOnSmallerSide() throws Exception {
+    HashJoin join =
+        new CsvSearcher(earnings).join(true, "1", new CsvSearcher(income), "1", IN_MEMORY);
+    assertEquals(sorted(nestedLoops(earnings, 1, income, 1)), sorted(collect(join)));
+  }
+
+  /**
+   * Tests that a grace hash join, spilled to partitions, joins the same rows.
+   *
+   * @throws Exception if the join fails
+   */
+  @Test
+  public void testGraceJoin() throws Exception {
+    HashJoin join =
+        new CsvSearcher(income).join(true, "Race", new CsvSearcher(earnings), "Data Type", SPILLED);
+    assertEquals(sorted(nestedLoops(income, 1, earnings, 1)), sorted(collect(join)));
+  }
+
+  /**
+   * Tests a grace hash join of larger CSVs with many rows per key on both sides, and empty keys
+   * that join nothing.
+   *
+   * @throws Exception if the join fails
+   */
+  @Test
+  public void testGraceJoinManyKeys() throws Exception {
+    Random random = new Random(11);
+    List<List<String>> left = new ArrayList<>();
+    List<List<String>> right = new ArrayList<>();
+    left.add(List.of("id", "key"));
+    right.add(List.of("key", "value"));
+    for (int i = 0; i < 5000; i++) {
+      left.add(List.of(String.valueOf(i), i % 50 == 0 ? "" : "k" + random.nextInt(2000)));
+    }
+    for (int i = 0; i < 3000; i++) {
+      right.add(List.of("k" + random.nextInt(2000), String.valueOf(i)));
+    }
+    List<List<String>> expected = nestedLoops(left, 1, right, 0);
+    List<List<String>> inMemory =
+        collect(new CsvSearcher(left).join(true, "key", new CsvSearcher(right), "key", IN_MEMORY));
+    List<List<String>> spilled =
+        collect(new CsvSearcher(left).join(true, "key", new CsvSearcher(right), "key", 1000));
+    assertEquals(sorted(expected), sorted(inMemory));
+    assertEquals(sorted(expected), sorted(spilled));
+  }
+
+  /** Tests the error for a key column that is not found. */
+  @Test
+  public void testUnknownColumn() {
+    assertThrows(
+        SearchException.class,
+        () ->
+            new CsvSearcher(income)
+                .join(true, "Race", new CsvSearcher(earnings), "Country", IN_MEMORY));
+  }
+}
@@ -0,0 +1,152 @@
+package edu.brown.cs.student.csv.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.MatchMode;
+import edu.brown.cs.student.main.csv.search.RowSet;
+import edu.brown.cs.student.main.csv.search.SearchException;
+import edu.brown.cs.student.main.csv.search.TrigramIndex;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests case-insensitive, prefix and substring searches with CsvSearcher, and the
+ * TrigramIndex that narrows them down.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestMatchModes {
+  private List<List<String>> income;
+  private CsvSearcher searcher;
+
+  /**
+   * Parses the Rhode Island city and town income CSV before every test.
+   *
+   * @throws Exception if the file cannot be read or parsed
+   */
+  @BeforeEach
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new FileReader("data/census/ri_city_town_income_us_census_2017_2021.csv"),
+            new ListStringFromRow());
+    parser.parseCsv();
+    income = parser.getStoreRows();
+    searcher = new CsvSearcher(income);
+  }
+
+  /**
+   * Helper to list the first cell of each row.
+   *
+   * @param rows the rows found by a search
+   * @return the first cell of each row
+   */
+  private static List<String> names(List<List<String>> rows) {
+    List<String> names = new ArrayList<>();
+    for (List<String> row : rows) {
+      names.add(row.get(0));
+    }
+    return names;
+  }
+
+  /**
+   * Tests that ci finds a town whatever the case of the value, where an exact search does not.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testCaseInsensitive() throws SearchException {
+    assertEquals(List.of(), searcher.search(true, "bristol", "City/Town"));
+    assertEquals(
+        List.of("Bristol"), names(searcher.search(true, "bristol", "City/Town", MatchMode.CI)));
+    assertEquals(List.of("Bristol"), names(searcher.search(true, "BRISTOL", "0", MatchMode.CI)));
+  }
+
+  /**
+   * Tests prefix searches, including ones shorter than a trigram, which check every row.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testPrefix() throws SearchException {
+    assertEquals(
+        List.of("North Kingstown", "North Providence", "North Smithfield"),
+        names(searcher.search(true, "north", "City/Town", MatchMode.PREFIX)));
+    assertEquals(
+        List.of("West Greenwich", "West Warwick", "Westerly"),
+        names(searcher.search(true, "We", "City/Town", MatchMode.PREFIX)));
+  }
+
+  /**
+   * Tests substring searches in one column and in every column, where quoted cells are matched
+   * without their quotes and each matching row is returned once.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testContains() throws SearchException {
+    assertEquals(
+        List.of("East Providence", "North Providence", "Providence"),
+        names(searcher.search(true, "providence", "City/Town", MatchMode.CONTAINS)));
+    assertEquals(
+        List.of("Bristol"), names(searcher.search(true, "80,727", "*", MatchMode.CONTAINS)));
+    assertEquals(
+        List.of("Warwick", "West Warwick"),
+        names(searcher.search(true, "WARWICK", "*", MatchMode.CONTAINS)));
+    assertEquals(List.of(), searcher.search(true, "zzz", "*", MatchMode.CONTAINS));
+  }
+
+  /**
+   * Tests that the header row is only searched when there are no headers.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testHeaders() throws SearchException {
+    assertEquals(List.of(), searcher.search(true, "city/", "0", MatchMode.PREFIX));
+    assertEquals(
+        List.of("City/Town"), names(searcher.search(false, "city/", "0", MatchMode.PREFIX)));
+  }
+
+  /**
+   * Tests that the candidates of a TrigramIndex include every row containing the value, and that
+   * values without a trigram have no candidates to narrow down to.
+   */
+  @Test
+  public void testTrigramCandidates() {
+    TrigramIndex index = TrigramIndex.build(income, 0);
+    RowSet candidates = index.candidates("wick");
+    for (int row = 0; row < income.size(); row++) {
+      if (income.get(row).get(0).toLowerCase().contains("wick")) {
+        assertTrue(candidates.contains(row), income.get(row).get(0));
+      }
+    }
+    assertTrue(candidates.cardinality() < income.size() / 4);
+    assertNull(index.candidates("wi"));
+    assertTrue(index.candidates("qqq").isEmpty());
+  }
+
+  /**
+   * Tests reading the mode parameter.
+   *
+   * @throws SearchException if a valid mode is rejected
+   */
+  @Test
+  public void testModeParam() throws SearchException {
+    assertEquals(MatchMode.EXACT, MatchMode.of(null));
+    assertEquals(MatchMode.CONTAINS, MatchMode.of("contains"));
+    assertThrows(SearchException.class, () -> MatchMode.of("fuzzy"));
+    assertThrows(
+        SearchException.class, () -> searcher.search(true, "x", "Nope", MatchMode.CONTAINS));
+  }
+}
@@ -0,0 +1,277 @@
+package edu.brown.cs.student.csv.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.MatchMode;
+import edu.brown.cs.student.main.csv.search.PageRequest;
+import edu.brown.cs.student.main.csv.search.QueryPlan;
+import edu.brown.cs.student.main.csv.search.Range;
+import edu.brown.cs.student.main.csv.search.SearchException;
+import edu.brown.cs.student.main.csv.search.SearchMatches;
+import edu.brown.cs.student.main.csv.search.SearchPage;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests searching for pages of rows with a PageRequest, in file order and ranked by a
+ * column, against full searches and sorts of the same rows.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestPagedSearch {
+  private List<List<String>> rows;
+  private CsvSearcher searcher;
+
+  /**
+   * Parses the income by race CSV.
+   *
+   * @throws Exception if the file cannot be read or parsed
+   */
+  @BeforeEach
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new FileReader("data/census/income_by_race_edited.csv"), new ListStringFromRow());
+    parser.parseCsv();
+    rows = parser.getStoreRows();
+    searcher = new CsvSearcher(rows);
+  }
+
+  /** Finds one page of rows. */
+  @FunctionalInterface
+  private interface PageSearch {
+    /**
+     * Finds a page.
+     *
+     * @param page the PageRequest of the page
+     * @return the SearchPage found
+     * @throws SearchException if the search fails
+     */
+    SearchPage find(PageRequest page) throws SearchException;
+  }
+
+  /**
+   * Follows the pages of a search from the first to the last, checking that every page but the last
+   * is full and says there are more.
+   *
+   * @param search the PageSearch finding each page
+   * @param limit the most rows of each page
+   * @param orderBy the column to rank by, or null for file order
+   * @param descending whether the largest values come first
+   * @return the rows of every page, in order
+   * @throws SearchException if the search fails
+   */
+  private static List<List<String>> allPages(
+      PageSearch search, int limit, String orderBy, boolean descending) throws SearchException {
+    List<List<String>> all = new ArrayList<>();
+    int after = -1;
+    while (true) {
+      SearchPage page = search.find(new PageRequest(limit, orderBy, descending, after));
+      all.addAll(page.rows());
+      if (!page.more()) {
+        return all;
+      }
+      assertEquals(limit, page.rows().size());
+      after = page.last();
+    }
+  }
+
+  /**
+   * Tests that the pages of a search in file order are the full search's rows, and that a page
+   * larger than the results says there are no more.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testFileOrderPages() throws SearchException {
+    List<List<String>> expected = searcher.search(true, "White", "Race");
+    assertEquals(40, expected.size());
+    for (int limit : new int[] {1, 7, 40}) {
+      assertEquals(
+          expected,
+          allPages(
+              page -> searcher.search(true, "White", "Race", MatchMode.EXACT, page),
+              limit,
+              null,
+              false));
+    }
+    SearchPage one = searcher.search(true, "White", "Race", MatchMode.EXACT, new PageRequest(100));
+    assertFalse(one.more());
+    assertEquals(expected.get(39), one.rows().get(39));
+  }
+
+  /**
+   * Tests that ranked pages follow the order /sortcsv gives the matching rows, in both directions.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testRankedPages() throws SearchException {
+    for (boolean descending : new boolean[] {false, true}) {
+      List<List<String>> sorted =
+          searcher
+              .sort(true, "Household Income by Race", descending, 0, rows.size(), 1L << 30)
+              .rows();
+      List<List<String>> expected = new ArrayList<>();
+      for (List<String> row : sorted) {
+        if (row.get(1).toLowerCase().contains("white")) {
+          expected.add(row);
+        }
+      }
+      assertEquals(
+          expected,
+          allPages(
+              page -> searcher.search(true, "white", "Race", MatchMode.CONTAINS, page),
+              9,
+              "Household Income by Race",
+              descending));
+    }
+  }
+
+  /**
+   * Tests ranking by a text column with many ties, which keep their original order across pages.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testRankedTies() throws SearchException {
+    List<List<String>> expected =
+        searcher.sort(true, "Race", true, 0, rows.size(), 1L << 30).rows().subList(0, 100);
+    List<List<String>> pages = new ArrayList<>();
+    int after = -1;
+    while (pages.size() < 100) {
+      SearchPage page =
+          searcher.searchRange(
+              true,
+              Range.of("gte", "2000", null),
+              "Year",
+              new PageRequest(25, "Race", true, after));
+      assertTrue(page.more());
+      pages.addAll(page.rows());
+      after = page.last();
+    }
+    assertEquals(expected, pages);
+  }
+
+  /**
+   * Tests that pages of a compound query are the query's rows.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testQueryPages() throws SearchException {
+    String query = "Year>=2020 AND (Race=\"Asian\" OR Race=\"Black\")";
+    List<List<String>> expected = searcher.execute(searcher.plan(true, query));
+    assertEquals(
+        expected,
+        allPages(page -> searcher.execute(searcher.plan(true, query), page), 4, null, false));
+  }
+
+  /**
+   * Tests that pages of one QueryPlan, kept between pages as a cursor keeps it, are the query's
+   * rows, in file order and ranked.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testQueryPagesFromOnePlan() throws SearchException {
+    String query = "Year>=2020 AND NOT Race=\"White\"";
+    QueryPlan plan = searcher.plan(true, query);
+    List<List<String>> expected = searcher.execute(searcher.plan(true, query));
+    for (int limit : new int[] {1, 3, expected.size()}) {
+      assertEquals(expected, allPages(page -> searcher.execute(plan, page), limit, null, false));
+    }
+    List<List<String>> ranked = allPages(page -> searcher.execute(plan, page), 5, "Year", true);
+    assertEquals(expected.size(), ranked.size());
+    assertTrue(expected.containsAll(ranked));
+  }
+
+  /**
+   * Tests that pages of one SearchMatches, kept between pages as a cursor keeps it, are the rows of
+   * a range search and of a contains search, in file order and ranked.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testPagesFromOneMatches() throws SearchException {
+    Range range = Range.of("gte", "2019", null);
+    SearchMatches inRange = searcher.matchRange(true, range, "Year");
+    List<List<String>> expected = searcher.searchRange(true, range, "Year");
+    for (int limit : new int[] {1, 6, expected.size()}) {
+      assertEquals(expected, allPages(page -> searcher.execute(inRange, page), limit, null, false));
+    }
+
+    SearchMatches contains = searcher.match(true, "hisp", "Race", MatchMode.CONTAINS);
+    expected = searcher.search(true, "hisp", "Race", MatchMode.CONTAINS);
+    assertTrue(expected.size() > 1);
+    for (int limit : new int[] {1, 5, expected.size()}) {
+      assertEquals(
+          expected, allPages(page -> searcher.execute(contains, page), limit, null, false));
+    }
+    List<List<String>> ranked = allPages(page -> searcher.execute(contains, page), 4, "Year", true);
+    assertEquals(expected.size(), ranked.size());
+    assertTrue(expected.containsAll(ranked));
+  }
+
+  /**
+   * Tests ranked pages of a large CSV with empty cells, which come last in either direction.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testRankedLarge() throws SearchException {
+    Random random = new Random(3);
+    List<List<String>> large = new ArrayList<>();
+    large.add(List.of("id", "group", "amount"));
+    for (int i = 0; i < 20_000; i++) {
+      String amount = i % 97 == 0 ? "" : String.valueOf(random.nextInt(1000));
+      large.add(List.of(String.valueOf(i), "g" + (i % 3), amount));
+    }
+    CsvSearcher big = new CsvSearcher(large);
+    for (boolean descending : new boolean[] {false, true}) {
+      List<List<String>> expected = new ArrayList<>();
+      for (List<String> row :
+          big.sort(true, "amount", descending, 0, large.size(), 1L << 30).rows()) {
+        if (row.get(1).equals("g1")) {
+          expected.add(row);
+        }
+      }
+      assertEquals(
+          expected,
+          allPages(
+              page -> big.search(true, "g1", "group", MatchMode.EXACT, page),
+              500,
+              "amount",
+              descending));
+    }
+  }
+
+  /** Tests the errors for a limit below 1, a cursor past the rows, and an unknown column. */
+  @Test
+  public void testErrors() {
+    assertThrows(
+        SearchException.class,
+        () -> searcher.search(true, "White", "Race", MatchMode.EXACT, new PageRequest(0)));
+    assertThrows(
+        SearchException.class,
+        () ->
+            searcher.search(
+                true, "White", "Race", MatchMode.EXACT, new PageRequest(5, null, false, 5000)));
+    assertThrows(
+        SearchException.class,
+        () ->
+            searcher.search(
+                true, "White", "Race", MatchMode.EXACT, new PageRequest(5, "Country", false, -1)));
+  }
+}
@@ -0,0 +1,112 @@
+package edu.brown.cs.student.csv.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.SearchException;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests that searches split across threads by CsvSearcher find the same rows, in the
+ * same order, as searches on one thread.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestParallelScan {
+  private List<List<String>> rows;
+  private CsvSearcher sequential;
+  private CsvSearcher parallel;
+
+  /**
+   * Parses the income by race CSV and repeats its rows 50 times, then makes one searcher that
+   * always scans on one thread and one that always scans in parallel.
+   *
+   * @throws Exception if the file cannot be read or parsed
+   */
+  @BeforeEach
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new FileReader("data/census/income_by_race_edited.csv"), new ListStringFromRow());
+    parser.parseCsv();
+    List<List<String>> census = parser.getStoreRows();
+    rows = new ArrayList<>(census);
+    for (int i = 1; i < 50; i++) {
+      rows.addAll(census.subList(1, census.size()));
+    }
+    sequential = new CsvSearcher(rows, null, Integer.MAX_VALUE);
+    parallel = new CsvSearcher(rows, null, 1);
+  }
+
+  /**
+   * Tests that one-column searches match the sequential scan, row for row.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testOneColumn() throws SearchException {
+    assertEquals(50 * 34, parallel.search(true, "Black", "Race").size());
+    for (String[] search :
+        new String[][] {{"Black", "Race"}, {"2020", "3"}, {"Asian", "1"}, {"Nowhere", "Race"}}) {
+      assertEquals(
+          sequential.search(true, search[0], search[1]),
+          parallel.search(true, search[0], search[1]));
+    }
+    assertEquals(sequential.search(false, "Black", "1"), parallel.search(false, "Black", "1"));
+  }
+
+  /**
+   * Tests that searches of every column match the sequential scan, including rows that match in
+   * more than one cell.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testAllColumns() throws SearchException {
+    for (String value : List.of("White", "2018", "Nowhere")) {
+      assertEquals(sequential.search(true, value, "*"), parallel.search(true, value, "*"));
+    }
+  }
+
+  /** Tests that bad columns are still reported before any scan. */
+  @Test
+  public void testBadColumn() {
+    assertThrows(SearchException.class, () -> parallel.search(true, "Black", "Town"));
+    assertThrows(SearchException.class, () -> parallel.search(true, "Black", "40"));
+  }
+
+  /**
+   * Tests that many searches sharing the pool at once each get their own rows, in order.
+   *
+   * @throws Exception if a search fails
+   */
+  @Test
+  public void testConcurrentSearches() throws Exception {
+    List<String> races = List.of("Asian", "Black", "Hispanic", "White", "Other", "Total");
+    ExecutorService clients = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<List<List<String>>>> results = new ArrayList<>();
+      for (int i = 0; i < 48; i++) {
+        String race = races.get(i % races.size());
+        results.add(clients.submit(() -> parallel.search(true, race, "Race")));
+      }
+      for (int i = 0; i < results.size(); i++) {
+        String race = races.get(i % races.size());
+        assertEquals(sequential.search(true, race, "Race"), results.get(i).get());
+      }
+    } finally {
+      clients.shutdown();
+    }
+  }
+}
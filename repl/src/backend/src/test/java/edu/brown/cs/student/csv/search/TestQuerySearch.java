@@ -0,0 +1,207 @@
+package edu.brown.cs.student.csv.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.ColumnIndexes;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.QueryParser;
+import edu.brown.cs.student.main.csv.search.QueryPlan;
+import edu.brown.cs.student.main.csv.search.SearchException;
+import edu.brown.cs.student.main.csv.stats.TableProfiler;
+import edu.brown.cs.student.main.csv.table.TypedTable;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests compound AND/OR/NOT queries: parsing them with QueryParser, the plans the
+ * QueryPlanner chooses for them, and the rows CsvSearcher finds when running those plans, which are
+ * checked against a plain filter over every row.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestQuerySearch {
+  private List<List<String>> incomeByRace;
+  private CsvSearcher searcher;
+
+  /**
+   * Parses the income by race CSV before every test.
+   *
+   * @throws Exception if the file cannot be read or parsed
+   */
+  @BeforeEach
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new FileReader("data/census/income_by_race_edited.csv"), new ListStringFromRow());
+    parser.parseCsv();
+    incomeByRace = parser.getStoreRows();
+    searcher = new CsvSearcher(incomeByRace);
+  }
+
+  /**
+   * Helper to find the rows after the header that match a predicate, by checking every row.
+   *
+   * @param predicate the check of one row
+   * @return the matching rows, in file order
+   */
+  private List<List<String>> filter(Predicate<List<String>> predicate) {
+    List<List<String>> rows = new ArrayList<>();
+    for (List<String> row : incomeByRace.subList(1, incomeByRace.size())) {
+      if (predicate.test(row)) {
+        rows.add(row);
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Helper to plan and run a query over the CSV with headers.
+   *
+   * @param query the query text
+   * @return the rows found
+   * @throws SearchException if the query is invalid
+   */
+  private List<List<String>> query(String query) throws SearchException {
+    return searcher.execute(searcher.plan(true, query));
+  }
+
+  /**
+   * Tests that AND binds tighter than OR, that parentheses and NOT are read, and that queries are
+   * written back out as query text.
+   *
+   * @throws SearchException if a query is invalid
+   */
+  @Test
+  public void testParse() throws SearchException {
+    assertEquals("a = 1 OR (b = 2 AND c = 3)", QueryParser.parse("a=1 or b=2 AND c=3").toString());
+    assertEquals(
+        "(a = 1 OR b = 2) AND c = 3", QueryParser.parse("(a=1 OR b=2) AND c=3").toString());
+    assertEquals(
+        "NOT Race = \"Two Or More\"", QueryParser.parse("not Race=\"Two Or More\"").toString());
+    assertEquals("Year >= 2020", QueryParser.parse("Year>=2020").toString());
+  }
+
+  /** Tests that malformed queries are rejected with a SearchException. */
+  @Test
+  public void testParseErrors() {
+    assertThrows(SearchException.class, () -> QueryParser.parse(""));
+    assertThrows(SearchException.class, () -> QueryParser.parse("Race="));
+    assertThrows(SearchException.class, () -> QueryParser.parse("(Race=Asian"));
+    assertThrows(SearchException.class, () -> QueryParser.parse("Race=Asian AND"));
+    assertThrows(SearchException.class, () -> QueryParser.parse("Race Asian"));
+    assertThrows(SearchException.class, () -> QueryParser.parse("Race=\"Asian"));
+  }
+
+  /**
+   * Tests an AND of an equality and a numeric comparison, which should match the rows a plain
+   * filter finds.
+   *
+   * @throws SearchException if the query is invalid
+   */
+  @Test
+  public void testAnd() throws SearchException {
+    assertEquals(
+        filter(row -> row.get(1).equals("Asian") && Integer.parseInt(row.get(3)) >= 2019),
+        query("Race=Asian AND Year>=2019"));
+  }
+
+  /**
+   * Tests an OR of equalities combined with a range, with NOT pushed down over an OR.
+   *
+   * @throws SearchException if the query is invalid
+   */
+  @Test
+  public void testOrAndNot() throws SearchException {
+    assertEquals(
+        filter(
+            row ->
+                (row.get(1).equals("Black") || row.get(1).equals("Hispanic"))
+                    && !(row.get(3).equals("2013") || row.get(3).equals("2014"))),
+        query("(Race=Black OR Race=Hispanic) AND NOT (Year=2013 OR Year=2014)"));
+    assertEquals(filter(row -> !row.get(1).equals("Total")), query("Race != Total"));
+  }
+
+  /**
+   * Tests comparisons against every column, which have no index and so are answered with a scan.
+   *
+   * @throws SearchException if the query is invalid
+   */
+  @Test
+  public void testAllColumnsScan() throws SearchException {
+    assertEquals(
+        filter(row -> row.contains("Kent County, RI") && !row.get(1).equals("Total")),
+        query("* = \"Kent County, RI\" AND NOT Race=Total"));
+    QueryPlan plan = searcher.plan(true, "* = \"Kent County, RI\" OR Race=Asian");
+    assertTrue(plan.explain().get(0).startsWith("scan rows 1 to "));
+  }
+
+  /**
+   * Tests that an AND probes its most selective index first, and that a comparison matching most
+   * rows is verified against the candidates rather than probed.
+   *
+   * @throws SearchException if the query is invalid
+   */
+  @Test
+  public void testPlanOrdersBySelectivity() throws SearchException {
+    List<String> plan = searcher.plan(true, "Year>2013 AND Race=\"Pacific Islander\"").explain();
+    assertTrue(plan.get(0).startsWith("intersect"), plan.toString());
+    assertTrue(plan.get(1).startsWith("  probe: lookup Race = \"Pacific Islander\""), plan.get(1));
+    assertTrue(plan.get(1).endsWith("(est. 7 rows)"), plan.get(1));
+    assertTrue(plan.get(2).startsWith("  verify: range Year > 2013"), plan.get(2));
+    assertEquals(
+        filter(row -> row.get(1).equals("Pacific Islander") && !row.get(3).equals("2013")),
+        query("Year>2013 AND Race=\"Pacific Islander\""));
+  }
+
+  /**
+   * Tests that with column statistics, comparisons no row can match are planned as empty without an
+   * index, and that comparisons on every column are estimated from each column's frequent values.
+   *
+   * @throws SearchException if the query is invalid
+   */
+  @Test
+  public void testPlanUsesStatistics() throws SearchException {
+    CsvSearcher profiled =
+        new CsvSearcher(
+            incomeByRace,
+            new ColumnIndexes(
+                incomeByRace, TypedTable.infer(incomeByRace), TableProfiler.of(incomeByRace)));
+    List<String> plan = profiled.plan(true, "Year>2020").explain();
+    assertEquals(
+        List.of("empty Year > 2020: outside the column's range from 2013 to 2020 (est. 0 rows)"),
+        plan);
+    assertEquals(List.of(), profiled.execute(profiled.plan(true, "Year>2020")));
+    plan = profiled.plan(true, "Race=Martian OR Year<=2013").explain();
+    assertTrue(
+        plan.get(1).startsWith("  empty Race = Martian: not among 10 distinct"), plan.get(1));
+    for (String query :
+        List.of("Year>=2020", "Year<2013 OR Race=Asian", "NOT Race=Martian AND Year=2014")) {
+      assertEquals(
+          searcher.execute(searcher.plan(true, query)),
+          profiled.execute(profiled.plan(true, query)));
+    }
+    assertEquals(40, profiled.plan(true, "* = Asian").estimate());
+  }
+
+  /**
+   * Tests that a query without headers can only name columns by index, and that comparisons on text
+   * columns or with mistyped values are rejected.
+   */
+  @Test
+  public void testPlanErrors() {
+    assertThrows(SearchException.class, () -> searcher.plan(false, "Race=Asian"));
+    assertThrows(SearchException.class, () -> searcher.plan(true, "Nope=Asian"));
+    assertThrows(SearchException.class, () -> searcher.plan(true, "Race>Asian"));
+    assertThrows(SearchException.class, () -> searcher.plan(true, "Year>later"));
+    assertThrows(SearchException.class, () -> searcher.plan(true, "* > 5"));
+  }
+}
@@ -0,0 +1,177 @@
+package edu.brown.cs.student.csv.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.Range;
+import edu.brown.cs.student.main.csv.search.SearchException;
+import edu.brown.cs.student.main.csv.search.SortedIndex;
+import edu.brown.cs.student.main.csv.table.TypedTable;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests searching numeric and date columns for ranges of values with CsvSearcher, and
+ * the SortedIndex those searches use.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestRangeSearch {
+  private List<List<String>> income;
+
+  /**
+   * Parses the Rhode Island city and town income CSV before every test.
+   *
+   * @throws Exception if the file cannot be read or parsed
+   */
+  @BeforeEach
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new FileReader("data/census/ri_city_town_income_us_census_2017_2021.csv"),
+            new ListStringFromRow());
+    parser.parseCsv();
+    income = parser.getStoreRows();
+  }
+
+  /**
+   * Helper to list the first cell of each row.
+   *
+   * @param rows the rows found by a search
+   * @return the first cell of each row
+   */
+  private static List<String> names(List<List<String>> rows) {
+    List<String> names = new ArrayList<>();
+    for (List<String> row : rows) {
+      names.add(row.get(0));
+    }
+    return names;
+  }
+
+  /**
+   * Tests finding towns with a median household income above 100000, returned in file order with
+   * their original text.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testIncomeAbove() throws SearchException {
+    CsvSearcher searcher = new CsvSearcher(income);
+    List<List<String>> rows = searcher.searchRange(true, Range.of("gt", "100000", null), "1");
+    assertEquals(
+        List.of(
+            "Barrington",
+            "Cumberland",
+            "East Greenwich",
+            "Jamestown",
+            "North Kingstown",
+            "Portsmouth",
+            "Richmond",
+            "Scituate",
+            "South Kingstown",
+            "West Greenwich"),
+        names(rows));
+    assertEquals("\"130,455.00\"", rows.get(0).get(1));
+  }
+
+  /**
+   * Tests between, inclusive at both ends, with bounds written like the cells are.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testBetween() throws SearchException {
+    CsvSearcher searcher = new CsvSearcher(income);
+    assertEquals(
+        List.of("Bristol", "Narragansett", "Westerly"),
+        names(searcher.searchRange(true, Range.of("between", "$80,000", "85000"), "1")));
+    assertEquals(
+        List.of("Bristol"),
+        names(searcher.searchRange(true, Range.of("between", "80727", "80727.00"), "1")));
+    assertEquals(List.of(), searcher.searchRange(true, Range.of("between", "85000", "80000"), "1"));
+  }
+
+  /**
+   * Tests that gt and lt exclude the bound itself while gte and lte include it.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testInclusiveBounds() throws SearchException {
+    List<List<String>> rows =
+        List.of(List.of("n"), List.of("3"), List.of("1"), List.of("2"), List.of("2"));
+    CsvSearcher searcher = new CsvSearcher(rows);
+    assertEquals(1, searcher.searchRange(true, Range.of("gt", "2", null), "0").size());
+    assertEquals(3, searcher.searchRange(true, Range.of("gte", "2", null), "n").size());
+    assertEquals(1, searcher.searchRange(true, Range.of("lt", "2", null), "0").size());
+    assertEquals(3, searcher.searchRange(true, Range.of("lte", "2", null), "0").size());
+  }
+
+  /**
+   * Tests date columns, whose bounds are read as dates.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testDates() throws SearchException {
+    List<List<String>> rows =
+        List.of(
+            List.of("event", "date"),
+            List.of("a", "2023-09-25"),
+            List.of("b", "10/1/2023"),
+            List.of("c", "2022-12-31"));
+    CsvSearcher searcher = new CsvSearcher(rows);
+    assertEquals(
+        List.of("a", "b"),
+        names(searcher.searchRange(true, Range.of("gte", "2023-01-01", null), "date")));
+    assertThrows(
+        SearchException.class, () -> searcher.searchRange(true, Range.of("gt", "soon", null), "1"));
+  }
+
+  /** Tests the errors of range searches: text columns, bad bounds, and missing columns. */
+  @Test
+  public void testErrors() {
+    CsvSearcher searcher = new CsvSearcher(income);
+    assertThrows(
+        SearchException.class, () -> searcher.searchRange(true, Range.of("gt", "1", null), "0"));
+    assertThrows(
+        SearchException.class,
+        () -> searcher.searchRange(true, Range.of("gt", "a lot", null), "1"));
+    assertThrows(
+        SearchException.class, () -> searcher.searchRange(true, Range.of("gt", "1", null), "*"));
+    assertThrows(
+        SearchException.class, () -> searcher.searchRange(true, Range.of("gt", "1", null), "9"));
+    assertThrows(SearchException.class, () -> Range.of("between", "1", null));
+    assertThrows(SearchException.class, () -> Range.of("near", "1", null));
+  }
+
+  /**
+   * Tests that the SortedIndex orders rows by value, keeps equal values in file order, and leaves
+   * out the header and empty cells.
+   */
+  @Test
+  public void testSortedIndex() {
+    List<List<String>> rows =
+        List.of(List.of("n"), List.of("5"), List.of(""), List.of("-1"), List.of("5"), List.of("0"));
+    SortedIndex index = SortedIndex.build(TypedTable.infer(rows).column(0));
+    assertEquals(4, index.size());
+    int[] order = new int[index.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = index.rowAt(i);
+    }
+    assertArrayEquals(new int[] {3, 5, 1, 4}, order);
+    assertEquals(5.0, index.keyAt(3));
+    assertArrayEquals(new int[] {1, 4, 5}, index.rowsInRange(0.0, true, null, false));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SortedIndex.build(TypedTable.infer(List.of(List.of("a"))).column(0)));
+  }
+}
@@ -0,0 +1,141 @@
+package edu.brown.cs.student.csv.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.MatchMode;
+import edu.brown.cs.student.main.csv.search.SearchException;
+import edu.brown.cs.student.main.csv.table.CellParser;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests regex searches with CsvSearcher. Since the trigram prefilter must never drop a
+ * row the regex would match, every pattern's results are checked against running the regex on every
+ * row, including patterns built to trip up the literal extraction.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestRegexSearch {
+  private List<List<String>> incomeByRace;
+  private CsvSearcher searcher;
+
+  /**
+   * Parses the income by race CSV before every test.
+   *
+   * @throws Exception if the file cannot be read or parsed
+   */
+  @BeforeEach
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new FileReader("data/census/income_by_race_edited.csv"), new ListStringFromRow());
+    parser.parseCsv();
+    incomeByRace = parser.getStoreRows();
+    searcher = new CsvSearcher(incomeByRace);
+  }
+
+  /**
+   * Helper to find the rows after the header with a cell in which a regex is found, by running it
+   * on every cell.
+   *
+   * @param regex the pattern
+   * @return the matching rows, in file order
+   */
+  private List<List<String>> scan(String regex) {
+    Pattern pattern = Pattern.compile(regex);
+    List<List<String>> rows = new ArrayList<>();
+    for (List<String> row : incomeByRace.subList(1, incomeByRace.size())) {
+      for (String cell : row) {
+        if (pattern.matcher(CellParser.unquote(cell)).find()) {
+          rows.add(row);
+          break;
+        }
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Tests that patterns with literals, optional parts, classes, groups, escapes, alternations and
+   * flags all find the same rows as running the regex on every row.
+   *
+   * @throws SearchException if a search fails
+   */
+  @Test
+  public void testMatchesFullScan() throws SearchException {
+    String[] patterns = {
+      "County",
+      "Kent County, RI",
+      "^Kent",
+      "Providence County",
+      "Provi?dence",
+      "Prov(i)dence",
+      "Pr[o]vidence",
+      "Washington|Bristol",
+      "Two Or( More)?",
+      "Whites*",
+      "Hispanic+",
+      "Nati{0,1}ve",
+      "Nat\\w+ American",
+      "\\QNon-Hispanic\\E",
+      "(?i)kent county",
+      "RI$",
+      "\\d{5}",
+      "05000US4400[13]",
+      "x*",
+    };
+    for (String pattern : patterns) {
+      assertEquals(
+          scan(pattern), searcher.searchRegex(true, pattern, "*", 1000), "pattern " + pattern);
+    }
+  }
+
+  /**
+   * Tests a regex search of one column through the regex MatchMode.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testOneColumn() throws SearchException {
+    List<List<String>> rows = searcher.search(true, "^Two", "Race", MatchMode.REGEX);
+    assertEquals(35, rows.size());
+    for (List<String> row : rows) {
+      assertEquals("Two Or More", row.get(1));
+    }
+  }
+
+  /** Tests that invalid patterns are rejected with a SearchException. */
+  @Test
+  public void testInvalidPattern() {
+    assertThrows(SearchException.class, () -> searcher.searchRegex(true, "(Kent", "*", 1000));
+    assertThrows(SearchException.class, () -> searcher.searchRegex(true, "a{", "*", 1000));
+  }
+
+  /**
+   * Tests that a pattern whose backtracking grows with a high power of the cell's length is stopped
+   * once the time budget is spent, rather than running for minutes.
+   */
+  @Test
+  public void testTimeBudget() {
+    List<List<String>> rows = new ArrayList<>();
+    rows.add(List.of("text"));
+    rows.add(List.of("a".repeat(40) + "!"));
+    CsvSearcher slow = new CsvSearcher(rows);
+    long start = System.nanoTime();
+    SearchException e =
+        assertThrows(SearchException.class, () -> slow.searchRegex(true, "(.*a){10}!b", "0", 100));
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    assertTrue(e.getMessage().contains("time budget"), e.getMessage());
+    assertTrue(millis < 2000, "stopped after " + millis + " ms");
+  }
+}
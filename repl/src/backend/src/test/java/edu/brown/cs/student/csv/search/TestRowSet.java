@@ -0,0 +1,154 @@
+package edu.brown.cs.student.csv.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.csv.search.RowSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests RowSet, the compressed set of row indexes used for search postings and query
+ * results, by checking its set operations against a BitSet on sets shaped to use each of its
+ * container kinds.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestRowSet {
+  private static final int ROWS = 300_000;
+
+  /**
+   * Helper to list the rows of a BitSet.
+   *
+   * @param bits the BitSet
+   * @return its set bits in increasing order
+   */
+  private static int[] rows(BitSet bits) {
+    return bits.stream().toArray();
+  }
+
+  /**
+   * Helper to make sets of rows in every shape a RowSet stores differently: sparse (array
+   * containers), dense (bitmap containers), contiguous (run containers), and a mix across chunks.
+   *
+   * @param random the Random to draw rows from
+   * @return the sets of rows
+   */
+  private static List<BitSet> shapes(Random random) {
+    List<BitSet> shapes = new ArrayList<>();
+    BitSet sparse = new BitSet();
+    BitSet dense = new BitSet();
+    BitSet runs = new BitSet();
+    BitSet mixed = new BitSet();
+    for (int row = 0; row < ROWS; row++) {
+      if (random.nextInt(100) == 0) {
+        sparse.set(row);
+      }
+      if (random.nextInt(2) == 0) {
+        dense.set(row);
+      }
+      if (row / 1000 % 3 == 0) {
+        runs.set(row);
+      }
+      int chunk = row >>> 16;
+      if ((chunk == 0 && random.nextInt(50) == 0)
+          || (chunk == 1 && random.nextInt(3) == 0)
+          || chunk == 3) {
+        mixed.set(row);
+      }
+    }
+    shapes.add(sparse);
+    shapes.add(dense);
+    shapes.add(runs);
+    shapes.add(mixed);
+    shapes.add(new BitSet());
+    return shapes;
+  }
+
+  /** Tests that every shape of set round-trips through a RowSet, with the right membership. */
+  @Test
+  public void testOfAndContains() {
+    for (BitSet bits : shapes(new Random(32))) {
+      RowSet set = RowSet.of(rows(bits));
+      assertEquals(bits.cardinality(), set.cardinality());
+      assertArrayEquals(rows(bits), set.toArray());
+      for (int row = 0; row < ROWS; row += 7) {
+        assertEquals(bits.get(row), set.contains(row), "row " + row);
+      }
+      assertFalse(set.contains(-1));
+    }
+  }
+
+  /** Tests AND, OR and AND NOT between every pair of shapes against the same BitSet operations. */
+  @Test
+  public void testSetOperations() {
+    List<BitSet> shapes = shapes(new Random(34));
+    for (BitSet a : shapes) {
+      for (BitSet b : shapes) {
+        RowSet left = RowSet.of(rows(a));
+        RowSet right = RowSet.of(rows(b));
+
+        BitSet and = (BitSet) a.clone();
+        and.and(b);
+        assertArrayEquals(rows(and), left.and(right).toArray());
+
+        BitSet or = (BitSet) a.clone();
+        or.or(b);
+        assertArrayEquals(rows(or), left.or(right).toArray());
+        assertEquals(or.cardinality(), left.or(right).cardinality());
+
+        BitSet andNot = (BitSet) a.clone();
+        andNot.andNot(b);
+        assertArrayEquals(rows(andNot), left.andNot(right).toArray());
+      }
+    }
+  }
+
+  /** Tests reading part of every shape of set from a row on, as a page of a query does. */
+  @Test
+  public void testToArrayFrom() {
+    Random random = new Random(36);
+    for (BitSet bits : shapes(random)) {
+      RowSet set = RowSet.of(rows(bits));
+      for (int from : new int[] {0, 1, 65_535, 65_536, random.nextInt(ROWS), ROWS}) {
+        for (int count : new int[] {1, 10, ROWS}) {
+          int[] expected = bits.stream().filter(row -> row >= from).limit(count).toArray();
+          assertArrayEquals(expected, set.toArray(from, count), "from " + from);
+        }
+      }
+    }
+  }
+
+  /** Tests ranges, including ones crossing chunk boundaries, and removing rows from them. */
+  @Test
+  public void testRange() {
+    RowSet range = RowSet.range(65_530, 131_080);
+    assertEquals(131_080 - 65_530, range.cardinality());
+    assertTrue(range.contains(65_530));
+    assertTrue(range.contains(131_079));
+    assertFalse(range.contains(131_080));
+    assertFalse(range.contains(65_529));
+
+    RowSet rest = range.andNot(RowSet.of(65_531, 100_000));
+    assertEquals(range.cardinality() - 2, rest.cardinality());
+    assertFalse(rest.contains(100_000));
+    assertTrue(RowSet.range(5, 5).isEmpty());
+  }
+
+  /** Tests that dense and contiguous sets take far less memory as a RowSet than as an int[]. */
+  @Test
+  public void testCompression() {
+    RowSet contiguous = RowSet.range(0, ROWS);
+    assertTrue(contiguous.estimatedBytes() < 1000, contiguous.toString());
+
+    BitSet dense = shapes(new Random(36)).get(1);
+    RowSet set = RowSet.of(rows(dense));
+    assertTrue(set.estimatedBytes() < 4L * dense.cardinality() / 10, set.toString());
+  }
+}
@@ -0,0 +1,205 @@
+package edu.brown.cs.student.csv.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.SearchException;
+import edu.brown.cs.student.main.csv.search.SortedPage;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests sorting rows by a column with CsvSearcher, in memory and spilled to disk,
+ * against a stable sort of the rows themselves.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestSort {
+  private static final long IN_MEMORY = Long.MAX_VALUE;
+  private static final long SPILLED = 0;
+
+  private List<List<String>> rows;
+  private CsvSearcher searcher;
+
+  /**
+   * Parses the income by race CSV.
+   *
+   * @throws Exception if the file cannot be read or parsed
+   */
+  @BeforeEach
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new FileReader("data/census/income_by_race_edited.csv"), new ListStringFromRow());
+    parser.parseCsv();
+    rows = parser.getStoreRows();
+    searcher = new CsvSearcher(rows);
+  }
+
+  /**
+   * Sorts the data rows, leaving out the header, with a stable sort.
+   *
+   * @param comparator the Comparator of rows
+   * @return the sorted rows
+   */
+  private List<List<String>> expected(Comparator<List<String>> comparator) {
+    List<List<String>> sorted = new ArrayList<>(rows.subList(1, rows.size()));
+    sorted.sort(comparator);
+    return sorted;
+  }
+
+  /**
+   * Tests sorting a numeric column by value in both directions, with ties in their original order.
+   *
+   * @throws SearchException if the sort fails
+   */
+  @Test
+  public void testSortNumeric() throws SearchException {
+    Comparator<List<String>> byYear = Comparator.comparingLong(row -> Long.parseLong(row.get(3)));
+    for (long budget : new long[] {IN_MEMORY, SPILLED}) {
+      // Sorts are kept once made, so each budget gets a new searcher
+      CsvSearcher searcher = new CsvSearcher(rows);
+      SortedPage ascending = searcher.sort(true, "Year", false, 0, rows.size(), budget);
+      assertEquals(expected(byYear), ascending.rows());
+      assertEquals(rows.size() - 1, ascending.total());
+      assertEquals(budget == SPILLED, ascending.spilled());
+      SortedPage descending = searcher.sort(true, "3", true, 0, rows.size(), budget);
+      assertEquals(expected(byYear.reversed()), descending.rows());
+    }
+  }
+
+  /**
+   * Tests sorting a text column lexically, in memory and spilled.
+   *
+   * @throws SearchException if the sort fails
+   */
+  @Test
+  public void testSortText() throws SearchException {
+    Comparator<List<String>> byRace = Comparator.comparing(row -> row.get(1));
+    for (long budget : new long[] {IN_MEMORY, SPILLED}) {
+      CsvSearcher searcher = new CsvSearcher(rows);
+      assertEquals(
+          expected(byRace), searcher.sort(true, "Race", false, 0, rows.size(), budget).rows());
+      assertEquals(
+          expected(byRace.reversed()),
+          searcher.sort(true, "Race", true, 0, rows.size(), budget).rows());
+    }
+  }
+
+  /**
+   * Tests that pages are consecutive slices of the sorted rows, and that an offset past the end
+   * gives an empty page.
+   *
+   * @throws SearchException if the sort fails
+   */
+  @Test
+  public void testPages() throws SearchException {
+    List<List<String>> all =
+        searcher.sort(true, "Household Income by Race", true, 0, rows.size(), IN_MEMORY).rows();
+    for (long budget : new long[] {IN_MEMORY, SPILLED}) {
+      CsvSearcher searcher = new CsvSearcher(rows);
+      List<List<String>> paged = new ArrayList<>();
+      for (int offset = 0; offset < all.size(); offset += 50) {
+        paged.addAll(
+            searcher.sort(true, "Household Income by Race", true, offset, 50, budget).rows());
+      }
+      assertEquals(all, paged);
+      assertTrue(searcher.sort(true, "4", true, 1000, 50, budget).rows().isEmpty());
+    }
+    assertEquals("118750", all.get(0).get(4));
+  }
+
+  /**
+   * Tests that empty and missing cells come last in their original order, and that without headers
+   * every row is sorted.
+   *
+   * @throws SearchException if the sort fails
+   */
+  @Test
+  public void testEmptyCellsLast() throws SearchException {
+    List<List<String>> ragged =
+        List.of(
+            List.of("Town", "Income"),
+            List.of("Providence", ""),
+            List.of("Warwick", "300"),
+            List.of("Cranston"),
+            List.of("Newport", "100"));
+    for (long budget : new long[] {IN_MEMORY, SPILLED}) {
+      CsvSearcher small = new CsvSearcher(ragged);
+      for (boolean descending : new boolean[] {false, true}) {
+        List<List<String>> sorted = small.sort(true, "Income", descending, 0, 10, budget).rows();
+        assertEquals(descending ? ragged.get(2) : ragged.get(4), sorted.get(0));
+        assertEquals(List.of(ragged.get(1), ragged.get(3)), sorted.subList(2, 4));
+      }
+      // Without headers, the header is text in a numeric column, so it has no value either
+      List<List<String>> sorted = small.sort(false, "1", false, 0, 10, budget).rows();
+      assertEquals(List.of(ragged.get(0), ragged.get(1), ragged.get(3)), sorted.subList(2, 5));
+    }
+  }
+
+  /**
+   * Tests that a spilled sort of many runs, merged in more than one pass, matches an in-memory one.
+   *
+   * @throws SearchException if the sort fails
+   */
+  @Test
+  public void testManyRuns() throws SearchException {
+    Random random = new Random(7);
+    List<List<String>> large = new ArrayList<>();
+    large.add(List.of("id", "amount", "name"));
+    for (int i = 0; i < 100_000; i++) {
+      large.add(
+          List.of(
+              String.valueOf(i),
+              String.valueOf(random.nextInt(5000)),
+              "name" + random.nextInt(20_000)));
+    }
+    CsvSearcher memory = new CsvSearcher(large);
+    CsvSearcher disk = new CsvSearcher(large);
+    for (String column : List.of("amount", "name")) {
+      SortedPage expected = memory.sort(true, column, true, 0, large.size(), IN_MEMORY);
+      SortedPage spilled = disk.sort(true, column, true, 0, large.size(), SPILLED);
+      assertFalse(expected.spilled());
+      assertTrue(spilled.spilled());
+      assertEquals(expected.rows(), spilled.rows());
+    }
+  }
+
+  /**
+   * Tests that one searcher sorting the same column with different budgets keeps a sort for each,
+   * rather than answering one budget with the sort made under the other.
+   *
+   * @throws SearchException if the sort fails
+   */
+  @Test
+  public void testBudgetsKeptApart() throws SearchException {
+    SortedPage inMemory = searcher.sort(true, "Year", false, 0, rows.size(), IN_MEMORY);
+    SortedPage spilled = searcher.sort(true, "Year", false, 0, rows.size(), SPILLED);
+    assertFalse(inMemory.spilled());
+    assertTrue(spilled.spilled());
+    assertEquals(inMemory.rows(), spilled.rows());
+    assertFalse(searcher.sort(true, "Year", false, 0, 5, IN_MEMORY).spilled());
+  }
+
+  /** Tests the errors for an unknown column and a negative offset. */
+  @Test
+  public void testErrors() {
+    assertThrows(
+        SearchException.class, () -> searcher.sort(true, "Country", false, 0, 10, IN_MEMORY));
+    assertThrows(
+        SearchException.class, () -> searcher.sort(true, "Year", false, -1, 10, IN_MEMORY));
+    assertThrows(
+        SearchException.class, () -> searcher.sort(false, "Year", false, 0, 10, IN_MEMORY));
+  }
+}
@@ -0,0 +1,174 @@
+package edu.brown.cs.student.csv.stats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.stats.ColumnProfile;
+import edu.brown.cs.student.main.csv.stats.HyperLogLog;
+import edu.brown.cs.student.main.csv.stats.QuantileSketch;
+import edu.brown.cs.student.main.csv.stats.SpaceSaving;
+import edu.brown.cs.student.main.csv.stats.TableProfiler;
+import edu.brown.cs.student.main.csv.stats.ValueCount;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the column statistics gathered by TableProfiler while a CSV is parsed, and the
+ * accuracy of the sketches behind them on larger streams of values.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestTableProfiler {
+  private List<List<String>> rows;
+  private TableProfiler profiler;
+
+  /**
+   * Parses the income by race CSV, profiling it as it is parsed.
+   *
+   * @throws Exception if the file cannot be read or parsed
+   */
+  @BeforeEach
+  public void setup() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new FileReader("data/census/income_by_race_edited.csv"), new ListStringFromRow(), true);
+    parser.parseCsv();
+    rows = parser.getStoreRows();
+    profiler = parser.getProfiler().orElseThrow();
+  }
+
+  /**
+   * Tests the type, nulls, distinct count, minimum, maximum and frequent values of columns of a CSV
+   * with headers.
+   */
+  @Test
+  public void testProfileWithHeaders() {
+    List<ColumnProfile> columns = profiler.profile(true);
+    assertEquals(9, columns.size());
+    assertEquals(rows.size() - 1, profiler.rowCount(true));
+
+    ColumnProfile race = columns.get(1);
+    assertEquals("Race", race.column());
+    assertEquals("text", race.type());
+    assertEquals(0, race.nulls());
+    assertEquals(10, race.distinct());
+    assertNull(race.min());
+    assertNull(race.quantiles());
+    assertEquals(new ValueCount("Asian", 40), race.top().get(0));
+    assertEquals(new ValueCount("Pacific Islander", 7), race.top().get(9));
+
+    ColumnProfile year = columns.get(3);
+    assertEquals("long", year.type());
+    assertEquals("2013", year.min());
+    assertEquals("2020", year.max());
+
+    ColumnProfile income = columns.get(4);
+    assertEquals("7708", income.min());
+    assertEquals("118750", income.max());
+    List<Long> incomes = new ArrayList<>();
+    for (List<String> row : rows.subList(1, rows.size())) {
+      incomes.add(Long.parseLong(row.get(4)));
+    }
+    Collections.sort(incomes);
+    double median = income.quantiles().get("p50");
+    assertTrue(median >= incomes.get(incomes.size() * 45 / 100), "median " + median);
+    assertTrue(median <= incomes.get(incomes.size() * 55 / 100), "median " + median);
+    assertEquals("double", columns.get(5).type());
+  }
+
+  /** Tests that without headers the first row is profiled too, and columns are named by index. */
+  @Test
+  public void testProfileWithoutHeaders() {
+    List<ColumnProfile> columns = profiler.profile(false);
+    assertEquals(rows.size(), profiler.rowCount(false));
+    assertEquals("3", columns.get(3).column());
+    assertEquals("text", columns.get(3).type());
+    assertEquals(11, columns.get(1).distinct());
+    // The profile with headers is unchanged by the profile without them
+    assertEquals("long", profiler.profile(true).get(3).type());
+  }
+
+  /** Tests that profiling parsed rows afterwards gives the same statistics as during parsing. */
+  @Test
+  public void testProfileOfParsedRows() {
+    assertEquals(profiler.profile(true), TableProfiler.of(rows).profile(true));
+  }
+
+  /** Tests that the empty and missing cells of ragged rows are counted as nulls. */
+  @Test
+  public void testNulls() {
+    TableProfiler ragged =
+        TableProfiler.of(
+            List.of(
+                List.of("Town", "Income", "Notes"),
+                List.of("Providence", "100"),
+                List.of("Warwick", " ", "new"),
+                List.of("Cranston", "$1,200.50", "")));
+    List<ColumnProfile> columns = ragged.profile(true);
+    assertEquals(1, columns.get(1).nulls());
+    assertEquals("double", columns.get(1).type());
+    assertEquals("$1,200.50", columns.get(1).max());
+    assertEquals(2, columns.get(2).nulls());
+  }
+
+  /** Tests the HyperLogLog's distinct estimate on a hundred thousand distinct values. */
+  @Test
+  public void testHyperLogLog() {
+    HyperLogLog sketch = new HyperLogLog();
+    for (int i = 0; i < 100_000; i++) {
+      sketch.add("value" + i);
+      sketch.add("value" + i);
+    }
+    long estimate = sketch.estimate();
+    assertTrue(Math.abs(estimate - 100_000) < 5_000, "estimate " + estimate);
+
+    HyperLogLog small = new HyperLogLog();
+    for (int i = 0; i < 100; i++) {
+      small.add("value" + (i % 10));
+    }
+    assertEquals(10, small.estimate());
+  }
+
+  /** Tests that SpaceSaving keeps the heavy hitters of a stream with many rare values. */
+  @Test
+  public void testSpaceSaving() {
+    SpaceSaving sketch = new SpaceSaving(16);
+    for (int i = 0; i < 10_000; i++) {
+      sketch.add(i % 4 == 0 ? "heavy" : i % 10 == 1 ? "medium" : "rare" + i);
+    }
+    assertTrue(!sketch.isExact());
+    List<ValueCount> top = sketch.top(2);
+    assertEquals("heavy", top.get(0).value());
+    assertEquals("medium", top.get(1).value());
+    // Counts may be too high by at most the number of values divided by the capacity
+    assertTrue(top.get(0).count() >= 2_500 && top.get(0).count() <= 2_500 + 10_000 / 16);
+  }
+
+  /** Tests the QuantileSketch's percentiles of shuffled numbers. */
+  @Test
+  public void testQuantileSketch() {
+    List<Integer> numbers = new ArrayList<>();
+    for (int i = 0; i < 100_000; i++) {
+      numbers.add(i);
+    }
+    Collections.shuffle(numbers, new Random(42));
+    QuantileSketch sketch = new QuantileSketch(256);
+    for (int number : numbers) {
+      sketch.add(number);
+    }
+    double[] quantiles = sketch.quantiles(0.25, 0.5, 0.99);
+    assertEquals(25_000, quantiles[0], 2_000);
+    assertEquals(50_000, quantiles[1], 2_000);
+    assertEquals(99_000, quantiles[2], 2_000);
+    assertEquals(100_000, sketch.count());
+  }
+}
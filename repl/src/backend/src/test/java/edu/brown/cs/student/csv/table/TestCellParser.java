@@ -0,0 +1,81 @@
+package edu.brown.cs.student.csv.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.csv.table.CellParser;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests reading numbers and dates out of CSV cells with CellParser.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestCellParser {
+
+  /** Tests numbers written the way our census datasets write them. */
+  @Test
+  public void testCensusNumbers() {
+    assertEquals("1058.47", CellParser.normalizeNumber("\" $1,058.47 \""));
+    assertEquals("1058.47", CellParser.normalizeNumber(" $1,058.47 "));
+    assertEquals("1.00", CellParser.normalizeNumber(" $1.00 "));
+    assertEquals("74489.00", CellParser.normalizeNumber("\"74,489.00\""));
+    assertEquals("75", CellParser.normalizeNumber("75%"));
+    assertEquals("0.069233258", CellParser.normalizeNumber("0.069233258"));
+    assertEquals("395773.6521", CellParser.normalizeNumber("395773.6521"));
+    assertEquals("2020", CellParser.normalizeNumber("2020"));
+  }
+
+  /** Tests signs, exponents and other forms Java accepts. */
+  @Test
+  public void testSignsAndExponents() {
+    assertEquals("-5", CellParser.normalizeNumber("-$5"));
+    assertEquals("-5", CellParser.normalizeNumber("$-5"));
+    assertEquals("+12", CellParser.normalizeNumber("+12"));
+    assertEquals("1.5e-3", CellParser.normalizeNumber("1.5E-3"));
+    assertEquals(".5", CellParser.normalizeNumber(".5"));
+  }
+
+  /** Tests that text which only looks a bit like a number is not read as one. */
+  @Test
+  public void testNotNumbers() {
+    assertNull(CellParser.normalizeNumber(""));
+    assertNull(CellParser.normalizeNumber("$"));
+    assertNull(CellParser.normalizeNumber("\""));
+    assertNull(CellParser.normalizeNumber("\"\""));
+    assertNull(CellParser.normalizeNumber("-"));
+    assertNull(CellParser.normalizeNumber("1,2"));
+    assertNull(CellParser.normalizeNumber("1234,567"));
+    assertNull(CellParser.normalizeNumber("1,058,47"));
+    assertNull(CellParser.normalizeNumber("05000US44001"));
+    assertNull(CellParser.normalizeNumber("2021-09-25"));
+    assertNull(CellParser.normalizeNumber("1e"));
+    assertNull(CellParser.normalizeNumber("Brown University"));
+  }
+
+  /** Tests telling whole numbers that fit in a long from everything else. */
+  @Test
+  public void testIsLong() {
+    assertTrue(CellParser.isLong("2020"));
+    assertTrue(CellParser.isLong("-9223372036854775808"));
+    assertFalse(CellParser.isLong("9223372036854775808"));
+    assertFalse(CellParser.isLong("1058.47"));
+    assertFalse(CellParser.isLong("1e5"));
+  }
+
+  /** Tests reading ISO and US dates as epoch days, and rejecting anything else. */
+  @Test
+  public void testDates() {
+    int day = (int) LocalDate.of(2023, 9, 25).toEpochDay();
+    assertEquals(day, CellParser.parseEpochDay("2023-09-25"));
+    assertEquals(day, CellParser.parseEpochDay("9/25/2023"));
+    assertEquals(day, CellParser.parseEpochDay(" 09/25/2023 "));
+    assertNull(CellParser.parseEpochDay("2023-02-30"));
+    assertNull(CellParser.parseEpochDay("2020"));
+    assertNull(CellParser.parseEpochDay("Bristol"));
+  }
+}
@@ -0,0 +1,114 @@
+package edu.brown.cs.student.csv.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.search.CsvSearcher;
+import edu.brown.cs.student.main.csv.search.SearchException;
+import edu.brown.cs.student.main.csv.table.Schema;
+import edu.brown.cs.student.main.csv.table.TypedTable;
+import edu.brown.cs.student.main.server.CsvDataWrapper;
+import java.io.FileReader;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the Schema computed for a loaded CSV, and that searches look columns up in it.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestSchema {
+
+  /**
+   * Tests the headers, width and filled cells of the income by race dataset.
+   *
+   * @throws Exception if the file cannot be read or parsed
+   */
+  @Test
+  public void testCensusSchema() throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(
+            new FileReader("data/census/income_by_race_edited.csv"), new ListStringFromRow());
+    parser.parseCsv();
+    List<List<String>> rows = parser.getStoreRows();
+    Schema schema = Schema.of(rows);
+    assertEquals(rows.get(0), schema.headers());
+    assertEquals(rows.get(0).size(), schema.columnCount());
+    assertEquals(1, schema.columnIndex("Race"));
+    assertEquals(3, schema.columnIndex("Year"));
+    assertEquals(-1, schema.columnIndex("Town"));
+    assertFalse(schema.isRagged());
+    assertEquals(rows.size(), schema.filledCells(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> schema.filledCells(schema.columnCount()));
+  }
+
+  /**
+   * Tests ragged rows, blank cells and repeated headers, where the first column with a header wins.
+   */
+  @Test
+  public void testRaggedRows() {
+    List<List<String>> rows =
+        List.of(
+            List.of("name", "count", "name"),
+            List.of("a", "1", "x"),
+            List.of("b", ""),
+            List.of("c", "3", "y", "extra"));
+    Schema schema = Schema.of(rows);
+    assertEquals(0, schema.columnIndex("name"));
+    assertEquals(4, schema.columnCount());
+    assertEquals(2, schema.minRowWidth());
+    assertEquals(2, schema.raggedRows());
+    assertTrue(schema.isRagged());
+    assertEquals(3, schema.filledCells(1));
+    assertEquals(1, schema.filledCells(3));
+  }
+
+  /** Tests the Schema of no rows. */
+  @Test
+  public void testEmpty() {
+    Schema schema = Schema.of(List.of());
+    assertSame(Schema.empty(), schema);
+    assertEquals(0, schema.columnCount());
+    assertEquals(List.of(), schema.headers());
+  }
+
+  /** Tests which column identifiers are read as indexes. */
+  @Test
+  public void testIsColumnIndex() {
+    assertTrue(Schema.isColumnIndex("0"));
+    assertTrue(Schema.isColumnIndex("12"));
+    assertTrue(Schema.isColumnIndex("-1"));
+    assertFalse(Schema.isColumnIndex("-"));
+    assertFalse(Schema.isColumnIndex(""));
+    assertFalse(Schema.isColumnIndex("1a"));
+    assertFalse(Schema.isColumnIndex("Year"));
+    assertFalse(Schema.isColumnIndex("١"));
+  }
+
+  /**
+   * Tests that the loaded data, its TypedTable and its searcher all share one Schema, and that
+   * searches by header use it.
+   *
+   * @throws SearchException if the search fails
+   */
+  @Test
+  public void testSharedPerLoad() throws SearchException {
+    List<List<String>> rows = List.of(List.of("city", "pop"), List.of("Providence", "190934"));
+    CsvDataWrapper csvData = new CsvDataWrapper(rows, true);
+    Schema schema = csvData.getSchema();
+    assertSame(schema, csvData.getTable().schema());
+    assertSame(schema, csvData.getSearcher().schema());
+    assertEquals(1, csvData.getSearcher().search(true, "Providence", "city").size());
+    assertThrows(SearchException.class, () -> csvData.getSearcher().search(true, "x", "town"));
+
+    CsvSearcher searcher = new CsvSearcher(rows);
+    assertEquals(schema.headers(), searcher.schema().headers());
+    assertEquals(TypedTable.infer(rows).schema().columnCount(), searcher.schema().columnCount());
+  }
+}
@@ -0,0 +1,145 @@
+package edu.brown.cs.student.csv.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.creator.ListStringFromRow;
+import edu.brown.cs.student.main.csv.parse.CsvParser;
+import edu.brown.cs.student.main.csv.table.ColumnType;
+import edu.brown.cs.student.main.csv.table.TypedColumn;
+import edu.brown.cs.student.main.csv.table.TypedTable;
+import edu.brown.cs.student.main.server.CsvDataWrapper;
+import java.io.FileReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests inferring the types of CSV columns with TypedTable, on our census datasets and
+ * on small hand-written tables.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestTypedTable {
+
+  /**
+   * Helper to parse a CSV file into rows.
+   *
+   * @param filepath the path of the CSV file
+   * @return the parsed rows
+   * @throws Exception if the file cannot be read or parsed
+   */
+  private List<List<String>> parse(String filepath) throws Exception {
+    CsvParser<List<String>> parser =
+        new CsvParser<>(new FileReader(filepath), new ListStringFromRow());
+    parser.parseCsv();
+    return parser.getStoreRows();
+  }
+
+  /**
+   * Tests that the quoted currency, plain numbers and percents of the earnings disparity dataset
+   * are stored as numbers, and the header row is stored as null.
+   *
+   * @throws Exception if the file cannot be read or parsed
+   */
+  @Test
+  public void testEarningsDisparity() throws Exception {
+    List<List<String>> rows = parse("data/census/dol_ri_earnings_disparity.csv");
+    TypedTable table = TypedTable.infer(rows);
+    assertEquals(6, table.columnCount());
+    assertEquals(rows.size(), table.rowCount());
+    assertEquals(ColumnType.TEXT, table.column(0).type());
+    assertEquals(ColumnType.TEXT, table.column(1).type());
+
+    TypedColumn earnings = table.column(2);
+    assertEquals(ColumnType.DOUBLE, earnings.type());
+    assertTrue(earnings.isNull(0));
+    assertEquals(1058.47, earnings.doubleAt(1));
+    assertEquals("\" $1,058.47 \"", rows.get(1).get(2));
+
+    assertEquals(ColumnType.DOUBLE, table.column(3).type());
+    assertEquals(ColumnType.DOUBLE, table.column(4).type());
+    assertEquals(0.73, table.column(4).doubleAt(2));
+    assertEquals(ColumnType.LONG, table.column(5).type());
+    assertEquals(75, table.column(5).longAt(1));
+  }
+
+  /**
+   * Tests the census columns named in our datasets: years and incomes as LONG, shares as DOUBLE,
+   * and identifiers mixing letters and digits as TEXT.
+   *
+   * @throws Exception if a file cannot be read or parsed
+   */
+  @Test
+  public void testCensusColumns() throws Exception {
+    TypedTable race = TypedTable.infer(parse("data/census/income_by_race_edited.csv"));
+    assertEquals(ColumnType.LONG, race.column(3).type());
+    assertEquals(ColumnType.LONG, race.column(4).type());
+    assertEquals(85413, race.column(4).longAt(1));
+    assertEquals(ColumnType.TEXT, race.column(7).type());
+
+    TypedTable education = TypedTable.infer(parse("data/census/postsecondary_education.csv"));
+    assertEquals(ColumnType.LONG, education.column(5).type());
+    assertEquals(ColumnType.DOUBLE, education.column(7).type());
+    assertEquals(0.069233258, education.column(7).numericAt(1));
+
+    TypedTable income =
+        TypedTable.infer(parse("data/census/ri_city_town_income_us_census_2017_2021.csv"));
+    assertEquals(ColumnType.DOUBLE, income.column(1).type());
+    assertEquals(130455.0, income.column(1).doubleAt(2));
+  }
+
+  /** Tests date columns, empty cells and short rows. */
+  @Test
+  public void testDatesAndNulls() {
+    List<List<String>> rows =
+        List.of(
+            List.of("when", "count"),
+            List.of("2023-09-25", "3"),
+            List.of("9/26/2023", ""),
+            List.of("2023-09-27"));
+    TypedTable table = TypedTable.infer(rows);
+    TypedColumn when = table.column(0);
+    assertEquals(ColumnType.DATE, when.type());
+    assertEquals(LocalDate.of(2023, 9, 26).toEpochDay(), when.epochDayAt(2));
+    TypedColumn count = table.column(1);
+    assertEquals(ColumnType.LONG, count.type());
+    assertFalse(count.isNull(1));
+    assertTrue(count.isNull(2));
+    assertTrue(count.isNull(3));
+    assertEquals(3, count.nullCount());
+    assertThrows(IllegalStateException.class, () -> count.doubleAt(1));
+  }
+
+  /**
+   * Tests that a cell outside the sampled rows that does not fit the sampled type widens the
+   * column, rather than being lost.
+   */
+  @Test
+  public void testWidensPastSample() {
+    List<List<String>> rows = new ArrayList<>();
+    rows.add(List.of("value"));
+    for (int i = 0; i < TypedTable.SAMPLE_ROWS * 3; i++) {
+      rows.add(List.of(Integer.toString(i)));
+    }
+    rows.add(2, List.of("2.5"));
+    assertEquals(ColumnType.DOUBLE, TypedTable.infer(rows).column(0).type());
+    rows.add(5, List.of("n/a"));
+    assertEquals(ColumnType.TEXT, TypedTable.infer(rows).column(0).type());
+  }
+
+  /** Tests that CsvDataWrapper infers its table when data is set, keeping the original rows. */
+  @Test
+  public void testWrapperInfersTable() {
+    CsvDataWrapper wrapper = new CsvDataWrapper(new ArrayList<>(), false);
+    assertEquals(0, wrapper.getTable().columnCount());
+    wrapper.setData(List.of(List.of("name", "income"), List.of("Bristol", "80727")));
+    assertEquals(ColumnType.TEXT, wrapper.getTable().column(0).type());
+    assertEquals(ColumnType.LONG, wrapper.getTable().column(1).type());
+    assertEquals("80727", wrapper.getData().get(1).get(1));
+  }
+}
@@ -0,0 +1,124 @@
+package edu.brown.cs.student.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.loadtest.CensusStub;
+import edu.brown.cs.student.main.loadtest.LoadReport;
+import edu.brown.cs.student.main.loadtest.LoadTest;
+import edu.brown.cs.student.main.loadtest.LoadTestOptions;
+import edu.brown.cs.student.main.sources.AcsCensusSource;
+import edu.brown.cs.student.main.sources.DataSourceException;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the load-test harness: that the CensusStub answers AcsCensusSource the way the
+ * real census API does, and that a short LoadTest run against it sends every kind of request
+ * without errors.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestLoadTest {
+  private CensusStub stub;
+
+  /**
+   * Starts a CensusStub with no latency on a free port before every test.
+   *
+   * @throws IOException if the stub cannot be started
+   */
+  @BeforeEach
+  public void setup() throws IOException {
+    stub = new CensusStub(0, 0);
+  }
+
+  /** Stops the CensusStub after every test. */
+  @AfterEach
+  public void tearDown() {
+    stub.stop();
+  }
+
+  /**
+   * Tests that an AcsCensusSource pointed at the stub finds the stale broadband data of counties,
+   * going through the same state and county code lookups it makes against the real API.
+   *
+   * @throws DataSourceException if the lookup fails
+   */
+  @Test
+  public void testStubAnswersAcsCensusSource() throws DataSourceException {
+    AcsCensusSource source = new AcsCensusSource("http", "localhost", stub.port());
+    assertEquals(84.1, source.getBroadbandAccess("Rhode Island", "Kent").data());
+    assertEquals(92.1, source.getBroadbandAccess("North Carolina", "Union").data());
+    assertEquals("44", source.getStateCode("Rhode Island"));
+  }
+
+  /** Tests that unknown states and counties fail the same way they do against the real API. */
+  @Test
+  public void testStubUnknownLocations() {
+    AcsCensusSource source = new AcsCensusSource("http", "localhost", stub.port());
+    assertThrows(
+        DataSourceException.class, () -> source.getBroadbandAccess("Rhode Island", "Kings"));
+    assertThrows(DataSourceException.class, () -> source.getBroadbandAccess("Narnia", "Kent"));
+  }
+
+  /** Tests that the stub lists counties in the form /broadband expects. */
+  @Test
+  public void testStubCountyNames() {
+    assertEquals(List.of("North Carolina", "Rhode Island"), stub.stateNames());
+    assertEquals(
+        List.of("Kent", "Providence", "Newport", "Washington"), stub.countyNames("Rhode Island"));
+  }
+
+  /**
+   * Runs a one second load test with every kind of request, and checks that requests of each kind
+   * were sent and all succeeded.
+   *
+   * @throws Exception if the load test cannot be run
+   */
+  @Test
+  public void testShortRunHasNoErrors() throws Exception {
+    LoadTestOptions options =
+        new LoadTestOptions(
+            4,
+            1000,
+            5,
+            1,
+            1,
+            1,
+            1,
+            true,
+            2,
+            "data/census/ri_city_town_income_us_census_2017_2021.csv");
+    LoadReport report = new LoadTest(options).run();
+    assertEquals(0, report.totalErrors());
+    String table = report.format();
+    assertTrue(table.startsWith("route"), table);
+    for (LoadReport.OperationStats operation : report.operations()) {
+      assertTrue(operation.latencyNanos().count() > 0, operation.name() + " was never requested");
+      assertTrue(table.contains("\n" + operation.name() + " "), table);
+    }
+    assertTrue(table.contains("\ntotal "), table);
+  }
+
+  /** Tests parsing load test options from command line arguments. */
+  @Test
+  public void testOptionsFromArgs() {
+    LoadTestOptions options =
+        LoadTestOptions.fromArgs(
+            new String[] {
+              "--concurrency=8", "--duration=3", "--mix=0:1:2:3", "--thread-per-request"
+            });
+    assertEquals(8, options.concurrency());
+    assertEquals(3000, options.durationMillis());
+    assertEquals(2, options.searchWeight());
+    assertEquals(6, options.totalWeight());
+    assertTrue(options.threadPerRequest());
+    assertThrows(
+        IllegalArgumentException.class, () -> LoadTestOptions.fromArgs(new String[] {"--mix=1:2"}));
+  }
+}
@@ -0,0 +1,84 @@
+package edu.brown.cs.student.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.metrics.Histogram;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This is a testing class that tests the Histogram class. A Histogram records non-negative values
+ * into log-linear buckets, and can report counts below a bound and values at quantiles to within
+ * 1/16 of the true value.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestHistogram {
+
+  /** An empty Histogram reports zero for its count, sum, max and every quantile. */
+  @Test
+  public void testEmpty() {
+    Histogram histogram = new Histogram();
+    assertEquals(0, histogram.count());
+    assertEquals(0, histogram.sum());
+    assertEquals(0, histogram.max());
+    assertEquals(0, histogram.valueAtQuantile(0.99));
+  }
+
+  /** Small values below 16 are recorded exactly. */
+  @Test
+  public void testSmallValuesExact() {
+    Histogram histogram = new Histogram();
+    for (int i = 0; i < 10; i++) {
+      histogram.record(i);
+    }
+    assertEquals(10, histogram.count());
+    assertEquals(45, histogram.sum());
+    assertEquals(9, histogram.max());
+    assertEquals(4, histogram.valueAtQuantile(0.5));
+    assertEquals(5, histogram.countBelow(5));
+  }
+
+  /** Quantiles of a wide range of values are within 1/16 of the exact answer. */
+  @Test
+  public void testQuantilesWithinPrecision() {
+    Histogram histogram = new Histogram();
+    List<Long> values = new ArrayList<>();
+    for (long i = 1; i <= 100_000; i++) {
+      histogram.record(i * 1000);
+      values.add(i * 1000);
+    }
+    for (double quantile : new double[] {0.5, 0.9, 0.99, 0.999}) {
+      long exact = values.get((int) Math.ceil(quantile * values.size()) - 1);
+      long estimate = histogram.valueAtQuantile(quantile);
+      assertTrue(estimate >= exact, quantile + ": " + estimate + " < " + exact);
+      assertTrue(estimate <= exact + exact / 16, quantile + ": " + estimate + " >> " + exact);
+    }
+    assertEquals(100_000_000, histogram.valueAtQuantile(1.0));
+  }
+
+  /** Counts below a power of two are exact, since powers of two are bucket boundaries. */
+  @Test
+  public void testCountBelowPowerOfTwo() {
+    Histogram histogram = new Histogram();
+    for (long i = 0; i < 5000; i++) {
+      histogram.record(i);
+    }
+    assertEquals(1024, histogram.countBelow(1024));
+    assertEquals(4096, histogram.countBelow(4096));
+    assertEquals(5000, histogram.countBelow(Long.MAX_VALUE));
+  }
+
+  /** Negative values are counted as zero rather than rejected. */
+  @Test
+  public void testNegativeClamped() {
+    Histogram histogram = new Histogram();
+    histogram.record(-5);
+    assertEquals(1, histogram.count());
+    assertEquals(0, histogram.max());
+    assertEquals(1, histogram.countBelow(1));
+  }
+}
@@ -0,0 +1,110 @@
+package edu.brown.cs.student.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import edu.brown.cs.student.main.server.AggregateHandler;
+import edu.brown.cs.student.main.server.CsvDataWrapper;
+import edu.brown.cs.student.main.server.LoadCsvHandler;
+import edu.brown.cs.student.main.server.WorkerPool;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spark.Spark;
+
+/**
+ * INTEGRATION TEST: this class tests the AggregateHandler class, sending real requests to the
+ * /loadcsv and /aggregate endpoints.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestAggregateHandler {
+  private static final String RACE = "data/census/income_by_race_edited.csv";
+
+  private final Type mapStringObject =
+      Types.newParameterizedType(Map.class, String.class, Object.class);
+  private JsonAdapter<Map<String, Object>> adapter;
+
+  /** Maps /loadcsv and /aggregate, sharing one CsvDataWrapper, before every test. */
+  @BeforeEach
+  public void setup() {
+    CsvDataWrapper csvData = new CsvDataWrapper(new ArrayList<>(), false);
+    Spark.get("/loadcsv", new LoadCsvHandler(csvData));
+    Spark.get("/aggregate", new AggregateHandler(csvData, WorkerPool.inline()));
+    Spark.awaitInitialization();
+    adapter = new Moshi.Builder().build().adapter(mapStringObject);
+  }
+
+  /** Unmaps the endpoints after every test, and waits for the server to stop. */
+  @AfterEach
+  public void tearDown() {
+    Spark.unmap("/loadcsv");
+    Spark.unmap("/aggregate");
+    Spark.awaitStop();
+  }
+
+  /**
+   * Helper to make a request and read its body as a Map.
+   *
+   * @param apiCall the call string, including endpoint
+   * @return the response body
+   * @throws IOException if the request fails
+   */
+  private Map<String, Object> request(String apiCall) throws IOException {
+    URL requestURL = new URL("http://localhost:" + Spark.port() + "/" + apiCall);
+    HttpURLConnection connection = (HttpURLConnection) requestURL.openConnection();
+    connection.connect();
+    assertEquals(200, connection.getResponseCode());
+    Map<String, Object> body = adapter.fromJson(new Buffer().readFrom(connection.getInputStream()));
+    connection.disconnect();
+    return body;
+  }
+
+  /**
+   * Tests grouping the loaded CSV by a column, with the default count and with named aggregates.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testGroupBy() throws IOException {
+    request("loadcsv?filepath=" + RACE);
+    Map<String, Object> counts = request("aggregate?headers=true&groupby=Race");
+    assertEquals("success", counts.get("result"));
+    assertEquals(List.of("Race", "count"), counts.get("columns"));
+    List<?> data = (List<?>) counts.get("data");
+    assertEquals(10, data.size());
+    assertEquals(List.of("Total", 40.0), data.get(0));
+
+    Map<String, Object> years =
+        request("aggregate?headers=true&groupby=Race&aggs=min(Year),max(Year),count(4)");
+    assertEquals(List.of("Race", "min(Year)", "max(Year)", "count(4)"), years.get("columns"));
+    assertEquals(List.of("Total", 2013.0, 2020.0, 40.0), ((List<?>) years.get("data")).get(0));
+  }
+
+  /**
+   * Tests the errors for a missing CSV, missing headers, unknown aggregates and text columns.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testErrors() throws IOException {
+    assertEquals("error_not_loaded", request("aggregate?headers=true").get("result"));
+    request("loadcsv?filepath=" + RACE);
+    assertEquals("error_bad_request", request("aggregate?groupby=Race").get("result"));
+    assertEquals(
+        "error_bad_request", request("aggregate?headers=true&aggs=median(Year)").get("result"));
+    assertEquals(
+        "error_bad_request", request("aggregate?headers=true&aggs=sum(Race)").get("result"));
+  }
+}
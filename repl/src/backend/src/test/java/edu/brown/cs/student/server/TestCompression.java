@@ -0,0 +1,209 @@
+package edu.brown.cs.student.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import edu.brown.cs.student.main.server.Compression;
+import edu.brown.cs.student.main.server.Compression.Encoding;
+import edu.brown.cs.student.main.server.CsvDataWrapper;
+import edu.brown.cs.student.main.server.Datasets;
+import edu.brown.cs.student.main.server.JoinHandler;
+import edu.brown.cs.student.main.server.LoadCsvHandler;
+import edu.brown.cs.student.main.server.ViewCsvHandler;
+import edu.brown.cs.student.main.server.WorkerPool;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spark.Spark;
+
+/**
+ * INTEGRATION TEST: this class tests the Compression class, sending real requests that accept gzip
+ * or deflate to compressed /loadcsv, /viewcsv and /join endpoints, and decompressing the responses.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestCompression {
+  private static final String INCOME = "data/census/income_by_race_edited.csv";
+  private static final String EARNINGS = "data/census/dol_ri_earnings_disparity.csv";
+
+  private final Type mapStringObject =
+      Types.newParameterizedType(Map.class, String.class, Object.class);
+  private JsonAdapter<Map<String, Object>> adapter;
+
+  /** Maps compressed /loadcsv, /viewcsv and /join endpoints before every test. */
+  @BeforeEach
+  public void setup() {
+    CsvDataWrapper csvData = new CsvDataWrapper(new ArrayList<>(), false);
+    Datasets datasets = new Datasets();
+    Compression compression = new Compression();
+    Spark.get(
+        "/loadcsv", compression.wrap(new LoadCsvHandler(csvData, WorkerPool.inline(), datasets)));
+    Spark.get("/viewcsv", compression.wrap(new ViewCsvHandler(csvData)));
+    Spark.get(
+        "/join",
+        compression.wrap(
+            new JoinHandler(
+                datasets, WorkerPool.inline(), JoinHandler.DEFAULT_MEMORY_BUDGET, compression)));
+    Spark.awaitInitialization();
+    adapter = new Moshi.Builder().build().adapter(mapStringObject);
+  }
+
+  /** Unmaps the endpoints after every test, and waits for the server to stop. */
+  @AfterEach
+  public void tearDown() {
+    Spark.unmap("/loadcsv");
+    Spark.unmap("/viewcsv");
+    Spark.unmap("/join");
+    Spark.awaitStop();
+  }
+
+  /**
+   * Helper to make a request accepting some encodings.
+   *
+   * @param apiCall the call string, including endpoint
+   * @param acceptEncoding the Accept-Encoding header, or null to send none
+   * @return the connection, after the response has started
+   * @throws IOException if the request fails
+   */
+  private HttpURLConnection request(String apiCall, String acceptEncoding) throws IOException {
+    URL requestURL = new URL("http://localhost:" + Spark.port() + "/" + apiCall);
+    HttpURLConnection connection = (HttpURLConnection) requestURL.openConnection();
+    if (acceptEncoding != null) {
+      connection.setRequestProperty("Accept-Encoding", acceptEncoding);
+    }
+    connection.connect();
+    assertEquals(200, connection.getResponseCode());
+    return connection;
+  }
+
+  /**
+   * Helper to read a response body, decompressing it by its Content-Encoding.
+   *
+   * @param connection the connection whose response to read
+   * @return the decompressed body
+   * @throws IOException if the body cannot be read
+   */
+  private static String body(HttpURLConnection connection) throws IOException {
+    String encoding = connection.getHeaderField("Content-Encoding");
+    InputStream raw = connection.getInputStream();
+    try (InputStream in =
+        "gzip".equals(encoding)
+            ? new GZIPInputStream(raw)
+            : "deflate".equals(encoding) ? new InflaterInputStream(raw) : raw) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  /**
+   * Tests that a large /viewcsv response is gzipped, with the headers the after filter would have
+   * set, and decompresses to the same body as an uncompressed request.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testGzip() throws IOException {
+    body(request("loadcsv?filepath=" + INCOME, "gzip"));
+    HttpURLConnection plain = request("viewcsv", null);
+    assertNull(plain.getHeaderField("Content-Encoding"));
+    String expected = body(plain);
+
+    HttpURLConnection gzipped = request("viewcsv", "gzip, deflate, br");
+    assertEquals("gzip", gzipped.getHeaderField("Content-Encoding"));
+    assertEquals("Accept-Encoding", gzipped.getHeaderField("Vary"));
+    assertEquals("*", gzipped.getHeaderField("Access-Control-Allow-Origin"));
+    String body = body(gzipped);
+    assertEquals(expected, body);
+    assertEquals("success", adapter.fromJson(body).get("result"));
+  }
+
+  /**
+   * Tests that deflate is used when gzip is refused, and that small responses, including a view of
+   * a small CSV, are not compressed.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testDeflateAndSmall() throws IOException {
+    HttpURLConnection small = request("viewcsv", "gzip");
+    assertNull(small.getHeaderField("Content-Encoding"));
+    assertEquals("error_not_loaded", adapter.fromJson(body(small)).get("result"));
+
+    body(request("loadcsv?filepath=data/custom/single_row.csv", null));
+    HttpURLConnection smallView = request("viewcsv", "gzip");
+    assertNull(smallView.getHeaderField("Content-Encoding"));
+    assertEquals(1, ((List<?>) adapter.fromJson(body(smallView)).get("data")).size());
+
+    body(request("loadcsv?filepath=" + INCOME, null));
+    HttpURLConnection deflated = request("viewcsv", "gzip;q=0, deflate");
+    assertEquals("deflate", deflated.getHeaderField("Content-Encoding"));
+    List<?> data = (List<?>) adapter.fromJson(body(deflated)).get("data");
+    assertEquals(324, data.size());
+  }
+
+  /**
+   * Tests that a streamed /join is gzipped as it is written.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testStreamedJoin() throws IOException {
+    body(request("loadcsv?filepath=" + INCOME + "&name=income", null));
+    body(request("loadcsv?filepath=" + EARNINGS + "&name=earnings", null));
+    HttpURLConnection joined =
+        request(
+            "join?left=income&right=earnings&lefton=Race&righton=Data%20Type&headers=true", "gzip");
+    assertEquals("gzip", joined.getHeaderField("Content-Encoding"));
+    assertTrue(joined.getContentType().startsWith("application/json"));
+    Map<String, Object> body = adapter.fromJson(body(joined));
+    assertEquals(74.0, body.get("rows"));
+  }
+
+  /** Tests choosing an encoding from Accept-Encoding headers. */
+  @Test
+  public void testNegotiate() {
+    assertEquals(Encoding.IDENTITY, Compression.negotiate(null));
+    assertEquals(Encoding.IDENTITY, Compression.negotiate("br, identity"));
+    assertEquals(Encoding.GZIP, Compression.negotiate("deflate, gzip"));
+    assertEquals(Encoding.DEFLATE, Compression.negotiate("gzip;q=0.5, deflate;q=0.8"));
+    assertEquals(Encoding.DEFLATE, Compression.negotiate("GZIP;q=0, *"));
+    assertEquals(Encoding.GZIP, Compression.negotiate("*"));
+    assertEquals(Encoding.IDENTITY, Compression.negotiate("*;q=0"));
+  }
+
+  /** Tests that larger bodies get lower levels within the CPU budget, and invalid levels fail. */
+  @Test
+  public void testLevels() {
+    Compression compression = new Compression(1024, 6, 20);
+    assertEquals(6, compression.levelFor(100_000));
+    assertEquals(6, compression.levelFor(1_000_000));
+    assertTrue(compression.levelFor(3_000_000) < 6);
+    assertEquals(1, compression.levelFor(100_000_000));
+    assertEquals(1, compression.levelFor(-1));
+    int previous = 9;
+    for (long bytes = 1; bytes < 1L << 32; bytes *= 2) {
+      int level = compression.levelFor(bytes);
+      assertTrue(level <= previous);
+      previous = level;
+    }
+    assertThrows(IllegalArgumentException.class, () -> new Compression(1024, 10, 20));
+  }
+}
@@ -0,0 +1,95 @@
+package edu.brown.cs.student.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.base.Ticker;
+import edu.brown.cs.student.main.server.Cursors;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests that Cursors issues distinct opaque cursors, and forgets them once they expire
+ * or once too many are kept.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestCursors {
+
+  /** This Ticker's time only moves when a test advances it. */
+  private static final class ManualTicker extends Ticker {
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Override
+    public long read() {
+      return nanos.get();
+    }
+
+    /**
+     * Moves the time forward.
+     *
+     * @param minutes how many minutes to move it
+     */
+    void advance(long minutes) {
+      nanos.addAndGet(TimeUnit.MINUTES.toNanos(minutes));
+    }
+  }
+
+  /** Tests that cursors are distinct, URL-safe and look up the state they were issued for. */
+  @Test
+  public void testIssue() {
+    Cursors<Integer> cursors = new Cursors<>();
+    String first = cursors.issue(1);
+    String second = cursors.issue(2);
+    assertNotEquals(first, second);
+    assertTrue(first.matches("[A-Za-z0-9_-]{22}"));
+    assertEquals(Optional.of(1), cursors.get(first));
+    assertEquals(Optional.of(2), cursors.get(second));
+    assertEquals(Optional.empty(), cursors.get("not-a-cursor"));
+  }
+
+  /** Tests that a cursor expires its time to live after it was issued. */
+  @Test
+  public void testExpiry() {
+    ManualTicker ticker = new ManualTicker();
+    Cursors<String> cursors = new Cursors<>(5, TimeUnit.MINUTES, 100, ticker);
+    String cursor = cursors.issue("state");
+    ticker.advance(4);
+    assertEquals(Optional.of("state"), cursors.get(cursor));
+    ticker.advance(2);
+    assertEquals(Optional.empty(), cursors.get(cursor));
+  }
+
+  /** Tests that no more than the most cursors are kept, however many are issued. */
+  @Test
+  public void testBounded() {
+    Cursors<Integer> cursors = new Cursors<>(5, TimeUnit.MINUTES, 50, new ManualTicker());
+    for (int i = 0; i < 1000; i++) {
+      cursors.issue(i);
+    }
+    assertTrue(cursors.size() <= 50);
+  }
+
+  /** Tests that weighed cursors keep no more than the most bytes, and that clear forgets them. */
+  @Test
+  public void testWeighed() {
+    Cursors<Long> cursors =
+        new Cursors<>(5, TimeUnit.MINUTES, 10_000, bytes -> bytes, new ManualTicker());
+    String small = cursors.issue(100L);
+    for (int i = 0; i < 100; i++) {
+      cursors.issue(1_000L);
+    }
+    assertTrue(cursors.size() <= 10);
+    assertEquals(Optional.empty(), cursors.get(small));
+
+    String kept = cursors.issue(100L);
+    assertEquals(Optional.of(100L), cursors.get(kept));
+    cursors.clear();
+    assertEquals(Optional.empty(), cursors.get(kept));
+    assertEquals(0, cursors.size());
+  }
+}
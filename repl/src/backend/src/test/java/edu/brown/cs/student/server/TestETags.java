@@ -0,0 +1,199 @@
+package edu.brown.cs.student.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import edu.brown.cs.student.main.server.BroadbandHandler;
+import edu.brown.cs.student.main.server.CsvDataWrapper;
+import edu.brown.cs.student.main.server.ETags;
+import edu.brown.cs.student.main.server.LoadCsvHandler;
+import edu.brown.cs.student.main.server.SearchCsvHandler;
+import edu.brown.cs.student.main.server.ViewCsvHandler;
+import edu.brown.cs.student.main.server.WorkerPool;
+import edu.brown.cs.student.main.sources.CensusData;
+import edu.brown.cs.student.main.sources.mocks.EchoMockCensusSource;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spark.Spark;
+
+/**
+ * INTEGRATION TEST: this class tests ETags and conditional requests, sending real requests to the
+ * /viewcsv, /searchcsv and /broadband endpoints with and without If-None-Match.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestETags {
+  private static final String INCOME = "data/census/income_by_race_edited.csv";
+  private static final String EARNINGS = "data/census/dol_ri_earnings_disparity.csv";
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  /** Maps /loadcsv, /viewcsv, /searchcsv and a cached /broadband before every test. */
+  @BeforeEach
+  public void setup() {
+    CsvDataWrapper csvData = new CsvDataWrapper(new ArrayList<>(), false);
+    Spark.get("/loadcsv", new LoadCsvHandler(csvData));
+    Spark.get("/viewcsv", new ViewCsvHandler(csvData));
+    Spark.get("/searchcsv", new SearchCsvHandler(csvData, WorkerPool.inline(), 1024 * 1024));
+    Ticker ticker =
+        new Ticker() {
+          @Override
+          public long read() {
+            return nanos.get();
+          }
+        };
+    Spark.get(
+        "/broadband",
+        new BroadbandHandler(
+            new EchoMockCensusSource(new CensusData(80.0)),
+            CacheBuilder.newBuilder().expireAfterWrite(10, TimeUnit.MINUTES).ticker(ticker)));
+    Spark.awaitInitialization();
+  }
+
+  /** Unmaps the endpoints after every test, and waits for the server to stop. */
+  @AfterEach
+  public void tearDown() {
+    Spark.unmap("/loadcsv");
+    Spark.unmap("/viewcsv");
+    Spark.unmap("/searchcsv");
+    Spark.unmap("/broadband");
+    Spark.awaitStop();
+  }
+
+  /**
+   * Helper to make a request, optionally conditional on an ETag, and read its body.
+   *
+   * @param apiCall the call string, including endpoint
+   * @param ifNoneMatch the If-None-Match header, or null to send none
+   * @return the connection, with its body read
+   * @throws IOException if the request fails
+   */
+  private HttpURLConnection request(String apiCall, String ifNoneMatch) throws IOException {
+    URL requestURL = new URL("http://localhost:" + Spark.port() + "/" + apiCall);
+    HttpURLConnection connection = (HttpURLConnection) requestURL.openConnection();
+    if (ifNoneMatch != null) {
+      connection.setRequestProperty("If-None-Match", ifNoneMatch);
+    }
+    connection.connect();
+    if (connection.getResponseCode() == 200) {
+      new Buffer().readFrom(connection.getInputStream());
+    }
+    connection.disconnect();
+    return connection;
+  }
+
+  /**
+   * Tests that a view is tagged, that sending the tag back gets a 304 until the CSV is loaded
+   * again, and that loading the same file again changes the version and so the tag.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testView() throws IOException {
+    assertNull(request("viewcsv", null).getHeaderField("ETag"));
+    request("loadcsv?filepath=" + INCOME, null);
+    HttpURLConnection first = request("viewcsv", null);
+    String etag = first.getHeaderField("ETag");
+    assertNotNull(etag);
+    assertTrue(etag.startsWith("W/\""));
+    assertEquals("no-cache", first.getHeaderField("Cache-Control"));
+
+    HttpURLConnection unchanged = request("viewcsv", etag);
+    assertEquals(304, unchanged.getResponseCode());
+    assertEquals(etag, unchanged.getHeaderField("ETag"));
+    assertEquals(304, request("viewcsv", "W/\"0-0\", " + etag).getResponseCode());
+    assertEquals(304, request("viewcsv", etag.substring(2)).getResponseCode());
+    assertNull(request("viewcsv?limit=5", null).getHeaderField("ETag"));
+
+    request("loadcsv?filepath=" + EARNINGS, null);
+    HttpURLConnection reloaded = request("viewcsv", etag);
+    assertEquals(200, reloaded.getResponseCode());
+    String next = reloaded.getHeaderField("ETag");
+    assertNotEquals(etag, next);
+    request("loadcsv?filepath=" + EARNINGS, null);
+    assertEquals(200, request("viewcsv", next).getResponseCode());
+  }
+
+  /**
+   * Tests that searches are tagged whether they are searched or cached, that failed and paged
+   * searches are not, and that a matching tag gets a 304.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testSearch() throws IOException {
+    request("loadcsv?filepath=" + INCOME, null);
+    String search = "searchcsv?value=White&colid=Race&headers=true";
+    String etag = request(search, null).getHeaderField("ETag");
+    assertNotNull(etag);
+    assertEquals(etag, request(search, null).getHeaderField("ETag"));
+    assertEquals(304, request(search, etag).getResponseCode());
+    assertEquals(
+        304, request("searchcsv?query=Year%3E%3D2020&headers=true", "*").getResponseCode());
+
+    assertNull(request("searchcsv?value=White", null).getHeaderField("ETag"));
+    HttpURLConnection paged = request(search + "&limit=5", etag);
+    assertEquals(200, paged.getResponseCode());
+    assertNull(paged.getHeaderField("ETag"));
+
+    // Invalid searches get their error even with a tag that matches the data
+    for (String invalid :
+        List.of(
+            "searchcsv?value=White",
+            "searchcsv?value=White&colid=Nope&headers=true",
+            "searchcsv?value=White&headers=true&fuzzy=9",
+            "searchcsv?query=Nope%3D1&headers=true")) {
+      HttpURLConnection failed = request(invalid, etag);
+      assertEquals(200, failed.getResponseCode(), invalid);
+      assertNull(failed.getHeaderField("ETag"), invalid);
+    }
+  }
+
+  /**
+   * Tests that broadband responses are tagged by when their cache entry was fetched, so the tag
+   * changes once the entry expires and is fetched again.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testBroadband() throws IOException {
+    String broadband = "broadband?state=California&county=Orange";
+    String etag = request(broadband, null).getHeaderField("ETag");
+    assertNotNull(etag);
+    assertEquals(304, request(broadband, etag).getResponseCode());
+    assertNull(request("broadband?state=California", null).getHeaderField("ETag"));
+
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(11));
+    long fetched = System.currentTimeMillis();
+    while (System.currentTimeMillis() == fetched) {
+      Thread.onSpinWait();
+    }
+    HttpURLConnection refetched = request(broadband, etag);
+    assertEquals(200, refetched.getResponseCode());
+    assertNotEquals(etag, refetched.getHeaderField("ETag"));
+  }
+
+  /** Tests the format of ETags. */
+  @Test
+  public void testFormat() {
+    assertEquals("W/\"3-ff\"", ETags.of(3, 255));
+    assertEquals("W/\"ffffffffffffffff\"", ETags.of(-1));
+    assertFalse(ETags.of(1, 2).equals(ETags.of(2, 1)));
+  }
+}
@@ -0,0 +1,163 @@
+package edu.brown.cs.student.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import edu.brown.cs.student.main.server.CsvDataWrapper;
+import edu.brown.cs.student.main.server.EncodedRows;
+import edu.brown.cs.student.main.server.LoadCsvHandler;
+import edu.brown.cs.student.main.server.SearchCsvHandler;
+import edu.brown.cs.student.main.server.ViewCsvHandler;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spark.Spark;
+
+/**
+ * This class tests the EncodedRows class, checking that responses built from pre-encoded rows are
+ * the same bytes Moshi writes, both directly and through /viewcsv and /searchcsv of a CSV loaded
+ * with preencode=true.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestEncodedRows {
+  private static final String INCOME = "data/census/income_by_race_edited.csv";
+
+  /** Maps /loadcsv, /viewcsv and /searchcsv, sharing one CsvDataWrapper, before every test. */
+  @BeforeEach
+  public void setup() {
+    CsvDataWrapper csvData = new CsvDataWrapper(new ArrayList<>(), false);
+    Spark.get("/loadcsv", new LoadCsvHandler(csvData));
+    Spark.get("/viewcsv", new ViewCsvHandler(csvData));
+    Spark.get("/searchcsv", new SearchCsvHandler(csvData));
+    Spark.awaitInitialization();
+  }
+
+  /** Unmaps the endpoints after every test, and waits for the server to stop. */
+  @AfterEach
+  public void tearDown() {
+    Spark.unmap("/loadcsv");
+    Spark.unmap("/viewcsv");
+    Spark.unmap("/searchcsv");
+    Spark.awaitStop();
+  }
+
+  /**
+   * Helper to make a request and read its body.
+   *
+   * @param apiCall the call string, including endpoint
+   * @return the response body
+   * @throws IOException if the request fails
+   */
+  private static String request(String apiCall) throws IOException {
+    URL requestURL = new URL("http://localhost:" + Spark.port() + "/" + apiCall);
+    HttpURLConnection connection = (HttpURLConnection) requestURL.openConnection();
+    connection.connect();
+    String body = new Buffer().readFrom(connection.getInputStream()).readUtf8();
+    connection.disconnect();
+    return body;
+  }
+
+  /**
+   * Serializes a response holding rows the way Moshi does.
+   *
+   * @param rows the rows of the response
+   * @return the Json of {"result":"success","data":rows}
+   */
+  private static String moshiJson(List<List<String>> rows) {
+    return new Moshi.Builder()
+        .build()
+        .adapter(
+            Types.newParameterizedType(
+                Map.class, String.class, Types.newParameterizedType(List.class, Object.class)))
+        .toJson(Map.of("data", rows))
+        .replace("{", "{\"result\":\"success\",");
+  }
+
+  /** Tests that copied rows match Moshi's Json, including cells that need escaping. */
+  @Test
+  public void testMatchesMoshi() {
+    List<List<String>> rows =
+        List.of(
+            List.of("plain", "", "quote \" and \\ slash"),
+            List.of("tab\tnew\nline", "\u0001", "café " + (char) 0x2028 + " 😀"),
+            List.of(),
+            List.of("last"));
+    EncodedRows encoded = EncodedRows.encode(rows);
+    assertEquals(4, encoded.size());
+    String envelope = "{\"result\":\"success\",\"data\":[]}";
+    assertEquals(
+        moshiJson(rows), new String(encoded.toJson(envelope, 0, 4), StandardCharsets.UTF_8));
+    assertEquals(
+        moshiJson(rows.subList(1, 3)),
+        new String(encoded.toJson(envelope, 1, 3), StandardCharsets.UTF_8));
+    assertEquals(envelope, new String(encoded.toJson(envelope, 2, 2), StandardCharsets.UTF_8));
+    List<List<String>> found = List.of(rows.get(3), rows.get(0), rows.get(3));
+    assertEquals(
+        moshiJson(found), new String(encoded.toJson(envelope, found), StandardCharsets.UTF_8));
+    assertEquals(envelope, new String(encoded.toJson(envelope, List.of()), StandardCharsets.UTF_8));
+  }
+
+  /** Tests that rows are found by identity, so equal rows from elsewhere are not copied. */
+  @Test
+  public void testIdentity() {
+    List<List<String>> rows = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      rows.add(List.of(String.valueOf(i % 10)));
+    }
+    EncodedRows encoded = EncodedRows.encode(rows);
+    for (int i = 0; i < rows.size(); i++) {
+      assertEquals(i, encoded.indexOf(rows.get(i)));
+    }
+    List<String> copy = new ArrayList<>(rows.get(7));
+    assertEquals(-1, encoded.indexOf(copy));
+    assertNull(encoded.toJson("{\"data\":[]}", List.of(rows.get(1), copy)));
+    assertTrue(encoded.encodes(rows));
+    assertFalse(encoded.encodes(new ArrayList<>(rows)));
+    assertThrows(IllegalArgumentException.class, () -> encoded.toJson("{\"data\":null}", 0, 1));
+  }
+
+  /**
+   * Tests that views, pages and searches of a pre-encoded CSV are the same as those of a CSV that
+   * was not pre-encoded.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testResponses() throws IOException {
+    List<String> calls =
+        List.of(
+            "viewcsv",
+            "searchcsv?value=White&colid=Race&headers=true",
+            "searchcsv?value=asian&colid=Race&mode=contains&headers=true",
+            "searchcsv?value=2020&colid=Year&op=gte&headers=true",
+            "searchcsv?query=Year%3E%3D2020%20AND%20Race%3D%22Black%22&headers=true",
+            "searchcsv?value=whte&colid=Race&fuzzy=1&headers=true");
+    request("loadcsv?filepath=" + INCOME);
+    List<String> expected = new ArrayList<>();
+    for (String call : calls) {
+      expected.add(request(call));
+    }
+    String firstPage = request("viewcsv?limit=50").replaceAll("\"cursor\":\"[^\"]*\"", "");
+
+    request("loadcsv?filepath=" + INCOME + "&preencode=true");
+    for (int i = 0; i < calls.size(); i++) {
+      assertEquals(expected.get(i), request(calls.get(i)), calls.get(i));
+    }
+    assertEquals(firstPage, request("viewcsv?limit=50").replaceAll("\"cursor\":\"[^\"]*\"", ""));
+  }
+}
@@ -0,0 +1,118 @@
+package edu.brown.cs.student.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import edu.brown.cs.student.main.server.CsvDataWrapper;
+import edu.brown.cs.student.main.server.Datasets;
+import edu.brown.cs.student.main.server.JoinHandler;
+import edu.brown.cs.student.main.server.LoadCsvHandler;
+import edu.brown.cs.student.main.server.WorkerPool;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spark.Spark;
+
+/**
+ * INTEGRATION TEST: this class tests the JoinHandler class, sending real requests to the /loadcsv
+ * and /join endpoints.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestJoinHandler {
+  private static final String INCOME = "data/census/income_by_race_edited.csv";
+  private static final String EARNINGS = "data/census/dol_ri_earnings_disparity.csv";
+
+  private final Type mapStringObject =
+      Types.newParameterizedType(Map.class, String.class, Object.class);
+  private JsonAdapter<Map<String, Object>> adapter;
+
+  /** Maps /loadcsv and /join, sharing one CsvDataWrapper, before every test. */
+  @BeforeEach
+  public void setup() {
+    CsvDataWrapper csvData = new CsvDataWrapper(new ArrayList<>(), false);
+    Datasets datasets = new Datasets();
+    Spark.get("/loadcsv", new LoadCsvHandler(csvData, WorkerPool.inline(), datasets));
+    Spark.get("/join", new JoinHandler(datasets));
+    Spark.awaitInitialization();
+    adapter = new Moshi.Builder().build().adapter(mapStringObject);
+  }
+
+  /** Unmaps the endpoints after every test, and waits for the server to stop. */
+  @AfterEach
+  public void tearDown() {
+    Spark.unmap("/loadcsv");
+    Spark.unmap("/join");
+    Spark.awaitStop();
+  }
+
+  /**
+   * Helper to make a request and read its body as a Map.
+   *
+   * @param apiCall the call string, including endpoint
+   * @return the response body
+   * @throws IOException if the request fails
+   */
+  private Map<String, Object> request(String apiCall) throws IOException {
+    URL requestURL = new URL("http://localhost:" + Spark.port() + "/" + apiCall);
+    HttpURLConnection connection = (HttpURLConnection) requestURL.openConnection();
+    connection.connect();
+    assertEquals(200, connection.getResponseCode());
+    Map<String, Object> body = adapter.fromJson(new Buffer().readFrom(connection.getInputStream()));
+    connection.disconnect();
+    return body;
+  }
+
+  /**
+   * Tests joining two CSVs loaded under names, streamed back as Json.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testJoin() throws IOException {
+    Map<String, Object> load = request("loadcsv?filepath=" + INCOME + "&name=income");
+    assertEquals("success", load.get("result"));
+    assertEquals("income", load.get("name"));
+    request("loadcsv?filepath=" + EARNINGS + "&name=earnings");
+    Map<String, Object> body =
+        request("join?left=income&right=earnings&lefton=Race&righton=Data%20Type&headers=true");
+    assertEquals("success", body.get("result"));
+    assertEquals(74.0, body.get("rows"));
+    List<?> columns = (List<?>) body.get("columns");
+    assertEquals(15, columns.size());
+    assertEquals("Data Type", columns.get(10));
+    List<?> data = (List<?>) body.get("data");
+    assertEquals(74, data.size());
+    List<?> first = (List<?>) data.get(0);
+    assertEquals(first.get(1), first.get(10));
+  }
+
+  /**
+   * Tests the errors for missing parameters, a dataset that is not loaded, and an unknown column.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testErrors() throws IOException {
+    request("loadcsv?filepath=" + INCOME + "&name=income");
+    assertEquals("error_bad_request", request("join?left=income&right=income").get("result"));
+    assertEquals(
+        "error_not_loaded",
+        request("join?left=income&right=earnings&lefton=1&righton=1&headers=true").get("result"));
+    assertEquals(
+        "error_bad_request",
+        request("join?left=income&right=income&lefton=Race&righton=Country&headers=true")
+            .get("result"));
+  }
+}
@@ -0,0 +1,122 @@
+package edu.brown.cs.student.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.server.Server;
+import edu.brown.cs.student.main.server.ServerOptions;
+import edu.brown.cs.student.main.sources.CensusData;
+import edu.brown.cs.student.main.sources.mocks.EchoMockCensusSource;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * INTEGRATION TEST: starts a whole Server in-process, sends it requests, and checks that the
+ * /metrics endpoint reports them in the Prometheus text format.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestMetricsHandler {
+  private Server server;
+
+  /** Starts a Server on a free port, backed by an echo mock CensusSource. */
+  @BeforeEach
+  public void setup() {
+    server =
+        new Server(new ServerOptions(0, false, 1), new EchoMockCensusSource(new CensusData(80.0)));
+  }
+
+  /** Stops the Server after every test. */
+  @AfterEach
+  public void tearDown() {
+    server.stop();
+  }
+
+  /**
+   * Helper to send a request to the Server under test and read its body as text.
+   *
+   * @param apiCall the call string, including endpoint
+   * @return the body of the response
+   * @throws IOException if the connection fails for some reason
+   */
+  private String request(String apiCall) throws IOException {
+    URL requestURL = new URL("http://localhost:" + server.port() + "/" + apiCall);
+    HttpURLConnection clientConnection = (HttpURLConnection) requestURL.openConnection();
+    clientConnection.connect();
+    assertEquals(200, clientConnection.getResponseCode());
+    String body = new Buffer().readFrom(clientConnection.getInputStream()).readUtf8();
+    clientConnection.disconnect();
+    return body;
+  }
+
+  /**
+   * Before any other request, /metrics lists every route with no requests counted yet.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testNoRequestsYet() throws IOException {
+    String body = request("metrics");
+    assertTrue(body.contains("# TYPE repl_requests_total counter"));
+    assertTrue(body.contains("repl_requests_total{route=\"searchcsv\"} 0\n"));
+    assertTrue(body.contains("repl_dataset_rows 0\n"));
+  }
+
+  /**
+   * Requests to tracked routes are counted, and their latency and response sizes recorded.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testRequestsRecorded() throws IOException {
+    request("loadcsv?filepath=data/census/ri_city_town_income_us_census_2017_2021.csv");
+    request("searchcsv?value=Bristol&headers=true&colid=0");
+    request("searchcsv?value=Barrington&headers=true");
+    String body = request("metrics");
+    assertTrue(body.contains("repl_requests_total{route=\"loadcsv\"} 1\n"));
+    assertTrue(body.contains("repl_requests_total{route=\"searchcsv\"} 2\n"));
+    assertTrue(body.contains("repl_request_duration_seconds_count{route=\"searchcsv\"} 2\n"));
+    assertTrue(
+        body.contains("repl_request_duration_seconds_bucket{route=\"searchcsv\",le=\"+Inf\"} 2"));
+    assertTrue(body.contains("repl_response_size_bytes_count{route=\"searchcsv\"} 2\n"));
+    assertTrue(body.contains("repl_dataset_rows 41\n"));
+    assertTrue(!body.contains("repl_dataset_bytes 0\n"));
+  }
+
+  /**
+   * Broadband cache hits and misses are reported per broadband route.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testCacheStatistics() throws IOException {
+    request("broadband?state=Rhode_Island&county=Kent");
+    request("broadband?state=Rhode_Island&county=Kent");
+    request("broadband?state=Rhode_Island&county=Providence");
+    String body = request("metrics");
+    assertTrue(body.contains("repl_cache_hits_total{route=\"broadband\"} 1\n"));
+    assertTrue(body.contains("repl_cache_misses_total{route=\"broadband\"} 2\n"));
+    assertTrue(body.contains("repl_cache_evictions_total{route=\"broadband\"} 0\n"));
+  }
+
+  /**
+   * Search cache hits and misses are reported for searchcsv.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testSearchCacheStatistics() throws IOException {
+    request("loadcsv?filepath=data/census/ri_city_town_income_us_census_2017_2021.csv");
+    request("searchcsv?value=Barrington&headers=true");
+    request("searchcsv?value=Barrington&headers=true");
+    String body = request("metrics");
+    assertTrue(body.contains("repl_cache_hits_total{route=\"searchcsv\"} 1\n"));
+    assertTrue(body.contains("repl_cache_misses_total{route=\"searchcsv\"} 1\n"));
+  }
+}
@@ -0,0 +1,106 @@
+package edu.brown.cs.student.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import edu.brown.cs.student.main.server.CsvDataWrapper;
+import edu.brown.cs.student.main.server.LoadCsvHandler;
+import edu.brown.cs.student.main.server.ProfileHandler;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spark.Spark;
+
+/**
+ * INTEGRATION TEST: this class tests the ProfileHandler class, sending real requests to the
+ * /loadcsv and /profile endpoints.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestProfileHandler {
+  private static final String INCOME = "data/census/ri_city_town_income_us_census_2017_2021.csv";
+
+  private final Type mapStringObject =
+      Types.newParameterizedType(Map.class, String.class, Object.class);
+  private JsonAdapter<Map<String, Object>> adapter;
+
+  /** Maps /loadcsv and /profile, sharing one CsvDataWrapper, before every test. */
+  @BeforeEach
+  public void setup() {
+    CsvDataWrapper csvData = new CsvDataWrapper(new ArrayList<>(), false);
+    Spark.get("/loadcsv", new LoadCsvHandler(csvData));
+    Spark.get("/profile", new ProfileHandler(csvData));
+    Spark.awaitInitialization();
+    adapter = new Moshi.Builder().build().adapter(mapStringObject);
+  }
+
+  /** Unmaps the endpoints after every test, and waits for the server to stop. */
+  @AfterEach
+  public void tearDown() {
+    Spark.unmap("/loadcsv");
+    Spark.unmap("/profile");
+    Spark.awaitStop();
+  }
+
+  /**
+   * Helper to make a request and read its body as a Map.
+   *
+   * @param apiCall the call string, including endpoint
+   * @return the response body
+   * @throws IOException if the request fails
+   */
+  private Map<String, Object> request(String apiCall) throws IOException {
+    URL requestURL = new URL("http://localhost:" + Spark.port() + "/" + apiCall);
+    HttpURLConnection connection = (HttpURLConnection) requestURL.openConnection();
+    connection.connect();
+    assertEquals(200, connection.getResponseCode());
+    Map<String, Object> body = adapter.fromJson(new Buffer().readFrom(connection.getInputStream()));
+    connection.disconnect();
+    return body;
+  }
+
+  /**
+   * Tests profiling a loaded CSV, whose statistics were gathered while /loadcsv parsed it.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testProfile() throws IOException {
+    request("loadcsv?filepath=" + INCOME);
+    Map<String, Object> body = request("profile?headers=true");
+    assertEquals("success", body.get("result"));
+    assertEquals(40.0, body.get("rows"));
+    List<?> columns = (List<?>) body.get("columns");
+    assertEquals(4, columns.size());
+    Map<?, ?> town = (Map<?, ?>) columns.get(0);
+    assertEquals("City/Town", town.get("column"));
+    assertEquals("text", town.get("type"));
+    assertEquals(40.0, town.get("distinct"));
+    Map<?, ?> income = (Map<?, ?>) columns.get(1);
+    assertEquals("double", income.get("type"));
+    assertEquals(0.0, income.get("nulls"));
+  }
+
+  /**
+   * Tests the errors for a missing CSV and a missing headers parameter.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testErrors() throws IOException {
+    assertEquals("error_not_loaded", request("profile?headers=true").get("result"));
+    request("loadcsv?filepath=" + INCOME);
+    assertEquals("error_bad_request", request("profile").get("result"));
+  }
+}
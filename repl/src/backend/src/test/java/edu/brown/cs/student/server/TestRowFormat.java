@@ -0,0 +1,260 @@
+package edu.brown.cs.student.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import edu.brown.cs.student.main.server.Compression;
+import edu.brown.cs.student.main.server.CsvDataWrapper;
+import edu.brown.cs.student.main.server.LoadCsvHandler;
+import edu.brown.cs.student.main.server.RowFormat;
+import edu.brown.cs.student.main.server.SearchCsvHandler;
+import edu.brown.cs.student.main.server.ViewCsvHandler;
+import edu.brown.cs.student.main.server.WorkerPool;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spark.Spark;
+
+/**
+ * This class tests the RowFormat enum, checking the NDJSON, CSV and binary columnar forms of rows
+ * directly, and that /viewcsv and /searchcsv send the same rows in them as in Json.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestRowFormat {
+  private static final String INCOME = "data/census/income_by_race_edited.csv";
+
+  private final JsonAdapter<Map<String, Object>> adapter =
+      new Moshi.Builder()
+          .build()
+          .adapter(Types.newParameterizedType(Map.class, String.class, Object.class));
+
+  /** Maps /loadcsv, /viewcsv and /searchcsv, sharing one CsvDataWrapper, before every test. */
+  @BeforeEach
+  public void setup() {
+    CsvDataWrapper csvData = new CsvDataWrapper(new ArrayList<>(), false);
+    Compression compression = new Compression();
+    Spark.get("/loadcsv", new LoadCsvHandler(csvData));
+    Spark.get("/viewcsv", compression.wrap(new ViewCsvHandler(csvData, compression)));
+    Spark.get(
+        "/searchcsv",
+        compression.wrap(new SearchCsvHandler(csvData, WorkerPool.inline(), 0, compression)));
+    Spark.awaitInitialization();
+  }
+
+  /** Unmaps the endpoints after every test, and waits for the server to stop. */
+  @AfterEach
+  public void tearDown() {
+    Spark.unmap("/loadcsv");
+    Spark.unmap("/viewcsv");
+    Spark.unmap("/searchcsv");
+    Spark.awaitStop();
+  }
+
+  /**
+   * Helper to make a request, optionally accepting gzip.
+   *
+   * @param apiCall the call string, including endpoint
+   * @param gzip whether to accept a gzipped response
+   * @return the connection, with the response read into body
+   * @throws IOException if the request fails
+   */
+  private static HttpURLConnection request(String apiCall, boolean gzip) throws IOException {
+    URL requestURL = new URL("http://localhost:" + Spark.port() + "/" + apiCall);
+    HttpURLConnection connection = (HttpURLConnection) requestURL.openConnection();
+    if (gzip) {
+      connection.setRequestProperty("Accept-Encoding", "gzip");
+    }
+    connection.connect();
+    return connection;
+  }
+
+  /**
+   * Reads the body of a response, decompressing it if it was gzipped.
+   *
+   * @param connection the connection of the request
+   * @return the body
+   * @throws IOException if the body cannot be read
+   */
+  private static Buffer body(HttpURLConnection connection) throws IOException {
+    InputStream raw = connection.getInputStream();
+    InputStream in =
+        "gzip".equals(connection.getHeaderField("Content-Encoding"))
+            ? new GZIPInputStream(raw)
+            : raw;
+    Buffer body = new Buffer().readFrom(in);
+    connection.disconnect();
+    return body;
+  }
+
+  /**
+   * Decodes the binary columnar format, the way src/frontend/types/ColumnarRows.ts does.
+   *
+   * @param in the Buffer holding the format
+   * @return the rows
+   * @throws IOException if the format ends early
+   */
+  private static List<List<String>> decode(Buffer in) throws IOException {
+    assertEquals("RPLC", in.readUtf8(4));
+    assertEquals(RowFormat.BINARY_VERSION, in.readByte());
+    int rowCount = in.readIntLe();
+    int columnCount = in.readIntLe();
+    List<List<String>> rows = new ArrayList<>();
+    for (int i = 0; i < rowCount; i++) {
+      rows.add(new ArrayList<>());
+    }
+    for (int col = 0; col < columnCount; col++) {
+      List<String> dictionary = new ArrayList<>();
+      int size = in.readIntLe();
+      for (int i = 0; i < size; i++) {
+        dictionary.add(in.readUtf8(in.readIntLe()));
+      }
+      int width = in.readByte();
+      for (List<String> row : rows) {
+        int code =
+            width == 1
+                ? in.readByte() & 0xff
+                : width == 2 ? in.readShortLe() & 0xffff : in.readIntLe();
+        if (code < size) {
+          row.add(dictionary.get(code));
+        }
+      }
+    }
+    assertTrue(in.exhausted());
+    return rows;
+  }
+
+  /**
+   * Reads the data of a Json response.
+   *
+   * @param body the Json response
+   * @return its data
+   * @throws IOException if it is not Json
+   */
+  private List<Object> data(String body) throws IOException {
+    Map<String, Object> response = adapter.fromJson(body);
+    assertEquals("success", response.get("result"), body);
+    @SuppressWarnings("unchecked")
+    List<Object> data = (List<Object>) response.get("data");
+    return data;
+  }
+
+  /**
+   * Tests the NDJSON and CSV forms of rows, including cells that need escaping or quoting.
+   *
+   * @throws IOException never, since a Buffer is written
+   */
+  @Test
+  public void testNdjsonAndCsv() throws IOException {
+    List<List<String>> rows =
+        List.of(List.of("a", "b,c", "say \"hi\""), List.of(), List.of("line\nbreak", ""));
+    Buffer ndjson = new Buffer();
+    RowFormat.NDJSON.write(rows, ndjson);
+    assertEquals(
+        "[\"a\",\"b,c\",\"say \\\"hi\\\"\"]\n[]\n[\"line\\nbreak\",\"\"]\n", ndjson.readUtf8());
+    Buffer csv = new Buffer();
+    RowFormat.CSV.write(rows, csv);
+    assertEquals("a,\"b,c\",\"say \"\"hi\"\"\"\r\n\r\n\"line\nbreak\",\r\n", csv.readUtf8());
+    assertThrows(IllegalStateException.class, () -> RowFormat.JSON.write(rows, new Buffer()));
+  }
+
+  /**
+   * Tests that the binary form of rows decodes to the same rows, including ragged rows and columns
+   * with too many distinct values for one-byte codes.
+   *
+   * @throws IOException never, since a Buffer is written
+   */
+  @Test
+  public void testBinary() throws IOException {
+    List<List<String>> rows = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      rows.add(List.of(String.valueOf(i), i % 2 == 0 ? "even" : "odd", "café"));
+    }
+    rows.add(List.of("short"));
+    rows.add(List.of());
+    Buffer binary = new Buffer();
+    RowFormat.BINARY.write(rows, binary);
+    assertEquals(rows, decode(binary));
+
+    Buffer empty = new Buffer();
+    RowFormat.BINARY.write(List.of(), empty);
+    assertEquals(List.of(), decode(empty));
+  }
+
+  /** Tests that format parameters are read, and unknown ones are rejected. */
+  @Test
+  public void testOf() {
+    assertEquals(RowFormat.JSON, RowFormat.of(null));
+    for (RowFormat format : RowFormat.values()) {
+      assertEquals(format, RowFormat.of(format.param()));
+    }
+    assertThrows(IllegalArgumentException.class, () -> RowFormat.of("xml"));
+  }
+
+  /**
+   * Tests that /viewcsv and /searchcsv send the same rows in every format as in Json, gzipped or
+   * not.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testEndpoints() throws IOException {
+    body(request("loadcsv?filepath=" + INCOME, false));
+    for (String call : List.of("viewcsv?", "searchcsv?value=White&colid=Race&headers=true&")) {
+      List<Object> expected = data(body(request(call, false)).readUtf8());
+      for (boolean gzip : List.of(false, true)) {
+        HttpURLConnection connection = request(call + "format=binary", gzip);
+        assertEquals("application/octet-stream", connection.getContentType());
+        assertEquals(expected, decode(body(connection)));
+
+        connection = request(call + "format=ndjson", gzip);
+        assertEquals("application/x-ndjson", connection.getContentType());
+        List<Object> ndjson = new ArrayList<>();
+        Buffer lines = body(connection);
+        while (!lines.exhausted()) {
+          ndjson.add(
+              new Moshi.Builder().build().adapter(List.class).fromJson(lines.readUtf8LineStrict()));
+        }
+        assertEquals(expected, ndjson);
+
+        connection = request(call + "format=csv", gzip);
+        assertTrue(connection.getContentType().startsWith("text/csv"));
+        assertEquals(expected.size(), body(connection).readUtf8().split("\r\n").length);
+      }
+    }
+  }
+
+  /**
+   * Tests that unknown formats, and formats combined with paging or explain, are bad requests.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testErrors() throws IOException {
+    body(request("loadcsv?filepath=" + INCOME, false));
+    for (String call :
+        List.of(
+            "viewcsv?format=xml",
+            "viewcsv?format=csv&limit=5",
+            "searchcsv?value=White&headers=true&format=xml",
+            "searchcsv?value=White&headers=true&format=csv&limit=5",
+            "searchcsv?query=Year%3E%3D2020&headers=true&format=csv&explain=true")) {
+      Map<String, Object> response = adapter.fromJson(body(request(call, false)).readUtf8());
+      assertEquals("error_bad_request", response.get("result"), call);
+    }
+  }
+}
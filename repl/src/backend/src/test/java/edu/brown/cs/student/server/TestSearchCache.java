@@ -0,0 +1,128 @@
+package edu.brown.cs.student.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.brown.cs.student.main.server.CsvDataWrapper;
+import edu.brown.cs.student.main.server.LoadCsvHandler;
+import edu.brown.cs.student.main.server.SearchCsvHandler;
+import edu.brown.cs.student.main.server.WorkerPool;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import spark.Spark;
+
+/**
+ * INTEGRATION TEST: this class tests the response cache of SearchCsvHandler, sending real requests
+ * to the /loadcsv and /searchcsv endpoints.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestSearchCache {
+  private static final String INCOME = "data/census/ri_city_town_income_us_census_2017_2021.csv";
+  private static final String RACE = "data/census/income_by_race_edited.csv";
+
+  private CsvDataWrapper csvData;
+  private SearchCsvHandler search;
+
+  /**
+   * Maps /loadcsv, and /searchcsv with a cache of the given size.
+   *
+   * @param cacheBytes the most bytes the search cache may hold
+   */
+  private void start(long cacheBytes) {
+    csvData = new CsvDataWrapper(new ArrayList<>(), false);
+    search = new SearchCsvHandler(csvData, WorkerPool.inline(), cacheBytes);
+    Spark.get("/loadcsv", new LoadCsvHandler(csvData));
+    Spark.get("/searchcsv", search);
+    Spark.awaitInitialization();
+  }
+
+  /** Unmaps the endpoints after every test, and waits for the server to stop. */
+  @AfterEach
+  public void tearDown() {
+    Spark.unmap("/loadcsv");
+    Spark.unmap("/searchcsv");
+    Spark.awaitStop();
+  }
+
+  /**
+   * Helper to make a request and read its whole body.
+   *
+   * @param apiCall the call string, including endpoint
+   * @return the response body
+   * @throws IOException if the request fails
+   */
+  private String request(String apiCall) throws IOException {
+    URL requestURL = new URL("http://localhost:" + Spark.port() + "/" + apiCall);
+    HttpURLConnection connection = (HttpURLConnection) requestURL.openConnection();
+    connection.connect();
+    assertEquals(200, connection.getResponseCode());
+    String body = new Buffer().readFrom(connection.getInputStream()).readUtf8();
+    connection.disconnect();
+    return body;
+  }
+
+  /**
+   * Tests that a repeated search is answered from the cache with the same response, whatever the
+   * order of its parameters, and that failures are not cached.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testRepeatedSearchHits() throws IOException {
+    start(1 << 20);
+    request("loadcsv?filepath=" + INCOME);
+    String first = request("searchcsv?value=Barrington&headers=true&colid=0");
+    String second = request("searchcsv?colid=0&headers=true&value=Barrington");
+    assertEquals(first, second);
+    assertTrue(first.contains("Barrington"));
+    assertEquals(1, search.getCacheStats().hitCount());
+    assertEquals(1, search.getCacheStats().missCount());
+
+    request("searchcsv?value=Barrington&headers=true&colid=Town");
+    request("searchcsv?value=Barrington&headers=true&colid=Town");
+    assertEquals(1, search.getCacheStats().hitCount());
+  }
+
+  /**
+   * Tests that loading a CSV again replaces the cached responses with ones from the new data.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testLoadInvalidates() throws IOException {
+    start(1 << 20);
+    request("loadcsv?filepath=" + INCOME);
+    String income = request("searchcsv?value=Barrington&headers=true");
+    assertTrue(income.contains("[\"Barrington\""));
+
+    request("loadcsv?filepath=" + RACE);
+    String race = request("searchcsv?value=Barrington&headers=true");
+    assertTrue(race.contains("\"data\":[]"));
+    assertEquals(0, search.getCacheStats().hitCount());
+    assertEquals(race, request("searchcsv?value=Barrington&headers=true"));
+    assertEquals(1, search.getCacheStats().hitCount());
+  }
+
+  /**
+   * Tests that the cache evicts responses to stay within its byte budget.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testBoundedByBytes() throws IOException {
+    start(8 * 1024);
+    request("loadcsv?filepath=" + RACE);
+    for (String race : new String[] {"Asian", "Black", "Hispanic", "White", "Asian"}) {
+      request("searchcsv?value=" + race + "&headers=true&colid=Race");
+    }
+    assertTrue(search.getCacheStats().evictionCount() > 0);
+    assertEquals(0, search.getCacheStats().hitCount());
+  }
+}
@@ -761,6 +761,171 @@ public class TestSearchCsvHandler {
     searchConnection.disconnect();
   }
 
+  /**
+   * This test verifies that /searchcsv with mode=contains finds every row whose column contains the
+   * value in any case, reports the mode back, and rejects unknown modes.
+   *
+   * @throws IOException if the connection fails for some reason
+   */
+  @Test
+  public void testLoadSearchContainsMode() throws IOException {
+    HttpURLConnection loadConnection =
+        tryRequest("loadcsv?filepath=data/census/ri_city_town_income_us_census_2017_2021.csv");
+    assertEquals(200, loadConnection.getResponseCode());
+    loadConnection.disconnect();
+
+    HttpURLConnection searchConnection =
+        tryRequest("searchcsv?value=providence&headers=true&colid=0&mode=contains");
+    assertEquals(200, searchConnection.getResponseCode());
+    Map<String, Object> searchBody =
+        adapter.fromJson(new Buffer().readFrom(searchConnection.getInputStream()));
+    showDetailsIfError(searchBody);
+    assertEquals("success", searchBody.get("result"));
+    assertEquals("contains", searchBody.get("mode"));
+    assertEquals(3, ((List<?>) searchBody.get("data")).size());
+    searchConnection.disconnect();
+
+    HttpURLConnection badConnection =
+        tryRequest("searchcsv?value=providence&headers=true&colid=0&mode=sounds-like");
+    Map<String, Object> badBody =
+        adapter.fromJson(new Buffer().readFrom(badConnection.getInputStream()));
+    assertEquals("error_bad_request", badBody.get("result"));
+    badConnection.disconnect();
+  }
+
+  /**
+   * Tests that a fuzzy search finds a misspelled town, closest first, and that fuzzy cannot be
+   * combined with mode.
+   *
+   * @throws IOException if the connection fails
+   */
+  @Test
+  public void testLoadSearchFuzzy() throws IOException {
+    HttpURLConnection loadConnection =
+        tryRequest("loadcsv?filepath=data/census/ri_city_town_income_us_census_2017_2021.csv");
+    assertEquals(200, loadConnection.getResponseCode());
+    loadConnection.disconnect();
+
+    HttpURLConnection searchConnection =
+        tryRequest("searchcsv?value=Providense&headers=true&colid=0&fuzzy=2");
+    assertEquals(200, searchConnection.getResponseCode());
+    Map<String, Object> searchBody =
+        adapter.fromJson(new Buffer().readFrom(searchConnection.getInputStream()));
+    showDetailsIfError(searchBody);
+    assertEquals("success", searchBody.get("result"));
+    assertEquals(2.0, searchBody.get("fuzzy"));
+    List<?> data = (List<?>) searchBody.get("data");
+    assertEquals(1, data.size());
+    assertEquals("Providence", ((List<?>) data.get(0)).get(0));
+    searchConnection.disconnect();
+
+    HttpURLConnection badConnection =
+        tryRequest("searchcsv?value=Providense&headers=true&colid=0&fuzzy=1&mode=ci");
+    Map<String, Object> badBody =
+        adapter.fromJson(new Buffer().readFrom(badConnection.getInputStream()));
+    assertEquals("error_bad_request", badBody.get("result"));
+    badConnection.disconnect();
+  }
+
+  /**
+   * Tests that a search with a limit returns pages of rows, following each page's opaque cursor
+   * until no more rows match, and that a page ordered by a column is ranked by it.
+   *
+   * @throws IOException if the connection fails
+   */
+  @Test
+  public void testLoadSearchPages() throws IOException {
+    HttpURLConnection loadConnection =
+        tryRequest("loadcsv?filepath=data/census/income_by_race_edited.csv");
+    assertEquals(200, loadConnection.getResponseCode());
+    loadConnection.disconnect();
+
+    int found = 0;
+    String cursor = null;
+    do {
+      HttpURLConnection searchConnection =
+          tryRequest(
+              cursor == null
+                  ? "searchcsv?value=White&headers=true&colid=Race&limit=15"
+                  : "searchcsv?cursor=" + cursor);
+      Map<String, Object> searchBody =
+          adapter.fromJson(new Buffer().readFrom(searchConnection.getInputStream()));
+      showDetailsIfError(searchBody);
+      assertEquals("success", searchBody.get("result"));
+      Map<?, ?> page = (Map<?, ?>) searchBody.get("page");
+      assertEquals(15.0, page.get("limit"));
+      found += ((List<?>) searchBody.get("data")).size();
+      cursor = (String) page.get("cursor");
+      assertEquals(cursor != null, page.get("more"));
+      searchConnection.disconnect();
+    } while (cursor != null);
+    assertEquals(40, found);
+
+    HttpURLConnection orderedConnection =
+        tryRequest(
+            "searchcsv?value=White&headers=true&colid=Race&limit=5"
+                + "&orderby=Household%20Income%20by%20Race&order=desc");
+    Map<String, Object> orderedBody =
+        adapter.fromJson(new Buffer().readFrom(orderedConnection.getInputStream()));
+    showDetailsIfError(orderedBody);
+    List<?> data = (List<?>) orderedBody.get("data");
+    assertEquals(5, data.size());
+    for (int i = 1; i < data.size(); i++) {
+      double previous = Double.parseDouble((String) ((List<?>) data.get(i - 1)).get(4));
+      double current = Double.parseDouble((String) ((List<?>) data.get(i)).get(4));
+      assertEquals(true, previous >= current);
+    }
+    orderedConnection.disconnect();
+
+    HttpURLConnection badConnection =
+        tryRequest("searchcsv?value=White&headers=true&colid=Race&limit=0");
+    Map<String, Object> badBody =
+        adapter.fromJson(new Buffer().readFrom(badConnection.getInputStream()));
+    assertEquals("error_bad_request", badBody.get("result"));
+    badConnection.disconnect();
+  }
+
+  /**
+   * Tests that a cursor is an error once the CSV has been loaded again, and that a cursor that was
+   * never issued is an error.
+   *
+   * @throws IOException if the connection fails
+   */
+  @Test
+  public void testStaleCursor() throws IOException {
+    HttpURLConnection loadConnection =
+        tryRequest("loadcsv?filepath=data/census/income_by_race_edited.csv");
+    assertEquals(200, loadConnection.getResponseCode());
+    loadConnection.disconnect();
+
+    HttpURLConnection searchConnection =
+        tryRequest("searchcsv?value=Black&headers=true&colid=Race&limit=10&orderby=Year");
+    Map<String, Object> searchBody =
+        adapter.fromJson(new Buffer().readFrom(searchConnection.getInputStream()));
+    String cursor = (String) ((Map<?, ?>) searchBody.get("page")).get("cursor");
+    searchConnection.disconnect();
+
+    HttpURLConnection nextConnection = tryRequest("searchcsv?cursor=" + cursor);
+    Map<String, Object> nextBody =
+        adapter.fromJson(new Buffer().readFrom(nextConnection.getInputStream()));
+    assertEquals("success", nextBody.get("result"));
+    assertEquals("Year", ((Map<?, ?>) nextBody.get("page")).get("orderby"));
+    assertEquals(10, ((List<?>) nextBody.get("data")).size());
+    nextConnection.disconnect();
+
+    HttpURLConnection reloadConnection =
+        tryRequest("loadcsv?filepath=data/census/income_by_race_edited.csv");
+    assertEquals(200, reloadConnection.getResponseCode());
+    reloadConnection.disconnect();
+    for (String stale : new String[] {cursor, "not-a-cursor"}) {
+      HttpURLConnection staleConnection = tryRequest("searchcsv?cursor=" + stale);
+      Map<String, Object> staleBody =
+          adapter.fromJson(new Buffer().readFrom(staleConnection.getInputStream()));
+      assertEquals("error_bad_request", staleBody.get("result"));
+      staleConnection.disconnect();
+    }
+  }
+
   /**
    * This helper method prints the details of an error message if the response body contains the
    * String "error" in the result field.
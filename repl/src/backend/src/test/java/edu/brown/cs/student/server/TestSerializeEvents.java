@@ -0,0 +1,103 @@
+package edu.brown.cs.student.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.brown.cs.student.main.csv.table.TypedTable;
+import edu.brown.cs.student.main.server.CsvDataWrapper;
+import edu.brown.cs.student.main.server.ViewCsvHandler;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spark.Spark;
+
+/**
+ * This is a testing class that tests the Serialize Flight Recorder events committed by handlers,
+ * checking that they record the UTF-8 bytes of the response whether it was built as a String or
+ * copied from pre-encoded rows.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestSerializeEvents {
+  private static final List<List<String>> ROWS =
+      List.of(List.of("name", "town"), List.of("Zoë", "São Paulo"), List.of("Chloé", "東京 🚉"));
+
+  private CsvDataWrapper csvData;
+
+  /** Maps /viewcsv over a CsvDataWrapper that each test sets its rows in. */
+  @BeforeEach
+  public void setup() {
+    csvData = new CsvDataWrapper(new ArrayList<>(), false);
+    Spark.get("/viewcsv", new ViewCsvHandler(csvData));
+    Spark.awaitInitialization();
+  }
+
+  /** Unmaps the endpoint after every test, and waits for the server to stop. */
+  @AfterEach
+  public void tearDown() {
+    Spark.unmap("/viewcsv");
+    Spark.awaitStop();
+  }
+
+  /**
+   * Helper to make a request and read its body.
+   *
+   * @param apiCall the call string, including endpoint
+   * @return the body, as bytes
+   * @throws IOException if the request fails
+   */
+  private static byte[] request(String apiCall) throws IOException {
+    URL requestURL = new URL("http://localhost:" + Spark.port() + "/" + apiCall);
+    HttpURLConnection connection = (HttpURLConnection) requestURL.openConnection();
+    connection.connect();
+    byte[] body = new Buffer().readFrom(connection.getInputStream()).readByteArray();
+    connection.disconnect();
+    return body;
+  }
+
+  /**
+   * Viewing rows with characters taking more than one byte in UTF-8, once serialized as a String
+   * and once copied from pre-encoded rows, commits a Serialize event for each holding the UTF-8
+   * size of the response.
+   *
+   * @throws Exception if a request or the recording fails
+   */
+  @Test
+  public void testSerializeEventsRecordBytes() throws Exception {
+    Path dump = Files.createTempFile("serialize-events", ".jfr");
+    List<Integer> sizes = new ArrayList<>();
+    try (Recording recording = new Recording()) {
+      recording.enable("edu.brown.cs.student.Serialize");
+      recording.start();
+      for (boolean preencode : List.of(false, true)) {
+        csvData.setData(ROWS, TypedTable.infer(ROWS), null, preencode);
+        csvData.setLoaded(true);
+        sizes.add(request("viewcsv").length);
+      }
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+    Files.delete(dump);
+    List<Integer> recorded = new ArrayList<>();
+    for (RecordedEvent event : events) {
+      if (event.getEventType().getName().equals("edu.brown.cs.student.Serialize")) {
+        assertEquals("viewcsv", event.getString("route"));
+        recorded.add((int) event.getLong("bytes"));
+      }
+    }
+    assertEquals(sizes, recorded);
+  }
+}
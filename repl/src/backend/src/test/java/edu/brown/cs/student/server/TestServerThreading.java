@@ -0,0 +1,167 @@
+package edu.brown.cs.student.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import edu.brown.cs.student.main.server.Server;
+import edu.brown.cs.student.main.server.ServerOptions;
+import edu.brown.cs.student.main.sources.CensusData;
+import edu.brown.cs.student.main.sources.CensusSource;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * LOAD TEST: starts a whole Server in-process, and sends it a mix of slow /broadband requests
+ * (backed by a CensusSource that sleeps, standing in for the census API) and fast /searchcsv
+ * requests at the same time, once on a small bounded Jetty pool and once with the
+ * thread-per-request option.
+ *
+ * <p>On the bounded pool, the fast searches queue behind slow broadband calls holding every request
+ * thread. With one thread per request they should not have to wait for them to finish.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestServerThreading {
+  private static final int SLOW_MILLIS = 500;
+  private static final int SLOW_REQUESTS = 64;
+  private static final int FAST_REQUESTS = 64;
+
+  /** Request threads of the bounded pool, few enough that the slow requests fill it. */
+  private static final int BOUNDED_THREADS = 8;
+
+  private final Type mapStringObject =
+      Types.newParameterizedType(Map.class, String.class, Object.class);
+  private JsonAdapter<Map<String, Object>> adapter;
+  private CensusSource slowSource;
+  private Server server;
+
+  /** Builds a slow mock CensusSource for the Servers under test. */
+  @BeforeEach
+  public void setup() {
+    slowSource =
+        (state, county) -> {
+          try {
+            Thread.sleep(SLOW_MILLIS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return new CensusData(80.0);
+        };
+    adapter = new Moshi.Builder().build().adapter(mapStringObject);
+  }
+
+  /** Stops the last Server started, after every test. */
+  @AfterEach
+  public void tearDown() {
+    if (server != null) {
+      server.stop();
+    }
+  }
+
+  /**
+   * Helper to send a request to the Server under test and read its JSON body.
+   *
+   * @param apiCall the call string, including endpoint
+   * @return the parsed JSON body of the response
+   * @throws IOException if the connection fails for some reason
+   */
+  private Map<String, Object> request(String apiCall) throws IOException {
+    URL requestURL = new URL("http://localhost:" + server.port() + "/" + apiCall);
+    HttpURLConnection clientConnection = (HttpURLConnection) requestURL.openConnection();
+    clientConnection.connect();
+    Map<String, Object> body =
+        adapter.fromJson(new Buffer().readFrom(clientConnection.getInputStream()));
+    clientConnection.disconnect();
+    return body;
+  }
+
+  /**
+   * Starts a Server with the given options, then sends it slow /broadband and fast /searchcsv
+   * requests concurrently, and stops it.
+   *
+   * @param options the ServerOptions of the Server
+   * @return the median time a search took, in milliseconds
+   * @throws Exception if a request fails
+   */
+  private long searchMedianMillis(ServerOptions options) throws Exception {
+    server = new Server(options, slowSource);
+    assertEquals(
+        "success",
+        request("loadcsv?filepath=data/census/ri_city_town_income_us_census_2017_2021.csv")
+            .get("result"));
+
+    ExecutorService clients = Executors.newFixedThreadPool(SLOW_REQUESTS + FAST_REQUESTS);
+    List<Long> searchMillis = Collections.synchronizedList(new ArrayList<>());
+    List<Future<?>> pending = new ArrayList<>();
+    for (int i = 0; i < SLOW_REQUESTS; i++) {
+      String county = "County" + i;
+      pending.add(
+          clients.submit(
+              () -> {
+                assertEquals(
+                    "success",
+                    request("broadband?state=Rhode_Island&county=" + county).get("result"));
+                return null;
+              }));
+    }
+    // Give the slow requests a head start so they occupy request threads first
+    Thread.sleep(SLOW_MILLIS / 5);
+    for (int i = 0; i < FAST_REQUESTS; i++) {
+      pending.add(
+          clients.submit(
+              () -> {
+                long searchStart = System.nanoTime();
+                assertEquals(
+                    "success",
+                    request("searchcsv?value=Bristol&headers=true&colid=0").get("result"));
+                searchMillis.add((System.nanoTime() - searchStart) / 1_000_000);
+                return null;
+              }));
+    }
+    for (Future<?> future : pending) {
+      future.get();
+    }
+    clients.shutdown();
+    server.stop();
+    server = null;
+
+    List<Long> sorted = new ArrayList<>(searchMillis);
+    Collections.sort(sorted);
+    return sorted.get(sorted.size() / 2);
+  }
+
+  /**
+   * Checks that on a small bounded pool the searches wait behind slow broadband calls, and that
+   * with one thread per request they finish in a fraction of the time a single broadband call
+   * takes.
+   *
+   * @throws Exception if a request fails
+   */
+  @Test
+  public void testFastSearchesNotStarvedBySlowBroadband() throws Exception {
+    long bounded = searchMedianMillis(new ServerOptions(0, false, 2, BOUNDED_THREADS));
+    long perRequest = searchMedianMillis(new ServerOptions(0, true, 2));
+    assertTrue(
+        bounded >= SLOW_MILLIS / 2, "median search on the bounded pool took " + bounded + " ms");
+    assertTrue(
+        perRequest < SLOW_MILLIS / 2,
+        "median search with a thread per request took " + perRequest + " ms");
+  }
+}
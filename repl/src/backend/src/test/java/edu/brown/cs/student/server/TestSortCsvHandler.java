@@ -0,0 +1,117 @@
+package edu.brown.cs.student.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import edu.brown.cs.student.main.server.CsvDataWrapper;
+import edu.brown.cs.student.main.server.LoadCsvHandler;
+import edu.brown.cs.student.main.server.SortCsvHandler;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spark.Spark;
+
+/**
+ * INTEGRATION TEST: this class tests the SortCsvHandler class, sending real requests to the
+ * /loadcsv and /sortcsv endpoints.
+ *
+ * @author sarahridley juliazdzilowska prlakshm
+ * @version 2.0
+ */
+public class TestSortCsvHandler {
+  private static final String INCOME = "data/census/income_by_race_edited.csv";
+
+  private final Type mapStringObject =
+      Types.newParameterizedType(Map.class, String.class, Object.class);
+  private JsonAdapter<Map<String, Object>> adapter;
+
+  /** Maps /loadcsv and /sortcsv, sharing one CsvDataWrapper, before every test. */
+  @BeforeEach
+  public void setup() {
+    CsvDataWrapper csvData = new CsvDataWrapper(new ArrayList<>(), false);
+    Spark.get("/loadcsv", new LoadCsvHandler(csvData));
+    Spark.get("/sortcsv", new SortCsvHandler(csvData));
+    Spark.awaitInitialization();
+    adapter = new Moshi.Builder().build().adapter(mapStringObject);
+  }
+
+  /** Unmaps the endpoints after every test, and waits for the server to stop. */
+  @AfterEach
+  public void tearDown() {
+    Spark.unmap("/loadcsv");
+    Spark.unmap("/sortcsv");
+    Spark.awaitStop();
+  }
+
+  /**
+   * Helper to make a request and read its body as a Map.
+   *
+   * @param apiCall the call string, including endpoint
+   * @return the response body
+   * @throws IOException if the request fails
+   */
+  private Map<String, Object> request(String apiCall) throws IOException {
+    URL requestURL = new URL("http://localhost:" + Spark.port() + "/" + apiCall);
+    HttpURLConnection connection = (HttpURLConnection) requestURL.openConnection();
+    connection.connect();
+    assertEquals(200, connection.getResponseCode());
+    Map<String, Object> body = adapter.fromJson(new Buffer().readFrom(connection.getInputStream()));
+    connection.disconnect();
+    return body;
+  }
+
+  /**
+   * Tests sorting a loaded CSV by a numeric column a page at a time.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testSort() throws IOException {
+    request("loadcsv?filepath=" + INCOME);
+    Map<String, Object> body =
+        request("sortcsv?headers=true&by=Household%20Income%20by%20Race&order=desc&limit=2");
+    assertEquals("success", body.get("result"));
+    assertEquals(323.0, body.get("total"));
+    assertEquals(0.0, body.get("offset"));
+    assertEquals(2.0, body.get("limit"));
+    List<?> data = (List<?>) body.get("data");
+    assertEquals(2, data.size());
+    assertEquals("118750", ((List<?>) data.get(0)).get(4));
+
+    Map<String, Object> next =
+        request("sortcsv?headers=true&by=Household%20Income%20by%20Race&order=desc&offset=1");
+    assertEquals(data.get(1), ((List<?>) next.get("data")).get(0));
+    assertEquals(100, ((List<?>) next.get("data")).size());
+
+    List<?> years = (List<?>) request("sortcsv?headers=true&by=Year&limit=1").get("data");
+    assertEquals("2013", ((List<?>) years.get(0)).get(3));
+  }
+
+  /**
+   * Tests the errors for a missing CSV, missing parameters, an unknown order and column, and a
+   * negative limit.
+   *
+   * @throws IOException if a request fails
+   */
+  @Test
+  public void testErrors() throws IOException {
+    assertEquals("error_not_loaded", request("sortcsv?headers=true&by=Year").get("result"));
+    request("loadcsv?filepath=" + INCOME);
+    assertEquals("error_bad_request", request("sortcsv?headers=true").get("result"));
+    assertEquals(
+        "error_bad_request", request("sortcsv?headers=true&by=Year&order=up").get("result"));
+    assertEquals("error_bad_request", request("sortcsv?headers=true&by=Country").get("result"));
+    assertEquals(
+        "error_bad_request", request("sortcsv?headers=true&by=Year&limit=-1").get("result"));
+  }
+}
@@ -242,6 +242,47 @@ public class TestViewCsvHandler {
     viewConnection.disconnect();
   }
 
+  /**
+   * This test verifies that /viewcsv with a limit returns the loaded rows a page at a time,
+   * following each page's cursor until the last page, and rejects a limit below 1.
+   *
+   * @throws IOException if the connection fails for some reason
+   */
+  @Test
+  public void testViewPages() throws IOException {
+    HttpURLConnection loadConnection =
+        tryRequest("loadcsv?filepath=data/census/dol_ri_earnings_disparity.csv");
+    assertEquals(200, loadConnection.getResponseCode());
+    loadConnection.disconnect();
+
+    List<Object> rows = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      HttpURLConnection viewConnection =
+          tryRequest(cursor == null ? "viewcsv?limit=3" : "viewcsv?cursor=" + cursor);
+      Map<String, Object> viewBody =
+          adapter.fromJson(new Buffer().readFrom(viewConnection.getInputStream()));
+      showDetailsIfError(viewBody);
+      assertEquals("success", viewBody.get("result"));
+      Map<?, ?> page = (Map<?, ?>) viewBody.get("page");
+      rows.addAll((List<?>) viewBody.get("data"));
+      cursor = (String) page.get("cursor");
+      assertEquals(cursor != null, page.get("more"));
+      pages++;
+      viewConnection.disconnect();
+    } while (cursor != null);
+    assertEquals(3, pages);
+    assertEquals(7, rows.size());
+    assertEquals("Multiracial", ((List<?>) rows.get(6)).get(1));
+
+    HttpURLConnection badConnection = tryRequest("viewcsv?limit=0");
+    Map<String, Object> badBody =
+        adapter.fromJson(new Buffer().readFrom(badConnection.getInputStream()));
+    assertEquals("error_bad_request", badBody.get("result"));
+    badConnection.disconnect();
+  }
+
   /**
    * This helper method prints the details of an error message if the response body contains the
    * String "error" in the result field.